@@ -35,6 +35,7 @@ import de.doe300.activerecord.dsl.functions.Minimum;
 import de.doe300.activerecord.dsl.functions.Sum;
 import de.doe300.activerecord.dsl.functions.SumDouble;
 import de.doe300.activerecord.record.ActiveRecord;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 import javax.annotation.Nonnegative;
@@ -64,6 +65,28 @@ public interface AggregateMethods<T extends ActiveRecord> extends FinderMethods<
 	@Nullable
 	public <C, R> R aggregate(@Nonnull final AggregateFunction<T, C, ?, R> aggregateFunction, @Nullable final Condition condition);
 	
+	/**
+	 * Aggregates all records with all the given functions.
+	 * 
+	 * Implementations should compute all aggregated values at once, e.g. within a single SQL-query or a single pass over the records
+	 * 
+	 * @param condition an optional condition
+	 * @param aggregateFunctions the aggregate-functions to be applied
+	 * @return the results, in the order of the given functions
+	 * @see #aggregate(de.doe300.activerecord.dsl.AggregateFunction, de.doe300.activerecord.dsl.Condition) 
+	 * @since 0.9
+	 */
+	@Nonnull
+	public default Object[] aggregateAll(@Nullable final Condition condition, @Nonnull final List<AggregateFunction<T, ?, ?, ?>> aggregateFunctions)
+	{
+		final Object[] results = new Object[aggregateFunctions.size()];
+		for(int i = 0; i < results.length; i++)
+		{
+			results[i] = aggregate( aggregateFunctions.get( i), condition );
+		}
+		return results;
+	}
+	
 	/**
 	 * @param <C> the column-type
 	 * @param columnName the name of the column to aggregate
@@ -25,11 +25,15 @@
 package de.doe300.activerecord;
 
 import de.doe300.activerecord.dsl.AggregateFunction;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.CheckReturnValue;
@@ -57,7 +61,7 @@ import de.doe300.activerecord.store.RecordStore;
 import de.doe300.activerecord.record.validation.ValidatedRecord;
 import de.doe300.activerecord.record.validation.ValidationException;
 import de.doe300.activerecord.store.JDBCRecordStore;
-import java.util.Collections;
+import de.doe300.activerecord.util.SoftValueMap;
 import java.util.Objects;
 import java.util.SortedMap;
 import java.util.function.Function;
@@ -76,8 +80,11 @@ public abstract class RecordBase<T extends ActiveRecord> implements ReadOnlyReco
 	protected final RecordCore core;
 	@Nonnull
 	protected final RecordStore store;
+	/**
+	 * The record-objects already created, held softly to allow for unused records to be garbage-collected
+	 */
 	@Nonnull
-	protected final SortedMap<Integer, T> records;
+	protected final SoftValueMap<Integer, T> records;
 	@Nullable
 	protected final SortedMap<String, RecordBase<T>> shards;
 
@@ -98,7 +105,7 @@ public abstract class RecordBase<T extends ActiveRecord> implements ReadOnlyReco
 		this.recordType = recordType;
 		this.core = core;
 		this.store = store;
-		this.records = Collections.synchronizedSortedMap( new TreeMap<>());
+		this.records = new SoftValueMap<>();
 		this.shards = new TreeMap<>();
 	}
 	
@@ -114,7 +121,7 @@ public abstract class RecordBase<T extends ActiveRecord> implements ReadOnlyReco
 		this.core = origBase.core;
 		this.store = origBase.store;
 		this.tableName = tableName;
-		this.records = Collections.synchronizedSortedMap( new TreeMap<>());
+		this.records = new SoftValueMap<>();
 		//disallow creating shards from shards
 		this.shards = null;
 	}
@@ -302,6 +309,34 @@ public abstract class RecordBase<T extends ActiveRecord> implements ReadOnlyReco
 		return record;
 	}
 
+	/**
+	 * Retrieves the record for a row which was just read from the underlying record-store.
+	 * 
+	 * In contrast to {@link #getRecord(int)}, the existence of the record is not checked again, 
+	 * since the row-data was read from the record-store and therefore proves the existence of the record.
+	 * 
+	 * @param rowData the row-data, must contain the {@link #getPrimaryColumn() primary key}
+	 * @return the record for the given row
+	 * @throws RecordException
+	 * @since 0.9
+	 */
+	@Nonnull
+	protected T getRecordForRow(@Nonnull final Map<String, Object> rowData) throws RecordException
+	{
+		final int primaryKey = ((Number)rowData.get( getPrimaryColumn())).intValue();
+		T record = records.get( primaryKey );
+		if(record == null)
+		{
+			record = createProxy(primaryKey, false, rowData);
+			records.put( primaryKey, record );
+			if(hasCallbacks())
+			{
+				((RecordCallbacks)record).afterLoad();
+			}
+		}
+		return record;
+	}
+
 	/**
 	 * This method creates a new entry in the underlying record-store
 	 *
@@ -372,6 +407,44 @@ public abstract class RecordBase<T extends ActiveRecord> implements ReadOnlyReco
 		return record;
 	}
 
+	/**
+	 * This method creates multiple new entries in the underlying record-store at once.
+	 * <p>
+	 * Other than calling {@link #createRecord(java.util.Map) } for every entry, this method allows the record-store
+	 * to insert all rows in bulk.
+	 * </p>
+	 * @param data the row-data for the new records
+	 * @return the newly created records, in the order of the given row-data
+	 * @throws RecordException
+	 * @see #createRecord(java.util.Map) 
+	 * @since 0.9
+	 */
+	@Nonnull
+	public List<T> createRecords(@Nonnull final Stream<Map<String,Object>> data) throws RecordException
+	{
+		final List<Map<String, Object>> rows = data.map( (final Map<String, Object> row) ->
+		{
+			final Map<String, Object> copy = new HashMap<>(row);
+			//just to make sure, ID is not overridden
+			copy.remove( getPrimaryColumn());
+			return copy;
+		}).collect( Collectors.toList());
+		final int[] keys = store.insertNewRecords( this, rows );
+		final List<T> createdRecords = new ArrayList<>(keys.length);
+		for(int i = 0; i < keys.length; i++)
+		{
+			final T record = createProxy(keys[i], true, rows.get( i));
+			records.put( keys[i], record );
+			if(hasCallbacks())
+			{
+				((RecordCallbacks)record).afterCreate();
+			}
+			core.fireRecordEvent( RecordListener.RecordEvent.RECORD_CREATED, this, record );
+			createdRecords.add( record );
+		}
+		return createdRecords;
+	}
+
 	/**
 	 * Note: it is not the job of the {@link #createProxy(int, boolean, java.util.Map) }-method to store the recordData.
 	 * @param primaryKey
@@ -505,11 +578,28 @@ public abstract class RecordBase<T extends ActiveRecord> implements ReadOnlyReco
 	@Nonnull
 	public Stream<T> findWithScope(@Nonnull final Scope scope)
 	{
-		return getStore().streamAll(this, scope ).map( (final Integer i) ->
+		return findWithScope( scope, getDefaultColumns() );
+	}
+
+	/**
+	 * Hydrating version of {@link #findWithScope(de.doe300.activerecord.scope.Scope) }.
+	 * 
+	 * The single query retrieving the matching rows also loads the given <code>columns</code>, which are written into the
+	 * cache of {@link RecordStore#isCached() caching} record-stores. No additional query is executed per record.
+	 * 
+	 * @param scope the scope to match
+	 * @param columns the columns to load, the primary column is always loaded
+	 * @return the stream of results
+	 * @since 0.9
+	 */
+	@Nonnull
+	public Stream<T> findWithScope(@Nonnull final Scope scope, @Nonnull final String[] columns)
+	{
+		return getStore().streamAllWithData(this, columns, scope ).map( (final Map<String, Object> row) ->
 		{
 			try
 			{
-				return getRecord( i);
+				return getRecordForRow( row );
 			}
 			catch ( final Exception ex )
 			{
@@ -522,12 +612,12 @@ public abstract class RecordBase<T extends ActiveRecord> implements ReadOnlyReco
 	@Nullable
 	public T findFirstWithScope(@Nonnull final Scope scope)
 	{
-		final Integer key = getStore().findFirst(this, scope );
-		if(key!=null)
+		final Map<String, Object> row = getStore().findFirstWithData(this, getDefaultColumns(), scope );
+		if(!row.isEmpty())
 		{
 			try
 			{
-				return getRecord(key );
+				return getRecordForRow( row );
 			}
 			catch ( final Exception ex )
 			{
@@ -549,6 +639,12 @@ public abstract class RecordBase<T extends ActiveRecord> implements ReadOnlyReco
 		return getStore().aggregate( this, aggregateFunction, condition);
 	}
 
+	@Override
+	public Object[] aggregateAll( @Nullable final Condition condition, final List<AggregateFunction<T, ?, ?, ?>> aggregateFunctions )
+	{
+		return getStore().aggregateAll( this, aggregateFunctions.toArray( new AggregateFunction<?, ?, ?, ?>[aggregateFunctions.size()]), condition);
+	}
+
 	////
 	// Query-Methods
 	////
@@ -557,14 +653,14 @@ public abstract class RecordBase<T extends ActiveRecord> implements ReadOnlyReco
 	@Nonnull
 	public QueryResult<T> where(@Nullable final Condition condition )
 	{
-		return new QueryResult<T>(find( condition), count( condition ) ,getDefaultOrder());
+		return new QueryResult<T>(this, new Scope(condition, null, Scope.NO_LIMIT), getDefaultOrder());
 	}
 
 	@Override
 	@Nonnull
 	public QueryResult<T> withScope(@Nonnull final Scope scope)
 	{
-		return new QueryResult<T>(findWithScope( scope), Math.min(scope.getLimit(), count( scope.getCondition())), scope.getOrder()!= null ? scope.getOrder() : getDefaultOrder());
+		return new QueryResult<T>(this, scope, scope.getOrder()!= null ? scope.getOrder() : getDefaultOrder());
 	}
 
 	////
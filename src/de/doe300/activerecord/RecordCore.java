@@ -37,12 +37,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.sql.DataSource;
 
 import de.doe300.activerecord.logging.Logging;
+import de.doe300.activerecord.pojo.GeneratedBase;
 import de.doe300.activerecord.pojo.POJOBase;
 import de.doe300.activerecord.pojo.SingleInheritanceBase;
+import de.doe300.activerecord.pojo.generation.GeneratedRecords;
+import de.doe300.activerecord.pojo.generation.RecordFactory;
+import de.doe300.activerecord.pojo.generation.RecordImplementationGenerator;
 import de.doe300.activerecord.proxy.ProxyBase;
 import de.doe300.activerecord.proxy.handlers.CollectionHandler;
 import de.doe300.activerecord.proxy.handlers.MapHandler;
@@ -55,6 +61,7 @@ import de.doe300.activerecord.record.validation.Validates;
 import de.doe300.activerecord.record.validation.ValidationHandler;
 import de.doe300.activerecord.store.RecordStore;
 import de.doe300.activerecord.store.impl.CachedJDBCRecordStore;
+import de.doe300.activerecord.store.impl.PooledJDBCRecordStore;
 import de.doe300.activerecord.store.impl.SimpleJDBCRecordStore;
 import de.doe300.activerecord.store.impl.memory.MemoryRecordStore;
 
@@ -99,6 +106,30 @@ public final class RecordCore implements AutoCloseable
 		return core;
 	}
 
+	/**
+	 * Returns an existing or a new RecordCore with a pool of connections to the underlying database as source.
+	 * Other than {@link #fromDatabase(java.sql.Connection, boolean) }, the created core can be accessed by multiple threads concurrently.
+	 * @param name
+	 * @param dataSource the data-source to retrieve the connections from
+	 * @param poolSize the maximum number of connections to open
+	 * @return the existing or newly created RecordCore
+	 * @throws SQLException
+	 * @since 0.9
+	 * @see PooledJDBCRecordStore
+	 */
+	@Nonnull
+	public static RecordCore fromDataSource(@Nonnull final String name, @Nonnull final DataSource dataSource, @Nonnegative final int poolSize) throws SQLException
+	{
+		RecordCore core = RecordCore.cores.get( name );
+		if(core==null)
+		{
+			core = new RecordCore(new PooledJDBCRecordStore(dataSource, poolSize));
+			RecordCore.cores.put( name, core );
+			Logging.getLogger().info( "RecordCore", "registered new pooled record-core for data-source: "+name);
+		}
+		return core;
+	}
+
 	/**
 	 * @param name
 	 * @return the existing or newly created RecordCore
@@ -183,6 +214,9 @@ public final class RecordCore implements AutoCloseable
 
 	/**
 	 * Creates a new base for this type if none already exists.
+	 * 
+	 * For interface record-types, the implementation generated by the {@link RecordImplementationGenerator} is preferred
+	 * over a proxy-based implementation, if it is available and no {@link ProxyHandler} is required.
 	 * @param <T>
 	 * @param type
 	 * @param additionalHandlers
@@ -197,7 +231,17 @@ public final class RecordCore implements AutoCloseable
 		{
 			if(type.isInterface())
 			{
-				base = new ProxyBase<T>(Proxy.getProxyClass( type.getClassLoader(), type).asSubclass( type ), type, RecordCore.mergeHandlers( type, additionalHandlers ), store, this);
+				final ProxyHandler[] handlers = RecordCore.mergeHandlers( type, additionalHandlers );
+				//generated implementations can't use proxy-handlers
+				final RecordFactory<T> factory = handlers.length == 0 ? GeneratedRecords.getFactory( type ) : null;
+				if(factory != null)
+				{
+					base = new GeneratedBase<T>(type, factory, this, store);
+				}
+				else
+				{
+					base = new ProxyBase<T>(Proxy.getProxyClass( type.getClassLoader(), type).asSubclass( type ), type, handlers, store, this);
+				}
 			}
 			else if(type.isAnnotationPresent( SingleTableInheritance.class))
 			{
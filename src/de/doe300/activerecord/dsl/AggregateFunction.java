@@ -24,8 +24,12 @@
  */
 package de.doe300.activerecord.dsl;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
@@ -54,6 +58,8 @@ public abstract class AggregateFunction<T extends ActiveRecord, C, V extends Mut
 	private final String command;
 	protected final Function<T, C> columnFunction;
 	private final Object column;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	protected AggregateFunction(@Nonnull final String command, @Nonnull final String columnName,
 		@Nonnull final Function<T, C> columnFunction)
@@ -73,6 +79,20 @@ public abstract class AggregateFunction<T extends ActiveRecord, C, V extends Mut
 	@Nonnull
 	@Override
 	public String toSQL(final JDBCDriver driver, @Nullable final String tableName)
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	/**
+	 * Renders the SQL-representation of this function, the result is memoized by 
+	 * {@link #toSQL(de.doe300.activerecord.jdbc.driver.JDBCDriver, java.lang.String) }
+	 * @param driver the driver to be used for vendor-specific commands
+	 * @param tableName the name of the table to apply this function to
+	 * @return the SQL representation of this function
+	 * @since 0.9
+	 */
+	@Nonnull
+	protected String renderSQL(@Nonnull final JDBCDriver driver, @Nullable final String tableName)
 	{
 		final String arg;
 		if(column instanceof SQLFunction)
@@ -95,6 +115,16 @@ public abstract class AggregateFunction<T extends ActiveRecord, C, V extends Mut
 	{
 		return column instanceof SQLFunction ? ((SQLFunction)column).getAttributeName() : (String)column;
 	}
+
+	/**
+	 * @return the name of the column aggregated or <code>null</code>, if the values are computed by another function
+	 * @since 0.9
+	 */
+	@Nullable
+	public String getColumnName()
+	{
+		return column instanceof String ? (String)column : null;
+	}
 	
 	/**
 	 * @param dataMaps
@@ -135,6 +165,55 @@ public abstract class AggregateFunction<T extends ActiveRecord, C, V extends Mut
 		return Collections.singleton( Characteristics.UNORDERED);
 	}
 
+	/**
+	 * Combines the given aggregate-functions into a single collector, which computes all aggregated values in one pass
+	 * 
+	 * @param <T> the record-type
+	 * @param functions the aggregate-functions to combine
+	 * @return a collector computing the results of all functions, in the order of the given functions
+	 * @since 0.9
+	 */
+	@Nonnull
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static <T extends ActiveRecord> Collector<T, Object[], Object[]> combine(@Nonnull final List<AggregateFunction<T, ?, ?, ?>> functions)
+	{
+		final int numFunctions = functions.size();
+		final Supplier<?>[] suppliers = new Supplier<?>[numFunctions];
+		final BiConsumer<Object, T>[] accumulators = new BiConsumer[numFunctions];
+		final BinaryOperator<Object>[] combiners = new BinaryOperator[numFunctions];
+		final Function<Object, Object>[] finishers = new Function[numFunctions];
+		for(int i = 0; i < numFunctions; i++)
+		{
+			final AggregateFunction<T, ?, ?, ?> func = functions.get( i);
+			suppliers[i] = func.supplier();
+			accumulators[i] = (BiConsumer<Object, T>)func.accumulator();
+			combiners[i] = (BinaryOperator<Object>)func.combiner();
+			finishers[i] = (Function<Object, Object>)func.finisher();
+		}
+		return Collector.of( () -> Arrays.stream( suppliers).map( Supplier::get).toArray(), 
+			(final Object[] states, final T record) -> {
+				for(int i = 0; i < numFunctions; i++)
+				{
+					accumulators[i].accept( states[i], record);
+				}
+			}, 
+			(final Object[] states1, final Object[] states2) -> {
+				for(int i = 0; i < numFunctions; i++)
+				{
+					states1[i] = combiners[i].apply( states1[i], states2[i]);
+				}
+				return states1;
+			}, 
+			(final Object[] states) -> {
+				final Object[] results = new Object[numFunctions];
+				for(int i = 0; i < numFunctions; i++)
+				{
+					results[i] = finishers[i].apply( states[i]);
+				}
+				return results;
+			}, Characteristics.UNORDERED);
+	}
+
 	@Override
 	public R apply( final Map<String, Object> map )
 	{
@@ -39,13 +39,18 @@ import de.doe300.activerecord.record.ActiveRecord;
  * Class for SQL cond1 AND cond2 AND cond3 ... conditions
  * @author doe300
  */
-class AndCondition implements Condition
+public class AndCondition implements Condition
 {
 	private final Condition[] conditions;
+	@Nonnull
+	private final Object[] values;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	AndCondition(final Condition[] conditions )
 	{
 		this.conditions = conditions;
+		this.values = collectValues( conditions );
 	}
 	
 	@Override
@@ -63,6 +68,12 @@ class AndCondition implements Condition
 
 	@Override
 	public Object[] getValues()
+	{
+		return values;
+	}
+
+	@Nonnull
+	private static Object[] collectValues(@Nonnull final Condition[] conditions)
 	{
 		final List<Object> values = new ArrayList<>(conditions.length);
 		for(final Condition cond:conditions)
@@ -101,8 +112,35 @@ class AndCondition implements Condition
 		return true;
 	}
 
+	@Override
+	public RowPredicate compile(@Nonnull final ColumnLayout layout)
+	{
+		final RowPredicate[] predicates = new RowPredicate[conditions.length];
+		for(int i = 0; i < conditions.length; i++)
+		{
+			predicates[i] = conditions[i].compile( layout );
+		}
+		return (final RowValues row) ->
+		{
+			for(final RowPredicate predicate : predicates)
+			{
+				if(!predicate.test( row ))
+				{
+					return false;
+				}
+			}
+			return true;
+		};
+	}
+
 	@Override
 	public String toSQL(@Nonnull final JDBCDriver driver, final String tableName)
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	@Nonnull
+	private String renderSQL(@Nonnull final JDBCDriver driver, final String tableName)
 	{
 		return "("+ Arrays.stream( conditions ).map( (final Condition c) -> c.toSQL(driver, tableName) ).collect( Collectors.joining( ") AND ("))+")";
 	}
@@ -123,8 +161,12 @@ class AndCondition implements Condition
 		return toSQL( JDBCDriver.DEFAULT, null ).hashCode();
 	}
 	
+	/**
+	 * NOTE: the returned array must not be modified
+	 * @return the combined conditions
+	 */
 	@Nonnull
-	Condition[] getConditions()
+	public Condition[] getConditions()
 	{
 		return conditions;
 	}
@@ -47,6 +47,8 @@ public class BelongsToCondition implements Condition
 	private final Condition associatedTableCond;
 	@Nonnull
 	private final ReadOnlyRecordBase<?> associatedTableBase;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	/**
 	 *
@@ -95,6 +97,12 @@ public class BelongsToCondition implements Condition
 
 	@Override
 	public String toSQL(@Nonnull final JDBCDriver driver, final String tableName)
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	@Nonnull
+	private String renderSQL(@Nonnull final JDBCDriver driver, final String tableName)
 	{
 		String associatedTableName = JDBCDriver.getNextTableIdentifier( tableName );
 		//foreignKey IN(SELECT associatedKey FROM associatedTable WHERE cond)
@@ -0,0 +1,52 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.dsl;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Maps the column-names of a data-set to the slots of its rows.
+ * 
+ * The slots are resolved once, when a {@link Condition} is {@link Condition#compile(ColumnLayout) compiled}, and 
+ * are then used to access the {@link RowValues values} of every row.
+ * 
+ * @author doe300
+ * @since 0.9
+ * @see Condition#compile(ColumnLayout) 
+ */
+@FunctionalInterface
+public interface ColumnLayout
+{
+	/**
+	 * The slot returned for columns not existing in this layout
+	 */
+	public static final int NO_SLOT = -1;
+
+	/**
+	 * @param columnName the name of the column
+	 * @return the slot of the column or {@link #NO_SLOT}, if the layout does not contain this column
+	 */
+	public int getSlot(@Nonnull final String columnName);
+}
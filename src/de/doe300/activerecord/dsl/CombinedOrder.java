@@ -26,8 +26,13 @@ package de.doe300.activerecord.dsl;
 
 import de.doe300.activerecord.jdbc.driver.JDBCDriver;
 import de.doe300.activerecord.record.ActiveRecord;
+import de.doe300.activerecord.store.DBDriver;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -40,6 +45,8 @@ import javax.annotation.Nullable;
 class CombinedOrder implements Order
 {
 	private final Order[] orders;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 
 	/**
@@ -52,6 +59,12 @@ class CombinedOrder implements Order
 	
 	@Override
 	public String toSQL( JDBCDriver driver, @Nullable final String tableName )
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	@Nonnull
+	private String renderSQL( JDBCDriver driver, @Nullable final String tableName )
 	{
 		return Arrays.stream( orders ).map( (Order o) -> o.toSQL( driver, tableName)).collect( Collectors.joining(", "));
 	}
@@ -80,6 +93,47 @@ class CombinedOrder implements Order
 		return compare;
 	}
 
+	@Override
+	public String[] getColumnNames()
+	{
+		final Set<String> columns = new LinkedHashSet<>(orders.length * 2);
+		for(final Order order : orders)
+		{
+			final String[] orderColumns = order.getColumnNames();
+			if(orderColumns == null)
+			{
+				return null;
+			}
+			columns.addAll( Arrays.asList( orderColumns));
+		}
+		return columns.toArray( new String[columns.size()]);
+	}
+
+	@Override
+	public Condition toKeysetCondition( final Map<String, Object> lastRow, final DBDriver driver )
+	{
+		final List<Condition> alternatives = new ArrayList<>(orders.length);
+		final List<Condition> equalPrefix = new ArrayList<>(orders.length);
+		for(final Order order : orders)
+		{
+			final Condition after = order.toKeysetCondition( lastRow, driver );
+			final String[] orderColumns = order.getColumnNames();
+			if(after == null || orderColumns == null)
+			{
+				return null;
+			}
+			final List<Condition> alternative = new ArrayList<>(equalPrefix);
+			alternative.add( after );
+			alternatives.add( Conditions.and( alternative ));
+			for(final String column : orderColumns)
+			{
+				final Object value = lastRow.get( column );
+				equalPrefix.add( value == null ? Conditions.isNull( column ) : Conditions.is( column, value));
+			}
+		}
+		return Conditions.or( alternatives );
+	}
+
 	@Override
 	public int compare( ActiveRecord o1, ActiveRecord o2 )
 	{
@@ -77,6 +77,27 @@ public interface Condition extends Predicate<ActiveRecord>
 	 */
 	public boolean test(@Nonnull final Map<String, Object> map);
 
+	/**
+	 * Compiles this condition into a predicate for rows of the given layout.
+	 * The resulting predicate can be re-used for any number of rows with this layout.
+	 *
+	 * The default implementation tests the {@link RowValues#getRecord() record} or the
+	 * {@link RowValues#asMap() column-map} of every row.
+	 *
+	 * @param layout the layout of the rows to test
+	 * @return the compiled predicate
+	 * @since 0.9
+	 */
+	@Nonnull
+	public default RowPredicate compile(@Nonnull final ColumnLayout layout)
+	{
+		return (final RowValues row) ->
+		{
+			final ActiveRecord record = row.getRecord();
+			return record != null ? test( record ) : test( row.asMap());
+		};
+	}
+
 	/**
 	 * @return the negated Condition
 	 * @see Predicate#negate() 
@@ -137,6 +158,10 @@ public interface Condition extends Predicate<ActiveRecord>
 		{
 			return false;
 		}
+		if(condition == this)
+		{
+			return true;
+		}
 		return toSQL( JDBCDriver.DEFAULT, null ).equals( condition.toSQL( JDBCDriver.DEFAULT, null));
 	}
 }
\ No newline at end of file
@@ -24,8 +24,11 @@
  */
 package de.doe300.activerecord.dsl;
 
+import java.util.Iterator;
+import java.util.List;
 import java.util.stream.Stream;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -40,7 +43,7 @@ import de.doe300.activerecord.scope.Scope;
  */
 public class GroupResult<R, T extends ActiveRecord> implements QueryMethods<T>, AutoCloseable
 {
-	@Nonnull
+	@Nullable
 	private final R key;
 	@Nonnull
 	private final Stream<T> baseStream;
@@ -48,16 +51,29 @@ public class GroupResult<R, T extends ActiveRecord> implements QueryMethods<T>,
 	private final Order order;
 
 	/**
-	 * @param key the value this group has in common
+	 * @param key the value this group has in common, may be <code>null</code>
 	 * @param baseStream the elements in this group
 	 * @param size the getEstimatedSize of the group
 	 * @param order the ordering of the elements
 	 */
-	public GroupResult(@Nonnull final R key, @Nonnull final Stream<T> baseStream, final int size,
+	public GroupResult(@Nullable final R key, @Nonnull final Stream<T> baseStream, final int size,
 		@Nullable final Order order)
+	{
+		this(key, baseStream, size, order, false);
+	}
+	
+	/**
+	 * @param key the value this group has in common, may be <code>null</code>
+	 * @param baseStream the elements in this group
+	 * @param size the getEstimatedSize of the group
+	 * @param order the ordering of the elements
+	 * @param isSorted whether the elements are already sorted by the given order
+	 */
+	GroupResult(@Nullable final R key, @Nonnull final Stream<T> baseStream, final int size,
+		@Nullable final Order order, final boolean isSorted)
 	{
 		this.key = key;
-		this.baseStream = order!=null? baseStream.sorted( order) : baseStream;
+		this.baseStream = order != null && !isSorted ? Orders.sortRecords( baseStream, order) : baseStream;
 		this.size = size;
 		this.order = order;
 	}
@@ -71,6 +87,7 @@ public class GroupResult<R, T extends ActiveRecord> implements QueryMethods<T>,
 	/**
 	 * @return the key, all elements in this group have in common
 	 */
+	@Nullable
 	public R getKey()
 	{
 		return key;
@@ -84,19 +101,32 @@ public class GroupResult<R, T extends ActiveRecord> implements QueryMethods<T>,
 		Order sorting = order;
 		if(scope.getCondition()!=null)
 		{
-			stream = stream.filter( scope.getCondition()::test);
+			stream = stream.filter( RecordLayout.compile( scope.getCondition()));
+		}
+		if(scope.getOrder() != null)
+		{
+			stream = Orders.sortRecords( stream, scope.getOrder());
+			sorting = scope.getOrder();
 		}
 		if(scope.getLimit() != Scope.NO_LIMIT)
 		{
 			stream = stream.limit( scope.getLimit());
 			limit = Math.min( limit, scope.getLimit());
 		}
-		if(scope.getOrder() != null)
-		{
-			stream = stream.sorted( scope.getOrder());
-			sorting = scope.getOrder();
-		}
-		return new QueryResult<T>(stream, limit, sorting );
+		return new QueryResult<T>(stream, limit, sorting, true );
+	}
+
+	/**
+	 * Groups are backed by a stream and can therefore not be paged
+	 * 
+	 * @param pageSize
+	 * @return nothing
+	 * @throws IllegalStateException always
+	 */
+	@Override
+	public Iterator<List<T>> pages( @Nonnegative final int pageSize ) throws IllegalStateException
+	{
+		throw new IllegalStateException("Groups are backed by a stream and can't be paged");
 	}
 
 	@Override
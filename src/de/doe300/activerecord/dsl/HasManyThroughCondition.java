@@ -68,6 +68,8 @@ public class HasManyThroughCondition implements Condition
 	private final ReadOnlyRecordBase<?> associatedBase, thisBase;
 	@Nonnull
 	private final Condition associatedBaseCondition;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	/**
 	 * @param thisBase the RecordBase for this table
@@ -133,6 +135,12 @@ public class HasManyThroughCondition implements Condition
 
 	@Override
 	public String toSQL( final JDBCDriver driver, final String tableName )
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	@Nonnull
+	private String renderSQL( final JDBCDriver driver, final String tableName )
 	{
 		String associatedTableName = JDBCDriver.getNextTableIdentifier( tableName );
 		String associationTableName = JDBCDriver.getNextTableIdentifier( associatedTableName);
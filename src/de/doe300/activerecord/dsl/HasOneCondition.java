@@ -47,6 +47,8 @@ public class HasOneCondition implements Condition
 	private final String associatedTableForeignKeyColumn;
 	@Nonnull
 	private final Condition associatedTableCond;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	/**
 	 *
@@ -80,6 +82,12 @@ public class HasOneCondition implements Condition
 
 	@Override
 	public String toSQL(final JDBCDriver driver, final String tableName)
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	@Nonnull
+	private String renderSQL(final JDBCDriver driver, final String tableName)
 	{
 		String tableID = tableName != null ? tableName + "." : "";
 		String associatedTableName = JDBCDriver.getNextTableIdentifier( tableName );
@@ -41,6 +41,8 @@ class InvertedCondition implements Condition
 {
 	@Nonnull
 	private final Condition invertedCondition;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	InvertedCondition(@Nonnull final Condition invertedCondition)
 	{
@@ -71,8 +73,21 @@ class InvertedCondition implements Condition
 		return !invertedCondition.test( map );
 	}
 
+	@Override
+	public RowPredicate compile(@Nonnull final ColumnLayout layout)
+	{
+		final RowPredicate predicate = invertedCondition.compile( layout );
+		return (final RowValues row) -> !predicate.test( row );
+	}
+
 	@Override
 	public String toSQL( final JDBCDriver driver, final String tableName )
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	@Nonnull
+	private String renderSQL( final JDBCDriver driver, final String tableName )
 	{
 		return "NOT("+invertedCondition.toSQL( driver, tableName )+")";
 	}
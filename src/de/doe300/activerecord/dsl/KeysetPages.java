@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.dsl;
+
+import de.doe300.activerecord.FinderMethods;
+import de.doe300.activerecord.record.ActiveRecord;
+import de.doe300.activerecord.scope.Scope;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Lazily retrieves the records page by page using keyset-pagination. 
+ * Every page is queried with the condition to only return the records ordered after the last record of the previous page.
+ * 
+ * To guarantee a unique order, the primary key is appended to the order, if not already contained.
+ * If the order can't be converted to a keyset-condition, all remaining records are retrieved once and split into pages in memory.
+ *
+ * @author doe300
+ * @param <T> the type of the records
+ * @since 0.9
+ * @see Order#toKeysetCondition(java.util.Map, de.doe300.activerecord.store.DBDriver) 
+ */
+class KeysetPages<T extends ActiveRecord> implements Iterator<List<T>>
+{
+	@Nonnull
+	private final FinderMethods<T> source;
+	@Nullable
+	private final Order order;
+	@Nonnegative
+	private final int pageSize;
+	private Order pageOrder;
+	private T lastRecord;
+	private Map<String, Object> lastRow;
+	/**
+	 * The remaining records, if the order can't be used for keyset-pagination
+	 */
+	private Iterator<T> remainingRecords;
+	private List<T> nextPage;
+	private boolean finished = false;
+
+	KeysetPages(@Nonnull final FinderMethods<T> source, @Nullable final Order order, @Nonnegative final int pageSize)
+	{
+		if(pageSize < 1)
+		{
+			throw new IllegalArgumentException("Invalid page-size: " + pageSize);
+		}
+		this.source = source;
+		this.order = order;
+		this.pageSize = pageSize;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if(nextPage == null && !finished)
+		{
+			nextPage = fetchNextPage();
+			if(nextPage.isEmpty())
+			{
+				nextPage = null;
+				finished = true;
+			}
+		}
+		return nextPage != null;
+	}
+
+	@Override
+	public List<T> next()
+	{
+		if(!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		final List<T> page = nextPage;
+		nextPage = null;
+		if(page.size() < pageSize)
+		{
+			finished = true;
+		}
+		return page;
+	}
+
+	@Nonnull
+	private List<T> fetchNextPage()
+	{
+		final List<T> page;
+		if(pageOrder == null)
+		{
+			//the base of the records, and therefore the primary key, is only known after the first record is found
+			final T first;
+			try(final Stream<T> records = source.findWithScope( new Scope(null, order, 1)))
+			{
+				first = records.findFirst().orElse( null);
+			}
+			if(first == null)
+			{
+				return Collections.emptyList();
+			}
+			pageOrder = toUniqueOrder( order, first.getBase().getPrimaryColumn());
+			page = fetch( new Scope(null, pageOrder, pageSize));
+		}
+		else if(remainingRecords != null)
+		{
+			page = nextRemaining();
+		}
+		else
+		{
+			final Condition keysetCondition = lastRow == null ? null : 
+					pageOrder.toKeysetCondition( lastRow, lastRecord.getBase().getStore().getDriver() );
+			if(keysetCondition != null)
+			{
+				page = fetch( new Scope(keysetCondition, pageOrder, pageSize));
+			}
+			else
+			{
+				//fall back to retrieving all records after the ones already returned once, in the order of the store
+				final List<T> records = fetch( new Scope(null, pageOrder, Scope.NO_LIMIT));
+				int index = 0;
+				while(index < records.size() && records.get( index ).getPrimaryKey() != lastRecord.getPrimaryKey())
+				{
+					index++;
+				}
+				remainingRecords = records.subList( Math.min( index + 1, records.size()), records.size()).iterator();
+				page = nextRemaining();
+			}
+		}
+		if(!page.isEmpty() && remainingRecords == null)
+		{
+			lastRecord = page.get( page.size() - 1);
+			final String[] columns = pageOrder.getColumnNames();
+			lastRow = columns == null ? null : lastRecord.getBase().getStore().getValues( lastRecord.getBase(), lastRecord.getPrimaryKey(), columns);
+		}
+		return page;
+	}
+
+	@Nonnull
+	private List<T> nextRemaining()
+	{
+		final List<T> page = new ArrayList<>(pageSize);
+		while(page.size() < pageSize && remainingRecords.hasNext())
+		{
+			page.add( remainingRecords.next());
+		}
+		return page;
+	}
+
+	@Nonnull
+	private List<T> fetch(@Nonnull final Scope scope)
+	{
+		try(final Stream<T> records = source.findWithScope( scope ))
+		{
+			return records.collect( Collectors.toList());
+		}
+	}
+
+	@Nonnull
+	private static Order toUniqueOrder(@Nullable final Order order, @Nonnull final String primaryColumn)
+	{
+		if(order == null)
+		{
+			return Orders.sortAscending( primaryColumn );
+		}
+		final String[] columns = order.getColumnNames();
+		if(columns != null && Arrays.stream( columns).anyMatch( primaryColumn::equalsIgnoreCase))
+		{
+			return order;
+		}
+		return order.thenComparing( Orders.sortAscending( primaryColumn));
+	}
+}
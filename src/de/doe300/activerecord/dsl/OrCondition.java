@@ -37,13 +37,18 @@ import javax.annotation.Nonnull;
  * Grouped Condition, returning <code>true</code> if any of the children conditions returns <code>true</code>
  * @author doe300
  */
-class OrCondition implements Condition
+public class OrCondition implements Condition
 {
 	private final Condition[] conditions;
+	@Nonnull
+	private final Object[] values;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	OrCondition( Condition[] conditions )
 	{
 		this.conditions = conditions;
+		this.values = collectValues( conditions );
 	}
 	
 	@Override
@@ -61,6 +66,12 @@ class OrCondition implements Condition
 
 	@Override
 	public Object[] getValues()
+	{
+		return values;
+	}
+
+	@Nonnull
+	private static Object[] collectValues(@Nonnull final Condition[] conditions)
 	{
 		List<Object> values = new ArrayList<>(conditions.length);
 		for(Condition cond:conditions)
@@ -99,8 +110,35 @@ class OrCondition implements Condition
 		return false;
 	}
 
+	@Override
+	public RowPredicate compile(@Nonnull final ColumnLayout layout)
+	{
+		final RowPredicate[] predicates = new RowPredicate[conditions.length];
+		for(int i = 0; i < conditions.length; i++)
+		{
+			predicates[i] = conditions[i].compile( layout );
+		}
+		return (final RowValues row) ->
+		{
+			for(final RowPredicate predicate : predicates)
+			{
+				if(predicate.test( row ))
+				{
+					return true;
+				}
+			}
+			return false;
+		};
+	}
+
 	@Override
 	public String toSQL(final JDBCDriver driver, final String tableName)
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	@Nonnull
+	private String renderSQL(final JDBCDriver driver, final String tableName)
 	{
 		return "("+ Arrays.stream( conditions ).map( (Condition c) -> c.toSQL(driver, tableName) ).collect( Collectors.joining( ") OR ("))+")";
 	}
@@ -121,8 +159,12 @@ class OrCondition implements Condition
 		return toSQL( JDBCDriver.DEFAULT, null ).hashCode();
 	}
 	
+	/**
+	 * NOTE: the returned array must not be modified
+	 * @return the combined conditions
+	 */
 	@Nonnull
-	Condition[] getConditions()
+	public Condition[] getConditions()
 	{
 		return conditions;
 	}
@@ -26,6 +26,7 @@ package de.doe300.activerecord.dsl;
 
 import de.doe300.activerecord.jdbc.driver.JDBCDriver;
 import de.doe300.activerecord.record.ActiveRecord;
+import de.doe300.activerecord.store.DBDriver;
 import java.util.Comparator;
 import java.util.Map;
 import javax.annotation.Nonnull;
@@ -52,6 +53,8 @@ public interface Order extends Comparator<ActiveRecord>
 	public int compare(ActiveRecord o1, ActiveRecord o2);
 	
 	/**
+	 * <code>null</code>-values are sorted lower than any other value, like by most RDBMS.
+	 * 
 	 * @param o1 the attribute-value map for the first record
 	 * @param o2 the attribute-value map for the second record
 	 * @return the comparison-value
@@ -59,6 +62,39 @@ public interface Order extends Comparator<ActiveRecord>
 	 */
 	public int compare(Map<String, Object> o1, Map<String, Object> o2);
 	
+	/**
+	 * The columns returned here are all the values required by {@link #compare(java.util.Map, java.util.Map) } to compare two rows.
+	 * This allows to fetch the values once per record instead of once per comparison.
+	 * 
+	 * @return the names of the columns this order accesses or <code>null</code>, if they are unknown
+	 * @since 0.9
+	 */
+	@Nullable
+	public default String[] getColumnNames()
+	{
+		return null;
+	}
+	
+	/**
+	 * Creates the condition for keyset-pagination (also called seek-method), matching all rows ordered after the given row.
+	 * For <code>ORDER BY a ASC, b DESC</code>, this results in <code>a &gt; ? OR (a = ? AND b &lt; ?)</code>, 
+	 * which can use an index on the ordered columns.
+	 * 
+	 * The condition can only be created, if the values of all columns are <code>null</code> or comparable.
+	 * Rows with <code>NULL</code> values are matched according to the position the driver sorts them to.
+	 * 
+	 * @param lastRow the values of the last row, must contain all {@link #getColumnNames() columns} of this order
+	 * @param driver the driver of the store to query, determines the position of <code>NULL</code>-values
+	 * @return the condition or <code>null</code>, if this order can't be converted to a keyset-condition
+	 * @since 0.9
+	 * @see DBDriver#isNullOrderedFirst(boolean) 
+	 */
+	@Nullable
+	public default Condition toKeysetCondition(@Nonnull final Map<String, Object> lastRow, @Nonnull final DBDriver driver)
+	{
+		return null;
+	}
+	
 	/**
 	 * @return an Order with exact the inverse ordering
 	 * @since 0.7
@@ -92,6 +128,10 @@ public interface Order extends Comparator<ActiveRecord>
 		{
 			return false;
 		}
+		if(order == this)
+		{
+			return true;
+		}
 		return toSQL( JDBCDriver.DEFAULT, null ).equals( order.toSQL( JDBCDriver.DEFAULT, null));
 	}
 }
@@ -24,8 +24,25 @@
 
 package de.doe300.activerecord.dsl;
 
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.jdbc.driver.JDBCDriver;
+import de.doe300.activerecord.record.ActiveRecord;
+import de.doe300.activerecord.scope.Scope;
+import de.doe300.activerecord.store.DBDriver;
+import de.doe300.activerecord.util.Pair;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -36,6 +53,10 @@ import javax.annotation.Nullable;
  */
 public final class Orders
 {
+	/**
+	 * The maximum number of records to load the values to sort by with a single query
+	 */
+	private static final int SORT_BATCH_SIZE = 500;
 
 	/**
 	 * Combines and optimized the orders by removing all duplicates and returning the single order, if only one is passed
@@ -150,6 +171,79 @@ public final class Orders
 		return new ScalarOrder(scalarFunction.getAttributeName(), scalarFunction, SimpleOrder.OrderType.DESCENDING );
 	}
 	
+	/**
+	 * Sorts the records in memory by the given order.
+	 * 
+	 * Other than {@link Stream#sorted(java.util.Comparator) } with the order as comparator, which retrieves the values of both records for every single
+	 * comparison, this method fetches the values required for comparison only once for every record.
+	 * The values are loaded with one query per {@link RecordBase} and batch of records, the records are only retrieved and sorted
+	 * once the resulting stream is consumed.
+	 * 
+	 * @param <T> the record-type
+	 * @param records the records to sort
+	 * @param order the order to sort by
+	 * @return the sorted records
+	 * @since 0.9
+	 */
+	@Nonnull
+	public static <T extends ActiveRecord> Stream<T> sortRecords(@Nonnull final Stream<T> records, @Nonnull final Order order)
+	{
+		return StreamSupport.stream( () -> 
+		{
+			final List<T> allRecords = records.collect( Collectors.toList());
+			final Map<RecordBase<?>, Map<Integer, Map<String, Object>>> values = new HashMap<>(4);
+			allRecords.stream().collect( Collectors.groupingBy( (final T record) -> record.getBase(), LinkedHashMap::new, 
+					Collectors.mapping( ActiveRecord::getPrimaryKey, Collectors.toList()))).forEach( 
+					(final RecordBase<?> base, final List<Integer> primaryKeys) -> values.put( base, loadValues( base, primaryKeys, order)));
+			return allRecords.stream().map( (final T record) -> Pair.createPair( record, 
+					values.get( record.getBase()).getOrDefault( record.getPrimaryKey(), Collections.emptyMap())))
+					.sorted( (final Pair<T, Map<String, Object>> p1, final Pair<T, Map<String, Object>> p2) -> order.compare( p1.getSecond(), p2.getSecond()))
+					.map( Pair::getFirst).spliterator();
+		}, Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL, records.isParallel()).onClose( records::close);
+	}
+
+	/**
+	 * Loads the values of the columns to sort by for all given records, in batches of primary keys
+	 */
+	@Nonnull
+	private static Map<Integer, Map<String, Object>> loadValues(@Nonnull final RecordBase<?> base, @Nonnull final List<Integer> primaryKeys, 
+			@Nonnull final Order order)
+	{
+		final Set<String> columns = new LinkedHashSet<>(4);
+		columns.add( base.getPrimaryColumn());
+		if(order.getColumnNames() != null)
+		{
+			columns.addAll( Arrays.asList( order.getColumnNames()));
+		}
+		else
+		{
+			columns.addAll( base.getStore().getAllColumnNames( base.getTableName()));
+		}
+		final String[] columnNames = columns.toArray( new String[columns.size()]);
+		final int batchSize = getBatchSize( base );
+		final Map<Integer, Map<String, Object>> values = new HashMap<>(primaryKeys.size() * 2);
+		for(int i = 0; i < primaryKeys.size(); i += batchSize)
+		{
+			final List<Integer> keys = primaryKeys.subList( i, Math.min( primaryKeys.size(), i + batchSize));
+			try(final Stream<Map<String, Object>> rows = base.getStore().streamAllWithData( base, columnNames, 
+					new Scope(Conditions.isIn( base.getPrimaryColumn(), keys), null, Scope.NO_LIMIT)))
+			{
+				rows.forEach( (final Map<String, Object> row) -> values.put( ((Number)row.get( base.getPrimaryColumn())).intValue(), row));
+			}
+		}
+		return values;
+	}
+
+	private static int getBatchSize(@Nonnull final RecordBase<?> base)
+	{
+		final DBDriver driver = base.getStore().getDriver();
+		if(driver instanceof JDBCDriver)
+		{
+			return ( int ) Math.max( 1, Math.min( SORT_BATCH_SIZE, ((JDBCDriver)driver).getParametersLimit()));
+		}
+		return SORT_BATCH_SIZE;
+	}
+	
 	private Orders()
 	{
 		
@@ -25,6 +25,8 @@
 package de.doe300.activerecord.dsl;
 
 import de.doe300.activerecord.AggregateMethods;
+import java.util.Iterator;
+import java.util.List;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
@@ -83,6 +85,27 @@ public interface QueryMethods<T extends ActiveRecord> extends FinderMethods<T>,
 		return withScope(new Scope(null, order, getEstimatedSize()));
 	}
 
+	/**
+	 * Lazily retrieves the results page by page, using keyset-pagination (also called seek-method).
+	 * Every page is fetched with a condition selecting the records ordered after the last record of the previous page,
+	 * e.g. <code>WHERE a &gt; ? OR (a = ? AND id &gt; ?) ORDER BY a, id LIMIT n</code>, so the costs per page don't grow with the number of previous pages.
+	 * 
+	 * The primary key is appended to the {@link #getOrder() order} to make the order unique.
+	 * This query must not be limited and its stream must not be consumed yet.
+	 * Since every page is queried separately, only queries backed by a record-base can be paged.
+	 * 
+	 * @param pageSize the maximum number of records per page
+	 * @return an iterator over the pages, the last page may have fewer records
+	 * @throws IllegalStateException if this query is backed by a stream, which can only be consumed once
+	 * @since 0.9
+	 * @see Scope#after(java.util.Map) 
+	 */
+	@Nonnull
+	public default Iterator<List<T>> pages(@Nonnegative final int pageSize) throws IllegalStateException
+	{
+		return new KeysetPages<>(this, getOrder(), pageSize);
+	}
+
 	/**
 	 * @return the estimated number of records, or {@link #SIZE_UNKNOWN} if the number is not known
 	 */
@@ -127,6 +150,12 @@ public interface QueryMethods<T extends ActiveRecord> extends FinderMethods<T>,
 	@Override
 	public default <C, R> R aggregate( AggregateFunction<T, C, ?, R> aggregateFunction, Condition condition )
 	{
-		return stream().filter( (T record) -> condition == null || condition.test( record)).collect( aggregateFunction );
+		return (condition == null ? stream() : stream().filter( RecordLayout.compile( condition))).collect( aggregateFunction );
+	}
+
+	@Override
+	public default Object[] aggregateAll( Condition condition, List<AggregateFunction<T, ?, ?, ?>> aggregateFunctions )
+	{
+		return (condition == null ? stream() : stream().filter( RecordLayout.compile( condition))).collect( AggregateFunction.combine( aggregateFunctions ));
 	}
 }
\ No newline at end of file
@@ -24,16 +24,25 @@
  */
 package de.doe300.activerecord.dsl;
 
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import de.doe300.activerecord.FinderMethods;
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.dsl.functions.CountNotNull;
 import de.doe300.activerecord.record.ActiveRecord;
+import de.doe300.activerecord.record.association.Include;
 import de.doe300.activerecord.scope.Scope;
+import de.doe300.activerecord.store.RecordStore;
 
 /**
  * The result of a query
@@ -43,10 +52,16 @@ import de.doe300.activerecord.scope.Scope;
  */
 public class QueryResult<T extends ActiveRecord> implements QueryMethods<T>, AutoCloseable
 {
-	@Nonnull
-	private final Stream<T> baseStream;
-	private final int size;
+	private static final int SIZE_NOT_COUNTED = QueryMethods.SIZE_UNKNOWN - 1;
+	@Nullable
+	private final FinderMethods<T> source;
+	@Nullable
+	private final Scope scope;
+	private Stream<T> baseStream;
+	private int size;
 	private final Order order;
+	@Nonnull
+	private final Include[] includes;
 
 	/**
 	 *
@@ -56,56 +71,199 @@ public class QueryResult<T extends ActiveRecord> implements QueryMethods<T>, Aut
 	 */
 	public QueryResult(@Nonnull final Stream<T> baseStream, final int size, final Order order)
 	{
-		this.baseStream = order!=null ? baseStream.sorted( order) : baseStream;
+		this(baseStream, size, order, false);
+	}
+	
+	/**
+	 * @param baseStream
+	 * @param size
+	 * @param order
+	 * @param isSorted whether the stream is already sorted by the given order
+	 */
+	QueryResult(@Nonnull final Stream<T> baseStream, final int size, @Nullable final Order order, final boolean isSorted)
+	{
+		this.source = null;
+		this.scope = null;
+		this.baseStream = order != null && !isSorted ? Orders.sortRecords( baseStream, order) : baseStream;
 		this.size = size;
+		this.includes = new Include[0];
+		this.order = order;
+	}
+	
+	/**
+	 * Creates a result which is backed by the given finder-methods.
+	 * 
+	 * The records are only retrieved when the stream is accessed, so any further condition, order or limit applied via {@link #withScope(de.doe300.activerecord.scope.Scope) }
+	 * is merged into the scope and executed by the underlying store (e.g. as part of the SQL query).
+	 * 
+	 * @param source the source to retrieve the records from
+	 * @param scope the scope to apply
+	 * @param order the effective order of the records. The store is required to return the records in this order
+	 * @since 0.9
+	 */
+	public QueryResult(@Nonnull final FinderMethods<T> source, @Nonnull final Scope scope, @Nullable final Order order)
+	{
+		this(source, scope, order, new Include[0]);
+	}
+
+	private QueryResult(@Nonnull final FinderMethods<T> source, @Nonnull final Scope scope, @Nullable final Order order, 
+			@Nonnull final Include[] includes)
+	{
+		this.source = source;
+		this.scope = scope;
+		this.baseStream = null;
+		this.size = SIZE_NOT_COUNTED;
 		this.order = order;
+		this.includes = includes;
 	}
 
 	@Override
-	public Stream<T> stream()
+	public synchronized Stream<T> stream()
 	{
+		if(baseStream == null)
+		{
+			baseStream = Include.preload( source.findWithScope( scope ), includes);
+		}
 		return baseStream;
 	}
 
+	@Override
+	public QueryResult<T> where( @Nullable final Condition condition )
+	{
+		//don't query the size, the limit of the backing scope is kept anyway
+		return withScope( new Scope(condition, null, Scope.NO_LIMIT));
+	}
+
+	@Override
+	public QueryResult<T> order( @Nullable final Order order )
+	{
+		return withScope( new Scope(null, order, Scope.NO_LIMIT));
+	}
+
 	@Override
 	public QueryResult<T> withScope( final Scope scope )
 	{
-		Stream<T> stream = baseStream;
+		if(source != null && baseStream == null)
+		{
+			if(this.scope.getLimit() == Scope.NO_LIMIT)
+			{
+				//no limit yet, so the condition and order can be merged
+				final Order newOrder = scope.getOrder() != null ? scope.getOrder() : this.scope.getOrder();
+				return new QueryResult<T>(source, new Scope(Conditions.and( this.scope.getCondition(), scope.getCondition()), newOrder,
+						scope.getLimit(), Math.max( this.scope.getFetchSize(), scope.getFetchSize())), scope.getOrder() != null ? scope.getOrder() : order, 
+						includes);
+			}
+			if(scope.getCondition() == null && scope.getOrder() == null)
+			{
+				//only the limit is changed
+				final int newLimit = scope.getLimit() == Scope.NO_LIMIT ? this.scope.getLimit() : Math.min( this.scope.getLimit(), scope.getLimit());
+				return new QueryResult<T>(source, new Scope(this.scope.getCondition(), this.scope.getOrder(), newLimit, Math.max( this.scope.getFetchSize(), scope.getFetchSize())), order, includes);
+			}
+		}
+		Stream<T> stream = stream();
 		int limit = QueryMethods.SIZE_UNKNOWN;
 		Order sorting = order;
 		if(scope.getCondition()!=null)
 		{
-			stream = stream.filter( scope.getCondition()::test);
+			stream = stream.filter( RecordLayout.compile( scope.getCondition()));
+		}
+		if(scope.getOrder() != null)
+		{
+			stream = Orders.sortRecords( stream, scope.getOrder());
+			sorting = scope.getOrder();
 		}
 		if(scope.getLimit() != Scope.NO_LIMIT)
 		{
 			stream = stream.limit( scope.getLimit());
 			limit = Math.min( limit, scope.getLimit());
 		}
-		if(scope.getOrder() != null)
+		return new QueryResult<T>(stream, limit, sorting, true );
+	}
+
+	/**
+	 * Loads the given associations eagerly for all records of this result.
+	 * 
+	 * The associations are loaded in batches with a single query per association and batch, instead of one query per record, 
+	 * when the records are retrieved.
+	 * 
+	 * @param associations the associations to load
+	 * @return the result with the associations being loaded
+	 * @since 0.9
+	 * @see Include#preload(java.util.stream.Stream, de.doe300.activerecord.record.association.Include...) 
+	 */
+	@Nonnull
+	public synchronized QueryResult<T> includes(@Nonnull final Include... associations)
+	{
+		if(source != null && baseStream == null)
 		{
-			stream = stream.sorted( scope.getOrder());
-			sorting = scope.getOrder();
+			final Include[] newIncludes = Arrays.copyOf( includes, includes.length + associations.length);
+			System.arraycopy( associations, 0, newIncludes, includes.length, associations.length);
+			return new QueryResult<T>(source, scope, order, newIncludes);
 		}
-		return new QueryResult<T>(stream, limit, sorting );
+		return new QueryResult<T>(Include.preload( stream(), associations), size == SIZE_NOT_COUNTED ? QueryMethods.SIZE_UNKNOWN : size, order, true);
 	}
 
 	@Override
-	public int getEstimatedSize()
+	public synchronized Iterator<List<T>> pages( @Nonnegative final int pageSize ) throws IllegalStateException
 	{
+		if(source == null || baseStream != null)
+		{
+			throw new IllegalStateException("Only results backed by a record-base, whose records are not retrieved yet, can be paged");
+		}
+		return QueryMethods.super.pages( pageSize );
+	}
+
+	@Override
+	public synchronized int getEstimatedSize()
+	{
+		if(size == SIZE_NOT_COUNTED)
+		{
+			final int count = source.count( scope.getCondition());
+			size = scope.getLimit() == Scope.NO_LIMIT ? count : Math.min( count, scope.getLimit());
+		}
 		return size;
 	}
 
+	@Override
+	public Object[] aggregateAll( @Nullable final Condition condition, final List<AggregateFunction<T, ?, ?, ?>> aggregateFunctions )
+	{
+		if(source instanceof RecordBase && baseStream == null && scope.getLimit() == Scope.NO_LIMIT)
+		{
+			//computes all aggregates within the store
+			return ((RecordBase<T>) source).aggregateAll( Conditions.and( scope.getCondition(), condition), aggregateFunctions );
+		}
+		return QueryMethods.super.aggregateAll( condition, aggregateFunctions );
+	}
+
 	/**
-	 * Groups the records in this result by the given column
+	 * Groups the records in this result by the given column.
+	 * 
+	 * If this result is backed by a {@link RecordBase} and not limited, the grouping is executed by the underlying store
+	 * (e.g. as <code>GROUP BY</code> in SQL) and the records of every group are only retrieved when its stream is accessed.
+	 * 
 	 * @param column
 	 * @return the grouped result
+	 * @see RecordStore#aggregateGrouped(de.doe300.activerecord.RecordBase, java.lang.String[], de.doe300.activerecord.dsl.AggregateFunction[], de.doe300.activerecord.dsl.Condition) 
 	 */
 	public Stream<GroupResult<Object, T>> groupBy(@Nonnull final String column)
 	{
-		return baseStream.collect( Collectors.groupingBy( (final T t)-> {
+		if(source instanceof RecordBase && baseStream == null && scope.getLimit() == Scope.NO_LIMIT)
+		{
+			final RecordBase<T> base = (RecordBase<T>) source;
+			final Map<List<Object>, Object[]> groups = base.getStore().aggregateGrouped( base, new String[]{column}, 
+					new AggregateFunction<?, ?, ?, ?>[]{new CountNotNull<T, Integer>(base.getPrimaryColumn(), ActiveRecord::getPrimaryKey)}, 
+					scope.getCondition());
+			return groups.entrySet().stream().map( (final Map.Entry<List<Object>, Object[]> e) -> {
+				final Object key = e.getKey().get( 0);
+				final Scope groupScope = new Scope(Conditions.and( scope.getCondition(), key == null ? Conditions.isNull( column) : 
+						Conditions.is( column, key)), scope.getOrder(), Scope.NO_LIMIT, scope.getFetchSize());
+				return new GroupResult<Object, T>(key, Stream.of( groupScope).flatMap( source::findWithScope), 
+						((Number)e.getValue()[0]).intValue(), order, true);
+			});
+		}
+		return stream().collect( Collectors.groupingBy( (final T t)-> {
 			return t.getBase().getStore().getValue( t.getBase(), t.getPrimaryKey(), column);
-		})).entrySet().stream().map( (final Map.Entry<Object, List<T>> e)-> new GroupResult<Object, T>(e.getKey(), e.getValue().stream(), e.getValue().size(),order));
+		})).entrySet().stream().map( (final Map.Entry<Object, List<T>> e)-> new GroupResult<Object, T>(e.getKey(), e.getValue().stream(), e.getValue().size(),order, true));
 	}
 
 	/**
@@ -117,8 +275,8 @@ public class QueryResult<T extends ActiveRecord> implements QueryMethods<T>, Aut
 	 */
 	public <R> Stream<GroupResult<R, T>> groupBy(@Nonnull final Function<T, R> method)
 	{
-		return baseStream.collect( Collectors.groupingBy( (final T t)-> method.apply( t )))
-				.entrySet().stream().map( (final Map.Entry<R, List<T>> e)-> new GroupResult<R, T>(e.getKey(), e.getValue().stream(), e.getValue().size(),order));
+		return stream().collect( Collectors.groupingBy( (final T t)-> method.apply( t )))
+				.entrySet().stream().map( (final Map.Entry<R, List<T>> e)-> new GroupResult<R, T>(e.getKey(), e.getValue().stream(), e.getValue().size(),order, true));
 	}
 
 	@Override
@@ -128,8 +286,11 @@ public class QueryResult<T extends ActiveRecord> implements QueryMethods<T>, Aut
 	}
 
 	@Override
-	public void close() throws Exception
+	public synchronized void close() throws Exception
 	{
-		baseStream.close();
+		if(baseStream != null)
+		{
+			baseStream.close();
+		}
 	}
 }
@@ -0,0 +1,112 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.dsl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.record.ActiveRecord;
+
+/**
+ * Layout for conditions tested against records. Every column is assigned a slot on first use, the values are read 
+ * from the store of the record.
+ * 
+ * @author doe300
+ * @since 0.9
+ */
+final class RecordLayout implements ColumnLayout
+{
+	private final List<String> columns = new ArrayList<>(4);
+
+	private RecordLayout()
+	{
+	}
+
+	@Override
+	public int getSlot( final String columnName )
+	{
+		final int slot = columns.indexOf( columnName);
+		if(slot >= 0)
+		{
+			return slot;
+		}
+		columns.add( columnName );
+		return columns.size() - 1;
+	}
+
+	/**
+	 * @param <T> the record-type
+	 * @param condition the condition to compile
+	 * @return a predicate testing records against the compiled condition
+	 */
+	@Nonnull
+	static <T extends ActiveRecord> Predicate<T> compile(@Nonnull final Condition condition)
+	{
+		final RecordLayout layout = new RecordLayout();
+		final RowPredicate predicate = condition.compile( layout );
+		final String[] columns = layout.columns.toArray( new String[layout.columns.size()]);
+		return (final T record) -> predicate.test( new RecordValues(record, columns));
+	}
+
+	private static final class RecordValues implements RowValues
+	{
+		@Nonnull
+		private final ActiveRecord record;
+		@Nonnull
+		private final String[] columns;
+
+		RecordValues(@Nonnull final ActiveRecord record, @Nonnull final String[] columns)
+		{
+			this.record = record;
+			this.columns = columns;
+		}
+
+		@Override
+		public Object getValue( final int slot )
+		{
+			return record.getBase().getStore().getValue( record.getBase(), record.getPrimaryKey(), columns[slot]);
+		}
+
+		@Override
+		public ActiveRecord getRecord()
+		{
+			return record;
+		}
+
+		@Override
+		public Map<String, Object> asMap()
+		{
+			final RecordBase<?> base = record.getBase();
+			final Set<String> columnNames = base.getStore().getAllColumnNames( base.getTableName());
+			return base.getStore().getValues( base, record.getPrimaryKey(), columnNames.toArray( new String[columnNames.size()]));
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.dsl;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link Condition} compiled for a fixed {@link ColumnLayout}. All column-slots and constant values are resolved 
+ * on compilation, so testing a row does not need to look up any columns by name.
+ * 
+ * @author doe300
+ * @since 0.9
+ * @see Condition#compile(ColumnLayout) 
+ */
+@FunctionalInterface
+public interface RowPredicate
+{
+	/**
+	 * @param row the values of the row to test
+	 * @return whether the row matches the compiled condition
+	 */
+	public boolean test(@Nonnull final RowValues row);
+}
@@ -0,0 +1,69 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.dsl;
+
+import java.util.Map;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import de.doe300.activerecord.record.ActiveRecord;
+
+/**
+ * The values of a single row, accessed by the slots of a {@link ColumnLayout}.
+ * 
+ * Implementations may be re-used for several rows, so a {@link RowPredicate} must not retain the row.
+ * 
+ * @author doe300
+ * @since 0.9
+ */
+public interface RowValues
+{
+	/**
+	 * @param slot the slot of the column, as returned by {@link ColumnLayout#getSlot(java.lang.String) }
+	 * @return the value of the column for this row
+	 */
+	@Nullable
+	public Object getValue(@Nonnegative final int slot);
+
+	/**
+	 * @return the record this row represents or <code>null</code>, if the row is not backed by a record
+	 */
+	@Nullable
+	public default ActiveRecord getRecord()
+	{
+		return null;
+	}
+
+	/**
+	 * Conditions which can't be compiled fall back to be tested against this map, if there is no 
+	 * {@link #getRecord() record}
+	 * @return a column-map view of this row
+	 * @see Condition#test(java.util.Map) 
+	 */
+	@Nonnull
+	public Map<String, Object> asMap();
+}
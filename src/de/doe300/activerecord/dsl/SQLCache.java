@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.dsl;
+
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.Syntax;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import de.doe300.activerecord.jdbc.driver.JDBCDriver;
+
+/**
+ * Memoizes the SQL-representation of an immutable condition, order or function.
+ * 
+ * The representation for the {@link JDBCDriver#DEFAULT default driver} without table-name is used for equality and 
+ * hash-codes and is kept for the lifetime of the node. Additionally, the last representation rendered for any other
+ * driver and table-name is kept, which is the one a record-store re-uses for every query.
+ * 
+ * @author doe300
+ * @since 0.9
+ */
+@ThreadSafe
+final class SQLCache
+{
+	@Nonnull
+	private final Renderer renderer;
+	@Nullable
+	private volatile String defaultSQL;
+	@Nullable
+	private volatile RenderedSQL lastSQL;
+
+	SQLCache(@Nonnull final Renderer renderer)
+	{
+		this.renderer = renderer;
+	}
+
+	/**
+	 * @param driver the vendor-specific driver
+	 * @param tableName the name to use to uniquely identify the table
+	 * @return the memoized or newly rendered SQL
+	 */
+	@Nonnull
+	@Syntax(value = "SQL")
+	public String toSQL(@Nonnull final JDBCDriver driver, @Nullable final String tableName)
+	{
+		if(driver == JDBCDriver.DEFAULT && tableName == null)
+		{
+			String sql = defaultSQL;
+			if(sql == null)
+			{
+				sql = renderer.toSQL( driver, null );
+				defaultSQL = sql;
+			}
+			return sql;
+		}
+		final RenderedSQL last = lastSQL;
+		if(last != null && last.driver == driver && Objects.equals( last.tableName, tableName))
+		{
+			return last.sql;
+		}
+		final String sql = renderer.toSQL( driver, tableName );
+		lastSQL = new RenderedSQL(driver, tableName, sql);
+		return sql;
+	}
+
+	/**
+	 * Renders the SQL of a node, only called on cache-misses
+	 */
+	@FunctionalInterface
+	static interface Renderer
+	{
+		@Nonnull
+		@Syntax(value = "SQL")
+		public String toSQL(@Nonnull final JDBCDriver driver, @Nullable final String tableName);
+	}
+
+	@Immutable
+	private static final class RenderedSQL
+	{
+		@Nonnull
+		final JDBCDriver driver;
+		@Nullable
+		final String tableName;
+		@Nonnull
+		final String sql;
+
+		RenderedSQL(@Nonnull final JDBCDriver driver, @Nullable final String tableName, @Nonnull final String sql)
+		{
+			this.driver = driver;
+			this.tableName = tableName;
+			this.sql = sql;
+		}
+	}
+}
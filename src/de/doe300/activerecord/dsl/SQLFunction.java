@@ -82,6 +82,10 @@ public interface SQLFunction<T extends ActiveRecord, R> extends Function<T, R>
 		{
 			return false;
 		}
+		if(func == this)
+		{
+			return true;
+		}
 		return toSQL( JDBCDriver.DEFAULT, null ).equals( func.toSQL( JDBCDriver.DEFAULT, null));
 	}
 }
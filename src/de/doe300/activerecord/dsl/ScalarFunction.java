@@ -47,6 +47,8 @@ public abstract class ScalarFunction<T extends ActiveRecord, C, R> implements SQ
 	private final String command;
 	private final Function<T, C> columnFunction;
 	private final Object column;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	/**
 	 * @param command the name of the SQL function
@@ -74,6 +76,20 @@ public abstract class ScalarFunction<T extends ActiveRecord, C, R> implements SQ
 
 	@Override
 	public String toSQL(final JDBCDriver driver, @Nullable final String tableName)
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	/**
+	 * Renders the SQL-representation of this function, the result is memoized by 
+	 * {@link #toSQL(de.doe300.activerecord.jdbc.driver.JDBCDriver, java.lang.String) }
+	 * @param driver the driver to be used for vendor-specific commands
+	 * @param tableName the name of the table to apply this function to
+	 * @return the SQL representation of this function
+	 * @since 0.9
+	 */
+	@Nonnull
+	protected String renderSQL(@Nonnull final JDBCDriver driver, @Nullable final String tableName)
 	{
 		return toSQL( driver, tableName, column, command );
 	}
@@ -25,6 +25,7 @@
 package de.doe300.activerecord.dsl;
 
 import de.doe300.activerecord.jdbc.driver.JDBCDriver;
+import de.doe300.activerecord.store.DBDriver;
 import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -90,21 +91,30 @@ class ScalarOrder extends SimpleOrder
 				val1 = o1.get( columns[index]);
 				val2 = o2.get(columns[index]);
 			}
-			if(val1 instanceof Comparable)
+			compare = compareValues( val1, val2 );
+			if(types[index] == OrderType.DESCENDING)
 			{
-				compare = Comparable.class.cast(val1).compareTo(val2);
-				if(types[index] == OrderType.DESCENDING)
-				{
-					compare = -compare;
-				}
+				compare = -compare;
 			}
 			index++;
 		}
 		return compare;
 	}
 
+	/**
+	 * Keyset-conditions are not supported for orders over the results of scalar functions
+	 * @param lastRow
+	 * @param driver
+	 * @return <code>null</code>
+	 */
+	@Override
+	public Condition toKeysetCondition( final Map<String, Object> lastRow, final DBDriver driver )
+	{
+		return null;
+	}
+
 	@Override
-	public String toSQL(@Nonnull final JDBCDriver driver, @Nullable final String tableName)
+	String renderSQL(@Nonnull final JDBCDriver driver, @Nullable final String tableName)
 	{
 		final StringBuilder sb = new StringBuilder(100);
 		for(int i=0;i<columns.length;i++)
@@ -26,8 +26,13 @@ package de.doe300.activerecord.dsl;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
@@ -51,6 +56,10 @@ public class SimpleCondition implements Condition
 	private final Side right;
 	@Nonnull
 	private final Comparison comp;
+	@Nullable
+	private final Object[] values;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	/**
 	 * @param leftSide
@@ -66,6 +75,7 @@ public class SimpleCondition implements Condition
 		left = comparison.hasLeft ? SimpleCondition.checkValue( leftSide, comparison, false) : null;
 		right = comparison.hasRight ? SimpleCondition.checkValue( rightSide, comparison, true ) : null;
 		this.comp = SimpleCondition.checkComparison( rightSide, comparison);
+		this.values = collectValues();
 	}
 
 	private static Side checkValue(@Nullable final Object val, @Nonnull final Comparison comp, final boolean mayBeValue)
@@ -119,8 +129,8 @@ public class SimpleCondition implements Condition
 		return comp;
 	}
 
-	@Override
-	public Object[] getValues()
+	@Nullable
+	private Object[] collectValues()
 	{
 		if(comp == Comparison.IN)
 		{
@@ -134,6 +144,27 @@ public class SimpleCondition implements Condition
 		return new Object[]{right.data};
 	}
 
+	@Override
+	public Object[] getValues()
+	{
+		return values;
+	}
+
+	/**
+	 * @return the name of the column on the left side or <code>null</code>, if the condition does not compare a plain 
+	 *	column with constant values
+	 * @since 0.9
+	 */
+	@Nullable
+	public String getColumnName()
+	{
+		if(left == null || left.isValue || !(left.data instanceof String) || (right != null && !right.isValue))
+		{
+			return null;
+		}
+		return (String)left.data;
+	}
+
 	/**
 	 * @return the comparison-method
 	 */
@@ -144,6 +175,12 @@ public class SimpleCondition implements Condition
 
 	@Override
 	public String toSQL(@Nonnull final JDBCDriver driver, final String tableName)
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	@Nonnull
+	private String renderSQL(@Nonnull final JDBCDriver driver, final String tableName)
 	{
 		final String leftSide = comp.hasLeft ? left.toSQL( driver, tableName ) : "";
 		final String rightSide = comp.hasRight ? right.toSQL( driver, tableName ) : "";
@@ -172,6 +209,171 @@ public class SimpleCondition implements Condition
 		return comp.test( leftValue, rightValue );
 	}
 
+	@Override
+	public RowPredicate compile(@Nonnull final ColumnLayout layout)
+	{
+		if(comp == Comparison.TRUE)
+		{
+			return (final RowValues row) -> true;
+		}
+		if(left.data instanceof SQLFunction || comp.hasRight && right.data instanceof SQLFunction)
+		{
+			//functions are applied to the whole record/row
+			return Condition.super.compile( layout );
+		}
+		final int leftSlot = layout.getSlot( (String)left.data);
+		final int rightSlot = comp.hasRight && !right.isValue ? layout.getSlot( (String)right.data) : 0;
+		if(leftSlot == ColumnLayout.NO_SLOT || rightSlot == ColumnLayout.NO_SLOT)
+		{
+			//comparing nonexistent columns throws an exception for every row tested
+			return (final RowValues row) -> comp.test( null, null );
+		}
+		if(comp.hasRight && !right.isValue)
+		{
+			return (final RowValues row) -> comp.test( Optional.ofNullable( row.getValue( leftSlot)),
+					Optional.ofNullable( row.getValue( rightSlot)));
+		}
+		final Object value = comp.hasRight ? right.data : null;
+		switch(comp)
+		{
+			case IS:
+				return compileIs( leftSlot, value );
+			case IS_NOT:
+				final RowPredicate isPredicate = compileIs( leftSlot, value );
+				return (final RowValues row) -> !isPredicate.test( row );
+			case LIKE:
+				return compileLike( leftSlot, value, layout );
+			case IS_NULL:
+				return (final RowValues row) -> row.getValue( leftSlot) == null;
+			case IS_NOT_NULL:
+				return (final RowValues row) -> row.getValue( leftSlot) != null;
+			case LARGER:
+			case LARGER_EQUALS:
+			case SMALLER:
+			case SMALLER_EQUALS:
+				return compileCompare( leftSlot, value );
+			case IN:
+				return compileIn( leftSlot, value, layout );
+			default:
+				return Condition.super.compile( layout );
+		}
+	}
+
+	@Nonnull
+	private static RowPredicate compileIs(final int slot, @Nonnull final Object value)
+	{
+		if(value instanceof Number)
+		{
+			final double number = ((Number)value).doubleValue();
+			return (final RowValues row) ->
+			{
+				final Object rowValue = row.getValue( slot);
+				if(rowValue instanceof Number)
+				{
+					return ((Number)rowValue).doubleValue() == number;
+				}
+				return Objects.equals( rowValue, value);
+			};
+		}
+		return (final RowValues row) -> Objects.equals( row.getValue( slot), value);
+	}
+
+	@Nonnull
+	private RowPredicate compileLike(final int slot, @Nullable final Object value, @Nonnull final ColumnLayout layout)
+	{
+		if(value == null)
+		{
+			return (final RowValues row) -> false;
+		}
+		if(!(value instanceof String))
+		{
+			return Condition.super.compile( layout );
+		}
+		final Pattern pattern;
+		try
+		{
+			pattern = Pattern.compile( ((String)value).replaceAll( "%", ".*"));
+		}
+		catch(final PatternSyntaxException e)
+		{
+			return Condition.super.compile( layout );
+		}
+		return (final RowValues row) ->
+		{
+			final Object rowValue = row.getValue( slot);
+			return rowValue instanceof String && pattern.matcher( (String)rowValue).matches();
+		};
+	}
+
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	private RowPredicate compileCompare(final int slot, @Nullable final Object value)
+	{
+		if(value == null)
+		{
+			return (final RowValues row) -> false;
+		}
+		final Comparison comparison = comp;
+		return (final RowValues row) ->
+		{
+			final Object rowValue = row.getValue( slot);
+			if(rowValue == null)
+			{
+				return false;
+			}
+			final int result = ((Comparable<Object>)rowValue).compareTo( value );
+			switch(comparison)
+			{
+				case LARGER:
+					return result > 0;
+				case LARGER_EQUALS:
+					return result >= 0;
+				case SMALLER:
+					return result < 0;
+				default:
+					return result <= 0;
+			}
+		};
+	}
+
+	@Nonnull
+	private RowPredicate compileIn(final int slot, @Nullable final Object value, @Nonnull final ColumnLayout layout)
+	{
+		if(!(value instanceof Object[]))
+		{
+			return Condition.super.compile( layout );
+		}
+		final Object[] values = (Object[])value;
+		final Set<Object> exactValues = new HashSet<>(values.length);
+		final double[] numbers = new double[values.length];
+		int numNumbers = 0;
+		for(final Object val : values)
+		{
+			exactValues.add( val );
+			if(val instanceof Number && !Double.isNaN( ((Number)val).doubleValue()))
+			{
+				//adding zero converts -0.0 to 0.0, which are equal for the == operator
+				numbers[numNumbers++] = ((Number)val).doubleValue() + 0.0;
+			}
+		}
+		final double[] sortedNumbers = Arrays.copyOf( numbers, numNumbers );
+		Arrays.sort( sortedNumbers );
+		return (final RowValues row) ->
+		{
+			final Object rowValue = row.getValue( slot);
+			if(exactValues.contains( rowValue))
+			{
+				return true;
+			}
+			if(rowValue instanceof Number)
+			{
+				final double number = ((Number)rowValue).doubleValue();
+				return !Double.isNaN( number) && Arrays.binarySearch( sortedNumbers, number + 0.0) >= 0;
+			}
+			return false;
+		};
+	}
+
 	@Override
 	public boolean equals( final Object obj )
 	{
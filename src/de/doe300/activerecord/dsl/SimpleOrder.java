@@ -25,7 +25,10 @@
 package de.doe300.activerecord.dsl;
 
 import de.doe300.activerecord.jdbc.driver.JDBCDriver;
+import de.doe300.activerecord.store.DBDriver;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Nonnull;
@@ -47,6 +50,8 @@ class SimpleOrder implements Order
 	protected final String[] columns;
 	@Nonnull
 	protected final OrderType types[];
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	/**
 	 * The order of the <code>columns</code> specifies the priority of the column in the ordering.
@@ -102,28 +107,116 @@ class SimpleOrder implements Order
 	{
 		int index = 0;
 		int compare = 0;
-		Object val1;
 		while(compare== 0 && index < columns.length)
 		{
-			val1 = o1.get( columns[index]);
-			if(val1 instanceof Comparable)
+			compare = compareValues( o1.get( columns[index]), o2.get( columns[index]));
+			if(types[index] == OrderType.DESCENDING)
 			{
-				compare = Comparable.class.cast(val1).compareTo(o2.get(columns[index]));
-				if(types[index] == OrderType.DESCENDING)
-				{
-					compare = -compare;
-				}
+				compare = -compare;
 			}
 			index++;
 		}
 		return compare;
 	}
 
+	/**
+	 * @param val1
+	 * @param val2
+	 * @return the ascending comparison of the values, with <code>null</code> being lower than any other value
+	 * @since 0.9
+	 */
+	@SuppressWarnings("unchecked")
+	static int compareValues(@Nullable final Object val1, @Nullable final Object val2)
+	{
+		if(val1 == null || val2 == null)
+		{
+			return val1 == val2 ? 0 : (val1 == null ? -1 : 1);
+		}
+		if(val1 instanceof Comparable)
+		{
+			return Comparable.class.cast(val1).compareTo(val2);
+		}
+		return 0;
+	}
+
+	@Override
+	public String[] getColumnNames()
+	{
+		for(final String column : columns)
+		{
+			//scalar-functions over multiple attributes have no single column
+			if(column == null)
+			{
+				return null;
+			}
+		}
+		//return a copy, so callers can not modify this order
+		return columns.clone();
+	}
+
+	/**
+	 * The condition matches all rows, which are ordered after the given row by any of the columns, 
+	 * with all previous columns being equal to the values of the given row.
+	 * 
+	 * Since <code>NULL</code> is never larger or smaller than any value, the rows with <code>NULL</code>-values are matched explicitly,
+	 * if the driver sorts them after the value of the given row.
+	 * 
+	 * @param lastRow the values of the last row
+	 * @param driver the driver determining the position of <code>NULL</code>-values
+	 * @return the keyset-condition or <code>null</code>, if any column is a scalar-function, missing in the row or its value is not comparable
+	 */
+	@Override
+	public Condition toKeysetCondition( final Map<String, Object> lastRow, final DBDriver driver )
+	{
+		final List<Condition> alternatives = new ArrayList<>(columns.length);
+		final List<Condition> equalPrefix = new ArrayList<>(columns.length);
+		for(int i = 0; i < columns.length; i++)
+		{
+			if(columns[i] == null || !lastRow.containsKey( columns[i]))
+			{
+				return null;
+			}
+			final Object value = lastRow.get( columns[i]);
+			if(value != null && !(value instanceof Comparable))
+			{
+				return null;
+			}
+			final boolean nullsAfter = !driver.isNullOrderedFirst( types[i] == OrderType.ASCENDING );
+			final Condition after;
+			if(value == null)
+			{
+				//all non-null values are ordered either before or after all NULL values
+				after = nullsAfter ? null : Conditions.isNotNull( columns[i]);
+			}
+			else
+			{
+				final Condition afterValue = types[i] == OrderType.ASCENDING ? Conditions.isLarger( columns[i], (Comparable<?>)value) : 
+						Conditions.isSmaller( columns[i], (Comparable<?>)value);
+				after = nullsAfter ? Conditions.or( afterValue, Conditions.isNull( columns[i])) : afterValue;
+			}
+			if(after != null)
+			{
+				final List<Condition> alternative = new ArrayList<>(equalPrefix);
+				alternative.add( after );
+				alternatives.add( Conditions.and( alternative ));
+			}
+			equalPrefix.add( value == null ? Conditions.isNull( columns[i]) : Conditions.is( columns[i], value));
+		}
+		//if the last row is the very last row (e.g. all NULL), nothing is after it
+		return alternatives.isEmpty() ? Conditions.invert( Conditions.isTrue()) : Conditions.or( alternatives );
+	}
+
 	/**
 	 * @return a SQL representation of this Order
 	 */
 	@Override
 	public String toSQL(@Nonnull final JDBCDriver driver, @Nullable final String tableName)
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	@Nonnull
+	String renderSQL(@Nonnull final JDBCDriver driver, @Nullable final String tableName)
 	{
 		final StringBuilder sb = new StringBuilder(100);
 		for(int i=0;i<columns.length;i++)
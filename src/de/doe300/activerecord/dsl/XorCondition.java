@@ -45,10 +45,15 @@ import javax.annotation.Nonnull;
 class XorCondition implements Condition
 {
 	private final Condition[] conditions;
+	@Nonnull
+	private final Object[] values;
+	@Nonnull
+	private final SQLCache sqlCache = new SQLCache(this::renderSQL);
 
 	XorCondition(@Nonnull final Condition[] conditions )
 	{
 		this.conditions = conditions;
+		this.values = collectValues( conditions );
 	}
 	
 	@Override
@@ -66,6 +71,12 @@ class XorCondition implements Condition
 
 	@Override
 	public Object[] getValues()
+	{
+		return values;
+	}
+
+	@Nonnull
+	private static Object[] collectValues(@Nonnull final Condition[] conditions)
 	{
 		final List<Object> values = new ArrayList<>(conditions.length);
 		for(final Condition cond:conditions)
@@ -116,8 +127,41 @@ class XorCondition implements Condition
 		return oneMatch;
 	}
 
+	@Override
+	public RowPredicate compile(@Nonnull final ColumnLayout layout)
+	{
+		final RowPredicate[] predicates = new RowPredicate[conditions.length];
+		for(int i = 0; i < conditions.length; i++)
+		{
+			predicates[i] = conditions[i].compile( layout );
+		}
+		return (final RowValues row) ->
+		{
+			boolean oneMatch = false;
+			for(final RowPredicate predicate : predicates)
+			{
+				if(predicate.test( row ))
+				{
+					if(oneMatch)
+					{
+						//second match -> fail
+						return false;
+					}
+					oneMatch = true;
+				}
+			}
+			return oneMatch;
+		};
+	}
+
 	@Override
 	public String toSQL( JDBCDriver driver, String tableName )
+	{
+		return sqlCache.toSQL( driver, tableName );
+	}
+
+	@Nonnull
+	private String renderSQL( JDBCDriver driver, String tableName )
 	{
 		//see: https://stackoverflow.com/questions/5411619/t-sql-xor-operator/22867207#22867207
 		final List<String> parts = new ArrayList<>(conditions.length);
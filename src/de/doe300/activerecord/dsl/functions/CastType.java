@@ -79,9 +79,9 @@ public class CastType<T extends ActiveRecord, C, R> extends ScalarFunction<T, C,
 	}
 
 	@Override
-	public String toSQL( JDBCDriver driver, String tableName )
+	protected String renderSQL( JDBCDriver driver, String tableName )
 	{
-		final String sql = super.toSQL( driver, tableName);
+		final String sql = super.renderSQL( driver, tableName);
 		return sql.replace( "%type%", driver.getSQLType( resultType ));
 	}
 }
@@ -112,7 +112,7 @@ public class Coalesce<T extends ActiveRecord, V> extends ScalarFunction<T, V, V>
 	}
 
 	@Override
-	public String toSQL( final JDBCDriver driver, final String tableName )
+	protected String renderSQL( final JDBCDriver driver, final String tableName )
 	{
 		String sql = JDBCDriver.SCALAR_COALESCE;
 		for(int i = 0; i < columnFunctions.size(); i++)
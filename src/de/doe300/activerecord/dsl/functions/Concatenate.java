@@ -90,9 +90,9 @@ public class Concatenate<T extends ActiveRecord> extends ScalarFunction<T, Strin
 	}
 
 	@Override
-	public String toSQL( JDBCDriver driver, String tableName )
+	protected String renderSQL( JDBCDriver driver, String tableName )
 	{
-		String sql = super.toSQL( driver, tableName );
+		String sql = super.renderSQL( driver, tableName );
 		sql = sql.replace( "%other%", "%column%");
 		return ScalarFunction.toSQL( driver, tableName, column2, sql );
 	}
@@ -122,6 +122,6 @@ public class CountDistinct<T extends ActiveRecord, C> extends AggregateFunction<
 	@Override
 	protected Long aggregateValues( final Stream<Optional<C>> valueStream )
 	{
-		return valueStream.parallel().map((final Optional<C> c) -> c.orElse( null)).distinct().count();
+		return valueStream.parallel().filter( Optional::isPresent).map( Optional::get).distinct().count();
 	}
 }
\ No newline at end of file
@@ -52,6 +52,17 @@ public class HSQLDBDriver extends JDBCDriver
 	{
 	}
 
+	/**
+	 * HSQLDB orders <code>NULL</code> first, independent of the direction
+	 * @param ascending
+	 * @return <code>true</code>
+	 */
+	@Override
+	public boolean isNullOrderedFirst( final boolean ascending )
+	{
+		return true;
+	}
+
 	@Override
 	public String getIndexKeyword( final IndexType indexType )
 	{
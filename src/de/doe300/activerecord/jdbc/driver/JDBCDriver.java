@@ -31,6 +31,7 @@ import java.sql.DatabaseMetaData;
 import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.Arrays;
@@ -251,6 +252,49 @@ public class JDBCDriver implements DBDriver
 		return resultSet.getInt( 1);
 	}
 
+	/**
+	 * Whether an INSERT-statement with multiple rows in its VALUES-clause returns the generated keys for all inserted rows.
+	 * 
+	 * @return whether multiple rows can be inserted with a single statement
+	 * @since 0.9
+	 */
+	public boolean isMultiRowInsertSupported()
+	{
+		return true;
+	}
+	
+	/**
+	 * Configures the statement to fetch the rows of its result in chunks of the given size instead of buffering the whole
+	 * result in memory. The default implementation uses {@link Statement#setFetchSize(int) }.
+	 * 
+	 * @param stmt the statement to configure, before it is executed
+	 * @param fetchSize the number of rows to fetch at once, 0 to use the default of the JDBC driver
+	 * @throws SQLException
+	 * @since 0.9
+	 * @see #isStreamingRequiresTransaction() 
+	 */
+	public void setFetchSize(@Nonnull final Statement stmt, @Nonnegative final int fetchSize) throws SQLException
+	{
+		if(fetchSize > 0)
+		{
+			stmt.setFetchSize( fetchSize );
+		}
+	}
+
+	/**
+	 * Some JDBC drivers only use a cursor to fetch the rows in chunks, if the query is run inside of a transaction.
+	 * For these drivers, auto-commit is disabled while a result with a fetch-size is streamed. Since auto-commit is a property
+	 * of the connection, this also affects all other statements run on the same connection in the meantime.
+	 * 
+	 * @return whether auto-commit needs to be disabled for the fetch-size to take effect
+	 * @since 0.9
+	 * @see #setFetchSize(java.sql.Statement, int) 
+	 */
+	public boolean isStreamingRequiresTransaction()
+	{
+		return false;
+	}
+
 	/**
 	 * By default, this method acts as the DB supports boolean as data-type
 	 *
@@ -30,7 +30,9 @@ import de.doe300.activerecord.store.JDBCRecordStore;
 import de.doe300.activerecord.store.RecordStore;
 import de.doe300.activerecord.store.diagnostics.Diagnostics;
 import java.io.Serializable;
+import java.sql.SQLException;
 import java.sql.SQLXML;
+import java.sql.Statement;
 import javax.annotation.Nonnull;
 
 /**
@@ -43,6 +45,8 @@ import javax.annotation.Nonnull;
  * The maximum limit for a cell width is 65535 which is simultaneously the maximum width for all columns in a row.
  * Since we don't know how much cells a row will have, I set the limit to 4096 which allows for up to 16 such string-column.
  * </li>
+ * <li>If a fetch-size is set, the rows are streamed one by one (fetch-size of {@link Integer#MIN_VALUE}). 
+ * No other statement can be executed on the connection until such a result is closed.</li>
  * </ul>
  * 
  * @author doe300
@@ -102,6 +106,16 @@ public class MySQLDriver extends JDBCDriver
 		return "VARCHAR(4096)";
 	}
 
+	@Override
+	public void setFetchSize( final Statement stmt, final int fetchSize ) throws SQLException
+	{
+		if(fetchSize > 0)
+		{
+			//MySQL Connector/J only streams results (instead of reading them completely) for this special value
+			stmt.setFetchSize( Integer.MIN_VALUE );
+		}
+	}
+
 	@Override
 	public String getLimitClause( int offset, int limit )
 	{
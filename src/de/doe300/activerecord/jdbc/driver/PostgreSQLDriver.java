@@ -156,6 +156,27 @@ public class PostgreSQLDriver extends JDBCDriver
 		return super.getSQLType( javaType );
 	}
 
+	/**
+	 * The PostgreSQL JDBC driver only uses a cursor for results with a fetch-size, if auto-commit is disabled.
+	 * @return <code>true</code>
+	 */
+	@Override
+	public boolean isStreamingRequiresTransaction()
+	{
+		return true;
+	}
+
+	/**
+	 * PostgreSQL sorts <code>NULL</code> as larger than any other value
+	 * @param ascending
+	 * @return whether the order is descending
+	 */
+	@Override
+	public boolean isNullOrderedFirst( final boolean ascending )
+	{
+		return !ascending;
+	}
+
 	@Override
 	public String getLimitClause( int offset, int limit )
 	{
@@ -147,6 +147,13 @@ public class SQLiteDriver extends JDBCDriver
 		return super.getSQLFunction( sqlFunction, column );
 	}
 
+	@Override
+	public boolean isMultiRowInsertSupported()
+	{
+		//the generated keys only contain the ID of the last inserted row
+		return false;
+	}
+
 	@Override
 	public long getParametersLimit()
 	{
@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.pojo;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.RecordCore;
+import de.doe300.activerecord.RecordException;
+import de.doe300.activerecord.pojo.generation.RecordFactory;
+import de.doe300.activerecord.pojo.generation.RecordImplementationGenerator;
+import de.doe300.activerecord.record.ActiveRecord;
+import de.doe300.activerecord.store.RecordStore;
+
+/**
+ * Base for interface record-types with an implementation generated at compile-time.
+ * 
+ * The records are instances of the generated class instead of a {@link java.lang.reflect.Proxy}.
+ * 
+ * @author doe300
+ * @param <T> the record-type
+ * @since 0.9
+ * @see RecordImplementationGenerator
+ */
+public final class GeneratedBase<T extends ActiveRecord> extends RecordBase<T>
+{
+	@Nonnull
+	private final RecordFactory<T> factory;
+
+	/**
+	 * @param recordType
+	 * @param factory the factory for the generated implementation
+	 * @param core
+	 * @param store
+	 */
+	public GeneratedBase(@Nonnull final Class<T> recordType, @Nonnull final RecordFactory<T> factory, @Nonnull final RecordCore core,
+		@Nonnull final RecordStore store)
+	{
+		super( recordType, core, store );
+		this.factory = factory;
+	}
+	
+	private GeneratedBase(@Nonnull final GeneratedBase<T> origBase, @Nonnull final String shardTable)
+	{
+		super(origBase, shardTable );
+		this.factory = origBase.factory;
+	}
+
+	@Override
+	protected T createProxy( final int primaryKey, final boolean newRecord, final Map<String, Object> recordData ) throws RecordException
+	{
+		return factory.createRecord( primaryKey, this );
+	}
+
+	@Override
+	protected RecordBase<T> createShardBase( final String shardTable )
+	{
+		return new GeneratedBase<T>(this, shardTable );
+	}
+}
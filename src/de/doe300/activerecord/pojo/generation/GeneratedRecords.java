@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.pojo.generation;
+
+import de.doe300.activerecord.logging.Logging;
+import de.doe300.activerecord.record.ActiveRecord;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Registry for all record-implementations generated at compile-time, looked up via {@link ServiceLoader}.
+ * 
+ * @author doe300
+ * @since 0.9
+ * @see RecordImplementationGenerator
+ */
+public final class GeneratedRecords
+{
+	/**
+	 * System-property to disable the use of generated record-implementations
+	 */
+	public static final String PROPERTY_DISABLE_GENERATED = "record.generated.disable";
+	
+	private static final Map<ClassLoader, Map<Class<?>, RecordFactory<?>>> factories = new WeakHashMap<>(4);
+	
+	/**
+	 * @param <T>
+	 * @param recordType the record-type
+	 * @return the factory for the generated implementation of this record-type or <code>null</code>, if there is none
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public static <T extends ActiveRecord> RecordFactory<T> getFactory(@Nonnull final Class<T> recordType)
+	{
+		if(Boolean.getBoolean( PROPERTY_DISABLE_GENERATED))
+		{
+			return null;
+		}
+		final ClassLoader loader = recordType.getClassLoader() == null ? ClassLoader.getSystemClassLoader() : recordType.getClassLoader();
+		final Map<Class<?>, RecordFactory<?>> loaderFactories;
+		synchronized(factories)
+		{
+			loaderFactories = factories.computeIfAbsent( loader, GeneratedRecords::loadFactories);
+		}
+		//the factories are mapped by their record-type
+		return ( RecordFactory<T> ) loaderFactories.get( recordType );
+	}
+	
+	@Nonnull
+	private static Map<Class<?>, RecordFactory<?>> loadFactories(@Nonnull final ClassLoader loader)
+	{
+		final Map<Class<?>, RecordFactory<?>> loaded = new HashMap<>(10);
+		try
+		{
+			for(final RecordFactory<?> factory : ServiceLoader.load( RecordFactory.class, loader))
+			{
+				loaded.put( factory.getRecordType(), factory);
+			}
+		}
+		catch(final ServiceConfigurationError e)
+		{
+			//fall back to proxy-based records
+			Logging.getLogger().error( "GeneratedRecords", "Failed to load generated record-implementations");
+			Logging.getLogger().error( "GeneratedRecords", e);
+		}
+		return Collections.unmodifiableMap( loaded );
+	}
+
+	private GeneratedRecords()
+	{
+	}
+}
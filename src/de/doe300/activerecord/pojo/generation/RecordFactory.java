@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.pojo.generation;
+
+import de.doe300.activerecord.pojo.GeneratedBase;
+import de.doe300.activerecord.record.ActiveRecord;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Factory for the record-implementations generated by the {@link RecordImplementationGenerator}.
+ * 
+ * The factories are registered as services (see {@link java.util.ServiceLoader}) and looked up via {@link GeneratedRecords}.
+ * 
+ * @author doe300
+ * @param <T> the record-type
+ * @since 0.9
+ */
+public interface RecordFactory<T extends ActiveRecord>
+{
+	/**
+	 * @return the record-type the implementation is generated for
+	 */
+	@Nonnull
+	public Class<T> getRecordType();
+	
+	/**
+	 * @param primaryKey the primary-key of the record
+	 * @param base the record-base
+	 * @return a new instance of the generated implementation
+	 */
+	@Nonnull
+	public T createRecord(@Nonnegative final int primaryKey, @Nonnull final GeneratedBase<T> base);
+}
@@ -0,0 +1,570 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.pojo.generation;
+
+import de.doe300.activerecord.annotations.ProcessorUtils;
+import de.doe300.activerecord.jdbc.TypeMappings;
+import de.doe300.activerecord.pojo.GeneratedBase;
+import de.doe300.activerecord.record.ActiveRecord;
+import de.doe300.activerecord.record.RecordType;
+import de.doe300.activerecord.record.attributes.AttributeGetter;
+import de.doe300.activerecord.record.attributes.AttributeSetter;
+import de.doe300.activerecord.record.attributes.Attributes;
+import de.doe300.activerecord.record.validation.ValidationException;
+import de.doe300.activerecord.store.RecordStore;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import javax.annotation.Generated;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation-processor generating a concrete implementation for every interface annotated with {@link RecordType}.
+ * 
+ * The generated class <code>XyzImpl</code> accesses the {@link RecordStore} directly and calls converter- and validator-methods
+ * without reflection. Its nested <code>Factory</code> is registered as service for {@link RecordFactory}, so the
+ * {@link de.doe300.activerecord.RecordCore} can use the generated class instead of a {@link java.lang.reflect.Proxy}.
+ * 
+ * No implementation is generated for record-types with abstract methods, which are not attribute-accessors (e.g. {@link java.util.Map}-methods),
+ * so these types still use the proxy-based implementation.
+ * 
+ * @author doe300
+ * @since 0.9
+ * @see GeneratedRecords
+ */
+@SupportedSourceVersion(SourceVersion.RELEASE_8)
+@SupportedAnnotationTypes({
+	"de.doe300.activerecord.record.RecordType"
+})
+public class RecordImplementationGenerator extends AbstractProcessor
+{
+	private static final String SERVICE_FILE = "META-INF/services/" + RecordFactory.class.getCanonicalName();
+	private final DateFormat ISO_8601_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+	private final Set<String> processedElements = new HashSet<>(10);
+	private final Set<String> deferredElements = new LinkedHashSet<>(10);
+	private final Set<String> generatedFactories = new TreeSet<>();
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv )
+	{
+		final Set<TypeElement> recordTypes = new LinkedHashSet<>(10);
+		for(final String deferredName : deferredElements)
+		{
+			final TypeElement deferredElement = processingEnv.getElementUtils().getTypeElement( deferredName);
+			if(deferredElement != null)
+			{
+				recordTypes.add( deferredElement);
+			}
+		}
+		deferredElements.clear();
+		roundEnv.getElementsAnnotatedWith( RecordType.class).forEach((final Element e)->{
+			if(e.getKind() == ElementKind.INTERFACE)
+			{
+				recordTypes.add( (TypeElement)e);
+			}
+		});
+		for(final TypeElement recordTypeElement : recordTypes)
+		{
+			processRecordType( recordTypeElement, roundEnv.processingOver() );
+		}
+		if(roundEnv.processingOver())
+		{
+			writeServiceFile();
+		}
+		//we have multiple processors handling the same annotations, so don't consume
+		return false;
+	}
+	
+	private void processRecordType(@Nonnull final TypeElement recordTypeElement, final boolean lastRound)
+	{
+		final String typeName = recordTypeElement.getQualifiedName().toString();
+		if(processedElements.contains( typeName))
+		{
+			return;
+		}
+		if(hasErroneousSupertype( recordTypeElement.asType()))
+		{
+			//super-types (e.g. generated attribute-interfaces) are not yet available
+			if(!lastRound)
+			{
+				deferredElements.add( typeName);
+			}
+			return;
+		}
+		processedElements.add( typeName);
+		if(lastRound)
+		{
+			//source-files created in the last round are not compiled
+			return;
+		}
+		final String unsupported = checkRecordType( recordTypeElement );
+		if(unsupported != null)
+		{
+			printSkipped( recordTypeElement, unsupported );
+			return;
+		}
+		
+		final List<String> methods = new ArrayList<>(20);
+		for(final ExecutableElement method : ElementFilter.methodsIn( processingEnv.getElementUtils().getAllMembers( recordTypeElement)))
+		{
+			if(!method.getModifiers().contains( Modifier.ABSTRACT) || isObjectMethod( method ) || 
+					method.getSimpleName().contentEquals( "getPrimaryKey") || method.getSimpleName().contentEquals( "getBase"))
+			{
+				continue;
+			}
+			final String methodSource = generateMethod( recordTypeElement, method );
+			if(methodSource == null)
+			{
+				printSkipped( recordTypeElement, "Method '" + method.getSimpleName() + "' is not an attribute-accessor");
+				return;
+			}
+			methods.add( methodSource);
+		}
+		
+		final String packageName = processingEnv.getElementUtils().getPackageOf( recordTypeElement).getQualifiedName().toString();
+		final String generatedFileName = getImplementationName( recordTypeElement );
+		final String recordType = processingEnv.getTypeUtils().erasure( recordTypeElement.asType()).toString();
+		try
+		{
+			final JavaFileObject destFile = processingEnv.getFiler().createSourceFile( 
+					(packageName.isEmpty() ? "" : packageName + ".") + generatedFileName, recordTypeElement);
+			try(Writer writer = destFile.openWriter())
+			{
+				if(!packageName.isEmpty())
+				{
+					writer.append( "package ").append( packageName).append( ";\n");
+				}
+				writer.append( "import ").append( Generated.class.getCanonicalName()).append( ";\n");
+				writer.append( "import ").append( GeneratedBase.class.getCanonicalName()).append( ";\n");
+				writer.append( "import ").append( RecordFactory.class.getCanonicalName()).append( ";\n");
+				writer.append( "import ").append( RecordStore.class.getCanonicalName()).append( ";\n");
+				writer.append( "import ").append( TypeMappings.class.getCanonicalName()).append( ";\n");
+				writer.append( "\n");
+				
+				writer.append( "@Generated(value = {\"").append( getClass().getCanonicalName()).append( "\"}, date = \"")
+						.append( ISO_8601_DATE_FORMAT.format( new Date())).append( "\")\n");
+				writer.append( "@SuppressWarnings(\"unchecked\")\n");
+				writer.append( "public final class ").append( generatedFileName).append( " implements ").append( recordType).append( " {\n\n");
+				
+				//fields and constructor
+				writer.append( "\tprivate final int primaryKey;\n");
+				writer.append( "\tprivate final GeneratedBase<").append( recordType).append( "> base;\n");
+				writer.append( "\tprivate final RecordStore store;\n\n");
+				writer.append( "\tpublic ").append( generatedFileName).append( "(final int primaryKey, final GeneratedBase<")
+						.append( recordType).append( "> base) {\n");
+				writer.append( "\t\tthis.primaryKey = primaryKey;\n");
+				writer.append( "\t\tthis.base = base;\n");
+				writer.append( "\t\tthis.store = base.getStore();\n");
+				writer.append( "\t}\n\n");
+				
+				//ActiveRecord- and Object-methods, same behavior as the proxy-based RecordHandler
+				writer.append( "\t@Override\n\tpublic int getPrimaryKey() {\n\t\treturn primaryKey;\n\t}\n\n");
+				writer.append( "\t@Override\n\tpublic GeneratedBase<").append( recordType).append( "> getBase() {\n\t\treturn base;\n\t}\n\n");
+				writer.append( "\t@Override\n\tpublic int hashCode() {\n\t\tint hash = 3;\n\t\thash = 79 * hash + primaryKey;\n"
+						+ "\t\thash = 79 * hash + base.hashCode();\n\t\treturn hash;\n\t}\n\n");
+				writer.append( "\t@Override\n\tpublic boolean equals(final Object obj) {\n\t\treturn obj instanceof ")
+						.append( ActiveRecord.class.getCanonicalName()).append( " && ").append( de.doe300.activerecord.RecordBase.class.getCanonicalName())
+						.append( ".equals(this, (").append( ActiveRecord.class.getCanonicalName()).append( ") obj);\n\t}\n\n");
+				writer.append( "\t@Override\n\tpublic String toString() {\n\t\treturn toStringOverride();\n\t}\n\n");
+				
+				for(final String method : methods)
+				{
+					writer.append( method);
+				}
+				
+				//the factory registered as service
+				writer.append( "\tpublic static final class Factory implements RecordFactory<").append( recordType).append( "> {\n\n");
+				writer.append( "\t\t@Override\n\t\tpublic Class<").append( recordType).append( "> getRecordType() {\n\t\t\treturn ")
+						.append( recordType).append( ".class;\n\t\t}\n\n");
+				writer.append( "\t\t@Override\n\t\tpublic ").append( recordType).append( " createRecord(final int primaryKey, final GeneratedBase<")
+						.append( recordType).append( "> base) {\n\t\t\treturn new ").append( generatedFileName).append( "(primaryKey, base);\n\t\t}\n");
+				writer.append( "\t}\n");
+				writer.append( "}");
+			}
+			generatedFactories.add( (packageName.isEmpty() ? "" : packageName + ".") + generatedFileName + "$Factory");
+			processingEnv.getMessager().printMessage( Diagnostic.Kind.NOTE, "Generated: " + 
+					(packageName.isEmpty() ? "" : packageName + ".") + generatedFileName, recordTypeElement);
+		}
+		catch ( IOException ex )
+		{
+			processingEnv.getMessager().printMessage( Diagnostic.Kind.ERROR, ex.getMessage(), recordTypeElement);
+		}
+	}
+	
+	@Nullable
+	private String checkRecordType(@Nonnull final TypeElement recordTypeElement)
+	{
+		if(!recordTypeElement.getTypeParameters().isEmpty())
+		{
+			return "Generic record-types are not supported";
+		}
+		Element element = recordTypeElement;
+		while(element != null && element.getKind() != ElementKind.PACKAGE)
+		{
+			if(element.getModifiers().contains( Modifier.PRIVATE))
+			{
+				return "Record-type is not accessible";
+			}
+			element = element.getEnclosingElement();
+		}
+		return null;
+	}
+	
+	private void printSkipped(@Nonnull final TypeElement recordTypeElement, @Nonnull final String reason)
+	{
+		processingEnv.getMessager().printMessage( Diagnostic.Kind.NOTE, "No implementation generated for '" + 
+				recordTypeElement.getSimpleName() + "', using proxy-based records: " + reason, recordTypeElement);
+	}
+	
+	private boolean hasErroneousSupertype(@Nonnull final TypeMirror type)
+	{
+		for(final TypeMirror superType : processingEnv.getTypeUtils().directSupertypes( type))
+		{
+			if(superType.getKind() == TypeKind.ERROR || hasErroneousSupertype( superType ))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static boolean isObjectMethod(@Nonnull final ExecutableElement method)
+	{
+		final String name = method.getSimpleName().toString();
+		final int numParams = method.getParameters().size();
+		return (numParams == 0 && (name.equals( "hashCode") || name.equals( "toString"))) || (numParams == 1 && name.equals( "equals"));
+	}
+	
+	@Nonnull
+	private static String getImplementationName(@Nonnull final TypeElement recordTypeElement)
+	{
+		final StringBuilder name = new StringBuilder(recordTypeElement.getSimpleName());
+		Element enclosing = recordTypeElement.getEnclosingElement();
+		while(enclosing != null && enclosing.getKind() != ElementKind.PACKAGE)
+		{
+			name.insert( 0, '_').insert( 0, enclosing.getSimpleName());
+			enclosing = enclosing.getEnclosingElement();
+		}
+		return name.append( "Impl").toString();
+	}
+	
+	/**
+	 * Generates the source for an abstract method, mirroring the behavior of the proxy-based 
+	 * {@link de.doe300.activerecord.proxy.RecordHandler}
+	 * 
+	 * @param recordTypeElement the record-type
+	 * @param method the abstract method
+	 * @return the generated source or <code>null</code>, if the method can't be implemented
+	 */
+	@Nullable
+	private String generateMethod(@Nonnull final TypeElement recordTypeElement, @Nonnull final ExecutableElement method)
+	{
+		if(!method.getTypeParameters().isEmpty())
+		{
+			return null;
+		}
+		final TypeMirror returnType = method.getReturnType();
+		final boolean isVoid = returnType.getKind() == TypeKind.VOID;
+		final int numParams = method.getParameters().size();
+		final List<ExecutableElement> calledMethods = new ArrayList<>(2);
+		final StringBuilder body = new StringBuilder(200);
+		
+		final AttributeGetter getter = method.getAnnotation( AttributeGetter.class);
+		final AttributeSetter setter = method.getAnnotation( AttributeSetter.class);
+		if(getter != null)
+		{
+			if(isVoid || numParams != 0)
+			{
+				return null;
+			}
+			body.append( "\t\tfinal Object value = store.getValue(base, primaryKey, \"").append( getter.name()).append( "\");\n");
+			final DeclaredType converterType = ProcessorUtils.getTypeMirror( processingEnv, getter::converterClass);
+			if(ProcessorUtils.isClassSet( processingEnv, converterType))
+			{
+				final ExecutableElement converter = getAccessorMethod( converterType, getter.converterMethod());
+				final String converterCall = getAccessorCall( recordTypeElement, converterType, converter, "value");
+				if(converterCall == null || converter.getReturnType().getKind() == TypeKind.VOID)
+				{
+					return null;
+				}
+				calledMethods.add( converter);
+				body.append( "\t\treturn (").append( getReferenceType( returnType)).append( ") ").append( converterCall).append( ";\n");
+			}
+			else
+			{
+				body.append( "\t\treturn (").append( getReferenceType( returnType)).append( ") TypeMappings.mapFromDB(value, ")
+						.append( processingEnv.getTypeUtils().erasure( returnType)).append( ".class);\n");
+			}
+		}
+		else if(setter != null)
+		{
+			if(!isVoid || numParams != 1)
+			{
+				return null;
+			}
+			final DeclaredType validatorType = ProcessorUtils.getTypeMirror( processingEnv, setter::validatorClass);
+			if(ProcessorUtils.isClassSet( processingEnv, validatorType))
+			{
+				final ExecutableElement validator = getAccessorMethod( validatorType, setter.validatorMethod());
+				final String validatorCall = getAccessorCall( recordTypeElement, validatorType, validator, "arg0");
+				if(validatorCall == null)
+				{
+					return null;
+				}
+				calledMethods.add( validator);
+				if(validator.getReturnType().getKind() == TypeKind.VOID)
+				{
+					body.append( "\t\t").append( validatorCall).append( ";\n");
+				}
+				else
+				{
+					body.append( "\t\tif(Boolean.FALSE.equals(").append( validatorCall).append( ")) {\n");
+					body.append( "\t\t\tthrow new ").append( ValidationException.class.getCanonicalName()).append( "(\"")
+							.append( setter.name()).append( "\", arg0);\n\t\t}\n");
+				}
+			}
+			final DeclaredType converterType = ProcessorUtils.getTypeMirror( processingEnv, setter::converterClass);
+			String value = "arg0";
+			if(ProcessorUtils.isClassSet( processingEnv, converterType))
+			{
+				final ExecutableElement converter = getAccessorMethod( converterType, setter.converterMethod());
+				final String converterCall = getAccessorCall( recordTypeElement, converterType, converter, "arg0");
+				if(converterCall == null)
+				{
+					return null;
+				}
+				calledMethods.add( converter);
+				if(converter.getReturnType().getKind() == TypeKind.VOID)
+				{
+					body.append( "\t\t").append( converterCall).append( ";\n");
+					value = "null";
+				}
+				else
+				{
+					value = converterCall;
+				}
+			}
+			//TODO setter does not support type-mapping
+			body.append( "\t\tstore.setValue(base, primaryKey, \"").append( setter.name()).append( "\", ").append( value).append( ");\n");
+		}
+		else
+		{
+			//bean-style accessor
+			final String property = Attributes.getPropertyName( method.getSimpleName().toString());
+			if(property == null)
+			{
+				return null;
+			}
+			if(numParams == 1 && isVoid && method.getSimpleName().toString().startsWith( "set"))
+			{
+				body.append( "\t\tstore.setValue(base, primaryKey, \"").append( property).append( "\", arg0);\n");
+			}
+			else if(numParams == 0 && !isVoid)
+			{
+				body.append( "\t\treturn (").append( getReferenceType( returnType)).append( ") TypeMappings.mapFromDB(store.getValue(base, primaryKey, \"")
+						.append( property).append( "\"), ").append( processingEnv.getTypeUtils().erasure( returnType)).append( ".class);\n");
+			}
+			else
+			{
+				return null;
+			}
+		}
+		
+		final StringBuilder source = new StringBuilder(400);
+		source.append( "\t@Override\n\tpublic ").append( returnType).append( ' ').append( method.getSimpleName()).append( '(');
+		for(int i = 0; i < numParams; i++)
+		{
+			source.append( i > 0 ? ", " : "").append( "final ").append( method.getParameters().get( i).asType()).append( " arg").append( i);
+		}
+		source.append( ')');
+		if(!method.getThrownTypes().isEmpty())
+		{
+			source.append( " throws ").append( method.getThrownTypes().stream().map( TypeMirror::toString).collect( Collectors.joining( ", ")));
+		}
+		source.append( " {\n");
+		
+		//checked exceptions of the converter/validator not declared by the method are wrapped, like for the proxy
+		final List<TypeMirror> declaredExceptions = new ArrayList<>(2);
+		boolean wrapExceptions = false;
+		for(final ExecutableElement calledMethod : calledMethods)
+		{
+			for(final TypeMirror thrownType : calledMethod.getThrownTypes())
+			{
+				if(isUncheckedException( thrownType ))
+				{
+					continue;
+				}
+				if(method.getThrownTypes().stream().anyMatch( (final TypeMirror t) -> processingEnv.getTypeUtils().isSubtype( thrownType, t)))
+				{
+					declaredExceptions.add( thrownType);
+				}
+				else
+				{
+					wrapExceptions = true;
+				}
+			}
+		}
+		if(wrapExceptions)
+		{
+			source.append( "\t\ttry {\n");
+			source.append( body.toString().replaceAll( "(?m)^\t\t", "\t\t\t"));
+			source.append( "\t\t}\n");
+			for(final TypeMirror declaredException : declaredExceptions.stream().map( TypeMirror::toString).distinct().
+					map( (final String name) -> processingEnv.getElementUtils().getTypeElement( name).asType()).collect( Collectors.toList()))
+			{
+				source.append( "\t\tcatch(final ").append( declaredException).append( " e) {\n\t\t\tthrow e;\n\t\t}\n");
+			}
+			source.append( "\t\tcatch(final RuntimeException e) {\n\t\t\tthrow e;\n\t\t}\n");
+			source.append( "\t\tcatch(final Exception e) {\n\t\t\tthrow new ").append( UndeclaredThrowableException.class.getCanonicalName())
+					.append( "(e);\n\t\t}\n");
+		}
+		else
+		{
+			source.append( body);
+		}
+		source.append( "\t}\n\n");
+		return source.toString();
+	}
+	
+	@Nullable
+	private ExecutableElement getAccessorMethod(@Nonnull final DeclaredType accessorType, @Nonnull final String methodName)
+	{
+		final TypeMirror objectType = processingEnv.getElementUtils().getTypeElement( Object.class.getCanonicalName()).asType();
+		return ProcessorUtils.getClassMethod( processingEnv, (TypeElement)accessorType.asElement(), methodName, 
+				(final ExecutableElement ee) -> ee.getParameters().size() == 1 && 
+						processingEnv.getTypeUtils().isSameType( objectType, ee.getParameters().get( 0).asType()), Modifier.PUBLIC);
+	}
+	
+	/**
+	 * @return the call to the converter- or validator-method or <code>null</code>, if it can't be called directly
+	 */
+	@Nullable
+	private String getAccessorCall(@Nonnull final TypeElement recordTypeElement, @Nonnull final DeclaredType accessorType, 
+			@Nullable final ExecutableElement accessorMethod, @Nonnull final String argument)
+	{
+		if(accessorMethod == null)
+		{
+			return null;
+		}
+		if(accessorMethod.getModifiers().contains( Modifier.STATIC))
+		{
+			return processingEnv.getTypeUtils().erasure( accessorType) + "." + accessorMethod.getSimpleName() + "(" + argument + ")";
+		}
+		if(processingEnv.getTypeUtils().isSubtype( processingEnv.getTypeUtils().erasure( recordTypeElement.asType()), 
+				processingEnv.getTypeUtils().erasure( accessorType)))
+		{
+			//the accessor is a method of the record itself
+			return "this." + accessorMethod.getSimpleName() + "(" + argument + ")";
+		}
+		return null;
+	}
+	
+	@Nonnull
+	private String getReferenceType(@Nonnull final TypeMirror type)
+	{
+		if(type.getKind().isPrimitive())
+		{
+			return processingEnv.getTypeUtils().boxedClass( ( PrimitiveType ) type).getQualifiedName().toString();
+		}
+		return type.toString();
+	}
+	
+	private boolean isUncheckedException(@Nonnull final TypeMirror exceptionType)
+	{
+		final TypeMirror runtimeException = processingEnv.getElementUtils().getTypeElement( RuntimeException.class.getCanonicalName()).asType();
+		final TypeMirror error = processingEnv.getElementUtils().getTypeElement( Error.class.getCanonicalName()).asType();
+		return processingEnv.getTypeUtils().isSubtype( exceptionType, runtimeException) || processingEnv.getTypeUtils().isSubtype( exceptionType, error);
+	}
+	
+	private void writeServiceFile()
+	{
+		if(generatedFactories.isEmpty())
+		{
+			return;
+		}
+		//keep the entries of previous (incremental) compilations
+		final Set<String> factories = new TreeSet<>(generatedFactories);
+		try
+		{
+			final FileObject existingFile = processingEnv.getFiler().getResource( StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+			try(BufferedReader reader = new BufferedReader(new InputStreamReader(existingFile.openInputStream(), StandardCharsets.UTF_8)))
+			{
+				reader.lines().map( String::trim).filter( (final String line) -> !line.isEmpty() && !line.startsWith( "#")).forEach( factories::add);
+			}
+		}
+		catch(final IOException | IllegalArgumentException e)
+		{
+			//no such file
+		}
+		try
+		{
+			final FileObject serviceFile = processingEnv.getFiler().createResource( StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+			try(Writer writer = serviceFile.openWriter())
+			{
+				for(final String factory : factories)
+				{
+					writer.append( factory).append( "\n");
+				}
+			}
+		}
+		catch ( IOException ex )
+		{
+			processingEnv.getMessager().printMessage( Diagnostic.Kind.ERROR, "Failed to register generated records: " + ex.getMessage());
+		}
+	}
+}
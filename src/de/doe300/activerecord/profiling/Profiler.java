@@ -76,6 +76,16 @@ public class Profiler
 		System.out.printf( "Total Time (in ms): %10.3f%n",totalTime );
 	}
 
+	/**
+	 * @param name the name of the profiled method
+	 * @return the number of runs of the method
+	 * @since 0.9
+	 */
+	public int getNumberOfRuns(final String name)
+	{
+		return numberOfRuns.getOrDefault( name, 0);
+	}
+
 	private void increaseRuns(final String name)
 	{
 		numberOfRuns.putIfAbsent( name, 0);
@@ -24,6 +24,7 @@
  */
 package de.doe300.activerecord.profiling;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -125,6 +126,13 @@ public class ProfilingRecordStore implements RecordStore
 		return profiler.profile( "getValuesStream", () -> store.getValues( tableName, column, condColumn, condValue ));
 	}
 
+	@Override
+	public Stream<Map<String, Object>> getValues( final String tableName, final String[] columns, final Condition condition ) throws
+	IllegalArgumentException
+	{
+		return profiler.profile( "getValuesRows", () -> store.getValues( tableName, columns, condition ));
+	}
+
 	@Override
 	public boolean addRow( final String tableName, final String[] rows, final Object[] values ) throws IllegalArgumentException
 	{
@@ -137,6 +145,12 @@ public class ProfilingRecordStore implements RecordStore
 		return profiler.profileBoolean("removeRow", () -> store.removeRow(tableName, cond));
 	}
 
+	@Override
+	public long getModificationCount( final String tableName )
+	{
+		return profiler.profile( "getModificationCount", () -> store.getModificationCount( tableName ));
+	}
+
 	@Override
 	public boolean save(final RecordBase<?> base, final int primaryKey )
 	{
@@ -173,6 +187,12 @@ public class ProfilingRecordStore implements RecordStore
 		return profiler.profileInt("insertNewRecord", () -> store.insertNewRecord(base, columnData));
 	}
 
+	@Override
+	public int[] insertNewRecords(final RecordBase<?> base, final List<Map<String, Object>> rows )
+	{
+		return profiler.profile("insertNewRecords", () -> store.insertNewRecords(base, rows));
+	}
+
 	@Override
 	public boolean isSynchronized(final RecordBase<?> base, final int primaryKey )
 	{
@@ -240,6 +260,19 @@ public class ProfilingRecordStore implements RecordStore
 	{
 		return profiler.profile( "aggregate", () -> store.aggregate( base, aggregateFunction, condition));
 	}
+
+	@Override
+	public Object[] aggregateAll( final RecordBase<?> base, final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, final Condition condition )
+	{
+		return profiler.profile( "aggregateAll", () -> store.aggregateAll( base, aggregateFunctions, condition));
+	}
+
+	@Override
+	public Map<List<Object>, Object[]> aggregateGrouped( final RecordBase<?> base, final String[] groupColumns,
+			final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, final Condition condition )
+	{
+		return profiler.profile( "aggregateGrouped", () -> store.aggregateGrouped( base, groupColumns, aggregateFunctions, condition));
+	}
 	
 	
 }
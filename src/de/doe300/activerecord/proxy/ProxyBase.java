@@ -44,7 +44,7 @@ import de.doe300.activerecord.store.RecordStore;
 public final class ProxyBase<T extends ActiveRecord> extends RecordBase<T>
 {
 	private final Class<? extends T> proxyType;
-	private final ProxyHandler[] proxyHandlers;
+	private final RecordHandler.DispatchTable dispatchTable;
 
 	/**
 	 * Do not call this constructor!
@@ -59,14 +59,14 @@ public final class ProxyBase<T extends ActiveRecord> extends RecordBase<T>
 	{
 		super(recordType, core, store);
 		this.proxyType = proxyType;
-		this.proxyHandlers = proxyHandlers;
+		this.dispatchTable = new RecordHandler.DispatchTable(recordType, proxyHandlers);
 	}
 	
 	private ProxyBase(@Nonnull final ProxyBase<T> origBase, @Nonnull final String shardTable)
 	{
 		super(origBase, shardTable );
 		this.proxyType = origBase.proxyType;
-		this.proxyHandlers = origBase.proxyHandlers;
+		this.dispatchTable = origBase.dispatchTable;
 	}
 
 	@Override
@@ -74,7 +74,7 @@ public final class ProxyBase<T extends ActiveRecord> extends RecordBase<T>
 	{
 		try
 		{
-			return proxyType.getConstructor( InvocationHandler.class).newInstance( new RecordHandler<T>(primaryKey, this, proxyHandlers ));
+			return proxyType.getConstructor( InvocationHandler.class).newInstance( new RecordHandler<T>(primaryKey, this, dispatchTable ));
 		}
 		catch ( ReflectiveOperationException | SecurityException ex )
 		{
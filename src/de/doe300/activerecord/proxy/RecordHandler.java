@@ -24,13 +24,23 @@
  */
 package de.doe300.activerecord.proxy;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 
 import de.doe300.activerecord.RecordBase;
 import de.doe300.activerecord.jdbc.TypeMappings;
@@ -45,6 +55,9 @@ import de.doe300.activerecord.store.RecordStore;
 
 /**
  * The handler-class for proxy-based ActiveRecord. Mainly handles standard ActiveRecord-methods and delegates to any given {@link ProxyHandler}
+ * 
+ * Since version 0.9, the way a method is handled is resolved only once per record-type and method and stored in a {@link DispatchTable}.
+ * Default-methods are invoked via cached {@link MethodHandle}s.
  * @author doe300
  * @param <T>
  */
@@ -56,8 +69,21 @@ public final class RecordHandler<T extends ActiveRecord> implements InvocationHa
 	private final RecordBase<T> base;
 	private final ProxyHandler[] proxyHandlers;
 	private final int primaryKey;
+	@Nonnull
+	private final DispatchTable dispatchTable;
 
 	private static final Method getPrimaryKey, getBase, hashCode, toString, equals;
+	private static final MethodType ACCESSOR_METHOD_TYPE = MethodType.methodType( Object.class, Object.class, Object.class);
+	private static final Object[] NO_ARGUMENTS = new Object[0];
+	/**
+	 * <code>MethodHandles.privateLookupIn(Class, Lookup)</code>, available since JDK 9
+	 */
+	@Nullable
+	private static final Method privateLookupIn;
+	/**
+	 * The private constructor of {@link MethodHandles.Lookup}, only used if {@link #privateLookupIn} is not available (JDK 8)
+	 */
+	@Nullable
 	private static final Constructor<MethodHandles.Lookup> constructor;
 	static {
 		try
@@ -73,19 +99,29 @@ public final class RecordHandler<T extends ActiveRecord> implements InvocationHa
 			throw new NoSuchMethodError(e.getMessage());
 		}
 
+		Method lookupMethod = null;
+		Constructor<MethodHandles.Lookup> lookupConstructor = null;
 		try
 		{
-			constructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
-			if (!RecordHandler.constructor.isAccessible())
-			{
-				RecordHandler.constructor.setAccessible(true);
-			}
+			lookupMethod = MethodHandles.class.getMethod( "privateLookupIn", Class.class, MethodHandles.Lookup.class);
 		}
-		catch ( NoSuchMethodException | SecurityException ex )
+		catch(final NoSuchMethodException e)
 		{
-			throw new NoSuchMethodError(ex.getMessage());
+			try
+			{
+				lookupConstructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+				if (!lookupConstructor.isAccessible())
+				{
+					lookupConstructor.setAccessible(true);
+				}
+			}
+			catch ( NoSuchMethodException | SecurityException ex )
+			{
+				throw new NoSuchMethodError(ex.getMessage());
+			}
 		}
-
+		privateLookupIn = lookupMethod;
+		constructor = lookupConstructor;
 	}
 
 	/**
@@ -95,11 +131,24 @@ public final class RecordHandler<T extends ActiveRecord> implements InvocationHa
 	 * @param handlers
 	 */
 	public RecordHandler(final int primaryKey,@Nonnull final RecordBase<T> base, final ProxyHandler... handlers)
+	{
+		this(primaryKey, base, new DispatchTable(base.getRecordType(), handlers));
+	}
+	
+	/**
+	 * Creates a record-handler sharing the dispatch-table of all records of the given type
+	 * @param primaryKey
+	 * @param base
+	 * @param dispatchTable 
+	 * @since 0.9
+	 */
+	RecordHandler(final int primaryKey,@Nonnull final RecordBase<T> base, @Nonnull final DispatchTable dispatchTable)
 	{
 		this.primaryKey = primaryKey;
 		this.base = base;
 		this.store = base.getStore();
-		this.proxyHandlers = handlers;
+		this.proxyHandlers = dispatchTable.proxyHandlers;
+		this.dispatchTable = dispatchTable;
 	}
 
 	@Override
@@ -113,142 +162,358 @@ public final class RecordHandler<T extends ActiveRecord> implements InvocationHa
 		{
 			throw new IllegalArgumentException("RecordHandler can only be used with instances of ActiveRecord", e );
 		}
-		//0. handle ActiveRecord-Methods
-		if(method.equals( RecordHandler.getPrimaryKey))
-		{
-			return primaryKey;
-		}
-		if(method.equals( RecordHandler.getBase))
+		return dispatchTable.getInvoker( method ).invoke( this, proxy, record, method, args );
+	}
+
+	/**
+	 * @return the record-type
+	 * @see RecordBase#getRecordType()
+	 */
+	public Class<T> getRecordType()
+	{
+		return base.getRecordType();
+	}
+
+	private Object getAttribute(@Nonnull final ActiveRecord proxy, @Nonnull final String attributeName)
+	{
+		Object value = store.getValue( base, primaryKey, attributeName );
+		for(final ProxyHandler h : proxyHandlers)
 		{
-			return base;
+			value = h.getAttributeHook( proxy, attributeName, value );
 		}
-		if(method.equals( RecordHandler.hashCode))
+		return value;
+	}
+
+	private void setAttribute(@Nonnull final ActiveRecord proxy, @Nonnull final String attributeName, @Nullable final Object value)
+	{
+		Object storeValue = value;
+		for(final ProxyHandler h : proxyHandlers)
 		{
-			int hash = 3;
-			hash = 79 * hash + this.primaryKey;
-			hash = 79 * hash + this.base.hashCode();
-			return hash;
+			storeValue = h.setAttributeHook( proxy, attributeName, storeValue );
 		}
-		if(method.equals( RecordHandler.toString))
+		store.setValue( base, primaryKey, attributeName, storeValue );
+	}
+	
+	/**
+	 * The resolved action to execute for a single method
+	 * @since 0.9
+	 */
+	@FunctionalInterface
+	interface MethodInvoker
+	{
+		/**
+		 * @param handler the handler of the record
+		 * @param proxy the proxy-object
+		 * @param record the proxy-object as record
+		 * @param method the invoked method
+		 * @param args the arguments
+		 * @return the result of the invocation
+		 * @throws Throwable 
+		 */
+		public Object invoke(@Nonnull final RecordHandler<?> handler, @Nonnull final Object proxy, @Nonnull final ActiveRecord record,
+				@Nonnull final Method method, @Nullable final Object[] args) throws Throwable;
+	}
+	
+	/**
+	 * Maps every method of a record-type to its {@link MethodInvoker}.
+	 * 
+	 * The table is created once per record-type and shared by all {@link RecordHandler} of this type. 
+	 * Column-names, converter- and validator-methods as well as the ownership of the {@link ProxyHandler} are resolved on creation.
+	 * 
+	 * @since 0.9
+	 */
+	@Immutable
+	static final class DispatchTable
+	{
+		@Nonnull
+		private final Class<? extends ActiveRecord> recordType;
+		private final ProxyHandler[] proxyHandlers;
+		@Nonnull
+		private final Map<Method, MethodInvoker> invokers;
+
+		/**
+		 * @param recordType the record-type
+		 * @param proxyHandlers the proxy-handlers
+		 */
+		DispatchTable(@Nonnull final Class<? extends ActiveRecord> recordType, final ProxyHandler[] proxyHandlers)
 		{
-			//redirect to overriding toString()-method
-			return record.toStringOverride();
+			this.recordType = recordType;
+			this.proxyHandlers = proxyHandlers == null ? new ProxyHandler[0] : proxyHandlers;
+			final Map<Method, MethodInvoker> table = new HashMap<>(recordType.getMethods().length + 3);
+			for(final Method method : recordType.getMethods())
+			{
+				table.put( method, resolveInvoker( method ) );
+			}
+			for(final Method method : new Method[]{RecordHandler.hashCode, RecordHandler.toString, RecordHandler.equals})
+			{
+				table.put( method, resolveInvoker( method ) );
+			}
+			this.invokers = Collections.unmodifiableMap( table );
 		}
-		if(method.equals( RecordHandler.equals))
+		
+		@Nonnull
+		MethodInvoker getInvoker(@Nonnull final Method method)
 		{
-			return args!=null && args.length==1 && args[0] instanceof ActiveRecord && RecordBase.equals(record, ( ActiveRecord ) args[0]);
+			final MethodInvoker invoker = invokers.get( method );
+			if(invoker != null)
+			{
+				return invoker;
+			}
+			//method not declared by the record-type, e.g. when called directly
+			return resolveInvoker( method );
 		}
-		//1. call method-handler
-		//proxy-handlers are checked first to maximize extensibility
-		if(proxyHandlers!=null)
+		
+		@Nonnull
+		private MethodInvoker resolveInvoker(@Nonnull final Method method)
 		{
-			for(final ProxyHandler handler:proxyHandlers)
+			//0. handle ActiveRecord-Methods
+			if(method.equals( RecordHandler.getPrimaryKey))
+			{
+				return (handler, proxy, record, m, args) -> handler.primaryKey;
+			}
+			if(method.equals( RecordHandler.getBase))
+			{
+				return (handler, proxy, record, m, args) -> handler.base;
+			}
+			if(method.equals( RecordHandler.hashCode))
 			{
-				if(handler.handlesMethod( record, method, args ))
+				return (handler, proxy, record, m, args) -> 
 				{
-					Logging.getLogger().debug( base.getRecordType().getSimpleName(), "Method "+method.getName()+" is handled by "+handler);
-					return handler.invoke( record, this, method, args );
+					int hash = 3;
+					hash = 79 * hash + handler.primaryKey;
+					hash = 79 * hash + handler.base.hashCode();
+					return hash;
+				};
+			}
+			if(method.equals( RecordHandler.toString))
+			{
+				//redirect to overriding toString()-method
+				return (handler, proxy, record, m, args) -> record.toStringOverride();
+			}
+			if(method.equals( RecordHandler.equals))
+			{
+				return (handler, proxy, record, m, args) -> 
+						args!=null && args.length==1 && args[0] instanceof ActiveRecord && RecordBase.equals(record, ( ActiveRecord ) args[0]);
+			}
+			//1. call method-handler
+			//proxy-handlers are checked first to maximize extensibility
+			final MethodInvoker fallback = resolveRecordMethod( method );
+			final List<ProxyHandler> dynamicHandlers = new ArrayList<>(proxyHandlers.length);
+			ProxyHandler staticHandler = null;
+			for(final ProxyHandler proxyHandler : proxyHandlers)
+			{
+				final Boolean handles = proxyHandler.handlesMethodForType( recordType, method );
+				if(handles == null)
+				{
+					dynamicHandlers.add( proxyHandler);
+				}
+				else if(handles)
+				{
+					staticHandler = proxyHandler;
+					break;
 				}
 			}
+			if(staticHandler != null)
+			{
+				Logging.getLogger().debug( recordType.getSimpleName(), "Method "+method.getName()+" is handled by "+staticHandler);
+			}
+			if(dynamicHandlers.isEmpty())
+			{
+				return staticHandler == null ? fallback : resolveHandlerMethod( staticHandler );
+			}
+			final ProxyHandler[] candidates = dynamicHandlers.toArray( new ProxyHandler[dynamicHandlers.size()]);
+			final MethodInvoker next = staticHandler == null ? fallback : resolveHandlerMethod( staticHandler );
+			return (handler, proxy, record, m, args) -> 
+			{
+				for(final ProxyHandler proxyHandler : candidates)
+				{
+					if(proxyHandler.handlesMethod( record, m, args ))
+					{
+						Logging.getLogger().debug( recordType.getSimpleName(), "Method "+m.getName()+" is handled by "+proxyHandler);
+						return proxyHandler.invoke( record, handler, m, args );
+					}
+				}
+				return next.invoke( handler, proxy, record, m, args );
+			};
 		}
-		//2. delegate default methods back to Interface
-		if (method.isDefault())
+		
+		@Nonnull
+		private static MethodInvoker resolveHandlerMethod(@Nonnull final ProxyHandler owner)
 		{
-			//handles default methods
-			//see http://rmannibucau.wordpress.com/2014/03/27/java-8-default-interface-methods-and-jdk-dynamic-proxies/
-			final Class<?> declaringClass = method.getDeclaringClass();
-			return RecordHandler.constructor.newInstance(declaringClass, MethodHandles.Lookup.PRIVATE)
-				.unreflectSpecial(method, declaringClass)
-				.bindTo(proxy)
-				.invokeWithArguments(args);
-		}
-		//3. check if attribute-accessor
-		//3.1 check for AttributeAccessor-annotations
-		if(method.isAnnotationPresent( AttributeGetter.class))
+			return (handler, proxy, record, m, args) -> owner.invoke( record, handler, m, args );
+		}
+		
+		@Nonnull
+		private MethodInvoker resolveRecordMethod(@Nonnull final Method method)
 		{
-			final String column = method.getAnnotation( AttributeGetter.class).name();
-			final Method converterMethod = Attributes.getConverterMethod( method);
-			if(converterMethod==null)
+			//2. delegate default methods back to Interface
+			if (method.isDefault())
 			{
-				return TypeMappings.mapFromDB( store.getValue(base, primaryKey, column ), method.getReturnType());
+				final MethodHandle defaultMethod;
+				try
+				{
+					defaultMethod = toDefaultMethodHandle( method );
+				}
+				catch(final ReflectiveOperationException e)
+				{
+					//the error is thrown on invocation
+					return (handler, proxy, record, m, args) -> 
+					{
+						throw e;
+					};
+				}
+				return (handler, proxy, record, m, args) -> 
+				{
+					final Object[] arguments = args == null ? NO_ARGUMENTS : args;
+					return (Object)defaultMethod.invokeExact( proxy, arguments);
+				};
 			}
-			return converterMethod.invoke( proxy, store.getValue(base, primaryKey, column ) );
-		}
-		if(method.isAnnotationPresent( AttributeSetter.class))
-		{
-			final String column = method.getAnnotation( AttributeSetter.class).name();
-			final Method converterMethod = Attributes.getConverterMethod( method);
-			final Method validatorMethod = Attributes.getValidatorMethod(method);
-			if(args == null|| args.length==0)
+			//3. check if attribute-accessor
+			try
 			{
-				Logging.getLogger().error( base.getRecordType().getSimpleName(), method.getName()+": Argument for setter can't be null");
-				throw new IllegalArgumentException("Argument for setter can't be null");
+				//3.1 check for AttributeAccessor-annotations
+				if(method.isAnnotationPresent( AttributeGetter.class))
+				{
+					final String column = method.getAnnotation( AttributeGetter.class).name();
+					final MethodHandle converter = toAccessorHandle( Attributes.getConverterMethod( method));
+					final Class<?> returnType = method.getReturnType();
+					if(converter == null)
+					{
+						return (handler, proxy, record, m, args) -> 
+								TypeMappings.mapFromDB( handler.store.getValue(handler.base, handler.primaryKey, column ), returnType);
+					}
+					return (handler, proxy, record, m, args) -> 
+							invokeAccessor( converter, proxy, handler.store.getValue(handler.base, handler.primaryKey, column ) );
+				}
+				if(method.isAnnotationPresent( AttributeSetter.class))
+				{
+					final String column = method.getAnnotation( AttributeSetter.class).name();
+					final MethodHandle converter = toAccessorHandle( Attributes.getConverterMethod( method));
+					final MethodHandle validator = toAccessorHandle( Attributes.getValidatorMethod(method));
+					return (handler, proxy, record, m, args) -> 
+					{
+						if(args == null|| args.length==0)
+						{
+							Logging.getLogger().error( recordType.getSimpleName(), m.getName()+": Argument for setter can't be null");
+							throw new IllegalArgumentException("Argument for setter can't be null");
+						}
+						if(validator != null && Boolean.FALSE.equals(invokeAccessor( validator, proxy, args[0])))
+						{
+							throw new ValidationException(column, args[0]);
+						}
+						if(converter == null)
+						{
+							handler.setAttribute( record, column, args[0]);
+						}
+						else
+						{
+							handler.setAttribute( record, column, invokeAccessor( converter, proxy, args[0] ) );
+						}
+						//TODO setter does not support type-mapping
+						//setters are void-methods
+						return null;
+					};
+				}
+			}
+			catch(final ReflectiveOperationException e)
+			{
+				//the error is thrown on invocation
+				return (handler, proxy, record, m, args) -> 
+				{
+					throw e;
+				};
 			}
-			if(validatorMethod!=null)
+			//3.2 check for bean-style accessor
+			final String property = Attributes.getPropertyName( method.getName() );
+			if(property!=null)
 			{
-				if (Boolean.FALSE.equals(validatorMethod.invoke(proxy, args[0])))
+				if(method.getParameterCount() == 1 && Attributes.isSetter( method, null, false))
+				{
+					return (handler, proxy, record, m, args) -> 
+					{
+						handler.setAttribute( record, property, args[0]);
+						//setters are void-methods
+						return null;
+					};
+				}
+				if(method.getParameterCount() == 0)
 				{
-					throw new ValidationException(column, args[0]);
+					final Class<?> returnType = method.getReturnType();
+					return (handler, proxy, record, m, args) -> TypeMappings.mapFromDB( handler.getAttribute( record, property ), returnType);
 				}
 			}
-			if(converterMethod==null)
+			//method not handled
+			return (handler, proxy, record, m, args) -> 
 			{
-				setAttribute( record, column, args[0]);
+				Logging.getLogger().error( recordType.getSimpleName(), "Method '"+m.getName()+"' is not implemented for this record-type");
+				throw new NoSuchMethodException("Method '"+m.getName()+"' is not implemented for this record-type");
+			};
+		}
+		
+		/**
+		 * Creates the handle calling the default-implementation of the given method, bypassing the proxy.
+		 * 
+		 * The returned handle accepts the proxy-object and the arguments as array and returns the (boxed) result or <code>null</code> for void-methods.
+		 * For varargs-methods, the variable arguments are expected as array (like passed to the proxy), so the handle has a fixed arity.
+		 * 
+		 * See http://rmannibucau.wordpress.com/2014/03/27/java-8-default-interface-methods-and-jdk-dynamic-proxies/
+		 * 
+		 * @param defaultMethod the default-method
+		 * @return the method-handle
+		 * @throws ReflectiveOperationException 
+		 */
+		@Nonnull
+		private static MethodHandle toDefaultMethodHandle(@Nonnull final Method defaultMethod) throws ReflectiveOperationException
+		{
+			final Class<?> declaringClass = defaultMethod.getDeclaringClass();
+			final MethodHandles.Lookup lookup;
+			if(privateLookupIn != null)
+			{
+				lookup = (MethodHandles.Lookup)privateLookupIn.invoke( null, declaringClass, MethodHandles.lookup());
 			}
 			else
 			{
-				setAttribute( record, column, converterMethod.invoke( proxy, args[0] ) );
+				lookup = constructor.newInstance(declaringClass, MethodHandles.Lookup.PRIVATE);
 			}
-			//TODO setter does not support type-mapping
-			//setters are void-methods
-			return null;
+			final int numArgs = defaultMethod.getParameterCount();
+			return lookup.unreflectSpecial( defaultMethod, declaringClass).asFixedArity().
+					asType( MethodType.genericMethodType( numArgs + 1)).
+					asSpreader( Object[].class, numArgs);
 		}
-		//3.2 check for bean-style accessor
-		final String property = Attributes.getPropertyName( method.getName() );
-		if(property!=null)
+		
+		/**
+		 * Converts the converter- or validator-method to a handle accepting the proxy-object and the value
+		 * @param accessorMethod the method
+		 * @return the method-handle or <code>null</code>
+		 * @throws IllegalAccessException 
+		 */
+		@Nullable
+		private static MethodHandle toAccessorHandle(@Nullable final Method accessorMethod) throws IllegalAccessException
 		{
-			if(args!=null&&args.length==1&&Attributes.isSetter( method, args[0] == null ? null : args[0].getClass(), false))
+			if(accessorMethod == null)
 			{
-				setAttribute( record, property, args[0]);
-				//setters are void-methods
 				return null;
 			}
-			if(args==null||args.length==0&&Attributes.isGetter( method, false ))
+			MethodHandle handle = MethodHandles.publicLookup().unreflect( accessorMethod );
+			if(Modifier.isStatic( accessorMethod.getModifiers()))
 			{
-				return TypeMappings.mapFromDB( getAttribute( record, property ), method.getReturnType());
+				handle = MethodHandles.dropArguments( handle, 0, Object.class);
 			}
+			return handle.asType( ACCESSOR_METHOD_TYPE );
 		}
-		//method not handled
-		Logging.getLogger().error( base.getRecordType().getSimpleName(), "Method '"+method.getName()+"' is not implemented for this record-type");
-		throw new NoSuchMethodException("Method '"+method.getName()+"' is not implemented for this record-type");
-	}
-
-	/**
-	 * @return the record-type
-	 * @see RecordBase#getRecordType()
-	 */
-	public Class<T> getRecordType()
-	{
-		return base.getRecordType();
-	}
-
-	private Object getAttribute(@Nonnull final ActiveRecord proxy, @Nonnull final String attributeName)
-	{
-		Object value = store.getValue( base, primaryKey, attributeName );
-		for(final ProxyHandler h : proxyHandlers)
+		
+		@Nullable
+		private static Object invokeAccessor(@Nonnull final MethodHandle accessor, @Nonnull final Object proxy, @Nullable final Object value) throws InvocationTargetException
 		{
-			value = h.getAttributeHook( proxy, attributeName, value );
-		}
-		return value;
-	}
-
-	private void setAttribute(@Nonnull final ActiveRecord proxy, @Nonnull final String attributeName, @Nullable final Object value)
-	{
-		Object storeValue = value;
-		for(final ProxyHandler h : proxyHandlers)
-		{
-			storeValue = h.setAttributeHook( proxy, attributeName, storeValue );
+			try
+			{
+				return (Object)accessor.invokeExact( proxy, value);
+			}
+			catch(final Throwable t)
+			{
+				//keep behavior of reflective invocation
+				throw new InvocationTargetException(t);
+			}
 		}
-		store.setValue( base, primaryKey, attributeName, storeValue );
 	}
 }
@@ -59,6 +59,13 @@ public class AssociationHandler implements ProxyHandler
 			method.isAnnotationPresent( Has.class);
 	}
 
+	@Override
+	public Boolean handlesMethodForType( final Class<? extends ActiveRecord> recordType, final Method method )
+	{
+		return method.isAnnotationPresent( BelongsTo.class) || method.isAnnotationPresent( HasManyThrough.class) ||
+			method.isAnnotationPresent( Has.class);
+	}
+
 	@Override
 	public <T extends ActiveRecord> Object invoke( final ActiveRecord record, final RecordHandler<T> handler, final Method method,
 		final Object[] args ) throws IllegalArgumentException
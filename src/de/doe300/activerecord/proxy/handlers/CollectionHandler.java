@@ -55,6 +55,12 @@ public class CollectionHandler implements ProxyHandler
 		return method.getDeclaringClass().isAssignableFrom( Set.class);
 	}
 
+	@Override
+	public Boolean handlesMethodForType( final Class<? extends ActiveRecord> recordType, final Method method )
+	{
+		return method.getDeclaringClass().isAssignableFrom( Set.class);
+	}
+
 	@Override
 	public <T extends ActiveRecord> Object invoke( final ActiveRecord record, final RecordHandler<T> handler,final Method method, final Object[] args ) throws IllegalArgumentException
 	{
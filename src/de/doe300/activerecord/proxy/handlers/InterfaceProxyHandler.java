@@ -100,6 +100,20 @@ public abstract class InterfaceProxyHandler<T> implements ProxyHandler
 		return false;
 	}
 
+	@Override
+	public Boolean handlesMethodForType( final Class<? extends ActiveRecord> recordType, final Method method )
+	{
+		for(final Method m:type.getMethods())
+		{
+			if(m.getName().equals( method.getName()))
+			{
+				//whether the method is handled depends on the types of the arguments
+				return null;
+			}
+		}
+		return false;
+	}
+
 	private static Class<?>[] getArgumentsTypes(@Nullable final Object... args)
 	{
 		if(args == null || args.length == 0)
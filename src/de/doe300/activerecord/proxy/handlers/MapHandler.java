@@ -53,6 +53,12 @@ public class MapHandler implements ProxyHandler
 		return record instanceof Map && method.getDeclaringClass().equals( Map.class);
 	}
 
+	@Override
+	public Boolean handlesMethodForType( final Class<? extends ActiveRecord> recordType, final Method method )
+	{
+		return Map.class.isAssignableFrom( recordType ) && method.getDeclaringClass().equals( Map.class);
+	}
+
 	@Override
 	public <T extends ActiveRecord> Object invoke( final ActiveRecord record, final RecordHandler<T> handler,
 		final Method method, final Object[] args ) throws IllegalArgumentException
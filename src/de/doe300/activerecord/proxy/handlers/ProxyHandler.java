@@ -47,6 +47,26 @@ public interface ProxyHandler
 	 */
 	public boolean handlesMethod(@Nonnull final ActiveRecord record, @Nonnull final Method method, Object[] args) throws IllegalArgumentException;
 	
+	/**
+	 * Determines whether this handler handles the given method independent of the concrete record and the arguments.
+	 * 
+	 * The result is computed only once per record-type and method and then cached in the dispatch-table of the {@link RecordHandler}.
+	 * If the decision depends on the record or the arguments of the call, this method must return <code>null</code>,
+	 * in which case {@link #handlesMethod(de.doe300.activerecord.record.ActiveRecord, java.lang.reflect.Method, java.lang.Object[]) }
+	 * is called for every invocation.
+	 * 
+	 * @param recordType the type of the records
+	 * @param method the method to check
+	 * @return {@link Boolean#TRUE} if this handler handles all invocations of the method, {@link Boolean#FALSE} if it never does or 
+	 *	<code>null</code>, if it depends on the single invocation
+	 * @since 0.9
+	 */
+	@Nullable
+	public default Boolean handlesMethodForType(@Nonnull final Class<? extends ActiveRecord> recordType, @Nonnull final Method method)
+	{
+		return null;
+	}
+	
 	/**
 	 * @param <T>
 	 * @param record
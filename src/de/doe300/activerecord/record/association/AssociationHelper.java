@@ -25,6 +25,8 @@
 package de.doe300.activerecord.record.association;
 
 import de.doe300.activerecord.ReadOnlyRecordBase;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -38,7 +40,9 @@ import de.doe300.activerecord.record.ActiveRecord;
 import javax.annotation.Nonnegative;
 
 /**
- * Helper methods to be used by {@link ActiveRecord} implementations for mapping associations
+ * Helper methods to be used by {@link ActiveRecord} implementations for mapping associations.
+ * 
+ * The associations loaded eagerly via {@link Include} are returned by the corresponding getters without accessing the record-store.
  * @author doe300
  */
 public final class AssociationHelper
@@ -72,6 +76,11 @@ public final class AssociationHelper
 	public static <T extends ActiveRecord> T getBelongsTo(@Nonnull final ActiveRecord record,
 		@Nonnull final RecordBase<T> otherBase, @Nonnull final String foreignKeyColumn)
 	{
+		final Object preloaded = PreloadedAssociations.get( record.getBase(), record.getPrimaryKey(), Include.belongsTo( otherBase, foreignKeyColumn));
+		if(preloaded != null)
+		{
+			return otherBase.getRecordType().cast( ((Optional<?>)preloaded).orElse( null));
+		}
 		final Integer foreignKey = ( Integer ) record.getBase().getStore().getValue( record.getBase(), record.getPrimaryKey(), foreignKeyColumn);
 		if(foreignKey == null)
 		{
@@ -180,6 +189,11 @@ public final class AssociationHelper
 		@Nonnull final Class<T> type, @Nonnull final String foreignKeyColumn)
 	{
 		final RecordBase<T> base = record.getBase().getCore().getBase( type);
+		final Object preloaded = PreloadedAssociations.get( record.getBase(), record.getPrimaryKey(), Include.hasMany( base, foreignKeyColumn));
+		if(preloaded != null)
+		{
+			return ((List<?>)preloaded).stream().map( type::cast);
+		}
 		return base.find( Conditions.is( foreignKeyColumn, record.getPrimaryKey()));
 	}
 
@@ -260,7 +274,14 @@ public final class AssociationHelper
 		@Nonnull final Class<T> type, @Nonnull final String associationTable,
 		@Nonnull final String thisForeignKeyColumn, @Nonnull final String otherForeignKeyColumn)
 	{
-		return getHasManyThrough( record.getPrimaryKey(), record.getBase().getCore().getBase( type), associationTable, thisForeignKeyColumn, otherForeignKeyColumn);
+		final RecordBase<T> otherBase = record.getBase().getCore().getBase( type);
+		final Object preloaded = PreloadedAssociations.get( record.getBase(), record.getPrimaryKey(), 
+				Include.hasManyThrough( otherBase, associationTable, thisForeignKeyColumn, otherForeignKeyColumn));
+		if(preloaded != null)
+		{
+			return ((List<?>)preloaded).stream().map( type::cast);
+		}
+		return getHasManyThrough( record.getPrimaryKey(), otherBase, associationTable, thisForeignKeyColumn, otherForeignKeyColumn);
 	}
 	
 	/**
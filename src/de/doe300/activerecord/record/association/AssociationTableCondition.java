@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.record.association;
+
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.dsl.Condition;
+import de.doe300.activerecord.jdbc.driver.JDBCDriver;
+import de.doe300.activerecord.record.ActiveRecord;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A Condition matching all records of a table associated with a single record via an association-table (has-many-through).
+ * 
+ * In SQL, this condition is executed as sub-query on the association-table, in the same shape as 
+ * {@link de.doe300.activerecord.dsl.HasManyThroughCondition} uses.
+ * When tested in Java, the associated keys are loaded on the first test, so a single instance of this condition should only be used 
+ * for a single operation.
+ * 
+ * @author doe300
+ * @since 0.9
+ */
+class AssociationTableCondition implements Condition
+{
+	@Nonnull
+	private final RecordBase<?> associatedBase;
+	@Nonnull
+	private final String associationTable, thisForeignKey, otherForeignKey;
+	private final int thisPrimaryKey;
+	@Nullable
+	private volatile Set<Integer> associatedKeys;
+
+	/**
+	 * @param associatedBase the RecordBase for the associated records
+	 * @param associationTable the name of the association-table
+	 * @param thisForeignKey the column of the association-table storing the primary key of the source record
+	 * @param otherForeignKey the column of the association-table storing the primary keys of the associated records
+	 * @param thisPrimaryKey the primary key of the source record
+	 */
+	AssociationTableCondition(@Nonnull final RecordBase<?> associatedBase, @Nonnull final String associationTable, 
+			@Nonnull final String thisForeignKey, @Nonnull final String otherForeignKey, final int thisPrimaryKey)
+	{
+		this.associatedBase = associatedBase;
+		this.associationTable = associationTable;
+		this.thisForeignKey = thisForeignKey;
+		this.otherForeignKey = otherForeignKey;
+		this.thisPrimaryKey = thisPrimaryKey;
+	}
+
+	@Override
+	public String toSQL( final JDBCDriver driver, final String tableName )
+	{
+		final String associationTableName = JDBCDriver.getNextTableIdentifier( tableName );
+		//primaryKey IN (SELECT otherForeignKey FROM associationTable WHERE associationTable.thisForeignKey = ?)
+		return (tableName != null ? tableName + "." : "") + associatedBase.getPrimaryColumn() + " IN ("
+				+ "SELECT " + associationTableName + "." + otherForeignKey + " FROM " + associationTable + " AS " + associationTableName
+				+ " WHERE " + associationTableName + "." + thisForeignKey + " = ?)";
+	}
+
+	@Override
+	public boolean hasWildcards()
+	{
+		return true;
+	}
+
+	@Override
+	public Object[] getValues()
+	{
+		return new Object[]{thisPrimaryKey};
+	}
+
+	@Override
+	public boolean test( final ActiveRecord record )
+	{
+		return record != null && getAssociatedKeys().contains( record.getPrimaryKey());
+	}
+
+	@Override
+	public boolean test( final Map<String, Object> map )
+	{
+		final Object key = map.get( associatedBase.getPrimaryColumn());
+		return key != null && getAssociatedKeys().contains( ((Number)key).intValue());
+	}
+
+	@Nonnull
+	private Set<Integer> getAssociatedKeys()
+	{
+		Set<Integer> keys = associatedKeys;
+		if(keys == null)
+		{
+			try(final Stream<Object> values = associatedBase.getStore().getValues( associationTable, otherForeignKey, thisForeignKey, thisPrimaryKey))
+			{
+				keys = values.map( (final Object o) -> ((Number)o).intValue()).collect( Collectors.toSet());
+			}
+			associatedKeys = keys;
+		}
+		return keys;
+	}
+
+	@Override
+	public boolean equals( Object obj )
+	{
+		if(obj == null || !(obj instanceof Condition))
+		{
+			return false;
+		}
+		return equals( (Condition)obj);
+	}
+
+	@Override
+	public boolean equals( final Condition condition )
+	{
+		//the SQL does not contain the primary key of the source record
+		return Condition.super.equals( condition ) && condition instanceof AssociationTableCondition && 
+				thisPrimaryKey == ((AssociationTableCondition)condition).thisPrimaryKey;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return toSQL( JDBCDriver.DEFAULT, null ).hashCode() * 31 + thisPrimaryKey;
+	}
+}
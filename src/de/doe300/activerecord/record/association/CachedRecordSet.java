@@ -27,6 +27,7 @@ package de.doe300.activerecord.record.association;
 import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.stream.Stream;
@@ -206,9 +207,24 @@ public class CachedRecordSet<T extends ActiveRecord> extends AbstractSet<T> impl
 	@Override
 	public <C, R> R aggregate( AggregateFunction<T, C, ?, R> aggregateFunction, @Nullable final Condition condition )
 	{
+		if(cache.isEmpty())
+		{
+			//don't load all records only to aggregate them
+			return source.aggregate( aggregateFunction, condition );
+		}
 		return stream().filter( (T record) -> condition == null || condition.test( record)).collect( aggregateFunction );
 	}
 
+	@Override
+	public Object[] aggregateAll( @Nullable final Condition condition, List<AggregateFunction<T, ?, ?, ?>> aggregateFunctions )
+	{
+		if(cache.isEmpty())
+		{
+			return source.aggregateAll( condition, aggregateFunctions );
+		}
+		return stream().filter( (T record) -> condition == null || condition.test( record)).collect( AggregateFunction.combine( aggregateFunctions ));
+	}
+
 	@Override
 	public RecordSet<T> cached()
 	{
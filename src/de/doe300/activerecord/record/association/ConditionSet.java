@@ -27,6 +27,7 @@ package de.doe300.activerecord.record.association;
 import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -193,14 +194,14 @@ public class ConditionSet<T extends ActiveRecord> extends AbstractSet<T> impleme
 	@Override
 	public Stream<T> findWithScope( final Scope scope )
 	{
-		final Scope newScope = new Scope(Conditions.and(condition, scope.getCondition()), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit());
+		final Scope newScope = new Scope(Conditions.and(condition, scope.getCondition()), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit(), scope.getFetchSize());
 		return base.findWithScope(newScope );
 	}
 
 	@Override
 	public T findFirstWithScope( final Scope scope )
 	{
-		final Scope newScope = new Scope(Conditions.and(condition, scope.getCondition()), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit());
+		final Scope newScope = new Scope(Conditions.and(condition, scope.getCondition()), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit(), scope.getFetchSize());
 		return base.findFirstWithScope( newScope );
 	}
 
@@ -215,4 +216,10 @@ public class ConditionSet<T extends ActiveRecord> extends AbstractSet<T> impleme
 	{
 		return ((RecordBase<T>) base).aggregate(aggregateFunction, Conditions.and( this.condition, condition));
 	}
+
+	@Override
+	public Object[] aggregateAll( @Nullable final Condition condition, final List<AggregateFunction<T, ?, ?, ?>> aggregateFunctions )
+	{
+		return ((RecordBase<T>) base).aggregateAll( Conditions.and( this.condition, condition), aggregateFunctions);
+	}
 }
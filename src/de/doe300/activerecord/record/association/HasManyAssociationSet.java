@@ -27,6 +27,7 @@ package de.doe300.activerecord.record.association;
 import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -160,14 +161,14 @@ public class HasManyAssociationSet<T extends ActiveRecord> extends AbstractSet<T
 	@Override
 	public Stream<T> findWithScope(final Scope scope)
 	{
-		final Scope newScope = new Scope(Conditions.and(associationCond, scope.getCondition()), scope.getOrder()!= null ? scope.getOrder() : order, scope.getLimit());
+		final Scope newScope = new Scope(Conditions.and(associationCond, scope.getCondition()), scope.getOrder()!= null ? scope.getOrder() : order, scope.getLimit(), scope.getFetchSize());
 		return destBase.findWithScope(newScope );
 	}
 
 	@Override
 	public T findFirstWithScope( final Scope scope )
 	{
-		final Scope newScope = new Scope(Conditions.and(associationCond, scope.getCondition()), scope.getOrder()!= null ? scope.getOrder() : order, scope.getLimit());
+		final Scope newScope = new Scope(Conditions.and(associationCond, scope.getCondition()), scope.getOrder()!= null ? scope.getOrder() : order, scope.getLimit(), scope.getFetchSize());
 		return destBase.findFirstWithScope( newScope );
 	}
 
@@ -188,4 +189,10 @@ public class HasManyAssociationSet<T extends ActiveRecord> extends AbstractSet<T
 	{
 		return ((RecordBase<T>)destBase).aggregate(aggregateFunction, Conditions.and( associationCond, condition) );
 	}
+
+	@Override
+	public Object[] aggregateAll( final Condition condition, final List<AggregateFunction<T, ?, ?, ?>> aggregateFunctions )
+	{
+		return ((RecordBase<T>)destBase).aggregateAll( Conditions.and( associationCond, condition), aggregateFunctions );
+	}
 }
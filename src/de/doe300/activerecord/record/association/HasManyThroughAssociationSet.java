@@ -27,8 +27,7 @@ package de.doe300.activerecord.record.association;
 import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.List;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
@@ -84,10 +83,31 @@ public class HasManyThroughAssociationSet<T extends ActiveRecord> extends Abstra
 		return destBase.getStore().getValues( mappingTableName, foreignMappingKey, thisMappingKey, thisPrimaryKey ).parallel().map( (final Object o) -> (Integer)o);
 	}
 
+	/**
+	 * @return a new condition matching all records associated with this set
+	 * @since 0.9
+	 */
+	@Nonnull
+	protected Condition getAssociationCondition()
+	{
+		return new AssociationTableCondition(destBase, mappingTableName, thisMappingKey, foreignMappingKey, thisPrimaryKey);
+	}
+
+	/**
+	 * @param condition the condition the record needs to match additionally
+	 * @param record the record to check
+	 * @return whether the record is associated with this set and matches the condition
+	 */
+	boolean containsMatching(@Nullable final Condition condition, @Nonnull final T record)
+	{
+		return destBase.getStore().findFirst( destBase, new Scope(Conditions.and( getAssociationCondition(), condition, 
+				Conditions.is( destBase.getPrimaryColumn(), record.getPrimaryKey())), null, 1)) != null;
+	}
+
 	@Override
 	public int size()
 	{
-		return ( int ) getAssocationKeys().count();
+		return destBase.count( getAssociationCondition() );
 	}
 
 	@Override
@@ -103,17 +123,13 @@ public class HasManyThroughAssociationSet<T extends ActiveRecord> extends Abstra
 		{
 			return false;
 		}
-		final T otherRecord = destBase.getRecordType().cast( o );
-		try(final Stream<Integer> keys = getAssocationKeys())
-		{
-			return keys.anyMatch( (final Integer i) -> i == otherRecord.getPrimaryKey() );
-		}
+		return containsMatching( null, destBase.getRecordType().cast( o ));
 	}
 
 	@Override
 	public Iterator<T> iterator()
 	{
-		return getAssocationKeys().map( (final Integer key ) -> destBase.getRecord( key)).sorted( order).iterator();
+		return stream().iterator();
 	}
 
 	@Override
@@ -173,22 +189,20 @@ public class HasManyThroughAssociationSet<T extends ActiveRecord> extends Abstra
 	@Override
 	public Stream<T> stream()
 	{
-		return getAssocationKeys().map( destBase::getRecord ).sorted( order);
+		return destBase.findWithScope( new Scope(getAssociationCondition(), order, Scope.NO_LIMIT));
 	}
 
 	@Override
 	public Stream<T> findWithScope( final Scope scope)
 	{
-		final Set<Integer> keys = getAssocationKeys().collect( Collectors.toSet());
-		final Scope newScope = new Scope(Conditions.and(Conditions.isIn( destBase.getPrimaryColumn(), keys), scope.getCondition()), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit());
+		final Scope newScope = new Scope(Conditions.and(getAssociationCondition(), scope.getCondition()), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit(), scope.getFetchSize());
 		return destBase.findWithScope( newScope );
 	}
 
 	@Override
 	public T findFirstWithScope( final Scope scope)
 	{
-		final Set<Integer> keys = getAssocationKeys().collect( Collectors.toSet());
-		final Scope newScope = new Scope(Conditions.and(Conditions.isIn( destBase.getPrimaryColumn(), keys), scope.getCondition()), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit());
+		final Scope newScope = new Scope(Conditions.and(getAssociationCondition(), scope.getCondition()), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit(), scope.getFetchSize());
 		return destBase.findFirstWithScope( newScope);
 	}
 
@@ -207,7 +221,13 @@ public class HasManyThroughAssociationSet<T extends ActiveRecord> extends Abstra
 	@Override
 	public <C, R> R aggregate( AggregateFunction<T, C, ?, R> aggregateFunction, @Nullable final Condition condition )
 	{
-		return stream().filter((T record) -> condition == null || condition.test( record )).collect( aggregateFunction );
+		return destBase.aggregate( aggregateFunction, Conditions.and( getAssociationCondition(), condition));
+	}
+
+	@Override
+	public Object[] aggregateAll( @Nullable final Condition condition, List<AggregateFunction<T, ?, ?, ?>> aggregateFunctions )
+	{
+		return destBase.aggregateAll( Conditions.and( getAssociationCondition(), condition), aggregateFunctions );
 	}
 
 	private class HasManyThroughSubSet extends AbstractSet<T> implements RecordSet<T>
@@ -224,13 +244,13 @@ public class HasManyThroughAssociationSet<T extends ActiveRecord> extends Abstra
 		@Override
 		public Stream<T> stream()
 		{
-			return getAssocationKeys().map( destBase::getRecord).filter( subCondition).sorted( order);
+			return destBase.findWithScope( new Scope(Conditions.and( getAssociationCondition(), subCondition), order, Scope.NO_LIMIT));
 		}
 
 		@Override
 		public int size()
 		{
-			return ( int ) stream().count();
+			return destBase.count( Conditions.and( getAssociationCondition(), subCondition));
 		}
 
 		@Override
@@ -242,7 +262,7 @@ public class HasManyThroughAssociationSet<T extends ActiveRecord> extends Abstra
 		@Override
 		public boolean contains( final Object o )
 		{
-			return o != null && HasManyThroughAssociationSet.this.contains(o) && subCondition.test((ActiveRecord) o);
+			return o != null && destBase.getRecordType().isInstance( o) && containsMatching( subCondition, destBase.getRecordType().cast( o ));
 		}
 
 		@Override
@@ -301,8 +321,8 @@ public class HasManyThroughAssociationSet<T extends ActiveRecord> extends Abstra
 		public Stream<T> findWithScope( final Scope scope)
 		{
 			final Scope newScope = new Scope(
-				Conditions.and(subCondition, scope.getCondition()),
-				scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit());
+				Conditions.and(getAssociationCondition(), subCondition, scope.getCondition()),
+				scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit(), scope.getFetchSize());
 			return destBase.findWithScope( newScope );
 		}
 
@@ -310,8 +330,8 @@ public class HasManyThroughAssociationSet<T extends ActiveRecord> extends Abstra
 		public T findFirstWithScope( final Scope scope)
 		{
 			final Scope newScope = new Scope(
-				Conditions.and(subCondition,scope.getCondition()),
-				scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit());
+				Conditions.and(getAssociationCondition(), subCondition, scope.getCondition()),
+				scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit(), scope.getFetchSize());
 			return destBase.findFirstWithScope( newScope);
 		}
 
@@ -324,7 +344,13 @@ public class HasManyThroughAssociationSet<T extends ActiveRecord> extends Abstra
 		@Override
 		public <C, R> R aggregate( AggregateFunction<T, C, ?, R> aggregateFunction, @Nullable final Condition condition )
 		{
-			return stream().filter((T record) -> condition == null || condition.test( record )).collect( aggregateFunction );
+			return destBase.aggregate( aggregateFunction, Conditions.and( getAssociationCondition(), subCondition, condition));
+		}
+
+		@Override
+		public Object[] aggregateAll( @Nullable final Condition condition, List<AggregateFunction<T, ?, ?, ?>> aggregateFunctions )
+		{
+			return destBase.aggregateAll( Conditions.and( getAssociationCondition(), subCondition, condition), aggregateFunctions );
 		}
 	}
 }
@@ -0,0 +1,453 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.record.association;
+
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.dsl.Conditions;
+import de.doe300.activerecord.jdbc.driver.JDBCDriver;
+import de.doe300.activerecord.record.ActiveRecord;
+import de.doe300.activerecord.scope.Scope;
+import de.doe300.activerecord.store.DBDriver;
+import de.doe300.activerecord.store.RecordStore;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An association to be loaded eagerly for a set of records (similar to <code>includes</code> in Rails).
+ * 
+ * Instead of querying the associated records separately for every record, the associations of a whole batch of records are
+ * loaded with a single query per association. The loaded associations are then returned by the corresponding methods of 
+ * {@link AssociationHelper} without accessing the record-store again.
+ * 
+ * NOTE: The preloaded associations are a snapshot taken while loading the records. They are invalidated by any modification of the 
+ * tables they were loaded from (e.g. setting a foreign key, creating or destroying an associated record), as reported by the 
+ * {@link RecordStore#getModificationCount(java.lang.String) modification-counts} of the record-store. 
+ * No associations are preloaded for record-stores not tracking their modifications.
+ * 
+ * @author doe300
+ * @since 0.9
+ * @see de.doe300.activerecord.dsl.QueryResult#includes(de.doe300.activerecord.record.association.Include...) 
+ */
+@Immutable
+public abstract class Include
+{
+	/**
+	 * The maximum number of records to load the associations for at once
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+	
+	@Nonnull
+	protected final RecordBase<?> otherBase;
+
+	Include(@Nonnull final RecordBase<?> otherBase)
+	{
+		this.otherBase = otherBase;
+	}
+
+	/**
+	 * @param otherBase the base of the associated records
+	 * @param foreignKeyColumn the column (of the loaded records), the foreign-key for the other model is stored
+	 * @return the belongs-to association
+	 * @see AssociationHelper#getBelongsTo(de.doe300.activerecord.record.ActiveRecord, de.doe300.activerecord.RecordBase, java.lang.String) 
+	 */
+	@Nonnull
+	public static Include belongsTo(@Nonnull final RecordBase<?> otherBase, @Nonnull final String foreignKeyColumn)
+	{
+		return new BelongsTo(otherBase, foreignKeyColumn);
+	}
+
+	/**
+	 * @param otherBase the base of the associated records
+	 * @param foreignKeyColumn the name of the column of the other model holding the primary key of the loaded records
+	 * @return the has-many association
+	 * @see AssociationHelper#getHasMany(de.doe300.activerecord.record.ActiveRecord, java.lang.Class, java.lang.String) 
+	 */
+	@Nonnull
+	public static Include hasMany(@Nonnull final RecordBase<?> otherBase, @Nonnull final String foreignKeyColumn)
+	{
+		return new HasMany(otherBase, foreignKeyColumn);
+	}
+
+	/**
+	 * @param otherBase the base of the associated records
+	 * @param associationTable the table storing pairs of foreign keys to both models
+	 * @param thisForeignKeyColumn the name of the column in the <code>associationTable</code> storing the foreign key to the loaded records
+	 * @param otherForeignKeyColumn the name of the column in the <code>associationTable</code> storing the foreign key to the other model
+	 * @return the has-many-through association
+	 * @see AssociationHelper#getHasManyThrough(de.doe300.activerecord.record.ActiveRecord, java.lang.Class, java.lang.String, java.lang.String, java.lang.String) 
+	 */
+	@Nonnull
+	public static Include hasManyThrough(@Nonnull final RecordBase<?> otherBase, @Nonnull final String associationTable, 
+			@Nonnull final String thisForeignKeyColumn, @Nonnull final String otherForeignKeyColumn)
+	{
+		return new HasManyThrough(otherBase, associationTable, thisForeignKeyColumn, otherForeignKeyColumn);
+	}
+
+	/**
+	 * Loads the associations for the records of the given stream in batches of at most {@link #DEFAULT_BATCH_SIZE} records
+	 * (or the maximum number of parameters supported by the driver).
+	 * 
+	 * @param <T> the type of the records
+	 * @param records the records to load the associations for
+	 * @param includes the associations to load
+	 * @return a stream of the same records, whose associations are loaded before the records are passed on
+	 */
+	@Nonnull
+	public static <T extends ActiveRecord> Stream<T> preload(@Nonnull final Stream<T> records, @Nonnull final Include... includes)
+	{
+		if(includes.length == 0)
+		{
+			return records;
+		}
+		final Iterator<T> source = records.iterator();
+		final Iterator<T> batched = new Iterator<T>()
+		{
+			private Iterator<T> batch = Collections.emptyIterator();
+			private int batchSize = -1;
+
+			@Override
+			public boolean hasNext()
+			{
+				if(!batch.hasNext() && source.hasNext())
+				{
+					final List<T> nextBatch = new ArrayList<>(batchSize > 0 ? batchSize : 16);
+					nextBatch.add( source.next());
+					if(batchSize < 0)
+					{
+						batchSize = getBatchSize( nextBatch.get( 0).getBase());
+					}
+					while(nextBatch.size() < batchSize && source.hasNext())
+					{
+						nextBatch.add( source.next());
+					}
+					preload( nextBatch, includes);
+					batch = nextBatch.iterator();
+				}
+				return batch.hasNext();
+			}
+
+			@Override
+			public T next()
+			{
+				if(!hasNext())
+				{
+					throw new NoSuchElementException();
+				}
+				return batch.next();
+			}
+		};
+		return StreamSupport.stream( Spliterators.spliteratorUnknownSize( batched, Spliterator.ORDERED|Spliterator.NONNULL), false).
+				onClose( records::close);
+	}
+
+	/**
+	 * Loads the associations for all given records
+	 * 
+	 * @param records the records to load the associations for
+	 * @param includes the associations to load
+	 */
+	public static void preload(@Nonnull final Collection<? extends ActiveRecord> records, @Nonnull final Include... includes)
+	{
+		final Map<RecordBase<?>, List<Integer>> keysByBase = records.stream().collect( Collectors.groupingBy( ActiveRecord::getBase, 
+				LinkedHashMap::new, Collectors.mapping( ActiveRecord::getPrimaryKey, Collectors.toList())));
+		for(final Map.Entry<RecordBase<?>, List<Integer>> e : keysByBase.entrySet())
+		{
+			final int batchSize = getBatchSize( e.getKey());
+			for(final List<Integer> keys : partition( e.getValue(), batchSize))
+			{
+				for(final Include include : includes)
+				{
+					include.load( e.getKey(), keys, batchSize);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads this association for the records with the given primary keys and puts the results into the cache
+	 * 
+	 * @param base the base of the records
+	 * @param primaryKeys the primary keys of the records
+	 * @param batchSize the maximum number of values for a single <code>IN</code>-condition
+	 */
+	abstract void load(@Nonnull final RecordBase<?> base, @Nonnull final List<Integer> primaryKeys, final int batchSize);
+
+	/**
+	 * @param base the base of the records
+	 * @return the current modification-counts of all tables this association is loaded from or <code>null</code>, 
+	 *	if any of the tables is not tracked
+	 */
+	@Nullable
+	abstract long[] getModificationCounts(@Nonnull final RecordBase<?> base);
+
+	@Nullable
+	static long[] trackedCounts(@Nonnull final long... modificationCounts)
+	{
+		for(final long count : modificationCounts)
+		{
+			if(count == RecordStore.MODIFICATIONS_NOT_TRACKED)
+			{
+				return null;
+			}
+		}
+		return modificationCounts;
+	}
+
+	static int getBatchSize(@Nonnull final RecordBase<?> base)
+	{
+		final DBDriver driver = base.getStore().getDriver();
+		if(driver instanceof JDBCDriver)
+		{
+			return ( int ) Math.max( 1, Math.min( DEFAULT_BATCH_SIZE, ((JDBCDriver)driver).getParametersLimit()));
+		}
+		return DEFAULT_BATCH_SIZE;
+	}
+
+	@Nonnull
+	static List<List<Integer>> partition(@Nonnull final List<Integer> keys, final int batchSize)
+	{
+		final List<List<Integer>> parts = new ArrayList<>(keys.size() / batchSize + 1);
+		for(int i = 0; i < keys.size(); i += batchSize)
+		{
+			parts.add( keys.subList( i, Math.min( keys.size(), i + batchSize)));
+		}
+		return parts;
+	}
+
+	/**
+	 * Loads all records of the other base with the given primary keys
+	 */
+	@Nonnull
+	Map<Integer, ActiveRecord> loadRecords(@Nonnull final Collection<Integer> primaryKeys, final int batchSize)
+	{
+		final Map<Integer, ActiveRecord> records = new HashMap<>(primaryKeys.size());
+		for(final List<Integer> keys : partition( new ArrayList<>(primaryKeys), batchSize))
+		{
+			try(final Stream<? extends ActiveRecord> stream = otherBase.findWithScope( new Scope(Conditions.isIn( otherBase.getPrimaryColumn(), keys), 
+					null, Scope.NO_LIMIT)))
+			{
+				stream.forEach( (final ActiveRecord record) -> records.put( record.getPrimaryKey(), record));
+			}
+		}
+		return records;
+	}
+
+	@Nonnull
+	static Integer toKey(@Nonnull final Object value)
+	{
+		return ((Number)value).intValue();
+	}
+
+	private static final class BelongsTo extends Include
+	{
+		@Nonnull
+		private final String foreignKeyColumn;
+
+		BelongsTo(@Nonnull final RecordBase<?> otherBase, @Nonnull final String foreignKeyColumn)
+		{
+			super(otherBase);
+			this.foreignKeyColumn = foreignKeyColumn;
+		}
+
+		@Override
+		void load(final RecordBase<?> base, final List<Integer> primaryKeys, final int batchSize)
+		{
+			final long[] modificationCounts = getModificationCounts( base );
+			if(modificationCounts == null)
+			{
+				return;
+			}
+			final Map<Integer, Integer> foreignKeys = new HashMap<>(primaryKeys.size());
+			try(final Stream<Map<String, Object>> rows = base.getStore().streamAllWithData( base, new String[]{base.getPrimaryColumn(), foreignKeyColumn}, 
+					new Scope(Conditions.isIn( base.getPrimaryColumn(), primaryKeys), null, Scope.NO_LIMIT)))
+			{
+				rows.forEach( (final Map<String, Object> row) -> {
+					final Object foreignKey = row.get( foreignKeyColumn);
+					foreignKeys.put( toKey( row.get( base.getPrimaryColumn())), foreignKey == null ? null : toKey( foreignKey));
+				});
+			}
+			final Map<Integer, ActiveRecord> records = loadRecords( foreignKeys.values().stream().filter( Objects::nonNull).
+					collect( Collectors.toSet()), batchSize);
+			foreignKeys.forEach( (final Integer key, final Integer foreignKey) -> PreloadedAssociations.put( base, key, this, 
+					Optional.ofNullable( foreignKey == null ? null : records.get( foreignKey)), modificationCounts));
+		}
+
+		@Override
+		long[] getModificationCounts( final RecordBase<?> base )
+		{
+			return trackedCounts( base.getStore().getModificationCount( base.getTableName()), 
+					otherBase.getStore().getModificationCount( otherBase.getTableName()));
+		}
+
+		@Override
+		public boolean equals( final Object obj )
+		{
+			return obj instanceof BelongsTo && otherBase.equals( ((BelongsTo)obj).otherBase) && 
+					foreignKeyColumn.equals( ((BelongsTo)obj).foreignKeyColumn);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash( otherBase, foreignKeyColumn);
+		}
+	}
+
+	private static final class HasMany extends Include
+	{
+		@Nonnull
+		private final String foreignKeyColumn;
+
+		HasMany(@Nonnull final RecordBase<?> otherBase, @Nonnull final String foreignKeyColumn)
+		{
+			super(otherBase);
+			this.foreignKeyColumn = foreignKeyColumn;
+		}
+
+		@Override
+		void load(final RecordBase<?> base, final List<Integer> primaryKeys, final int batchSize)
+		{
+			final long[] modificationCounts = getModificationCounts( base );
+			if(modificationCounts == null)
+			{
+				return;
+			}
+			final Map<Integer, List<Integer>> associatedKeys = new HashMap<>(primaryKeys.size());
+			primaryKeys.forEach( (final Integer key) -> associatedKeys.put( key, new ArrayList<>(4)));
+			try(final Stream<Map<String, Object>> rows = otherBase.getStore().streamAllWithData( otherBase, 
+					new String[]{otherBase.getPrimaryColumn(), foreignKeyColumn}, new Scope(Conditions.isIn( foreignKeyColumn, primaryKeys), 
+					otherBase.getDefaultOrder(), Scope.NO_LIMIT)))
+			{
+				rows.forEach( (final Map<String, Object> row) -> associatedKeys.get( toKey( row.get( foreignKeyColumn))).
+						add( toKey( row.get( otherBase.getPrimaryColumn()))));
+			}
+			final Map<Integer, ActiveRecord> records = loadRecords( associatedKeys.values().stream().flatMap( List::stream).
+					collect( Collectors.toSet()), batchSize);
+			associatedKeys.forEach( (final Integer key, final List<Integer> otherKeys) -> PreloadedAssociations.put( base, key, this, 
+					Collections.unmodifiableList( otherKeys.stream().map( records::get).filter( Objects::nonNull).collect( Collectors.toList())), 
+					modificationCounts));
+		}
+
+		@Override
+		long[] getModificationCounts( final RecordBase<?> base )
+		{
+			return trackedCounts( otherBase.getStore().getModificationCount( otherBase.getTableName()));
+		}
+
+		@Override
+		public boolean equals( final Object obj )
+		{
+			return obj instanceof HasMany && otherBase.equals( ((HasMany)obj).otherBase) && 
+					foreignKeyColumn.equals( ((HasMany)obj).foreignKeyColumn);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash( otherBase, foreignKeyColumn) * 31 + 1;
+		}
+	}
+
+	private static final class HasManyThrough extends Include
+	{
+		@Nonnull
+		private final String associationTable, thisForeignKeyColumn, otherForeignKeyColumn;
+
+		HasManyThrough(@Nonnull final RecordBase<?> otherBase, @Nonnull final String associationTable, 
+				@Nonnull final String thisForeignKeyColumn, @Nonnull final String otherForeignKeyColumn)
+		{
+			super(otherBase);
+			this.associationTable = associationTable;
+			this.thisForeignKeyColumn = thisForeignKeyColumn;
+			this.otherForeignKeyColumn = otherForeignKeyColumn;
+		}
+
+		@Override
+		void load(final RecordBase<?> base, final List<Integer> primaryKeys, final int batchSize)
+		{
+			final long[] modificationCounts = getModificationCounts( base );
+			if(modificationCounts == null)
+			{
+				return;
+			}
+			final Map<Integer, List<Integer>> associatedKeys = new HashMap<>(primaryKeys.size());
+			primaryKeys.forEach( (final Integer key) -> associatedKeys.put( key, new ArrayList<>(4)));
+			try(final Stream<Map<String, Object>> rows = otherBase.getStore().getValues( associationTable, 
+					new String[]{thisForeignKeyColumn, otherForeignKeyColumn}, Conditions.isIn( thisForeignKeyColumn, primaryKeys)))
+			{
+				rows.filter( (final Map<String, Object> row) -> row.get( otherForeignKeyColumn) != null).
+						forEach( (final Map<String, Object> row) -> associatedKeys.get( toKey( row.get( thisForeignKeyColumn))).
+								add( toKey( row.get( otherForeignKeyColumn))));
+			}
+			final Map<Integer, ActiveRecord> records = loadRecords( associatedKeys.values().stream().flatMap( List::stream).
+					collect( Collectors.toSet()), batchSize);
+			associatedKeys.forEach( (final Integer key, final List<Integer> otherKeys) -> PreloadedAssociations.put( base, key, this, 
+					Collections.unmodifiableList( otherKeys.stream().map( records::get).filter( Objects::nonNull).collect( Collectors.toList())), 
+					modificationCounts));
+		}
+
+		@Override
+		long[] getModificationCounts( final RecordBase<?> base )
+		{
+			return trackedCounts( otherBase.getStore().getModificationCount( associationTable), 
+					otherBase.getStore().getModificationCount( otherBase.getTableName()));
+		}
+
+		@Override
+		public boolean equals( final Object obj )
+		{
+			if(!(obj instanceof HasManyThrough))
+			{
+				return false;
+			}
+			final HasManyThrough other = (HasManyThrough)obj;
+			return otherBase.equals( other.otherBase) && associationTable.equals( other.associationTable) && 
+					thisForeignKeyColumn.equals( other.thisForeignKeyColumn) && otherForeignKeyColumn.equals( other.otherForeignKeyColumn);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash( otherBase, associationTable, thisForeignKeyColumn, otherForeignKeyColumn);
+		}
+	}
+}
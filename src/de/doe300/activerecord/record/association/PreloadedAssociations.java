@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.record.association;
+
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.util.SoftValueMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Cache for the associations loaded via {@link Include}.
+ * 
+ * The associations of a record are held softly. Every preloaded association is only valid as long as none of the tables it was 
+ * loaded from is modified, which is detected via the {@link de.doe300.activerecord.store.RecordStore#getModificationCount(java.lang.String) modification-counts}
+ * of the tables.
+ * 
+ * @author doe300
+ * @since 0.9
+ */
+@ThreadSafe
+final class PreloadedAssociations
+{
+	private static final Map<RecordBase<?>, SoftValueMap<Integer, Map<Include, Preloaded>>> cache = Collections.synchronizedMap( new WeakHashMap<>(4));
+
+	private PreloadedAssociations()
+	{
+	}
+
+	/**
+	 * @param base the base of the record
+	 * @param primaryKey the primary key of the record
+	 * @param include the association
+	 * @param value the preloaded value
+	 * @param modificationCounts the modification-counts of the tables the association depends on, at the time the loading was started
+	 * @see Include#getModificationCounts(de.doe300.activerecord.RecordBase) 
+	 */
+	static void put(@Nonnull final RecordBase<?> base, @Nonnegative final int primaryKey, @Nonnull final Include include, 
+			@Nonnull final Object value, @Nonnull final long[] modificationCounts)
+	{
+		final SoftValueMap<Integer, Map<Include, Preloaded>> baseCache;
+		synchronized(cache)
+		{
+			baseCache = cache.computeIfAbsent( base, (final RecordBase<?> b) -> new SoftValueMap<>());
+		}
+		synchronized(baseCache)
+		{
+			Map<Include, Preloaded> associations = baseCache.get( primaryKey);
+			if(associations == null)
+			{
+				associations = new ConcurrentHashMap<>(4);
+				baseCache.put( primaryKey, associations);
+			}
+			associations.put( include, new Preloaded(value, modificationCounts));
+		}
+	}
+
+	/**
+	 * @param base the base of the record
+	 * @param primaryKey the primary key of the record
+	 * @param include the association
+	 * @return the preloaded value or <code>null</code>, if the association was not preloaded or any of its tables was modified since
+	 */
+	@Nullable
+	static Object get(@Nonnull final RecordBase<?> base, @Nonnegative final int primaryKey, @Nonnull final Include include)
+	{
+		final SoftValueMap<Integer, Map<Include, Preloaded>> baseCache = cache.get( base );
+		if(baseCache == null)
+		{
+			return null;
+		}
+		final Map<Include, Preloaded> associations = baseCache.get( primaryKey);
+		if(associations == null)
+		{
+			return null;
+		}
+		final Preloaded preloaded = associations.get( include );
+		if(preloaded == null)
+		{
+			return null;
+		}
+		if(!Arrays.equals( preloaded.modificationCounts, include.getModificationCounts( base )))
+		{
+			associations.remove( include, preloaded);
+			return null;
+		}
+		return preloaded.value;
+	}
+
+	@Immutable
+	private static final class Preloaded
+	{
+		@Nonnull
+		final Object value;
+		@Nonnull
+		final long[] modificationCounts;
+
+		Preloaded(@Nonnull final Object value, @Nonnull final long[] modificationCounts)
+		{
+			this.value = value;
+			this.modificationCounts = modificationCounts;
+		}
+	}
+}
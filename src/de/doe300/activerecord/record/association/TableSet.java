@@ -27,6 +27,7 @@ package de.doe300.activerecord.record.association;
 import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
@@ -146,13 +147,13 @@ public class TableSet<T extends ActiveRecord> extends AbstractSet<T> implements
 	@Override
 	public Stream<T> findWithScope( final Scope scope )
 	{
-		return base.findWithScope( new Scope(scope.getCondition(), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit()) );
+		return base.findWithScope( new Scope(scope.getCondition(), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit(), scope.getFetchSize()) );
 	}
 
 	@Override
 	public T findFirstWithScope( final Scope scope )
 	{
-		return base.findFirstWithScope( new Scope(scope.getCondition(), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit()) );
+		return base.findFirstWithScope( new Scope(scope.getCondition(), scope.getOrder() != null ? scope.getOrder() : order, scope.getLimit(), scope.getFetchSize()) );
 	}
 
 	@Override
@@ -166,4 +167,10 @@ public class TableSet<T extends ActiveRecord> extends AbstractSet<T> implements
 	{
 		return base.aggregate( aggregateFunction, condition );
 	}
+
+	@Override
+	public Object[] aggregateAll( @Nullable final Condition condition, final List<AggregateFunction<T, ?, ?, ?>> aggregateFunctions )
+	{
+		return base.aggregateAll( condition, aggregateFunctions );
+	}
 }
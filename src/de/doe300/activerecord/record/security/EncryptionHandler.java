@@ -56,6 +56,13 @@ public class EncryptionHandler implements ProxyHandler
 				(method.getDeclaringClass() == EncryptedRecord.class || method.isAnnotationPresent( EncryptedAttribute.class));
 	}
 
+	@Override
+	public Boolean handlesMethodForType( Class<? extends ActiveRecord> recordType, Method method )
+	{
+		return EncryptedRecord.class.isAssignableFrom( recordType ) && 
+				(method.getDeclaringClass() == EncryptedRecord.class || method.isAnnotationPresent( EncryptedAttribute.class));
+	}
+
 	@Override
 	public <T extends ActiveRecord> Object invoke( ActiveRecord record, RecordHandler<T> handler, Method method,
 			Object[] args ) throws IllegalArgumentException
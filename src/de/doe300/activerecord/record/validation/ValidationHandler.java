@@ -50,6 +50,12 @@ public class ValidationHandler implements ProxyHandler
 		return record instanceof ValidatedRecord && method.getDeclaringClass() == ValidatedRecord.class;
 	}
 
+	@Override
+	public Boolean handlesMethodForType( Class<? extends ActiveRecord> recordType, Method method )
+	{
+		return ValidatedRecord.class.isAssignableFrom( recordType ) && method.getDeclaringClass() == ValidatedRecord.class;
+	}
+
 	@Override
 	public <T extends ActiveRecord> Object invoke( ActiveRecord record, RecordHandler<T> handler,
 			Method method, Object[] args ) throws IllegalArgumentException
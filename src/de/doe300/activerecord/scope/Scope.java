@@ -26,10 +26,15 @@
 
 package de.doe300.activerecord.scope;
 
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import de.doe300.activerecord.dsl.Condition;
+import de.doe300.activerecord.dsl.Conditions;
 import de.doe300.activerecord.dsl.Order;
+import de.doe300.activerecord.store.DBDriver;
+import java.util.Map;
 import java.util.Objects;
 import javax.annotation.concurrent.Immutable;
 
@@ -50,12 +55,20 @@ public final class Scope
 	 * @since 0.5
 	 */
 	public static final Scope DEFAULT = new Scope(null, null, NO_LIMIT);
+	
+	/**
+	 * No specific fetch-size was set, the default of the record-store is used
+	 * @since 0.9
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 0;
 
 	@Nullable
 	private final Condition condition;
 	@Nullable
 	private final Order order;
 	private final int limit;
+	@Nonnegative
+	private final int fetchSize;
 	
 	/**
 	 *
@@ -65,9 +78,29 @@ public final class Scope
 	 */
 	public Scope(@Nullable final Condition condition, @Nullable final Order order, final int limit )
 	{
+		this(condition, order, limit, DEFAULT_FETCH_SIZE);
+	}
+	
+	/**
+	 * The fetch-size is a hint for the record-store, how many rows to retrieve from the database at once while streaming the results.
+	 * It does not change the results and is therefore not considered for {@link #equals(java.lang.Object) }.
+	 * 
+	 * @param condition the condition to narrow the results, may be <code>null</code>
+	 * @param order a order to apply to the results, may be <code>null</code>
+	 * @param limit a maximum number of results to retrieve, <code>NO_LIMIT</code> to disable
+	 * @param fetchSize the number of rows to fetch at once, <code>DEFAULT_FETCH_SIZE</code> to use the default of the record-store
+	 * @since 0.9
+	 */
+	public Scope(@Nullable final Condition condition, @Nullable final Order order, final int limit, @Nonnegative final int fetchSize)
+	{
+		if(fetchSize < 0)
+		{
+			throw new IllegalArgumentException("Invalid fetch-size: " + fetchSize);
+		}
 		this.condition = condition;
 		this.order = order;
 		this.limit = limit;
+		this.fetchSize = fetchSize;
 	}
 
 	/**
@@ -95,6 +128,45 @@ public final class Scope
 	{
 		return limit;
 	}
+	
+	/**
+	 * @return the fetch-size, <code>DEFAULT_FETCH_SIZE</code> to use the default of the record-store
+	 * @since 0.9
+	 */
+	@Nonnegative
+	public int getFetchSize()
+	{
+		return fetchSize;
+	}
+
+	/**
+	 * Creates the scope for the next page of a keyset-pagination (also called seek-method), matching the rows ordered after the given row.
+	 * Contrary to an offset, the rows of the previous pages don't need to be read again.
+	 * 
+	 * For the pages to not skip or repeat any row, the order must be unique, e.g. end with the primary key.
+	 * 
+	 * @param lastRow the values of the last row of the previous page, for all columns of the order
+	 * @param driver the driver of the store to query
+	 * @return the scope for the next page
+	 * @throws IllegalStateException if this scope has no order
+	 * @throws IllegalArgumentException if the order can't be converted to a keyset-condition
+	 * @since 0.9
+	 * @see Order#toKeysetCondition(java.util.Map, de.doe300.activerecord.store.DBDriver) 
+	 */
+	@Nonnull
+	public Scope after(@Nonnull final Map<String, Object> lastRow, @Nonnull final DBDriver driver) throws IllegalStateException, IllegalArgumentException
+	{
+		if(order == null)
+		{
+			throw new IllegalStateException("Keyset-pagination requires an order");
+		}
+		final Condition keysetCondition = order.toKeysetCondition( lastRow, driver );
+		if(keysetCondition == null)
+		{
+			throw new IllegalArgumentException("Order can't be used for keyset-pagination: " + order);
+		}
+		return new Scope(Conditions.and( condition, keysetCondition), order, limit, fetchSize);
+	}
 
 	/**
 	 * Two scopes are considered equal, if the represent the same {@link Condition}, {@link Order} and limit
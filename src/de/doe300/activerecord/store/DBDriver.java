@@ -135,4 +135,18 @@ public interface DBDriver
 	 */
 	@Nonnull
 	public Diagnostics<?> createDiagnostics(@Nonnull final RecordStore store);
+
+	/**
+	 * Determines the position of <code>NULL</code>-values in ordered results.
+	 * The default implementation sorts <code>NULL</code> lower than any other value, 
+	 * so it comes first in ascending and last in descending order.
+	 * 
+	 * @param ascending whether the values are sorted in ascending order
+	 * @return whether <code>NULL</code>-values are ordered before all other values
+	 * @since 0.9
+	 */
+	public default boolean isNullOrderedFirst(final boolean ascending)
+	{
+		return ascending;
+	}
 }
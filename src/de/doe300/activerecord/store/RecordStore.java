@@ -25,8 +25,13 @@
 package de.doe300.activerecord.store;
 
 import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.CheckReturnValue;
@@ -48,6 +53,12 @@ import de.doe300.activerecord.store.diagnostics.Diagnostics;
  */
 public interface RecordStore extends AutoCloseable
 {
+	/**
+	 * Value for {@link #getModificationCount(java.lang.String) } of record-stores not tracking modifications
+	 * @since 0.9
+	 */
+	public static final long MODIFICATIONS_NOT_TRACKED = -1;
+
 	/**
 	 * @return the driver to be used for the underlying data-store
 	 */
@@ -156,6 +167,21 @@ public interface RecordStore extends AutoCloseable
 	@Nonnull
 	public Stream<Object> getValues(@Nonnull final String tableName, @Nonnull final String column, @Nonnull final String condColumn, Object condValue) throws NoSuchDataSetException, NoSuchAttributeException;
 
+	/**
+	 * This method is for usage only if the table has no mapped model, i.e. for association-tables.
+	 * Access made with this method is not required to be cached and should therefore be only used if no model applies to the requested table.
+	 *
+	 * @param tableName
+	 * @param columns the columns to retrieve
+	 * @param condition the condition to match, may be <code>null</code>
+	 * @return the values of the given <code>columns</code> for all matching rows
+	 * @throws IllegalArgumentException if the <code>tableName</code> does not exist or the column-names are not present in the given data-set
+	 * @since 0.9
+	 */
+	@Nonnull
+	public Stream<Map<String, Object>> getValues(@Nonnull final String tableName, @Nonnull final String[] columns, @Nullable final Condition condition) 
+			throws NoSuchDataSetException, NoSuchAttributeException;
+
 	/**
 	 * This method is for usage only if the table has no mapped model, i.e. for association-tables.
 	 * Access made with this method is not required to be cached and should therefore be only used if no model applies to the requested table.
@@ -181,6 +207,21 @@ public interface RecordStore extends AutoCloseable
 	@CheckReturnValue
 	public boolean removeRow(@Nonnull final String tableName, @Nullable final Condition cond) throws NoSuchDataSetException, NoSuchAttributeException;
 
+	/**
+	 * The modification-count of a table is increased after every modification of the table's rows via this record-store,
+	 * i.e. by inserting, modifying or removing rows. It can be used to detect whether data read from the table is out of date.
+	 * 
+	 * The default implementation does not track any modifications.
+	 * 
+	 * @param tableName the name of the table
+	 * @return the modification-count or {@link #MODIFICATIONS_NOT_TRACKED}
+	 * @since 0.9
+	 */
+	public default long getModificationCount(@Nonnull final String tableName)
+	{
+		return MODIFICATIONS_NOT_TRACKED;
+	}
+
 	/**
 	 * This method is only necessary for caching RecordStores
 	 * @param base
@@ -245,6 +286,29 @@ public interface RecordStore extends AutoCloseable
 	 */
 	public int insertNewRecord(@Nonnull final RecordBase<?> base, @Nullable final Map<String,Object> columnData) throws NoSuchDataSetException, NoSuchAttributeException;
 
+	/**
+	 * Inserts multiple new rows at once. Implementations should use bulk operations to insert the rows, where supported.
+	 * 
+	 * The default implementation calls {@link #insertNewRecord(de.doe300.activerecord.RecordBase, java.util.Map) } for every row.
+	 * 
+	 * @param base
+	 * @param rows the data for the new rows
+	 * @return the IDs of the new records, in the order of the given rows
+	 * @throws IllegalArgumentException if there is no data-set for the given <code>base</code> or any of the column is not present in the data-set
+	 * @see #insertNewRecord(de.doe300.activerecord.RecordBase, java.util.Map) 
+	 * @since 0.9
+	 */
+	@Nonnull
+	public default int[] insertNewRecords(@Nonnull final RecordBase<?> base, @Nonnull final List<Map<String,Object>> rows) throws NoSuchDataSetException, NoSuchAttributeException
+	{
+		final int[] keys = new int[rows.size()];
+		for(int i = 0; i < keys.length; i++)
+		{
+			keys[i] = insertNewRecord( base, rows.get( i));
+		}
+		return keys;
+	}
+
 	/**
 	 * A record may be non-synchronized if the record-store uses caches or the record was not yet saved to the underlying resource
 	 * @param base
@@ -348,4 +412,61 @@ public interface RecordStore extends AutoCloseable
 	 */
 	@Nullable
 	public <R> R aggregate(@Nonnull final RecordBase<?> base, @Nonnull final AggregateFunction<?, ?, ?, R> aggregateFunction, @Nullable final Condition condition) throws NoSuchDataSetException, NoSuchAttributeException;
+
+	/**
+	 * Computes all the aggregate-functions over the rows matching the condition.
+	 * 
+	 * NOTE: If this RecordStore is based on a SQL-implementation, all aggregates should be 
+	 * computed within a single query for performance reasons
+	 * 
+	 * @param base the {@link RecordBase} to aggregate over
+	 * @param aggregateFunctions the {@link AggregateFunction aggregation-functions} to compute
+	 * @param condition the condition to filter the aggregated rows
+	 * @return the aggregated values, in the order of <code>aggregateFunctions</code>
+	 * @throws IllegalArgumentException if there is no data-set for the given <code>base</code>
+	 * @since 0.9
+	 * @see #aggregate(de.doe300.activerecord.RecordBase, de.doe300.activerecord.dsl.AggregateFunction, de.doe300.activerecord.dsl.Condition) 
+	 */
+	@Nonnull
+	public default Object[] aggregateAll(@Nonnull final RecordBase<?> base, @Nonnull final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, 
+			@Nullable final Condition condition) throws NoSuchDataSetException, NoSuchAttributeException
+	{
+		return Arrays.stream( aggregateFunctions).map( (final AggregateFunction<?, ?, ?, ?> func) -> aggregate( base, func, condition)).toArray();
+	}
+
+	/**
+	 * Groups the rows matching the condition by the values of the <code>groupColumns</code> and computes the aggregate-functions for every group.
+	 * 
+	 * NOTE: If this RecordStore is based on a SQL-implementation, the grouping should be 
+	 * performed within the SQL-implementation (<code>GROUP BY</code>) for performance reasons
+	 * 
+	 * @param base the {@link RecordBase} to aggregate over
+	 * @param groupColumns the columns to group by
+	 * @param aggregateFunctions the {@link AggregateFunction aggregation-functions} to compute per group
+	 * @param condition the condition to filter the aggregated rows
+	 * @return the values of the group-columns (in the order of <code>groupColumns</code>) mapped to the aggregated values 
+	 *	(in the order of <code>aggregateFunctions</code>) for every group
+	 * @throws IllegalArgumentException if there is no data-set for the given <code>base</code>
+	 * @since 0.9
+	 */
+	@Nonnull
+	public default Map<List<Object>, Object[]> aggregateGrouped(@Nonnull final RecordBase<?> base, @Nonnull final String[] groupColumns, 
+			@Nonnull final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, @Nullable final Condition condition) 
+			throws NoSuchDataSetException, NoSuchAttributeException
+	{
+		final Set<String> columns = new LinkedHashSet<>(Arrays.asList( base.getDefaultColumns()));
+		columns.addAll( Arrays.asList( groupColumns ));
+		final Map<List<Object>, List<Map<String, Object>>> groups;
+		try(final Stream<Map<String, Object>> rows = streamAllWithData( base, columns.toArray( new String[columns.size()]), 
+				new Scope(condition, null, Scope.NO_LIMIT)))
+		{
+			groups = rows.collect( Collectors.groupingBy( (final Map<String, Object> row) -> 
+					Arrays.asList( Arrays.stream( groupColumns).map( row::get).toArray()), LinkedHashMap::new, Collectors.toList()));
+		}
+		final Map<List<Object>, Object[]> results = new LinkedHashMap<>(groups.size());
+		groups.forEach( (final List<Object> key, final List<Map<String, Object>> rows) -> 
+				results.put( key, Arrays.stream( aggregateFunctions).map( (final AggregateFunction<?, ?, ?, ?> func) -> 
+						func.aggregate( rows.stream())).toArray()));
+		return results;
+	}
 }
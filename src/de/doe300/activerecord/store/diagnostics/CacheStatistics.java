@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.diagnostics;
+
+import javax.annotation.Nonnegative;
+
+/**
+ * Live statistics of a cache maintained by a record-store
+ *
+ * @author doe300
+ * @since 0.9
+ */
+public interface CacheStatistics
+{
+	/**
+	 * @return the number of lookups which were served from the cache
+	 */
+	@Nonnegative
+	public long getHits();
+
+	/**
+	 * @return the number of lookups which could not be served from the cache
+	 */
+	@Nonnegative
+	public long getMisses();
+
+	/**
+	 * @return the number of entries removed from the cache to keep it within its capacity
+	 */
+	@Nonnegative
+	public long getEvictions();
+
+	/**
+	 * @return the current number of cached entries
+	 */
+	@Nonnegative
+	public long getSize();
+
+	/**
+	 * @return the maximum number of cached entries
+	 */
+	@Nonnegative
+	public long getCapacity();
+
+	/**
+	 * @return the ratio of hits to all lookups, a value between 0 and 1
+	 */
+	public default double getHitRate()
+	{
+		final long hits = getHits();
+		final long lookups = hits + getMisses();
+		return lookups == 0 ? 0 : hits / (double) lookups;
+	}
+}
@@ -61,6 +61,9 @@ public class Diagnostics<T>
 	private final Deque<LoggedQuery<T>> slowQueryLog;
 	private final BiFunction<T, Long, ? extends LoggedQuery<T>> logCreator;
 	private SlowQueryListener listener;
+	private PoolStatistics poolStatistics;
+	private CacheStatistics statementCacheStatistics;
+	private CacheStatistics rowCacheStatistics;
 	
 	/**
 	 * @param logCreator 
@@ -177,4 +180,79 @@ public class Diagnostics<T>
 	{
 		this.listener = listener;
 	}
+
+	/**
+	 * @return the statistics of the connection-pool used by the record-store
+	 * @throws UnsupportedOperationException if the record-store does not use a connection-pool
+	 * @since 0.9
+	 */
+	@Nonnull
+	public PoolStatistics getPoolStatistics() throws UnsupportedOperationException
+	{
+		if(poolStatistics == null)
+		{
+			throw new UnsupportedOperationException("Record-store does not use a connection-pool");
+		}
+		return poolStatistics;
+	}
+
+	/**
+	 * This method is called by the record-store to publish the statistics of its connection-pool
+	 * @param poolStatistics the pool-statistics
+	 * @since 0.9
+	 */
+	public void setPoolStatistics(@Nullable final PoolStatistics poolStatistics)
+	{
+		this.poolStatistics = poolStatistics;
+	}
+
+	/**
+	 * @return the statistics of the prepared-statement cache used by the record-store
+	 * @throws UnsupportedOperationException if the record-store does not cache prepared statements
+	 * @since 0.9
+	 */
+	@Nonnull
+	public CacheStatistics getStatementCacheStatistics() throws UnsupportedOperationException
+	{
+		if(statementCacheStatistics == null)
+		{
+			throw new UnsupportedOperationException("Record-store does not cache prepared statements");
+		}
+		return statementCacheStatistics;
+	}
+
+	/**
+	 * This method is called by the record-store to publish the statistics of its prepared-statement cache
+	 * @param statementCacheStatistics the cache-statistics
+	 * @since 0.9
+	 */
+	public void setStatementCacheStatistics(@Nullable final CacheStatistics statementCacheStatistics)
+	{
+		this.statementCacheStatistics = statementCacheStatistics;
+	}
+
+	/**
+	 * @return the statistics of the row-cache used by the record-store
+	 * @throws UnsupportedOperationException if the record-store does not cache rows
+	 * @since 0.9
+	 */
+	@Nonnull
+	public CacheStatistics getRowCacheStatistics() throws UnsupportedOperationException
+	{
+		if(rowCacheStatistics == null)
+		{
+			throw new UnsupportedOperationException("Record-store does not cache rows");
+		}
+		return rowCacheStatistics;
+	}
+
+	/**
+	 * This method is called by the record-store to publish the statistics of its row-cache
+	 * @param rowCacheStatistics the cache-statistics
+	 * @since 0.9
+	 */
+	public void setRowCacheStatistics(@Nullable final CacheStatistics rowCacheStatistics)
+	{
+		this.rowCacheStatistics = rowCacheStatistics;
+	}
 }
@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.diagnostics;
+
+import javax.annotation.Nonnegative;
+
+/**
+ * Live statistics of a pool of connections used by a record-store
+ *
+ * @author doe300
+ * @since 0.9
+ */
+public interface PoolStatistics
+{
+	/**
+	 * @return the maximum number of connections in the pool
+	 */
+	@Nonnegative
+	public int getPoolSize();
+
+	/**
+	 * @return the number of currently opened connections
+	 */
+	@Nonnegative
+	public int getOpenConnections();
+
+	/**
+	 * @return the number of connections currently in use
+	 */
+	@Nonnegative
+	public int getActiveConnections();
+
+	/**
+	 * @return the total number of connections borrowed from the pool
+	 */
+	@Nonnegative
+	public long getBorrowCount();
+
+	/**
+	 * @return the number of times a connection could not be borrowed immediately
+	 */
+	@Nonnegative
+	public long getWaitCount();
+
+	/**
+	 * @return the accumulated time spent waiting for a free connection, in milliseconds (ms)
+	 */
+	@Nonnegative
+	public long getTotalWaitTime();
+
+	/**
+	 * @return the average time spent waiting for a connection per borrow, in milliseconds (ms)
+	 */
+	public default double getAverageWaitTime()
+	{
+		final long borrows = getBorrowCount();
+		return borrows == 0 ? 0 : getTotalWaitTime() / (double) borrows;
+	}
+}
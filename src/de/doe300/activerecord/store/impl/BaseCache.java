@@ -24,33 +24,189 @@
  */
 package de.doe300.activerecord.store.impl;
 
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
 
 import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.record.TimestampedRecord;
 
 /**
- * Caches all rows of one DB TABLE
+ * Caches the rows of one DB TABLE.
+ * 
+ * The number of cached rows is bounded by the {@link #getCapacity() capacity}, 
+ * if it is exceeded, the least recently used rows are evicted. Modified rows are never evicted before being written back.
+ * 
+ * The columns of the table are mapped to fixed indices, which are used by the {@link RowCache rows} to store their values.
+ * The indices of the columns used by every row are resolved once, other column-names should be resolved once per access.
+ * 
+ * A cached row proves the existence of the record, additionally the primary keys of records known to not exist are cached,
+ * so the existence of a record only needs to be checked in the database once.
+ * 
  * @author doe300
  */
+@ThreadSafe
 class BaseCache
 {
-	private final Map<Integer, RowCache> cachedRows;
+	@Nonnull
+	private final PrimaryKeyMap<RowCache> cachedRows;
 	private final RecordBase<?> base;
+	@Nonnull
+	private final CacheCounters counters;
+	private volatile int capacity;
+	@Nonnull
+	private final ReentrantLock evictionLock;
+	/**
+	 * The indices of the columns by their (lower-case) names and any other spelling already looked up
+	 */
+	@Nonnull
+	private final Map<String, Integer> columnIndices;
+	@Nonnull
+	private final String[] columnNames;
+	private final int primaryIndex;
+	private final int createdAtIndex;
+	private final int updatedAtIndex;
 
 	private final Set<RowCache> modifiedRows;
+	/**
+	 * The primary keys of the rows known to not exist
+	 */
+	private final Set<Integer> missingRows;
 
-	BaseCache(@Nonnull final RecordBase<?> base)
+	/**
+	 * @param base
+	 * @param columns the (lower-case) names of all columns of the table
+	 * @param capacity the maximum number of rows to cache
+	 * @param counters the counters to update
+	 * @since 0.9
+	 */
+	BaseCache(@Nonnull final RecordBase<?> base, @Nonnull final Set<String> columns, @Nonnegative final int capacity, 
+			@Nonnull final CacheCounters counters)
 	{
-		this.cachedRows = Collections.synchronizedSortedMap( new TreeMap<>());
+		this.cachedRows = new PrimaryKeyMap<>(RowCache::getPrimaryKey);
 		this.base = base;
-		this.modifiedRows = Collections.synchronizedSet( new HashSet<>(10));
+		this.modifiedRows = ConcurrentHashMap.newKeySet();
+		this.missingRows = ConcurrentHashMap.newKeySet();
+		this.counters = counters;
+		this.capacity = capacity;
+		this.evictionLock = new ReentrantLock();
+		this.columnNames = columns.toArray( new String[columns.size()]);
+		this.columnIndices = new ConcurrentHashMap<>(columnNames.length * 2);
+		for(int i = 0; i < columnNames.length; i++)
+		{
+			columnIndices.put( columnNames[i], i );
+		}
+		this.primaryIndex = getColumnIndex( base.getPrimaryColumn());
+		this.createdAtIndex = base.isTimestamped() ? getColumnIndex( TimestampedRecord.COLUMN_CREATED_AT) : -1;
+		this.updatedAtIndex = base.isTimestamped() ? getColumnIndex( TimestampedRecord.COLUMN_UPDATED_AT) : -1;
+		counters.capacityChanged( capacity );
+	}
+
+	/**
+	 * @return the number of columns
+	 * @since 0.9
+	 */
+	@Nonnegative
+	int getColumnCount()
+	{
+		return columnNames.length;
+	}
+
+	/**
+	 * @param columnName the column-name, case-insensitive
+	 * @return the index of the column or <code>-1</code> if the table has no such column
+	 * @since 0.9
+	 */
+	int getColumnIndex(@Nonnull final String columnName)
+	{
+		Integer index = columnIndices.get( columnName );
+		if(index == null)
+		{
+			index = columnIndices.get( columnName.toLowerCase() );
+			if(index != null)
+			{
+				//e.g. upper-case column-labels of result-sets, only convert them once
+				columnIndices.putIfAbsent( columnName, index );
+			}
+		}
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return the index of the primary-key column or <code>-1</code>
+	 * @since 0.9
+	 */
+	int getPrimaryIndex()
+	{
+		return primaryIndex;
+	}
+
+	/**
+	 * @return the index of the {@link TimestampedRecord#COLUMN_CREATED_AT created_at} column or <code>-1</code>
+	 * @since 0.9
+	 */
+	int getCreatedAtIndex()
+	{
+		return createdAtIndex;
+	}
+
+	/**
+	 * @return the index of the {@link TimestampedRecord#COLUMN_UPDATED_AT updated_at} column or <code>-1</code>
+	 * @since 0.9
+	 */
+	int getUpdatedAtIndex()
+	{
+		return updatedAtIndex;
+	}
+
+	/**
+	 * @param index
+	 * @return the name of the column with the given index
+	 * @since 0.9
+	 */
+	@Nonnull
+	String getColumnName(@Nonnegative final int index)
+	{
+		return columnNames[index];
+	}
+
+	/**
+	 * @return the maximum number of rows to cache
+	 * @since 0.9
+	 */
+	@Nonnegative
+	public int getCapacity()
+	{
+		return capacity;
+	}
+
+	/**
+	 * Sets the maximum number of cached rows and evicts rows, if necessary
+	 * @param capacity the new capacity
+	 * @since 0.9
+	 */
+	public void setCapacity(@Nonnegative final int capacity)
+	{
+		evictionLock.lock();
+		try
+		{
+			counters.capacityChanged( capacity - this.capacity );
+			this.capacity = capacity;
+			evictRows( capacity );
+		}
+		finally
+		{
+			evictionLock.unlock();
+		}
 	}
 
 	/**
@@ -63,13 +219,29 @@ class BaseCache
 		return cachedRows.get( primaryKey );
 	}
 
+	/**
+	 * In contrast to {@link #getRow(int) }, this method counts towards the cache-statistics
+	 * @param primaryKey
+	 * @return the row or <code>null</code>
+	 * @since 0.9
+	 */
+	@Nullable
+	public RowCache findRow(final int primaryKey)
+	{
+		final RowCache row = cachedRows.get( primaryKey );
+		if(row != null)
+		{
+			counters.hit();
+		}
+		return row;
+	}
+
 	@Nonnull
 	private RowCache createRow(final int primaryKey)
 	{
-		final RowCache cache = new RowCache(this, base.getPrimaryColumn(), base.isTimestamped() );
-		cache.setData( base.getPrimaryColumn(), primaryKey, false);
-		cachedRows.put( primaryKey, cache );
-		return cache;
+		counters.miss();
+		counters.sizeChanged( 1 );
+		return new RowCache(this, primaryKey, base.isTimestamped() );
 	}
 
 	/**
@@ -80,11 +252,28 @@ class BaseCache
 	@Nonnull
 	public RowCache getOrCreateRow(final int primaryKey)
 	{
-		if(cachedRows.containsKey( primaryKey))
+		final RowCache row = cachedRows.get( primaryKey );
+		if(row != null)
+		{
+			counters.hit();
+			return row;
+		}
+		final RowCache newRow = cachedRows.computeIfAbsent( primaryKey, this::createRow);
+		missingRows.remove( primaryKey );
+		if(cachedRows.size() > capacity && evictionLock.tryLock())
 		{
-			return getRow( primaryKey );
+			//if another thread is already evicting, there is no need to wait for it
+			try
+			{
+				//evict some more rows to not need to evict on every insertion
+				evictRows( capacity - capacity / 16 );
+			}
+			finally
+			{
+				evictionLock.unlock();
+			}
 		}
-		return createRow( primaryKey );
+		return newRow;
 	}
 
 	/**
@@ -102,7 +291,143 @@ class BaseCache
 	 */
 	public void removeRow(final int primaryKey)
 	{
-		cachedRows.remove( primaryKey );
+		final RowCache row = cachedRows.get( primaryKey );
+		if(row != null)
+		{
+			synchronized(row)
+			{
+				if(cachedRows.remove( row ))
+				{
+					modifiedRows.remove( row );
+					row.setEvicted();
+					counters.sizeChanged( -1 );
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param primaryKey
+	 * @return whether the row is known to not exist
+	 * @since 0.9
+	 */
+	public boolean isMissing(final int primaryKey)
+	{
+		return missingRows.contains( primaryKey );
+	}
+
+	/**
+	 * Marks the row as not existing and removes it from the cache
+	 * @param primaryKey
+	 * @since 0.9
+	 */
+	public void setMissing(final int primaryKey)
+	{
+		removeRow( primaryKey );
+		if(missingRows.size() >= capacity)
+		{
+			//keep the negative cache within the same bounds as the rows
+			missingRows.clear();
+		}
+		missingRows.add( primaryKey );
+	}
+
+	/**
+	 * Discards the knowledge about the existence of the given row, including all cached data
+	 * @param primaryKey
+	 * @since 0.9
+	 */
+	public void forgetRow(final int primaryKey)
+	{
+		removeRow( primaryKey );
+		missingRows.remove( primaryKey );
+	}
+
+	/**
+	 * Discards the knowledge about the existence of all rows. Rows with modifications not yet written back are retained.
+	 * 
+	 * @since 0.9
+	 */
+	public void invalidate()
+	{
+		missingRows.clear();
+		for(final RowCache row : cachedRows.values())
+		{
+			evictIfSynchronized( row );
+		}
+	}
+
+	/**
+	 * Removes all rows and releases this cache, e.g. if the table was dropped
+	 * @since 0.9
+	 */
+	public void discard()
+	{
+		missingRows.clear();
+		modifiedRows.clear();
+		for(final RowCache row : cachedRows.values())
+		{
+			removeRow( row.getPrimaryKey() );
+		}
+		counters.capacityChanged( -capacity );
+	}
+
+	/**
+	 * Evicts the least recently used rows which are not modified, until the size is within the given limit.
+	 * Must be called with the eviction-lock held
+	 * 
+	 * @param targetSize the number of rows to retain
+	 */
+	private void evictRows(@Nonnegative final int targetSize)
+	{
+		final int toEvict = cachedRows.size() - targetSize;
+		if(toEvict <= 0)
+		{
+			return;
+		}
+		//never evict rows before their changes are written back
+		final List<RowCache> candidates = cachedRows.values().stream().filter( RowCache::isSynchronized).
+				sorted( Comparator.comparingLong( RowCache::getLastAccess)).limit( toEvict).collect( Collectors.toList());
+		for(final RowCache row : candidates)
+		{
+			//the row could have been modified in the meantime
+			if(evictIfSynchronized( row ))
+			{
+				counters.evicted();
+			}
+		}
+	}
+
+	/**
+	 * Removes the row, if it has no modifications. The lock of the row is held, so it can't be modified concurrently, 
+	 * modifications afterwards are rejected by the row
+	 * 
+	 * @param row
+	 * @return whether the row was removed
+	 */
+	private boolean evictIfSynchronized(@Nonnull final RowCache row)
+	{
+		synchronized(row)
+		{
+			if(row.isSynchronized() && cachedRows.remove( row ))
+			{
+				modifiedRows.remove( row );
+				row.setEvicted();
+				counters.sizeChanged( -1 );
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * @return the number of rows with modifications not yet written back
+	 * @since 0.9
+	 */
+	@Nonnegative
+	public int getModifiedCount()
+	{
+		return modifiedRows.size();
 	}
 
 	/**
@@ -116,27 +441,33 @@ class BaseCache
 	}
 
 	/**
-	 * Writes all changes from this table
-	 * @param store
+	 * Called by RowCache, once all its modifications are written back. Must be called with the lock of the row held,
+	 * so concurrent modifications re-add the row afterwards
+	 * 
+	 * @param row
+	 * @since 0.9
+	 */
+	void setSynchronized(@Nonnull final RowCache row)
+	{
+		modifiedRows.remove( row );
+	}
+
+	/**
+	 * Adds the changes from this table to the container. The rows stay modified until the container is 
+	 * {@link WriteBack#writtenBack() written back}.
+	 * 
+	 * @param container
 	 * @return whether some data was written
 	 */
 	public boolean writeAllBack(@Nonnull final WriteBack container)
 	{
-		if(modifiedRows.isEmpty())
-		{
-			return false;
-		}
 		boolean changed = false;
-		synchronized(modifiedRows)
+		for(final RowCache cache : modifiedRows)
 		{
-			for(final RowCache cache : modifiedRows)
+			if(cache.writeBack( container ))
 			{
-				if(cache.writeBack( container ))
-				{
-					changed = true;
-				}
+				changed = true;
 			}
-			modifiedRows.clear();
 		}
 		return changed;
 	}
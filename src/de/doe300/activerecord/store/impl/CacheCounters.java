@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.store.diagnostics.CacheStatistics;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Counters for the statistics of one or multiple caches of the same kind
+ *
+ * @author doe300
+ * @since 0.9
+ */
+@ThreadSafe
+class CacheCounters implements CacheStatistics
+{
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder size = new LongAdder();
+	private final LongAdder capacity = new LongAdder();
+
+	void hit()
+	{
+		hits.increment();
+	}
+
+	void miss()
+	{
+		misses.increment();
+	}
+
+	void evicted()
+	{
+		evictions.increment();
+	}
+
+	void sizeChanged(final long delta)
+	{
+		size.add( delta);
+	}
+
+	void capacityChanged(final long delta)
+	{
+		capacity.add( delta);
+	}
+
+	@Override
+	public long getHits()
+	{
+		return hits.sum();
+	}
+
+	@Override
+	public long getMisses()
+	{
+		return misses.sum();
+	}
+
+	@Override
+	public long getEvictions()
+	{
+		return evictions.sum();
+	}
+
+	@Override
+	public long getSize()
+	{
+		return size.sum();
+	}
+
+	@Override
+	public long getCapacity()
+	{
+		return capacity.sum();
+	}
+}
@@ -26,6 +26,7 @@ package de.doe300.activerecord.store.impl;
 
 import de.doe300.activerecord.util.Pair;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -34,9 +35,15 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import de.doe300.activerecord.RecordBase;
 import de.doe300.activerecord.dsl.AggregateFunction;
@@ -46,8 +53,11 @@ import de.doe300.activerecord.logging.Logging;
 import de.doe300.activerecord.scope.Scope;
 import de.doe300.activerecord.store.NoSuchAttributeException;
 import de.doe300.activerecord.store.NoSuchDataSetException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -58,7 +68,26 @@ import java.util.stream.Collectors;
  */
 public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 {
+	/**
+	 * The maximum number of rows to write back with a single batch
+	 * @since 0.9
+	 */
+	private static final int MAX_BATCH_SIZE = 1000;
+	/**
+	 * The default maximum number of rows to cache per record-base
+	 * @since 0.9
+	 */
+	public static final int DEFAULT_CACHE_CAPACITY = 10000;
 	private final Map<RecordBase<?>, BaseCache> cache;
+	private final CacheCounters rowCounters;
+	@Nonnegative
+	private final int defaultCapacity;
+	/**
+	 * Lock guarding every write-back, so modifications are written back in the order they were collected
+	 */
+	private final ReentrantLock writeBackLock;
+	@Nullable
+	private volatile WriteBehindFlusher flusher;
 	private final Map<String, Map<String, Class<?>>> columnsCache;
 	private final Map<String, Boolean> tableExistsCache;
 
@@ -76,30 +105,101 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 	 * @param driver
 	 */
 	public CachedJDBCRecordStore(@Nonnull final Connection con, final JDBCDriver driver)
+	{
+		this(con, driver, DEFAULT_CACHE_CAPACITY);
+	}
+
+	/**
+	 *
+	 * @param con
+	 * @param driver
+	 * @param cacheCapacity the maximum number of rows to cache per record-base
+	 * @since 0.9
+	 * @see #setCacheCapacity(de.doe300.activerecord.RecordBase, int) 
+	 */
+	public CachedJDBCRecordStore(@Nonnull final Connection con, final JDBCDriver driver, @Nonnegative final int cacheCapacity)
 	{
 		super( con, driver );
-		this.cache=Collections.synchronizedMap( new HashMap<>(10));
+		this.cache = new ConcurrentHashMap<>(10);
+		this.rowCounters = new CacheCounters();
+		this.defaultCapacity = cacheCapacity;
+		this.writeBackLock = new ReentrantLock();
+		this.diagnostics.setRowCacheStatistics( rowCounters );
 		this.columnsCache = Collections.synchronizedSortedMap( new TreeMap<>());
 		tableExistsCache = Collections.synchronizedSortedMap( new TreeMap<>());
 	}
 
-	private Optional<RowCache> getCache(final RecordBase<?> base, final Integer primaryKey)
+	/**
+	 * Returns the cache-entry for the given row, if the row exists.
+	 * 
+	 * The database is only queried for the existence of the row, if it is neither cached nor known to not exist.
+	 */
+	private Optional<RowCache> getCache(final RecordBase<?> base, final int primaryKey)
 	{
-		if(!super.containsRecord( base, primaryKey ))
+		final BaseCache baseCache = cache.get( base );
+		if(baseCache != null)
 		{
-			//FIXME rewrite, so super.containsRecord is not called so often
-			//but needs to test existence in database
-			return Optional.empty();
+			final RowCache row = baseCache.findRow( primaryKey );
+			if(row != null)
+			{
+				return Optional.of( row );
+			}
+			if(baseCache.isMissing( primaryKey ))
+			{
+				return Optional.empty();
+			}
 		}
-		BaseCache tableCache = cache.get( base);
-		if(tableCache == null)
+		if(!super.containsRecord( base, primaryKey ))
 		{
-			tableCache = new BaseCache(base);
-			cache.put( base, tableCache );
+			getBaseCache( base ).setMissing( primaryKey );
+			return Optional.empty();
 		}
 		//FIXME currently, if a record is created and data is set before read the cache can't check if the data was modified
 		//because it is not yet filled with the DB-data
-		return Optional.of( tableCache.getOrCreateRow(primaryKey));
+		return Optional.of( getOrCreateCache( base, primaryKey ));
+	}
+
+	/**
+	 * Applies the modification to the cache-entry of the given row, if it exists. 
+	 * If the entry is evicted concurrently, the modification is applied to the newly created entry
+	 */
+	private void writeToCache(final RecordBase<?> base, final int primaryKey, final Predicate<RowCache> modification)
+	{
+		Optional<RowCache> row = getCache( base, primaryKey );
+		while(row.isPresent() && !modification.test( row.get()))
+		{
+			row = getCache( base, primaryKey );
+		}
+	}
+
+	/**
+	 * Returns the cache-entry for a row which was just read from the database and therefore is known to exist
+	 */
+	@Nonnull
+	private RowCache getOrCreateCache(final RecordBase<?> base, final int primaryKey)
+	{
+		return getBaseCache( base ).getOrCreateRow(primaryKey);
+	}
+
+	@Nonnull
+	private BaseCache getBaseCache(@Nonnull final RecordBase<?> base)
+	{
+		return cache.computeIfAbsent( base, (final RecordBase<?> b) -> new BaseCache(b, getAllColumnNames( b.getTableName()), defaultCapacity, rowCounters));
+	}
+
+	/**
+	 * Sets the maximum number of rows to cache for the given record-base.
+	 * 
+	 * If the number of cached rows exceeds the capacity, the least recently used rows are evicted from the cache. 
+	 * Rows with changes not yet written back are never evicted.
+	 * 
+	 * @param base the record-base
+	 * @param capacity the maximum number of cached rows
+	 * @since 0.9
+	 */
+	public void setCacheCapacity(@Nonnull final RecordBase<?> base, @Nonnegative final int capacity)
+	{
+		getBaseCache( base ).setCapacity( capacity );
 	}
 
 	private boolean hasCache(final RecordBase<?> base, final int primaryKey)
@@ -122,11 +222,40 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 	@Override
 	public boolean containsRecord( final RecordBase<?> base, final int primaryKey )
 	{
-		if(hasCache( base, primaryKey ))
+		return getCache( base, primaryKey ).isPresent();
+	}
+
+	/**
+	 * Discards all cached knowledge about the existence of the records of the given record-base.
+	 * 
+	 * This method needs to be called, if the underlying table was modified from outside of this record-store, 
+	 * i.e. rows were inserted or deleted by another connection. 
+	 * Cached rows with modifications not yet written back are retained.
+	 * 
+	 * @param base the record-base
+	 * @since 0.9
+	 */
+	public void invalidateCache(@Nonnull final RecordBase<?> base)
+	{
+		final BaseCache baseCache = cache.get( base );
+		if(baseCache != null)
 		{
-			return true;
+			baseCache.invalidate();
 		}
-		return super.containsRecord( base, primaryKey );
+	}
+
+	/**
+	 * Runs the action for the caches of all record-bases mapped to the given table
+	 */
+	private void forEachCache(@Nonnull final String tableName, @Nonnull final Consumer<BaseCache> action)
+	{
+		cache.forEach( (final RecordBase<?> base, final BaseCache baseCache) ->
+		{
+			if(base.getTableName().equals( tableName))
+			{
+				action.accept( baseCache );
+			}
+		});
 	}
 	
 	@Override
@@ -136,7 +265,9 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 		{
 			throw new NoSuchAttributeException(base.getTableName(), name);
 		}
-		getCache(base, primaryKey ).ifPresent( (final RowCache c) -> c.setData( name, value, true));
+		writeToCache( base, primaryKey, (final RowCache c) -> c.setData( name, value, true));
+		tableModified( base.getTableName());
+		afterModification();
 	}
 
 	@Override
@@ -146,7 +277,9 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 		{
 			throw new NoSuchAttributeException(base.getTableName(), values.keySet().toString());
 		}
-		getCache(base, primaryKey ).ifPresent( (final RowCache c) -> c.update( values, true ));
+		writeToCache( base, primaryKey, (final RowCache c) -> c.update( values, true ));
+		tableModified( base.getTableName());
+		afterModification();
 	}
 
 	@Override
@@ -162,15 +295,16 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 			return null;
 		}
 		final RowCache c = opt.get();
-		if(c.hasData( name ))
+		final int index = c.getColumnIndex( name );
+		if(c.hasData( index ))
 		{
-			return c.getData( name );
+			return c.getData( index );
 		}
 		// write changes in cache to DB so #getDBValue does not override cached
 		// changes with old data
 		save(base, primaryKey);
-		final Object value = getDBValue( base, primaryKey, c, name).getFirst();
-		c.setData( name, value, false );
+		final Object value = getDBValue( base, primaryKey, c, index).getFirst();
+		c.setData( index, value, false );
 		return value;
 	}
 
@@ -190,16 +324,17 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 		final RowCache c = opt.get();
 		for(final String col:columns)
 		{
-			if(c.hasData( col ))
+			final int index = c.getColumnIndex( col );
+			if(c.hasData( index ))
 			{
-				result.put( col, c.getData( col));
+				result.put( col, c.getData( index));
 			}
 			//this else clause is only called the first time a column is not in the cache
 			else
 			{
 				//write changes in cache to DB so #getDBValue does not override cached changes with old data
 				save( base, primaryKey );
-				final Pair<Object, Boolean> val = getDBValue( base, primaryKey, c, col );
+				final Pair<Object, Boolean> val = getDBValue( base, primaryKey, c, index );
 				if(!val.getSecond())
 				{
 					//no data was written into cache -> row was not read from DB -> every successive call will fail to read data too
@@ -222,17 +357,11 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 	public Stream<Object> getValues( String tableName, String column, String condColumn, Object condValue ) throws IllegalArgumentException
 	{
 		//need to write cache into DB(if request on managed/cached table)
-		for(final Map.Entry<RecordBase<?>, BaseCache> c : cache.entrySet())
+		for(final RecordBase<?> base : cache.keySet())
 		{
-			if(c.getKey().getTableName().equals( tableName))
+			if(base.getTableName().equals( tableName))
 			{
-				if(c.getValue() != null)
-				{
-					final WriteBack container = new WriteBack(c.getKey() );
-					c.getValue().writeAllBack( container );
-					writeBack( container );
-					break;
-				}
+				saveAll( base );
 			}
 		}
 		return super.getValues( tableName, column, condColumn, condValue );
@@ -240,21 +369,28 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 
 	/* Loads the whole row into cache at once */
 	@Nonnull
-	private Pair<Object, Boolean> getDBValue(final RecordBase<?> base, final int primaryKey, final RowCache cacheRow, final String name) throws IllegalArgumentException
+	private Pair<Object, Boolean> getDBValue(final RecordBase<?> base, final int primaryKey, final RowCache cacheRow, final int index) throws IllegalArgumentException
 	{
 		final String sql =
-			"SELECT * FROM " + base.getTableName() + " WHERE " + base.getPrimaryColumn() + " = " + primaryKey;
+			"SELECT * FROM " + base.getTableName() + " WHERE " + base.getPrimaryColumn() + " = ?";
 		Logging.getLogger().debug("CachedJDBCStore", "Loading into cache...");
 		Logging.getLogger().debug("CachedJDBCStore", sql);
-		try (final ResultSet res = closeStatementWithResultSet( con.createStatement()).executeQuery(sql))
+		try
 		{
-			if(res.next())
+			return executeCached( sql, Statement.NO_GENERATED_KEYS, (final PreparedStatement stm) ->
 			{
-				cacheRow.update( res);
-				return Pair.createPair( cacheRow.getData( name ), true);
-			}
-			//no such row in DB
-			return Pair.createPair( null, false);
+				stm.setInt( 1, primaryKey);
+				try (final ResultSet res = stm.executeQuery())
+				{
+					if(res.next())
+					{
+						cacheRow.update( res);
+						return Pair.createPair( cacheRow.getData( index ), true);
+					}
+					//no such row in DB
+					return Pair.createPair( null, false);
+				}
+			});
 		}
 		catch ( final SQLException ex )
 		{
@@ -273,10 +409,19 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 		{
 			final RowCache c = getCache(base, primaryKey ).get();
 			final WriteBack container = new WriteBack(base );
-			if(c.writeBack( container ))
+			writeBackLock.lock();
+			try
 			{
-				writeBack( container );
-				return true;
+				if(c.writeBack( container ))
+				{
+					writeBack( container );
+					container.writtenBack();
+					return true;
+				}
+			}
+			finally
+			{
+				writeBackLock.unlock();
 			}
 		}
 		return false;
@@ -291,48 +436,223 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 			return false;
 		}
 		final WriteBack container = new WriteBack(base );
-		final boolean changed = baseCache.writeAllBack( container );
-		if(changed)
+		writeBackLock.lock();
+		try
+		{
+			final boolean changed = baseCache.writeAllBack( container );
+			if(changed)
+			{
+				writeBack( container );
+				container.writtenBack();
+				Logging.getLogger().debug( "CachedJDBCStore", "Cache entries saved!");
+			}
+			return changed;
+		}
+		finally
 		{
-			writeBack( container );
-			Logging.getLogger().debug( "CachedJDBCStore", "Cache entries saved!");
+			writeBackLock.unlock();
 		}
-		return changed;
 	}
 
 	/**
-	 * This method is only to be used to write cache back to the DB
+	 * Writes all modified rows of all record-bases back into the database.
+	 * 
+	 * When this method returns, all modifications made before calling it are written back, 
+	 * including the ones currently being written by the {@link #enableWriteBehind(long, int, int) write-behind} thread.
+	 * 
+	 * @throws IllegalArgumentException if writing back fails
+	 * @since 0.9
+	 */
+	public void flush() throws IllegalArgumentException
+	{
+		writeBack();
+		final WriteBehindFlusher f = flusher;
+		if(f != null)
+		{
+			f.rethrowError();
+		}
+	}
+
+	/**
+	 * Writes all modified rows of all record-bases back, without reporting errors of previous background write-backs
+	 * 
+	 * @throws IllegalArgumentException if writing back fails
+	 */
+	void writeBack() throws IllegalArgumentException
+	{
+		for(final RecordBase<?> base : cache.keySet())
+		{
+			saveAll( base );
+		}
+	}
+
+	/**
+	 * Enables the asynchronous write-behind of modified rows.
+	 * 
+	 * In write-behind mode, modified rows are written back by a background-thread, 
+	 * either after the <code>flushInterval</code> or as soon as there are <code>flushThreshold</code> modified rows.
+	 * If the number of modified rows exceeds <code>maxModifiedRows</code>, threads modifying rows are blocked until the 
+	 * modifications are written back. Errors in the background-thread are rethrown on the next modification or {@link #flush() }.
+	 * 
+	 * Explicit calls to {@link #save(de.doe300.activerecord.RecordBase, int) } and 
+	 * {@link #saveAll(de.doe300.activerecord.RecordBase) } still write back synchronously.
+	 * 
+	 * @param flushInterval the maximum time in milliseconds to keep modified rows before writing them back
+	 * @param flushThreshold the number of modified rows to trigger a write-back
+	 * @param maxModifiedRows the maximum number of modified rows before blocking modifying threads
+	 * @throws IllegalArgumentException if the interval or threshold is not positive
+	 * @throws IllegalStateException if write-behind is already enabled
+	 * @since 0.9
+	 * @see #flush() 
+	 * @see #disableWriteBehind() 
+	 */
+	public synchronized void enableWriteBehind(@Nonnegative final long flushInterval, @Nonnegative final int flushThreshold,
+			@Nonnegative final int maxModifiedRows) throws IllegalArgumentException, IllegalStateException
+	{
+		if(flushInterval <= 0 || flushThreshold <= 0)
+		{
+			throw new IllegalArgumentException("Flush-interval and threshold must be positive");
+		}
+		if(flusher != null)
+		{
+			throw new IllegalStateException("Write-behind is already enabled");
+		}
+		flusher = new WriteBehindFlusher(this, flushInterval, flushThreshold, maxModifiedRows);
+	}
+
+	/**
+	 * Stops the asynchronous write-behind and writes back all remaining modified rows
+	 * 
+	 * @throws IllegalArgumentException if writing back fails
+	 * @since 0.9
+	 * @see #enableWriteBehind(long, int, int) 
+	 */
+	public synchronized void disableWriteBehind() throws IllegalArgumentException
+	{
+		final WriteBehindFlusher f = flusher;
+		if(f == null)
+		{
+			return;
+		}
+		try
+		{
+			f.close();
+		}
+		finally
+		{
+			flusher = null;
+		}
+		flush();
+		f.rethrowError();
+	}
+
+	/**
+	 * @return the number of modified rows not yet written back, over all record-bases
+	 * @since 0.9
+	 */
+	@Nonnegative
+	int getModifiedRowCount()
+	{
+		int count = 0;
+		for(final BaseCache baseCache : cache.values())
+		{
+			count += baseCache.getModifiedCount();
+		}
+		return count;
+	}
+
+	private void afterModification()
+	{
+		final WriteBehindFlusher f = flusher;
+		if(f != null)
+		{
+			f.afterModification( getModifiedRowCount() );
+		}
+	}
+
+	/**
+	 * This method is only to be used to write cache back to the DB.
+	 * 
+	 * The rows are grouped by their set of modified columns and every group is written with a single batched
+	 * {@link PreparedStatement}
 	 *
 	 * @param container the container containing the data to be written back
 	 */
 	void writeBack(@Nonnull final WriteBack container)
 	{
 		final RecordBase<?> base = container.getBase();
-		//TODO how to write them all back at once? the columns to write back differ too much
-		try(final Statement stmt = con.createStatement())
+		//group rows by modified columns, so every group can be written with the same prepared statement
+		final Map<List<String>, List<Pair<Integer, Object[]>>> groups = new LinkedHashMap<>(10);
+		final Iterator<Pair<Integer, Map<String, Object>>> it = container.iterator();
+		while(it.hasNext())
 		{
-			final Iterator<Pair<Integer, Map<String, Object>>> it = container.iterator();
-			while(it.hasNext())
+			final Pair<Integer, Map<String, Object>> p = it.next();
+			final Pair<String[], Object[]> values = prepareWriteValues( base, p.getSecondOrThrow());
+			if(!values.hasFirst())
 			{
-				final Pair<Integer, Map<String, Object>> p = it.next();
-				final Pair<String[], Object[]> values = prepareWriteValues( base, p.getSecondOrThrow());
-				if(!values.hasFirst())
-				{
-					continue;
-				}
-				String sql = "UPDATE "+base.getTableName()+" SET ";
-				sql+= Arrays.stream( values.getFirstOrThrow()).map( (final String s)-> s+ " = ? ").collect( Collectors.joining(", "));
-				sql += " WHERE "+base.getPrimaryColumn()+" = "+p.getFirstOrThrow();
-				Logging.getLogger().debug( "JDBCStore", sql);
-				stmt.addBatch( StatementUtil.prepareUpdate(driver, sql, values.getSecond() ));
+				continue;
 			}
-			stmt.executeBatch();
+			final String[] columns = values.getFirstOrThrow();
+			final Object[] columnValues = values.getSecondOrThrow();
+			//sort columns so the same set of columns always results in the same statement
+			final Integer[] indices = new Integer[columns.length];
+			for(int i = 0; i < indices.length; i++)
+			{
+				indices[i] = i;
+			}
+			Arrays.sort( indices, (final Integer i1, final Integer i2) -> columns[i1].compareTo( columns[i2]));
+			final List<String> sortedColumns = new ArrayList<>(columns.length);
+			final Object[] sortedValues = new Object[columns.length];
+			for(int i = 0; i < indices.length; i++)
+			{
+				sortedColumns.add( columns[indices[i]] );
+				sortedValues[i] = columnValues[indices[i]];
+			}
+			groups.computeIfAbsent( sortedColumns, (final List<String> l) -> new ArrayList<>(10)).
+					add( Pair.createPair( p.getFirstOrThrow(), sortedValues));
 		}
-		catch ( final SQLException ex )
+		for(final Map.Entry<List<String>, List<Pair<Integer, Object[]>>> group : groups.entrySet())
 		{
-			Logging.getLogger().error( "JDBCStore", "Failed write back cache!");
-			Logging.getLogger().error( "JDBCStore", ex);
-			throw new IllegalArgumentException(ex);
+			String sql = "UPDATE "+base.getTableName()+" SET ";
+			sql+= group.getKey().stream().map( (final String s)-> s+ " = ? ").collect( Collectors.joining(", "));
+			sql += " WHERE "+base.getPrimaryColumn()+" = ?";
+			Logging.getLogger().debug( "JDBCStore", sql);
+			final List<Pair<Integer, Object[]>> rows = group.getValue();
+			try
+			{
+				for(int offset = 0; offset < rows.size(); offset += MAX_BATCH_SIZE)
+				{
+					final List<Pair<Integer, Object[]>> chunk = rows.subList( offset, Math.min( rows.size(), offset + MAX_BATCH_SIZE));
+					executeCached( sql, Statement.NO_GENERATED_KEYS, true, (final PreparedStatement stmt) ->
+					{
+						try
+						{
+							for(final Pair<Integer, Object[]> row : chunk)
+							{
+								final Object[] rowValues = row.getSecondOrThrow();
+								for(int i = 0; i < rowValues.length; i++)
+								{
+									stmt.setObject( i + 1, rowValues[i]);
+								}
+								stmt.setInt( rowValues.length + 1, row.getFirstOrThrow());
+								stmt.addBatch();
+							}
+							return stmt.executeBatch();
+						}
+						finally
+						{
+							stmt.clearBatch();
+						}
+					});
+				}
+			}
+			catch ( final SQLException ex )
+			{
+				Logging.getLogger().error( "JDBCStore", "Failed write back cache!");
+				Logging.getLogger().error( "JDBCStore", sql);
+				Logging.getLogger().error( "JDBCStore", ex);
+				throw new IllegalArgumentException(ex);
+			}
 		}
 	}
 	
@@ -345,12 +665,11 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 	@Override
 	public void destroy(final RecordBase<?> base, final int primaryKey)
 	{
-		if(hasCache(base, primaryKey ))
-		{
-			cache.get( base).removeRow(primaryKey );
-			Logging.getLogger().debug( "CachedJDBCStore", "Cache entry destroyed!");
-		}
 		super.destroy( base,primaryKey );
+		forEachCache( base.getTableName(), (final BaseCache baseCache) -> baseCache.setMissing( primaryKey ));
+		//the cached row was still readable after the modification was counted by the super-class
+		tableModified( base.getTableName());
+		Logging.getLogger().debug( "CachedJDBCStore", "Cache entry destroyed!");
 	}
 
 	@Override
@@ -363,7 +682,8 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 		//2. store in cache
 		if (!map.isEmpty())
 		{
-			getCache(base, ( Integer ) map.get( base.getPrimaryColumn())).ifPresent( (final RowCache c) -> c.update( map, false ));
+			//the row was just read from the DB, so there is no need to check for its existence
+			getOrCreateCache(base, ( Integer ) map.get( base.getPrimaryColumn())).update( map, false );
 		}
 		return map;
 	}
@@ -376,7 +696,8 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 		saveAll( base );
 		return super.streamAllWithData( base, columns, scope ).peek( (final Map<String,Object> map )->
 		{
-			getCache(base, ( Integer ) map.get( base.getPrimaryColumn())).ifPresent( (final RowCache c) -> c.update( map, false ));
+			//the row was just read from the DB, so there is no need to check for its existence
+			getOrCreateCache(base, ( Integer ) map.get( base.getPrimaryColumn())).update( map, false );
 		});
 	}
 
@@ -407,9 +728,10 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 	@Override
 	public void clearCache(final RecordBase<?> base, final int primaryKey )
 	{
-		if(hasCache( base, primaryKey ))
+		final BaseCache baseCache = cache.get( base);
+		if(baseCache != null)
 		{
-			cache.get( base).getRow(primaryKey).clear();
+			baseCache.forgetRow( primaryKey );
 		}
 	}
 
@@ -419,7 +741,7 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 		final Optional<RowCache> cacheRow = getCache( base, primaryKey);
 		if(cacheRow.isPresent())
 		{
-			return getDBValue( base, primaryKey, cacheRow.get(), base.getPrimaryColumn()).getSecondOrThrow();
+			return getDBValue( base, primaryKey, cacheRow.get(), cacheRow.get().getColumnIndex( base.getPrimaryColumn())).getSecondOrThrow();
 		}
 		return false;
 	}
@@ -446,6 +768,23 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 		return super.aggregate( base, aggregateFunction, condition );
 	}
 
+	@Override
+	public Object[] aggregateAll( final RecordBase<?> base, final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, final Condition condition )
+	{
+		//see #streamAllWithData for why there need to be a save
+		saveAll( base );
+		return super.aggregateAll( base, aggregateFunctions, condition );
+	}
+
+	@Override
+	public Map<List<Object>, Object[]> aggregateGrouped( final RecordBase<?> base, final String[] groupColumns,
+			final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, final Condition condition )
+	{
+		//see #streamAllWithData for why there need to be a save
+		saveAll( base );
+		return super.aggregateGrouped( base, groupColumns, aggregateFunctions, condition );
+	}
+
 	@Override
 	public void touch(final RecordBase<?> base, final int primaryKey )
 	{
@@ -458,6 +797,63 @@ public class CachedJDBCRecordStore extends SimpleJDBCRecordStore
 	public boolean dropTable( String tableName ) throws SQLException
 	{
 		tableExistsCache.remove( tableName);
+		columnsCache.remove( tableName );
+		cache.entrySet().removeIf( (final Map.Entry<RecordBase<?>, BaseCache> e) -> 
+		{
+			if(e.getKey().getTableName().equals( tableName))
+			{
+				e.getValue().discard();
+				return true;
+			}
+			return false;
+		});
 		return super.dropTable( tableName );
 	}
+
+	@Override
+	public int insertNewRecord( final RecordBase<?> base, final Map<String, Object> columns )
+	{
+		final int key = super.insertNewRecord( base, columns );
+		forEachCache( base.getTableName(), (final BaseCache baseCache) -> baseCache.forgetRow( key ));
+		return key;
+	}
+
+	@Override
+	public int[] insertNewRecords( final RecordBase<?> base, final List<Map<String, Object>> rows )
+	{
+		final int[] keys = super.insertNewRecords( base, rows );
+		forEachCache( base.getTableName(), (final BaseCache baseCache) -> 
+		{
+			for(final int key : keys)
+			{
+				baseCache.forgetRow( key );
+			}
+		});
+		return keys;
+	}
+
+	@Override
+	public boolean addRow( final String tableName, final String[] columns, final Object[] values ) throws IllegalArgumentException
+	{
+		final boolean added = super.addRow( tableName, columns, values );
+		forEachCache( tableName, BaseCache::invalidate );
+		tableModified( tableName);
+		return added;
+	}
+
+	@Override
+	public boolean removeRow( final String tableName, final Condition cond ) throws IllegalArgumentException
+	{
+		final boolean removed = super.removeRow( tableName, cond );
+		forEachCache( tableName, BaseCache::invalidate );
+		tableModified( tableName);
+		return removed;
+	}
+
+	@Override
+	public void close() throws Exception
+	{
+		disableWriteBehind();
+		super.close();
+	}
 }
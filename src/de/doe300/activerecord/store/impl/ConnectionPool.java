@@ -0,0 +1,291 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.logging.Logging;
+import de.doe300.activerecord.store.diagnostics.PoolStatistics;
+import de.doe300.activerecord.util.ThrowingFunctions.ThrowingSupplier;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A pool of record-stores, each one wrapping a single JDBC connection.
+ * 
+ * Connections are opened lazily up to the pool-size. A thread already holding a connection re-uses it for nested borrows,
+ * so accessing the store while iterating a stream can't dead-lock on an exhausted pool.
+ * 
+ * @author doe300
+ * @since 0.9
+ */
+@ThreadSafe
+class ConnectionPool implements PoolStatistics, AutoCloseable
+{
+	@Nonnull
+	private final ThrowingSupplier<Connection, SQLException> connectionSupplier;
+	@Nonnull
+	private final Function<Connection, SimpleJDBCRecordStore> storeFactory;
+	private final int poolSize;
+	private final long borrowTimeout;
+	private final BlockingQueue<PooledStore> idleStores;
+	private final ThreadLocal<PooledStore> threadStores;
+	private final AtomicInteger openConnections;
+	private final AtomicInteger activeConnections;
+	private final LongAdder borrowCount;
+	private final LongAdder waitCount;
+	private final LongAdder waitTime;
+	private volatile boolean closed;
+
+	/**
+	 * @param connectionSupplier the supplier for new connections
+	 * @param storeFactory the factory creating the record-store for a connection
+	 * @param poolSize the maximum number of connections
+	 * @param borrowTimeout the maximum time to wait for a free connection, in milliseconds (ms)
+	 */
+	ConnectionPool(@Nonnull final ThrowingSupplier<Connection, SQLException> connectionSupplier,
+			@Nonnull final Function<Connection, SimpleJDBCRecordStore> storeFactory, @Nonnegative final int poolSize, @Nonnegative final long borrowTimeout)
+	{
+		if(poolSize < 1)
+		{
+			throw new IllegalArgumentException("Pool-size must be positive: " + poolSize);
+		}
+		this.connectionSupplier = connectionSupplier;
+		this.storeFactory = storeFactory;
+		this.poolSize = poolSize;
+		this.borrowTimeout = borrowTimeout;
+		this.idleStores = new LinkedBlockingQueue<>(poolSize);
+		this.threadStores = new ThreadLocal<>();
+		this.openConnections = new AtomicInteger(0);
+		this.activeConnections = new AtomicInteger(0);
+		this.borrowCount = new LongAdder();
+		this.waitCount = new LongAdder();
+		this.waitTime = new LongAdder();
+	}
+
+	/**
+	 * Borrows a record-store from the pool. Every call to this method must be followed by exactly one call to {@link #release(PooledStore) }
+	 * @return the borrowed store
+	 * @throws SQLException if no connection could be opened or the pool is exhausted for longer than the timeout
+	 */
+	@Nonnull
+	PooledStore borrow() throws SQLException
+	{
+		final PooledStore current = threadStores.get();
+		if(current != null && current.reuse())
+		{
+			return current;
+		}
+		if(closed)
+		{
+			throw new SQLException("Connection-pool is already closed");
+		}
+		borrowCount.increment();
+		PooledStore pooled = idleStores.poll();
+		if(pooled == null)
+		{
+			pooled = openConnection();
+		}
+		if(pooled == null)
+		{
+			waitCount.increment();
+			final long start = System.nanoTime();
+			try
+			{
+				pooled = idleStores.poll( borrowTimeout, TimeUnit.MILLISECONDS);
+			}
+			catch(final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new SQLException("Interrupted while waiting for a connection", e);
+			}
+			finally
+			{
+				waitTime.add( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start));
+			}
+			if(pooled == null)
+			{
+				throw new SQLException("Timed out waiting for a connection, all " + poolSize + " connections are in use");
+			}
+		}
+		pooled.acquire();
+		activeConnections.incrementAndGet();
+		threadStores.set( pooled );
+		return pooled;
+	}
+
+	/**
+	 * Returns the store to the pool, if it is no longer used
+	 * @param pooled the store to release
+	 */
+	void release(@Nonnull final PooledStore pooled)
+	{
+		if(!pooled.free())
+		{
+			return;
+		}
+		activeConnections.decrementAndGet();
+		if(closed || !idleStores.offer( pooled ))
+		{
+			closeStore( pooled );
+		}
+	}
+
+	private PooledStore openConnection() throws SQLException
+	{
+		int open = openConnections.get();
+		while(open < poolSize)
+		{
+			if(openConnections.compareAndSet( open, open + 1))
+			{
+				try
+				{
+					return new PooledStore(storeFactory.apply( connectionSupplier.get()));
+				}
+				catch(final SQLException | RuntimeException e)
+				{
+					openConnections.decrementAndGet();
+					throw e;
+				}
+			}
+			open = openConnections.get();
+		}
+		return null;
+	}
+
+	private void closeStore(@Nonnull final PooledStore pooled)
+	{
+		openConnections.decrementAndGet();
+		try
+		{
+			pooled.store.close();
+		}
+		catch(final Exception e)
+		{
+			Logging.getLogger().error( "JDBCStore", "Failed to close pooled connection");
+			Logging.getLogger().error( "JDBCStore", e);
+		}
+	}
+
+	@Override
+	public int getPoolSize()
+	{
+		return poolSize;
+	}
+
+	@Override
+	public int getOpenConnections()
+	{
+		return openConnections.get();
+	}
+
+	@Override
+	public int getActiveConnections()
+	{
+		return activeConnections.get();
+	}
+
+	@Override
+	public long getBorrowCount()
+	{
+		return borrowCount.sum();
+	}
+
+	@Override
+	public long getWaitCount()
+	{
+		return waitCount.sum();
+	}
+
+	@Override
+	public long getTotalWaitTime()
+	{
+		return waitTime.sum();
+	}
+
+	/**
+	 * Closes all idle connections. Connections currently in use are closed when they are released
+	 */
+	@Override
+	public void close()
+	{
+		closed = true;
+		PooledStore pooled;
+		while((pooled = idleStores.poll()) != null)
+		{
+			closeStore( pooled );
+		}
+	}
+
+	/**
+	 * A record-store in the pool, may be borrowed multiple times by its owning thread
+	 */
+	static final class PooledStore
+	{
+		@Nonnull
+		final SimpleJDBCRecordStore store;
+		private Thread owner;
+		private int usages;
+
+		PooledStore(@Nonnull final SimpleJDBCRecordStore store)
+		{
+			this.store = store;
+		}
+
+		synchronized void acquire()
+		{
+			owner = Thread.currentThread();
+			usages = 1;
+		}
+
+		synchronized boolean reuse()
+		{
+			if(usages > 0 && owner == Thread.currentThread())
+			{
+				usages++;
+				return true;
+			}
+			return false;
+		}
+
+		synchronized boolean free()
+		{
+			usages--;
+			if(usages == 0)
+			{
+				owner = null;
+				return true;
+			}
+			return false;
+		}
+	}
+}
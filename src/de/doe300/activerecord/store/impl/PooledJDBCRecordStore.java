@@ -0,0 +1,604 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.dsl.AggregateFunction;
+import de.doe300.activerecord.dsl.Condition;
+import de.doe300.activerecord.dsl.Conditions;
+import de.doe300.activerecord.dsl.Order;
+import de.doe300.activerecord.dsl.Orders;
+import de.doe300.activerecord.dsl.functions.Maximum;
+import de.doe300.activerecord.dsl.functions.Minimum;
+import de.doe300.activerecord.jdbc.driver.JDBCDriver;
+import de.doe300.activerecord.logging.Logging;
+import de.doe300.activerecord.record.ActiveRecord;
+import de.doe300.activerecord.scope.Scope;
+import de.doe300.activerecord.store.JDBCRecordStore;
+import de.doe300.activerecord.store.NoSuchDataSetException;
+import de.doe300.activerecord.store.diagnostics.Diagnostics;
+import de.doe300.activerecord.util.ThrowingFunctions.ThrowingSupplier;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.sql.DataSource;
+
+/**
+ * Non-caching implementation of the RecordStore backed by a pool of JDBC-Connections.
+ * 
+ * Every operation borrows a connection from the pool for its duration. Streams keep their connection until they are either
+ * read to the end or closed. Nested operations of the same thread use the connection already borrowed by this thread.
+ * 
+ * The connection returned by {@link #getConnection() } is not part of the pool and should only be used for administrative tasks,
+ * like migrations.
+ * 
+ * @author doe300
+ * @since 0.9
+ */
+@ThreadSafe
+public class PooledJDBCRecordStore implements JDBCRecordStore
+{
+	/**
+	 * The default maximum time to wait for a free connection, in milliseconds (ms)
+	 */
+	public static final long DEFAULT_BORROW_TIMEOUT = 30000;
+	
+	@Nonnull
+	private final Connection con;
+	@Nonnull
+	private final JDBCDriver driver;
+	@Nonnull
+	private final Diagnostics<String> diagnostics;
+	@Nonnull
+	private final ConnectionPool pool;
+	/**
+	 * The modification-counts shared by all pooled stores
+	 */
+	@Nonnull
+	private final TableModifications modifications;
+	/**
+	 * The maximum number of primary-key ranges to split a stream into, 1 disables splitting
+	 */
+	private volatile int streamPartitions = 1;
+	@Nonnegative
+	private volatile int fetchSize = Scope.DEFAULT_FETCH_SIZE;
+
+	/**
+	 * @param dataSource the data-source to retrieve the connections from
+	 * @param poolSize the maximum number of open connections
+	 * @throws SQLException 
+	 */
+	public PooledJDBCRecordStore(@Nonnull final DataSource dataSource, @Nonnegative final int poolSize) throws SQLException
+	{
+		this(dataSource::getConnection, poolSize, DEFAULT_BORROW_TIMEOUT);
+	}
+
+	/**
+	 * @param connectionSupplier the supplier for new connections
+	 * @param poolSize the maximum number of open connections
+	 * @param borrowTimeout the maximum time to wait for a free connection, in milliseconds (ms)
+	 * @throws SQLException 
+	 */
+	public PooledJDBCRecordStore(@Nonnull final ThrowingSupplier<Connection, SQLException> connectionSupplier, @Nonnegative final int poolSize,
+			@Nonnegative final long borrowTimeout) throws SQLException
+	{
+		this.con = connectionSupplier.get();
+		this.driver = JDBCDriver.guessDriver( con );
+		this.diagnostics = driver.createDiagnostics( this );
+		final CacheCounters statementCounters = new CacheCounters();
+		this.modifications = new TableModifications();
+		this.pool = new ConnectionPool(connectionSupplier, (final Connection c) -> new SimpleJDBCRecordStore(c, driver, diagnostics, statementCounters, 
+				modifications), poolSize, borrowTimeout);
+		this.diagnostics.setPoolStatistics( pool );
+		this.diagnostics.setStatementCacheStatistics( statementCounters );
+	}
+	
+	private <R> R borrowAndReturn(@Nonnull final Function<SimpleJDBCRecordStore, R> func)
+	{
+		final ConnectionPool.PooledStore pooled = borrow();
+		try
+		{
+			return func.apply( pooled.store );
+		}
+		finally
+		{
+			pool.release( pooled );
+		}
+	}
+	
+	private void borrowAndRun(@Nonnull final Consumer<SimpleJDBCRecordStore> func)
+	{
+		final ConnectionPool.PooledStore pooled = borrow();
+		try
+		{
+			func.accept( pooled.store );
+		}
+		finally
+		{
+			pool.release( pooled );
+		}
+	}
+	
+	/**
+	 * The borrowed connection is released, when the stream is read to the end or closed
+	 */
+	@Nonnull
+	@WillNotClose
+	private <T> Stream<T> borrowForStream(@Nonnull final Function<SimpleJDBCRecordStore, Stream<T>> func)
+	{
+		final ConnectionPool.PooledStore pooled = borrow();
+		final Stream<T> stream;
+		try
+		{
+			stream = func.apply( pooled.store );
+		}
+		catch(final RuntimeException e)
+		{
+			pool.release( pooled );
+			throw e;
+		}
+		final AtomicBoolean released = new AtomicBoolean(false);
+		final Runnable release = () ->
+		{
+			if(released.compareAndSet( false, true))
+			{
+				pool.release( pooled );
+			}
+		};
+		final Spliterator<T> source = stream.spliterator();
+		final Spliterator<T> spliterator = new Spliterator<T>()
+		{
+			@Override
+			public boolean tryAdvance(final Consumer<? super T> action )
+			{
+				boolean advanced = false;
+				try
+				{
+					advanced = source.tryAdvance( action );
+					return advanced;
+				}
+				finally
+				{
+					if(!advanced)
+					{
+						release.run();
+					}
+				}
+			}
+
+			@Override
+			public Spliterator<T> trySplit()
+			{
+				return null;
+			}
+
+			@Override
+			public long estimateSize()
+			{
+				return source.estimateSize();
+			}
+
+			@Override
+			public int characteristics()
+			{
+				return source.characteristics();
+			}
+		};
+		//returns the connection, even if the stream is abandoned without being closed
+		final ResourceCleaner.Cleanable cleanable = ResourceCleaner.register( spliterator, () ->
+		{
+			try
+			{
+				stream.close();
+			}
+			finally
+			{
+				release.run();
+			}
+		});
+		return StreamSupport.stream( spliterator, false).onClose( cleanable::clean );
+	}
+	
+	/**
+	 * Enables splitting the streams returned by {@link #streamAllWithData(de.doe300.activerecord.RecordBase, java.lang.String[], de.doe300.activerecord.scope.Scope) }
+	 * into ranges of primary keys. If such a stream is processed in parallel, every range is queried on its own pooled connection.
+	 * 
+	 * Only streams without a limit, which are ordered by the primary key (the default order) are split. 
+	 * The number of partitions should not exceed the size of the pool.
+	 * 
+	 * @param partitions the maximum number of partitions to split a stream into, 1 disables the splitting
+	 * @since 0.9
+	 */
+	public void setStreamPartitions(@Nonnegative final int partitions)
+	{
+		if(partitions < 1)
+		{
+			throw new IllegalArgumentException("Invalid number of partitions: " + partitions);
+		}
+		this.streamPartitions = partitions;
+	}
+	
+	/**
+	 * Sets the default number of rows to fetch at once for the streams returned by this store.
+	 * 
+	 * @param fetchSize the number of rows to fetch at once, <code>Scope.DEFAULT_FETCH_SIZE</code> to use the default of the JDBC driver
+	 * @since 0.9
+	 * @see SimpleJDBCRecordStore#setFetchSize(int) 
+	 */
+	public void setFetchSize(@Nonnegative final int fetchSize)
+	{
+		if(fetchSize < 0)
+		{
+			throw new IllegalArgumentException("Invalid fetch-size: " + fetchSize);
+		}
+		this.fetchSize = fetchSize;
+	}
+	
+	@Nonnull
+	private ConnectionPool.PooledStore borrow()
+	{
+		try
+		{
+			final ConnectionPool.PooledStore pooled = pool.borrow();
+			pooled.store.setFetchSize( fetchSize );
+			return pooled;
+		}
+		catch(final SQLException ex)
+		{
+			Logging.getLogger().error( "JDBCStore", "Failed to borrow connection!");
+			Logging.getLogger().error( "JDBCStore", ex);
+			throw new IllegalArgumentException(ex);
+		}
+	}
+
+	@Override
+	public Connection getConnection()
+	{
+		return con;
+	}
+
+	@Override
+	public JDBCDriver getDriver()
+	{
+		return driver;
+	}
+
+	@Override
+	public Diagnostics<String> getDiagnostics()
+	{
+		return diagnostics;
+	}
+
+	@Override
+	public boolean dropTable( final String tableName ) throws SQLException
+	{
+		final ConnectionPool.PooledStore pooled = pool.borrow();
+		try
+		{
+			return pooled.store.dropTable( tableName );
+		}
+		finally
+		{
+			pool.release( pooled );
+		}
+	}
+
+	@Override
+	public boolean exists( final String tableName )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.exists( tableName ));
+	}
+
+	@Override
+	public Map<String, Class<?>> getAllColumnTypes( final String tableName ) throws NoSuchDataSetException
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.getAllColumnTypes( tableName ));
+	}
+
+	@Override
+	public void setValue( final RecordBase<?> base, final int primaryKey, final String name, final Object value )
+	{
+		borrowAndRun( (final SimpleJDBCRecordStore store) -> store.setValue( base, primaryKey, name, value ));
+	}
+
+	@Override
+	public void setValues( final RecordBase<?> base, final int primaryKey, final Map<String, Object> values )
+	{
+		borrowAndRun( (final SimpleJDBCRecordStore store) -> store.setValues( base, primaryKey, values ));
+	}
+
+	@Override
+	public Object getValue( final RecordBase<?> base, final int primaryKey, final String name )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.getValue( base, primaryKey, name ));
+	}
+
+	@Override
+	public Map<String, Object> getValues( final RecordBase<?> base, final int primaryKey, final String[] columns )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.getValues( base, primaryKey, columns ));
+	}
+
+	@Override
+	public Map<String, Object> getAllValues( final RecordBase<?> base, final int primaryKey ) throws NoSuchDataSetException
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.getAllValues( base, primaryKey ));
+	}
+
+	@Override
+	@WillNotClose
+	public Stream<Object> getValues( final String tableName, final String column, final String condColumn, final Object condValue )
+	{
+		return borrowForStream( (final SimpleJDBCRecordStore store) -> store.getValues( tableName, column, condColumn, condValue ));
+	}
+
+	@Override
+	public Stream<Map<String, Object>> getValues( final String tableName, final String[] columns, final Condition condition )
+	{
+		return borrowForStream( (final SimpleJDBCRecordStore store) -> store.getValues( tableName, columns, condition ));
+	}
+
+	@Override
+	public boolean addRow( final String tableName, final String[] columns, final Object[] values )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.addRow( tableName, columns, values ));
+	}
+
+	@Override
+	public boolean removeRow( final String tableName, final Condition cond )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.removeRow( tableName, cond ));
+	}
+
+	@Override
+	public long getModificationCount( final String tableName )
+	{
+		return modifications.getModificationCount( tableName );
+	}
+
+	@Override
+	public boolean save( final RecordBase<?> base, final int primaryKey )
+	{
+		return false;
+	}
+
+	@Override
+	public boolean saveAll( final RecordBase<?> base )
+	{
+		return false;
+	}
+
+	@Override
+	public void clearCache( final RecordBase<?> base, final int primaryKey )
+	{
+		// no cache to clear
+	}
+
+	@Override
+	public boolean isCached()
+	{
+		return false;
+	}
+
+	@Override
+	public boolean loadIntoCache( final RecordBase<?> base, final int primaryKey )
+	{
+		//nothing to do
+		return false;
+	}
+
+	@Override
+	public int insertNewRecord( final RecordBase<?> base, final Map<String, Object> columnData )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.insertNewRecord( base, columnData ));
+	}
+
+	@Override
+	public int[] insertNewRecords( final RecordBase<?> base, final List<Map<String, Object>> rows )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.insertNewRecords( base, rows ));
+	}
+
+	@Override
+	public boolean isSynchronized( final RecordBase<?> base, final int primaryKey )
+	{
+		return true;
+	}
+
+	@Override
+	public boolean containsRecord( final RecordBase<?> base, final int primaryKey )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.containsRecord( base, primaryKey ));
+	}
+
+	@Override
+	public void destroy( final RecordBase<?> base, final int primaryKey )
+	{
+		borrowAndRun( (final SimpleJDBCRecordStore store) -> store.destroy( base, primaryKey ));
+	}
+
+	@Override
+	public Map<String, Object> findFirstWithData( final RecordBase<?> base, final String[] columns, final Scope scope )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.findFirstWithData( base, columns, scope ));
+	}
+
+	@Override
+	@WillNotClose
+	public Stream<Map<String, Object>> streamAllWithData( final RecordBase<?> base, final String[] columns, final Scope scope )
+	{
+		final int partitions = streamPartitions;
+		final Order order = scope.getOrder() != null ? scope.getOrder() : base.getDefaultOrder();
+		if(partitions > 1 && scope.getLimit() == Scope.NO_LIMIT && order.equals( Orders.sortAscending( base.getPrimaryColumn())))
+		{
+			return streamPartitioned( base, columns, scope, partitions );
+		}
+		return borrowForStream( (final SimpleJDBCRecordStore store) -> store.streamAllWithData( base, columns, scope ));
+	}
+	
+	@Nonnull
+	@WillNotClose
+	private Stream<Map<String, Object>> streamPartitioned(@Nonnull final RecordBase<?> base, @Nonnull final String[] columns, 
+			@Nonnull final Scope scope, @Nonnegative final int partitions)
+	{
+		final Number[] bounds = borrowAndReturn( (final SimpleJDBCRecordStore store) -> new Number[]{
+			(Number)store.aggregate( base, new Minimum<>(base.getPrimaryColumn(), ActiveRecord::getPrimaryKey), scope.getCondition()),
+			(Number)store.aggregate( base, new Maximum<>(base.getPrimaryColumn(), ActiveRecord::getPrimaryKey), scope.getCondition())
+		});
+		if(bounds[0] == null || bounds[1] == null)
+		{
+			return Stream.empty();
+		}
+		final List<Stream<Map<String, Object>>> openStreams = Collections.synchronizedList( new ArrayList<>(partitions));
+		return StreamSupport.stream( new PartitionSpliterator(base, columns, scope, bounds[0].intValue(), bounds[1].intValue(), 
+				partitions, openStreams), false).onClose( () -> 
+				{
+					synchronized(openStreams)
+					{
+						openStreams.forEach( Stream::close);
+					}
+				});
+	}
+
+	@Override
+	public int count( final RecordBase<?> base, final Condition condition )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.count( base, condition ));
+	}
+
+	@Override
+	public <R> R aggregate( final RecordBase<?> base, final AggregateFunction<?, ?, ?, R> aggregateFunction, final Condition condition )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.aggregate( base, aggregateFunction, condition ));
+	}
+
+	@Override
+	public Object[] aggregateAll( final RecordBase<?> base, final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, final Condition condition )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.aggregateAll( base, aggregateFunctions, condition ));
+	}
+
+	@Override
+	public Map<List<Object>, Object[]> aggregateGrouped( final RecordBase<?> base, final String[] groupColumns,
+			final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, final Condition condition )
+	{
+		return borrowAndReturn( (final SimpleJDBCRecordStore store) -> store.aggregateGrouped( base, groupColumns, aggregateFunctions, condition ));
+	}
+
+	@Override
+	public void close() throws SQLException
+	{
+		pool.close();
+		con.close();
+	}
+	
+	/**
+	 * Splits the rows into ranges of primary keys, each queried on its own connection when it is first read
+	 */
+	private final class PartitionSpliterator implements Spliterator<Map<String, Object>>
+	{
+		@Nonnull
+		private final RecordBase<?> base;
+		@Nonnull
+		private final String[] columns;
+		@Nonnull
+		private final Scope scope;
+		@Nonnull
+		private final List<Stream<Map<String, Object>>> openStreams;
+		private int from;
+		private final int to;
+		private int partitions;
+		private Spliterator<Map<String, Object>> source;
+
+		PartitionSpliterator(@Nonnull final RecordBase<?> base, @Nonnull final String[] columns, @Nonnull final Scope scope,
+				final int from, final int to, @Nonnegative final int partitions, @Nonnull final List<Stream<Map<String, Object>>> openStreams)
+		{
+			this.base = base;
+			this.columns = columns;
+			this.scope = scope;
+			this.from = from;
+			this.to = to;
+			this.partitions = partitions;
+			this.openStreams = openStreams;
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super Map<String, Object>> action )
+		{
+			if(source == null)
+			{
+				final Condition rangeCondition = Conditions.and( scope.getCondition(), 
+						Conditions.isLargerEquals( base.getPrimaryColumn(), from), Conditions.isSmallerEquals( base.getPrimaryColumn(), to));
+				final Stream<Map<String, Object>> stream = borrowForStream( (final SimpleJDBCRecordStore store) -> 
+						store.streamAllWithData( base, columns, new Scope(rangeCondition, scope.getOrder(), Scope.NO_LIMIT, scope.getFetchSize())));
+				openStreams.add( stream );
+				source = stream.spliterator();
+			}
+			return source.tryAdvance( action );
+		}
+
+		@Override
+		public Spliterator<Map<String, Object>> trySplit()
+		{
+			//can't split after the range was queried
+			if(source != null || partitions < 2 || to - from < 2)
+			{
+				return null;
+			}
+			final int middle = from + (to - from) / 2;
+			final int prefixPartitions = partitions / 2;
+			final PartitionSpliterator prefix = new PartitionSpliterator(base, columns, scope, from, middle, prefixPartitions, openStreams);
+			from = middle + 1;
+			partitions -= prefixPartitions;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize()
+		{
+			//the number of primary keys in the range, which is an upper bound for the number of rows
+			return (long)to - from + 1;
+		}
+
+		@Override
+		public int characteristics()
+		{
+			return Spliterator.DISTINCT|Spliterator.IMMUTABLE|Spliterator.NONNULL|Spliterator.ORDERED;
+		}
+	}
+}
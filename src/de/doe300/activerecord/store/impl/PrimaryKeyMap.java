@@ -0,0 +1,329 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Maps primary keys to the values stored for them, without boxing the keys.
+ * 
+ * The values are stored in open-addressed tables, the key of a slot is the primary key of the value stored in it.
+ * The keys are distributed over a fixed number of segments, modifications lock the segment of the key.
+ * Lookups are lock-free, iterations are weakly consistent, like for a {@link java.util.concurrent.ConcurrentHashMap}.
+ * 
+ * @author doe300
+ * @param <T> the type of the values
+ * @since 0.9
+ */
+@ThreadSafe
+class PrimaryKeyMap<T>
+{
+	private static final int SEGMENT_BITS = 4;
+	private static final int MIN_CAPACITY = 8;
+	/**
+	 * Marker for removed values, so lookups continue probing for keys inserted after the removed one
+	 */
+	private static final Object REMOVED = new Object();
+
+	@Nonnull
+	private final ToIntFunction<? super T> keyFunction;
+	@Nonnull
+	private final Segment[] segments;
+	@Nonnull
+	private final AtomicInteger size;
+
+	/**
+	 * @param keyFunction the function returning the primary key of a value
+	 */
+	@SuppressWarnings("unchecked")
+	PrimaryKeyMap(@Nonnull final ToIntFunction<? super T> keyFunction)
+	{
+		this.keyFunction = keyFunction;
+		this.segments = ( Segment[] ) new PrimaryKeyMap<?>.Segment[1 << SEGMENT_BITS];
+		for(int i = 0; i < segments.length; i++)
+		{
+			segments[i] = new Segment();
+		}
+		this.size = new AtomicInteger(0);
+	}
+
+	/**
+	 * @param primaryKey
+	 * @return the value for the given key or <code>null</code>
+	 */
+	@Nullable
+	T get(final int primaryKey)
+	{
+		final int hash = hash( primaryKey );
+		final AtomicReferenceArray<Object> table = segmentFor( hash ).table;
+		final int slot = findSlot( table, hash, primaryKey );
+		return slot < 0 ? null : valueAt( table, slot );
+	}
+
+	/**
+	 * @param primaryKey
+	 * @return whether a value is stored for the given key
+	 */
+	boolean containsKey(final int primaryKey)
+	{
+		return get( primaryKey ) != null;
+	}
+
+	/**
+	 * @param primaryKey
+	 * @param factory the function creating the value, if none is stored yet. Is called with the lock of the segment held
+	 * @return the existing or newly created value
+	 */
+	@Nonnull
+	T computeIfAbsent(final int primaryKey, @Nonnull final IntFunction<? extends T> factory)
+	{
+		final int hash = hash( primaryKey );
+		final Segment segment = segmentFor( hash );
+		synchronized(segment)
+		{
+			final int slot = findSlot( segment.table, hash, primaryKey );
+			if(slot >= 0)
+			{
+				return valueAt( segment.table, slot );
+			}
+			final T value = factory.apply( primaryKey );
+			segment.insert( hash, value );
+			size.incrementAndGet();
+			return value;
+		}
+	}
+
+	/**
+	 * @param primaryKey
+	 * @return the removed value or <code>null</code>
+	 */
+	@Nullable
+	T remove(final int primaryKey)
+	{
+		final int hash = hash( primaryKey );
+		final Segment segment = segmentFor( hash );
+		synchronized(segment)
+		{
+			final int slot = findSlot( segment.table, hash, primaryKey );
+			if(slot < 0)
+			{
+				return null;
+			}
+			final T value = valueAt( segment.table, slot );
+			segment.removeAt( slot );
+			size.decrementAndGet();
+			return value;
+		}
+	}
+
+	/**
+	 * Removes the value, only if it is still stored for its key
+	 * @param value
+	 * @return whether the value was removed
+	 */
+	boolean remove(@Nonnull final T value)
+	{
+		final int primaryKey = keyFunction.applyAsInt( value );
+		final int hash = hash( primaryKey );
+		final Segment segment = segmentFor( hash );
+		synchronized(segment)
+		{
+			final int slot = findSlot( segment.table, hash, primaryKey );
+			if(slot < 0 || segment.table.get( slot ) != value)
+			{
+				return false;
+			}
+			segment.removeAt( slot );
+			size.decrementAndGet();
+			return true;
+		}
+	}
+
+	/**
+	 * @return the number of stored values
+	 */
+	@Nonnegative
+	int size()
+	{
+		return size.get();
+	}
+
+	/**
+	 * @return a snapshot of the stored values
+	 */
+	@Nonnull
+	List<T> values()
+	{
+		final List<T> values = new ArrayList<>(size());
+		for(final Segment segment : segments)
+		{
+			final AtomicReferenceArray<Object> table = segment.table;
+			for(int i = 0; i < table.length(); i++)
+			{
+				final Object value = table.get( i );
+				if(value != null && value != REMOVED)
+				{
+					values.add( valueAt( table, i ) );
+				}
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * @param table
+	 * @param hash
+	 * @param primaryKey
+	 * @return the slot of the value with the given key or <code>-1</code>
+	 */
+	private int findSlot(@Nonnull final AtomicReferenceArray<Object> table, final int hash, final int primaryKey)
+	{
+		final int mask = table.length() - 1;
+		for(int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++)
+		{
+			final Object value = table.get( i );
+			if(value == null)
+			{
+				return -1;
+			}
+			if(value != REMOVED && keyFunction.applyAsInt( valueAt( table, i )) == primaryKey)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Nonnull
+	private Segment segmentFor(final int hash)
+	{
+		return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+	}
+
+	@SuppressWarnings("unchecked")
+	private T valueAt(@Nonnull final AtomicReferenceArray<Object> table, final int slot)
+	{
+		return ( T ) table.get( slot );
+	}
+
+	private static int hash(final int primaryKey)
+	{
+		//the high bits select the segment, the low bits the slot, sequential keys are spread over all slots
+		return primaryKey * 0x9E3779B9;
+	}
+
+	/**
+	 * One segment of the map, the table is replaced on resize, so lookups always see a consistent table
+	 */
+	private final class Segment
+	{
+		@Nonnull
+		volatile AtomicReferenceArray<Object> table = new AtomicReferenceArray<>(MIN_CAPACITY);
+		/**
+		 * The number of values, guarded by this
+		 */
+		int count;
+		/**
+		 * The number of non-empty slots, including removed ones, guarded by this
+		 */
+		int usedSlots;
+
+		/**
+		 * Must be called with the lock held and only for keys not yet contained
+		 * @param hash
+		 * @param value
+		 */
+		void insert(final int hash, @Nonnull final Object value)
+		{
+			if((usedSlots + 1) * 4 > table.length() * 3)
+			{
+				//grow, if the table is mostly filled with values, otherwise only clean up removed slots
+				rehash((count + 1) * 2 > table.length() ? table.length() * 2 : table.length());
+			}
+			final AtomicReferenceArray<Object> current = table;
+			final int mask = current.length() - 1;
+			int i = hash & mask;
+			Object previous;
+			while((previous = current.get( i )) != null && previous != REMOVED)
+			{
+				i = (i + 1) & mask;
+			}
+			if(previous == null)
+			{
+				usedSlots++;
+			}
+			current.set( i, value );
+			count++;
+		}
+
+		/**
+		 * Must be called with the lock held
+		 * @param slot
+		 */
+		void removeAt(final int slot)
+		{
+			table.set( slot, REMOVED );
+			count--;
+			if(count == 0)
+			{
+				table = new AtomicReferenceArray<>(MIN_CAPACITY);
+				usedSlots = 0;
+			}
+		}
+
+		private void rehash(final int capacity)
+		{
+			final AtomicReferenceArray<Object> newTable = new AtomicReferenceArray<>(capacity);
+			final int mask = capacity - 1;
+			final AtomicReferenceArray<Object> current = table;
+			for(int slot = 0; slot < current.length(); slot++)
+			{
+				final Object value = current.get( slot );
+				if(value != null && value != REMOVED)
+				{
+					int i = hash( keyFunction.applyAsInt( valueAt( current, slot ))) & mask;
+					while(newTable.get( i ) != null)
+					{
+						i = (i + 1) & mask;
+					}
+					newTable.set( i, value );
+				}
+			}
+			usedSlots = count;
+			//publish the filled table, lookups on the old table still see all values not removed
+			table = newTable;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.logging.Logging;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Releases resources (e.g. open result-sets) of objects which became unreachable without being closed.
+ * 
+ * The clean-up actions are run by a background-thread and must not reference the object they are registered for,
+ * otherwise the object never becomes unreachable.
+ *
+ * @author doe300
+ * @since 0.9
+ */
+@ThreadSafe
+final class ResourceCleaner
+{
+	private static final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+	/**
+	 * Keeps the registered references reachable until they are cleaned
+	 */
+	private static final Set<Cleanable> registered = ConcurrentHashMap.newKeySet();
+
+	static
+	{
+		final Thread thread = new Thread(ResourceCleaner::run, "jdbc-resource-cleaner");
+		thread.setDaemon( true );
+		thread.start();
+	}
+
+	private ResourceCleaner()
+	{
+	}
+
+	/**
+	 * @param owner the object to watch
+	 * @param action the action to run, either if {@link Cleanable#clean() } is called or the owner becomes unreachable
+	 * @return the handle to run the action explicitly
+	 */
+	@Nonnull
+	static Cleanable register(@Nonnull final Object owner, @Nonnull final Runnable action)
+	{
+		final Cleanable cleanable = new Cleanable(owner, action);
+		registered.add( cleanable );
+		return cleanable;
+	}
+
+	/**
+	 * @return a snapshot of the handles, whose clean-up actions were not yet run
+	 */
+	@Nonnull
+	static Set<Cleanable> getRegistered()
+	{
+		return new HashSet<>(registered);
+	}
+
+	private static void run()
+	{
+		while(true)
+		{
+			try
+			{
+				((Cleanable)queue.remove()).clean();
+			}
+			catch(final InterruptedException e)
+			{
+				return;
+			}
+			catch(final RuntimeException e)
+			{
+				Logging.getLogger().error( "JDBCStore", "Failed to release resources of unreachable object!");
+				Logging.getLogger().error( "JDBCStore", e);
+			}
+		}
+	}
+
+	/**
+	 * Handle for a registered clean-up action
+	 */
+	static final class Cleanable extends PhantomReference<Object>
+	{
+		@Nonnull
+		private final Runnable action;
+		private final AtomicBoolean cleaned = new AtomicBoolean(false);
+
+		private Cleanable(@Nonnull final Object owner, @Nonnull final Runnable action)
+		{
+			super(owner, queue);
+			this.action = action;
+		}
+
+		/**
+		 * Runs the clean-up action, if it was not yet run
+		 */
+		void clean()
+		{
+			if(cleaned.compareAndSet( false, true))
+			{
+				registered.remove( this );
+				clear();
+				action.run();
+			}
+		}
+
+		/**
+		 * @return whether the clean-up action was already run
+		 */
+		boolean isCleaned()
+		{
+			return cleaned.get();
+		}
+	}
+}
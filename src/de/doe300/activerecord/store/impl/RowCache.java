@@ -25,83 +25,185 @@
 package de.doe300.activerecord.store.impl;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.Collections;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
-
-import de.doe300.activerecord.record.TimestampedRecord;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
 
 /**
- * Caches one single row of one DB TABLE
+ * Caches one single row of one DB TABLE.
+ * 
+ * The values are stored in slots indexed by the column-index determined by the {@link BaseCache}.
+ * Accessing multiple values of the same column should resolve the {@link #getColumnIndex(java.lang.String) column-index} once.
+ * Reading values is lock-free, modifications are synchronized on the row.
+ * 
+ * Once a row is {@link #setEvicted() evicted} from its BaseCache, it rejects all modifications, 
+ * so they can be applied to the row replacing it instead of being lost.
+ * 
  * @author doe300
  */
+@ThreadSafe
 class RowCache implements Comparable<RowCache>
 {
+	/**
+	 * Marker for columns not yet loaded into the cache, to distinguish them from cached <code>null</code>-values
+	 */
+	private static final Object NOT_LOADED = new Object();
+
+	@Nonnull
+	private final AtomicReferenceArray<Object> columnData;
+	/**
+	 * The indices of the columns modified since the last write-back, guarded by this
+	 */
 	@Nonnull
-	private final Map<String,Object> columnData, modifiedData;
-	private final String primaryKey;
+	private final BitSet modifiedColumns;
+	private final int primaryKey;
+	private final int primaryIndex;
 	private final boolean isTimestamped;
 	@Nonnull
 	private final BaseCache parent;
+	/**
+	 * The time of the last access, used for choosing the rows to evict.
+	 * Not volatile, since the eviction only requires an approximation
+	 */
+	private long lastAccess;
+	/**
+	 * Whether this row was removed from its BaseCache, guarded by this
+	 */
+	private boolean evicted = false;
 
-	RowCache(@Nonnull final BaseCache parent, final String primaryKey, final boolean isTimestamped)
+	RowCache(@Nonnull final BaseCache parent, @Nonnegative final int primaryKey, final boolean isTimestamped)
 	{
 		this.parent = parent;
-		this.primaryKey = primaryKey.toLowerCase();
-		this.columnData = Collections.synchronizedMap( new HashMap<>(10));
-		this.modifiedData = new HashMap<>(10);
+		this.primaryKey = primaryKey;
+		this.columnData = new AtomicReferenceArray<>(parent.getColumnCount());
+		for(int i = 0; i < columnData.length(); i++)
+		{
+			columnData.set( i, NOT_LOADED );
+		}
+		this.modifiedColumns = new BitSet(columnData.length());
 		this.isTimestamped = isTimestamped;
+		this.primaryIndex = parent.getPrimaryIndex();
+		if(primaryIndex >= 0)
+		{
+			columnData.set( primaryIndex, primaryKey );
+		}
 		if(isTimestamped)
 		{
 			final Timestamp stamp = new Timestamp(System.currentTimeMillis());
-			columnData.put( TimestampedRecord.COLUMN_CREATED_AT, stamp);
+			setSlot( parent.getCreatedAtIndex(), stamp );
 		}
+		this.lastAccess = System.nanoTime();
 	}
 
 	/**
 	 * @param columnName
 	 * @param value
 	 * @param updateValues
-	 * @return the previous value or <code>null</code>
+	 * @return whether the value was set, <code>false</code> if this row is {@link #isEvicted() evicted}
+	 */
+	public boolean setData(@Nonnull final String columnName, @Nullable final Object value, final boolean updateValues)
+	{
+		return setData( parent.getColumnIndex( columnName ), value, updateValues);
+	}
+
+	/**
+	 * @param index the column-index, as of {@link #getColumnIndex(java.lang.String) }
+	 * @param value
+	 * @param updateValues
+	 * @return whether the value was set, <code>false</code> if this row is {@link #isEvicted() evicted}
+	 * @since 0.9
 	 */
-	public synchronized Object setData(final String columnName, final Object value, final boolean updateValues)
+	synchronized boolean setData(final int index, @Nullable final Object value, final boolean updateValues)
 	{
-		final String columnLower = columnName.toLowerCase();
+		if(evicted)
+		{
+			return false;
+		}
+		if(index < 0)
+		{
+			//column is not part of the table
+			return true;
+		}
+		final Object previous = columnData.get( index );
 		//we need to check for existence, to allow storing null-objects, for later checks
-		if(hasData( columnName ) && Objects.equals(getData( columnLower), value))
+		if(previous != NOT_LOADED && Objects.equals(previous, value))
 		{
-			return value;
+			return true;
 		}
+		columnData.set( index, value );
 		if(updateValues)
 		{
-			modifiedData.put( columnLower, value);
-			parent.setModified( this );
+			modifiedColumns.set( index );
 			updateModifiedTimestamp();
+			parent.setModified( this );
 		}
-		return columnData.put( columnLower, value );
+		return true;
 	}
 
 	/**
 	 * @param columnName
 	 * @return the stored value
 	 */
-	public synchronized Object getData(final String columnName)
+	@Nullable
+	public Object getData(@Nonnull final String columnName)
 	{
-		return columnData.get( columnName.toLowerCase() );
+		return getData( parent.getColumnIndex( columnName ));
+	}
+
+	/**
+	 * @param index the column-index, as of {@link #getColumnIndex(java.lang.String) }
+	 * @return the stored value
+	 * @since 0.9
+	 */
+	@Nullable
+	Object getData(final int index)
+	{
+		lastAccess = System.nanoTime();
+		if(index < 0)
+		{
+			return null;
+		}
+		final Object value = columnData.get( index );
+		return value == NOT_LOADED ? null : value;
 	}
 
 	/**
 	 * @param columnName
 	 * @return whether the given column is cached
 	 */
-	public boolean hasData(final String columnName)
+	public boolean hasData(@Nonnull final String columnName)
+	{
+		return hasData( parent.getColumnIndex( columnName ));
+	}
+
+	/**
+	 * @param index the column-index, as of {@link #getColumnIndex(java.lang.String) }
+	 * @return whether the given column is cached
+	 * @since 0.9
+	 */
+	boolean hasData(final int index)
+	{
+		return index >= 0 && columnData.get( index ) != NOT_LOADED;
+	}
+
+	/**
+	 * @param columnName the column-name, case-insensitive
+	 * @return the index of the column or <code>-1</code> if the table has no such column
+	 * @since 0.9
+	 */
+	int getColumnIndex(@Nonnull final String columnName)
 	{
-		return columnData.containsKey( columnName.toLowerCase() );
+		return parent.getColumnIndex( columnName );
 	}
 
 	/**
@@ -109,16 +211,25 @@ class RowCache implements Comparable<RowCache>
 	 */
 	public int getPrimaryKey()
 	{
-		return ( int ) columnData.get( primaryKey );
+		return primaryKey;
+	}
+
+	/**
+	 * @return the time of the last read-access, as of {@link System#nanoTime() }
+	 * @since 0.9
+	 */
+	long getLastAccess()
+	{
+		return lastAccess;
 	}
 
 	/**
 	 * This method does not consider external changes to the DB
 	 * @return whether the data in this cache is the same as in the DB
 	 */
-	public boolean isSynchronized()
+	public synchronized boolean isSynchronized()
 	{
-		return modifiedData.isEmpty();
+		return modifiedColumns.isEmpty();
 	}
 
 	/**
@@ -126,10 +237,14 @@ class RowCache implements Comparable<RowCache>
 	 */
 	public synchronized void clear()
 	{
-		int key = getPrimaryKey();
-		columnData.clear();
-		modifiedData.clear();
-		columnData.put( primaryKey, key );
+		for(int i = 0; i < columnData.length(); i++)
+		{
+			if(i != primaryIndex)
+			{
+				columnData.set( i, NOT_LOADED );
+			}
+		}
+		modifiedColumns.clear();
 	}
 
 	/**
@@ -137,74 +252,133 @@ class RowCache implements Comparable<RowCache>
 	 * @param set
 	 * @throws SQLException
 	 */
-	public synchronized void update(final ResultSet set) throws SQLException
+	public synchronized void update(@Nonnull final ResultSet set) throws SQLException
 	{
-		for(int i=1;i<=set.getMetaData().getColumnCount();i++)
+		final ResultSetMetaData metaData = set.getMetaData();
+		for(int i=1;i<=metaData.getColumnCount();i++)
 		{
-			setData( set.getMetaData().getColumnLabel( i).toLowerCase(), set.getObject( i ),false);
+			setSlot( parent.getColumnIndex( metaData.getColumnLabel( i)), set.getObject( i ));
 		}
 		//loading from DB overwrites all modified data
-		modifiedData.clear();
+		modifiedColumns.clear();
 	}
 
 	/**
 	 * Sets all cached values to the values given by <code>map</code>
 	 * @param map
 	 * @param updateValues
+	 * @return whether the values were set, <code>false</code> if this row is {@link #isEvicted() evicted}
 	 */
-	public synchronized void update(final Map<String,Object> map, final boolean updateValues)
+	public synchronized boolean update(@Nonnull final Map<String,Object> map, final boolean updateValues)
 	{
+		if(evicted)
+		{
+			return false;
+		}
 		for(final Map.Entry<String,Object> e:map.entrySet())
 		{
-			setData( e.getKey().toLowerCase(), e.getValue(), updateValues);
+			setData( parent.getColumnIndex( e.getKey()), e.getValue(), updateValues);
 		}
+		return true;
+	}
+
+	/**
+	 * Marks this row as removed from its BaseCache. Must be called with the lock of this row held, 
+	 * after checking the row to be {@link #isSynchronized() synchronized}, if its modifications must not be discarded.
+	 * 
+	 * @since 0.9
+	 */
+	void setEvicted()
+	{
+		evicted = true;
 	}
 
+	/**
+	 * @return whether this row was removed from its BaseCache and therefore can't be modified anymore
+	 * @since 0.9
+	 */
+	synchronized boolean isEvicted()
+	{
+		return evicted;
+	}
+
+	/**
+	 * Adds the modified data to the container. The row stays modified until the container is 
+	 * {@link WriteBack#writtenBack() written back}, so the modifications are not lost if writing them fails.
+	 * 
+	 * @param container the container to add the modifications to
+	 * @return whether there were any modifications
+	 */
 	public synchronized boolean writeBack(@Nonnull final WriteBack container)
 	{
-		if(modifiedData.isEmpty())
+		if(modifiedColumns.isEmpty())
 		{
+			parent.setSynchronized( this );
 			return false;
 		}
-		container.addRow( getPrimaryKey(), modifiedData);
-		modifiedData.clear();
+		final Map<String, Object> modifiedData = new HashMap<>(modifiedColumns.cardinality() * 2);
+		for(int i = modifiedColumns.nextSetBit( 0); i >= 0; i = modifiedColumns.nextSetBit( i + 1))
+		{
+			modifiedData.put( parent.getColumnName( i ), columnData.get( i ));
+		}
+		container.addRow( this, modifiedData);
 		return true;
 	}
 
-	@Override
-	public String toString()
+	/**
+	 * Marks the written data as synchronized. Columns modified again since the data was collected stay modified.
+	 * 
+	 * @param writtenData the data written back
+	 * @since 0.9
+	 */
+	synchronized void writtenBack(@Nonnull final Map<String, Object> writtenData)
 	{
-		return "RowCache@"+getPrimaryKey();
+		for(final Map.Entry<String, Object> column : writtenData.entrySet())
+		{
+			final int index = parent.getColumnIndex( column.getKey());
+			if(index >= 0 && Objects.equals( columnData.get( index ), column.getValue()))
+			{
+				modifiedColumns.clear( index );
+			}
+		}
+		if(modifiedColumns.isEmpty())
+		{
+			parent.setSynchronized( this );
+		}
 	}
 
 	@Override
-	public int hashCode()
+	public String toString()
 	{
-		return toString().hashCode();
+		return "RowCache@"+getPrimaryKey();
 	}
 
 	@Override
-	public boolean equals( final Object obj )
+	public int compareTo( final RowCache o )
 	{
-		return obj != null && obj instanceof RowCache && parent.equals( ((RowCache)obj).parent) && obj.toString().equals( toString());
+		return Integer.compare( getPrimaryKey(), o.getPrimaryKey());
 	}
 
-	@Override
-	public int compareTo( final RowCache o )
+	private void setSlot(final int index, @Nullable final Object value)
 	{
-		return Integer.compare( getPrimaryKey(), o.getPrimaryKey());
+		if(index >= 0)
+		{
+			columnData.set( index, value );
+		}
 	}
 
 	private void updateModifiedTimestamp()
 	{
 		//if no other data was changed, don't update modified
-		if(!isTimestamped || modifiedData.isEmpty())
+		if(!isTimestamped || modifiedColumns.isEmpty())
 		{
 			return;
 		}
-		final Timestamp stamp = new Timestamp(System.currentTimeMillis());
-		columnData.put( TimestampedRecord.COLUMN_UPDATED_AT, stamp);
-		modifiedData.put( TimestampedRecord.COLUMN_UPDATED_AT, stamp);
-		parent.setModified( this );
+		final int index = parent.getUpdatedAtIndex();
+		if(index >= 0)
+		{
+			columnData.set( index, new Timestamp(System.currentTimeMillis()) );
+			modifiedColumns.set( index );
+		}
 	}
 }
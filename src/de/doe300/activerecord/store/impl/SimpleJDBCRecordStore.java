@@ -31,11 +31,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
@@ -44,6 +47,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.WillNotClose;
@@ -64,6 +68,7 @@ import de.doe300.activerecord.scope.Scope;
 import de.doe300.activerecord.store.JDBCRecordStore;
 import de.doe300.activerecord.store.NoSuchDataSetException;
 import de.doe300.activerecord.store.diagnostics.Diagnostics;
+import de.doe300.activerecord.util.ThrowingFunctions.ThrowingFunction;
 import java.util.Optional;
 
 /**
@@ -72,21 +77,36 @@ import java.util.Optional;
  */
 public class SimpleJDBCRecordStore implements JDBCRecordStore
 {
+	/**
+	 * The maximum number of rows to insert with a single statement
+	 * @since 0.9
+	 */
+	protected static final int MAX_ROWS_PER_INSERT = 1000;
+	
 	@Nonnull
 	protected final Connection con;
 	@Nonnull
 	protected final JDBCDriver driver;
 	@Nonnull
 	protected final Diagnostics<String> diagnostics;
+	@Nonnull
+	private final StatementCache statementCache;
+	@Nonnull
+	private final TableModifications modifications;
+	@Nonnegative
+	private volatile int fetchSize = Scope.DEFAULT_FETCH_SIZE;
+	private final Object streamingLock = new Object();
+	/**
+	 * The number of open results, auto-commit was disabled for
+	 */
+	private int streamingCursors = 0;
 
 	/**
 	 * @param con
 	 */
 	public SimpleJDBCRecordStore(@Nonnull final Connection con)
 	{
-		this.con=con;
-		this.driver = JDBCDriver.guessDriver( con );
-		this.diagnostics = driver.createDiagnostics( this );
+		this(con, JDBCDriver.guessDriver( con ));
 	}
 
 	/**
@@ -98,6 +118,105 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 		this.con = con;
 		this.driver = driver;
 		this.diagnostics = driver.createDiagnostics( this );
+		final CacheCounters statementCounters = new CacheCounters();
+		this.statementCache = new StatementCache(StatementCache.DEFAULT_CAPACITY, statementCounters);
+		this.diagnostics.setStatementCacheStatistics( statementCounters );
+		this.modifications = new TableModifications();
+	}
+	
+	/**
+	 * @param con
+	 * @param driver
+	 * @param diagnostics the diagnostics to share with other stores
+	 * @param statementCounters the statistics of the statement-caches to share with other stores
+	 * @param modifications the modification-counts to share with other stores
+	 * @since 0.9
+	 */
+	SimpleJDBCRecordStore(@Nonnull final Connection con, @Nonnull final JDBCDriver driver, @Nonnull final Diagnostics<String> diagnostics,
+			@Nonnull final CacheCounters statementCounters, @Nonnull final TableModifications modifications)
+	{
+		this.con = con;
+		this.driver = driver;
+		this.diagnostics = diagnostics;
+		this.statementCache = new StatementCache(StatementCache.DEFAULT_CAPACITY, statementCounters);
+		this.modifications = modifications;
+	}
+	
+	/**
+	 * Executes the function with a cached prepared statement for the given parameterized SQL, which does not modify 
+	 * any data.
+	 * 
+	 * @param <R> the type of the result
+	 * @param sql the SQL to prepare
+	 * @param autoGeneratedKeys one of {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}
+	 * @param func the function setting the parameters and executing the statement. Any ResultSet must be closed before returning
+	 * @return the result of the function
+	 * @throws SQLException 
+	 * @since 0.9
+	 * @see #executeCached(java.lang.String, int, boolean, de.doe300.activerecord.util.ThrowingFunctions.ThrowingFunction) 
+	 */
+	protected <R> R executeCached(@Nonnull final String sql, final int autoGeneratedKeys, 
+			@Nonnull final ThrowingFunction<PreparedStatement, R, SQLException> func) throws SQLException
+	{
+		return executeCached( sql, autoGeneratedKeys, false, func );
+	}
+	
+	/**
+	 * Executes the function with a cached prepared statement for the given parameterized SQL.
+	 * 
+	 * If a statement taken from the cache fails to execute, e.g. because the table was altered in the meantime,
+	 * the execution is retried once with a newly prepared statement. Statements modifying data are never retried, 
+	 * since the failure may have occurred after the modification was applied, neither is any statement retried 
+	 * within a transaction, which may already be aborted by the failure.
+	 * 
+	 * @param <R> the type of the result
+	 * @param sql the SQL to prepare
+	 * @param autoGeneratedKeys one of {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}
+	 * @param modifiesData whether the statement inserts, updates or deletes any rows
+	 * @param func the function setting the parameters and executing the statement. Any ResultSet must be closed before returning
+	 * @return the result of the function
+	 * @throws SQLException 
+	 * @since 0.9
+	 */
+	protected <R> R executeCached(@Nonnull final String sql, final int autoGeneratedKeys, final boolean modifiesData,
+			@Nonnull final ThrowingFunction<PreparedStatement, R, SQLException> func) throws SQLException
+	{
+		final PreparedStatement cached = statementCache.acquire( sql, autoGeneratedKeys );
+		if(cached != null)
+		{
+			try
+			{
+				final R result = func.apply( cached );
+				statementCache.release( sql, autoGeneratedKeys, cached );
+				return result;
+			}
+			catch(final SQLException e)
+			{
+				statementCache.discard( cached );
+				if(modifiesData || !con.getAutoCommit())
+				{
+					throw e;
+				}
+				Logging.getLogger().debug( "JDBCStore", "Cached statement failed, preparing it again: " + e.getMessage());
+			}
+			catch(final RuntimeException e)
+			{
+				statementCache.discard( cached );
+				throw e;
+			}
+		}
+		final PreparedStatement stmt = con.prepareStatement( sql, autoGeneratedKeys );
+		try
+		{
+			final R result = func.apply( stmt );
+			statementCache.release( sql, autoGeneratedKeys, stmt );
+			return result;
+		}
+		catch(final SQLException | RuntimeException e)
+		{
+			statementCache.discard( stmt );
+			throw e;
+		}
 	}
 	
 	/**
@@ -169,16 +288,36 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 	@Nonnull
 	@WillNotClose
 	protected ResultSet queryStatement(@Nonnull final String query, @Nullable final Condition cond) throws SQLException
+	{
+		return queryStatement( query, cond, Scope.DEFAULT_FETCH_SIZE );
+	}
+	
+	/**
+	 * Helper method to support large queries not supported by the underlying JDBC driver
+	 * @param query the query to check and potentially convert
+	 * @param cond the condition to extract the wildcards from
+	 * @param fetchSize the number of rows to fetch at once, <code>Scope.DEFAULT_FETCH_SIZE</code> for the default of the JDBC driver
+	 * @return the resulting ResultSet
+	 * @throws SQLException
+	 * @since 0.9
+	 * @see JDBCDriver#setFetchSize(java.sql.Statement, int) 
+	 */
+	@Nonnull
+	@WillNotClose
+	protected ResultSet queryStatement(@Nonnull final String query, @Nullable final Condition cond, @Nonnegative final int fetchSize) throws SQLException
 	{
 		if(cond != null && cond.hasWildcards())
 		{
 			if(cond.getValues().length > driver.getParametersLimit())
 			{
 				final String preparedQuery = StatementUtil.prepareQuery(driver, query, cond );
-				return diagnostics.profileQuery( () -> closeStatementWithResultSet( con.createStatement( ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)).executeQuery( preparedQuery ), () -> preparedQuery).get();
+				final Statement stm = closeStatementWithResultSet( con.createStatement( ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+				driver.setFetchSize( stm, fetchSize );
+				return diagnostics.profileQuery( () -> stm.executeQuery( preparedQuery ), () -> preparedQuery).get();
 			}
 		}
 		final PreparedStatement stm = closeStatementWithResultSet( con.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+		driver.setFetchSize( stm, fetchSize );
 		if(cond != null)
 		{
 			fillStatement( stm, cond );
@@ -342,16 +481,21 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 		//2. create statement
 		String sql = "UPDATE "+base.getTableName()+" SET ";
 		sql+= Arrays.stream( values.getFirstOrThrow()).map( (final String s)-> s+ " = ? ").collect( Collectors.joining(", "));
-		sql += " WHERE "+base.getPrimaryColumn()+" = "+primaryKey;
+		sql += " WHERE "+base.getPrimaryColumn()+" = ?";
 		Logging.getLogger().debug( "JDBCStore", sql);
-		try(PreparedStatement stm = con.prepareStatement( sql ))
+		try
 		{
-			for(int i=0;i<values.getSecondOrThrow().length;i++)
+			final Object[] columnValues = values.getSecondOrThrow();
+			executeCached( sql, Statement.NO_GENERATED_KEYS, true, (final PreparedStatement stm) ->
 			{
-				stm.setObject( i+1, values.getSecondOrThrow()[i]);
-			}
-			//3. execute
-			stm.execute();
+				for(int i=0;i<columnValues.length;i++)
+				{
+					stm.setObject( i+1, columnValues[i]);
+				}
+				stm.setInt( columnValues.length + 1, primaryKey);
+				//3. execute
+				return stm.execute();
+			});
 		}
 		catch ( final SQLException ex )
 		{
@@ -360,23 +504,30 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 			Logging.getLogger().error( "JDBCStore", ex);
 			throw new IllegalArgumentException(ex);
 		}
+		modifications.modified( base.getTableName());
 	}
 
 	@Override
 	public Object getValue(final RecordBase<?> base, final int primaryKey, final String name ) throws IllegalArgumentException
 	{
 		final String sql =
-			"SELECT " + name + " FROM " + base.getTableName() + " WHERE " + base.getPrimaryColumn() + " = "
-				+ primaryKey;
+			"SELECT " + name + " FROM " + base.getTableName() + " WHERE " + base.getPrimaryColumn() + " = ?";
 		Logging.getLogger().debug("JDBCStore", sql);
-		try (ResultSet res = closeStatementWithResultSet( con.createStatement()).executeQuery(sql))
+		try
 		{
-			if(res.next())
+			return executeCached( sql, Statement.NO_GENERATED_KEYS, (final PreparedStatement stm) ->
 			{
-				return res.getObject( name );
-			}
-			Logging.getLogger().debug( "JDBCStore", "No value found");
-			return null;
+				stm.setInt( 1, primaryKey);
+				try (ResultSet res = stm.executeQuery())
+				{
+					if(res.next())
+					{
+						return res.getObject( name );
+					}
+					Logging.getLogger().debug( "JDBCStore", "No value found");
+					return null;
+				}
+			});
 		}
 		catch ( final SQLException ex )
 		{
@@ -392,21 +543,28 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 	{
 		final String sql =
 			"SELECT " + toColumnsList(columns, base.getPrimaryColumn(), null) + " FROM " + base.getTableName() + " WHERE "
-				+ base.getPrimaryColumn() + " = " + primaryKey;
+				+ base.getPrimaryColumn() + " = ?";
 		Logging.getLogger().debug("JDBCStore", sql);
-		try (final ResultSet res = closeStatementWithResultSet( con.createStatement()).executeQuery(sql))
+		try
 		{
-			if(res.next())
+			return executeCached( sql, Statement.NO_GENERATED_KEYS, (final PreparedStatement stm) ->
 			{
-				final Map<String,Object> values=new HashMap<>(columns.length);
-				for(final String column:columns)
+				stm.setInt( 1, primaryKey);
+				try (final ResultSet res = stm.executeQuery())
 				{
-					values.put( column, res.getObject( column));
+					if(res.next())
+					{
+						final Map<String,Object> values=new HashMap<>(columns.length);
+						for(final String column:columns)
+						{
+							values.put( column, res.getObject( column));
+						}
+						return values;
+					}
+					Logging.getLogger().debug( "JDBCStore", "no values found");
+					return Collections.emptyMap();
 				}
-				return values;
-			}
-			Logging.getLogger().debug( "JDBCStore", "no values found");
-			return Collections.emptyMap();
+			});
 		}
 		catch ( final SQLException ex )
 		{
@@ -420,22 +578,29 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 	@Override
 	public Map<String, Object> getAllValues(final RecordBase<?> base, int primaryKey ) throws NoSuchDataSetException
 	{
-		final String sql = "SELECT * FROM " + base.getTableName() + " WHERE " + base.getPrimaryColumn() + " = " + primaryKey;
+		final String sql = "SELECT * FROM " + base.getTableName() + " WHERE " + base.getPrimaryColumn() + " = ?";
 		Logging.getLogger().debug("JDBCStore", sql);
-		try (final ResultSet res = closeStatementWithResultSet( con.createStatement()).executeQuery(sql))
+		try
 		{
-			if(res.next())
+			return executeCached( sql, Statement.NO_GENERATED_KEYS, (final PreparedStatement stm) ->
 			{
-				final int columnCount = res.getMetaData().getColumnCount();
-				final Map<String,Object> values=new HashMap<>(columnCount);
-				for(int i = 1; i <= columnCount; ++i)
+				stm.setInt( 1, primaryKey);
+				try (final ResultSet res = stm.executeQuery())
 				{
-					values.put( res.getMetaData().getColumnName( i), res.getObject( i ));
+					if(res.next())
+					{
+						final int columnCount = res.getMetaData().getColumnCount();
+						final Map<String,Object> values=new HashMap<>(columnCount);
+						for(int i = 1; i <= columnCount; ++i)
+						{
+							values.put( res.getMetaData().getColumnName( i), res.getObject( i ));
+						}
+						return values;
+					}
+					Logging.getLogger().debug( "JDBCStore", "no values found");
+					return Collections.<String, Object>emptyMap();
 				}
-				return values;
-			}
-			Logging.getLogger().debug( "JDBCStore", "no values found");
-			return Collections.emptyMap();
+			});
 		}
 		catch ( final SQLException ex )
 		{
@@ -456,11 +621,18 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 	public boolean containsRecord( final RecordBase<?> base, final int primaryKey )
 	{
 		checkTableExists( base );
-		final String sql = "SELECT "+base.getPrimaryColumn()+" FROM "+base.getTableName()+" WHERE "+base.getPrimaryColumn()+" = "+primaryKey;
+		final String sql = "SELECT "+base.getPrimaryColumn()+" FROM "+base.getTableName()+" WHERE "+base.getPrimaryColumn()+" = ?";
 		Logging.getLogger().debug( "JDBCStore", sql);
-		try(final ResultSet result = closeStatementWithResultSet( con.prepareStatement( sql)).executeQuery())
+		try
 		{
-			return result.next();
+			return executeCached( sql, Statement.NO_GENERATED_KEYS, (final PreparedStatement stm) ->
+			{
+				stm.setInt( 1, primaryKey);
+				try(final ResultSet result = stm.executeQuery())
+				{
+					return result.next();
+				}
+			});
 		}
 		catch ( final SQLException ex )
 		{
@@ -475,11 +647,15 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 	public void destroy( final RecordBase<?> base, final int primaryKey )
 	{
 		checkTableExists( base );
-		final String sql = "DELETE FROM "+base.getTableName()+" WHERE "+base.getPrimaryColumn()+" = "+primaryKey;
-		try(final PreparedStatement stm = con.prepareStatement( sql ))
+		final String sql = "DELETE FROM "+base.getTableName()+" WHERE "+base.getPrimaryColumn()+" = ?";
+		Logging.getLogger().debug( "JDBCStore", sql);
+		try
 		{
-			Logging.getLogger().debug( "JDBCStore", sql);
-			stm.executeUpdate();
+			executeCached( sql, Statement.NO_GENERATED_KEYS, true, (final PreparedStatement stm) ->
+			{
+				stm.setInt( 1, primaryKey);
+				return stm.executeUpdate();
+			});
 		}
 		catch ( final SQLException ex )
 		{
@@ -488,6 +664,7 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 			Logging.getLogger().error( "JDBCStore", ex);
 			throw new IllegalArgumentException(ex);
 		}
+		modifications.modified( base.getTableName());
 	}
 
 	@Override
@@ -504,11 +681,13 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 		{
 			if (res.next())
 			{
-				final Map<String, Object> values = new HashMap<>(columns.length);
+				final Map<String, Object> values = new HashMap<>(columns.length + 1);
 				for (final String column : columns)
 				{
 					values.put(column, res.getObject(column));
 				}
+				//the primary key is always selected, see #toColumnsList
+				values.putIfAbsent( base.getPrimaryColumn(), res.getObject( base.getPrimaryColumn()));
 				return values;
 			}
 			Logging.getLogger().debug("JDBCStore", "No matching rows found");
@@ -574,6 +753,91 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 		}
 	}
 
+	@Override
+	public Object[] aggregateAll( final RecordBase<?> base, final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, final Condition condition )
+	{
+		checkTableExists( base );
+		if(aggregateFunctions.length == 0)
+		{
+			return new Object[0];
+		}
+		final String tableID = JDBCDriver.getNextTableIdentifier( null );
+		final StringBuilder sql = new StringBuilder("SELECT ");
+		for(int i = 0; i < aggregateFunctions.length; i++)
+		{
+			sql.append( i == 0 ? "" : ", ").append( aggregateFunctions[i].toSQL( driver, tableID)).append( " as result").append( i );
+		}
+		sql.append( " FROM ").append( base.getTableName()).append( " AS ").append( tableID).append( toWhereClause( condition, tableID ));
+		Logging.getLogger().debug( "JDBCStore", sql.toString());
+		try (final ResultSet res = queryStatement( sql.toString(), condition ))
+		{
+			final Object[] results = new Object[aggregateFunctions.length];
+			if (res.next())
+			{
+				for(int i = 0; i < results.length; i++)
+				{
+					results[i] = res.getObject( "result" + i);
+				}
+			}
+			else
+			{
+				Logging.getLogger().debug("JDBCStore", "No matching rows found");
+			}
+			return results;
+		}
+		catch ( final SQLException ex )
+		{
+			Logging.getLogger().error( "JDBCStore", "Failed to aggregate matches!");
+			Logging.getLogger().error( "JDBCStore", sql.toString());
+			Logging.getLogger().error( "JDBCStore", ex);
+			throw new IllegalArgumentException(ex);
+		}
+	}
+
+	@Override
+	public Map<List<Object>, Object[]> aggregateGrouped( final RecordBase<?> base, final String[] groupColumns,
+			final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, final Condition condition )
+	{
+		checkTableExists( base );
+		final String tableID = JDBCDriver.getNextTableIdentifier( null );
+		final String groupList = Arrays.stream( groupColumns ).map( (final String column) -> tableID + "." + column).
+				collect( Collectors.joining( ", "));
+		final StringBuilder sql = new StringBuilder("SELECT ").append( groupList );
+		for(int i = 0; i < aggregateFunctions.length; i++)
+		{
+			sql.append( ", ").append( aggregateFunctions[i].toSQL( driver, tableID)).append( " as result").append( i );
+		}
+		sql.append( " FROM ").append( base.getTableName()).append( " AS ").append( tableID).append( toWhereClause( condition, tableID )).
+				append( " GROUP BY ").append( groupList).append( " ORDER BY ").append( groupList);
+		Logging.getLogger().debug( "JDBCStore", sql.toString());
+		try (final ResultSet res = queryStatement( sql.toString(), condition ))
+		{
+			final Map<List<Object>, Object[]> results = new LinkedHashMap<>(16);
+			while(res.next())
+			{
+				final Object[] key = new Object[groupColumns.length];
+				for(int i = 0; i < key.length; i++)
+				{
+					key[i] = res.getObject( i + 1);
+				}
+				final Object[] values = new Object[aggregateFunctions.length];
+				for(int i = 0; i < values.length; i++)
+				{
+					values[i] = res.getObject( "result" + i);
+				}
+				results.put( Arrays.asList( key ), values);
+			}
+			return results;
+		}
+		catch ( final SQLException ex )
+		{
+			Logging.getLogger().error( "JDBCStore", "Failed to aggregate groups!");
+			Logging.getLogger().error( "JDBCStore", sql.toString());
+			Logging.getLogger().error( "JDBCStore", ex);
+			throw new IllegalArgumentException(ex);
+		}
+	}
+
 	@Override
 	@WillNotClose
 	public Stream<Map<String, Object>> streamAllWithData( final RecordBase<?> base, final String[] columns, final Scope scope )
@@ -585,18 +849,33 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 				+" ORDER BY "+toOrder( base, scope ).toSQL(driver, tableID)
 				+" " + driver.getLimitClause( 0, scope.getLimit());
 		Logging.getLogger().debug( "JDBCStore", sql);
+		final int effectiveFetchSize = scope.getFetchSize() != Scope.DEFAULT_FETCH_SIZE ? scope.getFetchSize() : fetchSize;
+		Runnable endStreaming = null;
 		try
 		{
+			endStreaming = beginStreaming( effectiveFetchSize );
 			//this result-set can't be try-with-resource because it is required to stay open for asynchronous call
-			final ResultSet res = queryStatement( sql, scope.getCondition());
+			final ResultSet res = queryStatement( sql, scope.getCondition(), effectiveFetchSize);
 			//we must add the primary-key to the list of columns, because it is not guaranteed to be in there
 			//and it is needed to prevent row-maps with same values to be counted as the same
-			Set<String> columnWithKey = new HashSet<>(Arrays.asList( columns ));
+			final Set<String> columnWithKey = new HashSet<>(Arrays.asList( columns ));
 			columnWithKey.add( base.getPrimaryColumn());
-			return allWithDataStream(columnWithKey, res);
+			return resultStream( res, (final ResultSet set) ->
+			{
+				final Map<String,Object> values=new HashMap<>(columnWithKey.size());
+				for(final String column : columnWithKey)
+				{
+					values.put( column, set.getObject( column));
+				}
+				return values;
+			}, Spliterator.DISTINCT|Spliterator.IMMUTABLE|Spliterator.NONNULL|Spliterator.ORDERED, endStreaming);
 		}
 		catch ( final SQLException ex )
 		{
+			if(endStreaming != null)
+			{
+				endStreaming.run();
+			}
 			Logging.getLogger().error( "JDBCStore", "Failed to find matches!");
 			Logging.getLogger().error( "JDBCStore", sql);
 			Logging.getLogger().error( "JDBCStore", ex);
@@ -604,67 +883,6 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 		}
 	}
 
-	@Nonnull
-	private static Stream<Map<String, Object>> allWithDataStream(@Nonnull final Set<String> columns, @Nonnull final ResultSet res)
-	{
-		return StreamSupport.stream( new Spliterator<Map<String,Object>>()
-		{
-
-			@Override
-			public boolean tryAdvance(final Consumer<? super Map<String, Object>> action )
-			{
-				try
-				{
-					if(!res.next())
-					{
-						//result-set is no longer needed, can be closed
-						res.close();
-						return false;
-					}
-					final Map<String,Object> values=new HashMap<>(columns.size());
-					for(final String column : columns)
-					{
-						values.put( column, res.getObject( column));
-					}
-					action.accept( values);
-					return true;
-				}
-				catch ( final SQLException ex )
-				{
-					return false;
-				}
-			}
-
-			@Override
-			public Spliterator<Map<String, Object>> trySplit()
-			{
-				return null;
-			}
-
-			@Override
-			public long estimateSize()
-			{
-				return Long.MAX_VALUE;
-			}
-
-			@Override
-			public int characteristics()
-			{
-				return Spliterator.DISTINCT|Spliterator.IMMUTABLE|Spliterator.NONNULL|Spliterator.ORDERED;
-			}
-		},false).onClose( () ->
-		{
-			try
-			{
-				res.close();
-			}
-			catch ( final SQLException ex )
-			{
-				throw new RuntimeException(ex);
-			}
-		});
-	}
-
 	@Override
 	public boolean exists(final String tableName)
 	{
@@ -711,27 +929,41 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 		}
 	}
 
+	/**
+	 * Copies the given values and adds the timestamps, if required
+	 * @param base
+	 * @param columns the initial values, may be <code>null</code>
+	 * @param timestamp the creation-time
+	 * @return the values to insert
+	 * @since 0.9
+	 */
+	@Nonnull
+	protected Map<String, Object> prepareInsertValues(@Nonnull final RecordBase<?> base, @Nullable final Map<String,Object> columns, final long timestamp)
+	{
+		final Map<String,Object> rowData = new HashMap<>(columns != null ? columns.size() : 3 );
+		//set initial values
+		if(columns != null)
+		{
+			rowData.putAll( columns );
+		}
+		//make sure, primary key is not set
+		rowData.remove( base.getPrimaryColumn() );
+		//add timestamp
+		if(base.isTimestamped())
+		{
+			rowData.putIfAbsent(TimestampedRecord.COLUMN_CREATED_AT, new Timestamp(timestamp ));
+			rowData.putIfAbsent(TimestampedRecord.COLUMN_UPDATED_AT, new Timestamp(timestamp ));
+		}
+		return rowData;
+	}
+
 	@Override
 	public int insertNewRecord(final RecordBase<?> base, final Map<String,Object> columns)
 	{
 		try
 		{
 			checkTableExists( base );
-			final Map<String,Object> rowData = new HashMap<>(columns != null ? columns.size() : 3 );
-			//set initial values
-			if(columns != null)
-			{
-				rowData.putAll( columns );
-			}
-			//make sure, primary key is not set
-			rowData.remove( base.getPrimaryColumn() );
-			//add timestamp
-			if(base.isTimestamped())
-			{
-				final long timestamp = System.currentTimeMillis();
-				rowData.putIfAbsent(TimestampedRecord.COLUMN_CREATED_AT, new Timestamp(timestamp ));
-				rowData.putIfAbsent(TimestampedRecord.COLUMN_UPDATED_AT, new Timestamp(timestamp ));
-			}
+			final Map<String,Object> rowData = prepareInsertValues( base, columns, System.currentTimeMillis() );
 
 			final String sql;
 			if(rowData.isEmpty())
@@ -746,7 +978,7 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 			}
 			
 			Logging.getLogger().debug( "JDBCStore", sql);
-			try (PreparedStatement stmt = closeStatementWithResultSet( con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)))
+			final int key = executeCached( sql, Statement.RETURN_GENERATED_KEYS, true, (final PreparedStatement stmt) ->
 			{
 				int i = 0;
 				for (final Map.Entry<String, Object> e : rowData.entrySet())
@@ -765,8 +997,9 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 					Logging.getLogger().error("JDBCStore", "Failed to insert new row!");
 					return -1;
 				}
-			}
-
+			});
+			modifications.modified( base.getTableName());
+			return key;
 		}
 		catch ( final SQLException ex )
 		{
@@ -776,9 +1009,87 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 		}
 	}
 
+	@Override
+	public int[] insertNewRecords(final RecordBase<?> base, final List<Map<String, Object>> rows)
+	{
+		checkTableExists( base );
+		final int[] keys = new int[rows.size()];
+		final long timestamp = System.currentTimeMillis();
+		final List<Map<String, Object>> rowData = new ArrayList<>(rows.size());
+		//group rows by their columns, so rows with the same columns can be inserted with the same statement
+		final Map<Set<String>, List<Integer>> groups = new LinkedHashMap<>(4);
+		for(int i = 0; i < rows.size(); i++)
+		{
+			final Map<String, Object> data = prepareInsertValues( base, rows.get( i), timestamp );
+			rowData.add( data );
+			groups.computeIfAbsent( data.keySet(), (final Set<String> cols) -> new ArrayList<>(rows.size())).add( i );
+		}
+		for(final Map.Entry<Set<String>, List<Integer>> group : groups.entrySet())
+		{
+			final List<Integer> indices = group.getValue();
+			if(group.getKey().isEmpty() || !driver.isMultiRowInsertSupported())
+			{
+				for(final Integer index : indices)
+				{
+					keys[index] = insertNewRecord( base, rowData.get( index));
+				}
+				continue;
+			}
+			final String[] columns = group.getKey().toArray( new String[group.getKey().size()]);
+			final int rowsPerStatement = (int)Math.max( 1, Math.min( MAX_ROWS_PER_INSERT, driver.getParametersLimit() / columns.length));
+			final String rowWildcards = "(" + Arrays.stream( columns).map( (final String col) -> "?").collect( Collectors.joining( ", ")) + ")";
+			final String insertSQL = "INSERT INTO " + base.getTableName() + " (" + Arrays.stream( columns).map( this::convertIdentifier).collect( Collectors.joining( ", ")) + ") VALUES ";
+			for(int start = 0; start < indices.size(); start += rowsPerStatement)
+			{
+				final List<Integer> chunk = indices.subList( start, Math.min( indices.size(), start + rowsPerStatement));
+				final String sql = insertSQL + String.join( ", ", Collections.nCopies( chunk.size(), rowWildcards));
+				Logging.getLogger().debug( "JDBCStore", sql);
+				try
+				{
+					executeCached( sql, Statement.RETURN_GENERATED_KEYS, true, (final PreparedStatement stmt) ->
+					{
+						int param = 1;
+						for(final Integer index : chunk)
+						{
+							for(final String column : columns)
+							{
+								stmt.setObject( param++, rowData.get( index).get( column));
+							}
+						}
+						stmt.executeUpdate();
+						int row = 0;
+						try (final ResultSet rs = stmt.getGeneratedKeys())
+						{
+							while(row < chunk.size() && rs.next())
+							{
+								keys[chunk.get( row)] = driver.getCreatedRowID( rs, base.getPrimaryColumn());
+								row++;
+							}
+						}
+						if(row != chunk.size())
+						{
+							//not a SQLException, the statement must not be executed again
+							throw new IllegalStateException("Expected " + chunk.size() + " generated keys, but got " + row);
+						}
+						return row;
+					});
+				}
+				catch ( final SQLException | IllegalStateException ex )
+				{
+					Logging.getLogger().error( "JDBCStore", "Failed to insert new rows!");
+					Logging.getLogger().error( "JDBCStore", ex);
+					throw new IllegalArgumentException("Failed to insert new rows",ex);
+				}
+			}
+		}
+		modifications.modified( base.getTableName());
+		return keys;
+	}
+
 	@Override
 	public void close() throws Exception
 	{
+		statementCache.close();
 		con.close();
 	}
 
@@ -787,17 +1098,23 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 	public Stream<Object> getValues( final String tableName, final String column, final String condColumn, final Object condValue ) throws
 	IllegalArgumentException
 	{
-		//FIXME ResultSet is never closed if Stream is not read to the end!! (in all methods returning a Stream)
 		final String sql = "SELECT "+column+" FROM " +tableName+ " WHERE "+condColumn+" = ?";
 		Logging.getLogger().debug( "JDBCStore", sql);
+		final int effectiveFetchSize = fetchSize;
+		Runnable endStreaming = null;
 		try
 		{
+			endStreaming = beginStreaming( effectiveFetchSize );
 			//can't use try-with-resource here, because result-set is required to stay open
-			final ResultSet res = queryStatement( sql, Conditions.is( condColumn, condValue));
-			return valuesStream(res);
+			final ResultSet res = queryStatement( sql, Conditions.is( condColumn, condValue), effectiveFetchSize);
+			return resultStream( res, (final ResultSet set) -> set.getObject( 1), Spliterator.IMMUTABLE|Spliterator.ORDERED, endStreaming);
 		}
 		catch ( final SQLException ex )
 		{
+			if(endStreaming != null)
+			{
+				endStreaming.run();
+			}
 			Logging.getLogger().error( "JDBCStore", "Failed to retrieve values!");
 			Logging.getLogger().error( "JDBCStore", sql);
 			Logging.getLogger().error( "JDBCStore", ex);
@@ -805,59 +1122,143 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 		}
 	}
 
-	@Nonnull
-	@WillNotClose
-	private static Stream<Object> valuesStream(@Nonnull final ResultSet res)
+	@Override
+	public Stream<Map<String, Object>> getValues( final String tableName, final String[] columns, final Condition condition ) throws
+	IllegalArgumentException
 	{
-		return StreamSupport.stream( new Spliterator<Object>()
+		final String tableID = JDBCDriver.getNextTableIdentifier( null );
+		final String sql = "SELECT " + Arrays.stream( columns).map( (final String column) -> tableID + "." + column).collect( Collectors.joining( ", "))
+				+ " FROM " + tableName + " AS " + tableID + toWhereClause( condition, tableID );
+		Logging.getLogger().debug( "JDBCStore", sql);
+		final int effectiveFetchSize = fetchSize;
+		Runnable endStreaming = null;
+		try
 		{
-			@Override
-			public boolean tryAdvance(final Consumer<? super Object> action )
+			endStreaming = beginStreaming( effectiveFetchSize );
+			//can't use try-with-resource here, because result-set is required to stay open
+			final ResultSet res = queryStatement( sql, condition, effectiveFetchSize);
+			return resultStream( res, (final ResultSet set) ->
 			{
-				try
-				{
-					if(!res.next())
-					{
-						//result-set is no longer needed, can be closed
-						res.close();
-						return false;
-					}
-					action.accept( res.getObject( 1));
-					return true;
-				}
-				catch ( final SQLException ex )
+				final Map<String,Object> values = new HashMap<>(columns.length);
+				for(int i = 0; i < columns.length; i++)
 				{
-					return false;
+					values.put( columns[i], set.getObject( i + 1));
 				}
-			}
-
-			@Override
-			public Spliterator<Object> trySplit()
+				return values;
+			}, Spliterator.IMMUTABLE|Spliterator.NONNULL|Spliterator.ORDERED, endStreaming);
+		}
+		catch ( final SQLException ex )
+		{
+			if(endStreaming != null)
 			{
-				return null;
+				endStreaming.run();
 			}
+			Logging.getLogger().error( "JDBCStore", "Failed to retrieve values!");
+			Logging.getLogger().error( "JDBCStore", sql);
+			Logging.getLogger().error( "JDBCStore", ex);
+			throw new IllegalArgumentException(ex);
+		}
+	}
 
-			@Override
-			public long estimateSize()
-			{
-				return Long.MAX_VALUE;
-			}
+	/**
+	 * Sets the default number of rows to fetch at once for the streams returned by this store. 
+	 * The fetch-size of a {@link Scope} takes precedence over this value.
+	 * 
+	 * For some databases, a fetch-size is required to not buffer the whole result in memory, see {@link JDBCDriver#setFetchSize(java.sql.Statement, int) }
+	 * 
+	 * NOTE: If the driver {@link JDBCDriver#isStreamingRequiresTransaction() requires a transaction} for the fetch-size to take effect,
+	 * auto-commit is disabled on the connection of this store until all streamed results are closed. Since the connection 
+	 * is shared by all operations of this store, modifications made while a result is streamed are only committed afterwards.
+	 * Use a {@link PooledJDBCRecordStore} to stream results on their own connections.
+	 * 
+	 * @param fetchSize the number of rows to fetch at once, <code>Scope.DEFAULT_FETCH_SIZE</code> to use the default of the JDBC driver
+	 * @since 0.9
+	 */
+	public void setFetchSize(@Nonnegative final int fetchSize)
+	{
+		if(fetchSize < 0)
+		{
+			throw new IllegalArgumentException("Invalid fetch-size: " + fetchSize);
+		}
+		this.fetchSize = fetchSize;
+	}
 
-			@Override
-			public int characteristics()
+	/**
+	 * @return the default number of rows to fetch at once
+	 * @since 0.9
+	 */
+	@Nonnegative
+	public int getFetchSize()
+	{
+		return fetchSize;
+	}
+	
+	/**
+	 * Disables auto-commit while the result is streamed, if required by the driver for the fetch-size to take effect.
+	 * Auto-commit is disabled for the whole (shared) connection, so all other statements run until the last streamed result
+	 * is closed, are committed together afterwards.
+	 * @param fetchSize the fetch-size of the result
+	 * @return the action to run after the result was closed
+	 * @throws SQLException 
+	 */
+	@Nonnull
+	private Runnable beginStreaming(@Nonnegative final int fetchSize) throws SQLException
+	{
+		if(fetchSize == Scope.DEFAULT_FETCH_SIZE || !driver.isStreamingRequiresTransaction())
+		{
+			return () -> {};
+		}
+		synchronized(streamingLock)
+		{
+			//if auto-commit is disabled by the user, the transaction is not touched
+			if(streamingCursors == 0 && !con.getAutoCommit())
 			{
-				return Spliterator.IMMUTABLE|Spliterator.ORDERED;
+				return () -> {};
 			}
-		}, false).onClose( () -> {
-			try
+			if(streamingCursors == 0)
 			{
-				res.close();
+				con.setAutoCommit( false );
 			}
-			catch ( final SQLException ex )
+			streamingCursors++;
+		}
+		return this::endStreaming;
+	}
+	
+	private void endStreaming()
+	{
+		synchronized(streamingLock)
+		{
+			streamingCursors--;
+			if(streamingCursors == 0)
 			{
-				throw new RuntimeException(ex);
+				try
+				{
+					con.setAutoCommit( true );
+				}
+				catch ( final SQLException ex )
+				{
+					Logging.getLogger().error( "JDBCStore", "Failed to re-enable auto-commit!");
+					Logging.getLogger().error( "JDBCStore", ex);
+				}
 			}
-		});
+		}
+	}
+
+	/**
+	 * The returned stream closes the result-set (and its statement) when it is read to the end, closed or becomes unreachable
+	 * @param res the result-set to stream
+	 * @param mapper the function reading the current row
+	 * @param characteristics the characteristics of the stream
+	 * @param afterClose the action to run after the result-set is closed
+	 * @return the stream of rows
+	 */
+	@Nonnull
+	@WillNotClose
+	private static <T> Stream<T> resultStream(@Nonnull final ResultSet res, @Nonnull final ThrowingFunction<ResultSet, T, SQLException> mapper,
+			final int characteristics, @Nonnull final Runnable afterClose)
+	{
+		final ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(res, mapper, characteristics, afterClose);
+		return StreamSupport.stream( spliterator, false).onClose( spliterator::close );
 	}
 
 	@Override
@@ -907,7 +1308,9 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 			{
 				stm.setObject( i+1, values[i]);
 			}
-			return stm.executeUpdate() == 1;
+			final boolean added = stm.executeUpdate() == 1;
+			modifications.modified( tableName);
+			return added;
 		}
 		catch ( final SQLException ex )
 		{
@@ -930,7 +1333,9 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 			{
 				fillStatement(stm, cond);
 			}
-			return stm.executeUpdate() >= 1;
+			final boolean removed = stm.executeUpdate() >= 1;
+			modifications.modified( tableName);
+			return removed;
 		}
 		catch ( final SQLException ex )
 		{
@@ -941,6 +1346,22 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 		}
 	}
 
+	@Override
+	public long getModificationCount( final String tableName )
+	{
+		return modifications.getModificationCount( tableName );
+	}
+
+	/**
+	 * Must be called after the rows of the table were modified
+	 * @param tableName the name of the modified table
+	 * @since 0.9
+	 */
+	protected void tableModified(@Nonnull final String tableName)
+	{
+		modifications.modified( tableName );
+	}
+
 	@Override
 	public boolean dropTable( String tableName ) throws SQLException
 	{
@@ -963,4 +1384,95 @@ public class SimpleJDBCRecordStore implements JDBCRecordStore
 		}
 		return true;
 	}
+
+	/**
+	 * Spliterator reading the rows of a result-set, which is closed as soon as it is no longer needed
+	 */
+	private static final class ResultSetSpliterator<T> implements Spliterator<T>
+	{
+		@Nonnull
+		private final ResultSet res;
+		@Nonnull
+		private final ThrowingFunction<ResultSet, T, SQLException> mapper;
+		private final int characteristics;
+		@Nonnull
+		private final ResourceCleaner.Cleanable cleanable;
+
+		ResultSetSpliterator(@Nonnull final ResultSet res, @Nonnull final ThrowingFunction<ResultSet, T, SQLException> mapper,
+				final int characteristics, @Nonnull final Runnable afterClose)
+		{
+			this.res = res;
+			this.mapper = mapper;
+			this.characteristics = characteristics;
+			//the clean-up action must not reference this spliterator
+			this.cleanable = ResourceCleaner.register( this, () -> closeResultSet( res, afterClose ));
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super T> action )
+		{
+			if(cleanable.isCleaned())
+			{
+				return false;
+			}
+			try
+			{
+				if(!res.next())
+				{
+					//result-set is no longer needed, can be closed
+					close();
+					return false;
+				}
+				action.accept( mapper.apply( res ));
+				return true;
+			}
+			catch ( final SQLException ex )
+			{
+				Logging.getLogger().error( "JDBCStore", "Failed to read next row!");
+				Logging.getLogger().error( "JDBCStore", ex);
+				close();
+				throw new IllegalArgumentException(ex);
+			}
+		}
+
+		@Override
+		public Spliterator<T> trySplit()
+		{
+			return null;
+		}
+
+		@Override
+		public long estimateSize()
+		{
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics()
+		{
+			return characteristics;
+		}
+
+		void close()
+		{
+			cleanable.clean();
+		}
+
+		private static void closeResultSet(@Nonnull final ResultSet res, @Nonnull final Runnable afterClose)
+		{
+			try
+			{
+				res.close();
+			}
+			catch ( final SQLException ex )
+			{
+				Logging.getLogger().error( "JDBCStore", "Failed to close result-set!");
+				Logging.getLogger().error( "JDBCStore", ex);
+			}
+			finally
+			{
+				afterClose.run();
+			}
+		}
+	}
 }
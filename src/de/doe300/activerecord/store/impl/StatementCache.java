@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.logging.Logging;
+import de.doe300.activerecord.util.Pair;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Bounded LRU-cache for the prepared statements of a single connection, keyed by their SQL.
+ * 
+ * A statement is removed from the cache while it is in use and put back afterwards, so a statement is never used by two threads at once.
+ * If another thread requests the same SQL in the meantime, a new statement is prepared.
+ *
+ * @author doe300
+ * @since 0.9
+ */
+@ThreadSafe
+class StatementCache implements AutoCloseable
+{
+	/**
+	 * The default number of statements to cache per connection
+	 */
+	static final int DEFAULT_CAPACITY = 64;
+	
+	private final int capacity;
+	@Nonnull
+	private final CacheCounters counters;
+	private final LinkedHashMap<Pair<String, Integer>, PreparedStatement> statements;
+	private boolean closed;
+
+	/**
+	 * @param capacity the maximum number of cached statements
+	 * @param counters the counters to update
+	 */
+	StatementCache(@Nonnegative final int capacity, @Nonnull final CacheCounters counters)
+	{
+		this.capacity = capacity;
+		this.counters = counters;
+		this.statements = new LinkedHashMap<>(capacity, 0.75f, true);
+		counters.capacityChanged( capacity );
+	}
+
+	/**
+	 * Takes the statement out of the cache. The statement must be either {@link #release(java.lang.String, int, java.sql.PreparedStatement) released}
+	 * or {@link #discard(java.sql.PreparedStatement) discarded} after use
+	 * @param sql the SQL of the statement
+	 * @param autoGeneratedKeys one of {@link java.sql.Statement#RETURN_GENERATED_KEYS} or {@link java.sql.Statement#NO_GENERATED_KEYS}
+	 * @return the cached statement or <code>null</code>, if there is no cached statement for the given SQL
+	 * @throws SQLException 
+	 */
+	@Nullable
+	PreparedStatement acquire(@Nonnull final String sql, final int autoGeneratedKeys) throws SQLException
+	{
+		final PreparedStatement stmt;
+		synchronized(statements)
+		{
+			stmt = statements.remove( Pair.createPair( sql, autoGeneratedKeys));
+		}
+		if(stmt != null)
+		{
+			counters.sizeChanged( -1 );
+			if(!stmt.isClosed())
+			{
+				counters.hit();
+				return stmt;
+			}
+		}
+		counters.miss();
+		return null;
+	}
+
+	/**
+	 * Puts the statement back into the cache, evicting the least recently used statement, if the capacity is exceeded
+	 * @param sql the SQL of the statement
+	 * @param autoGeneratedKeys the flag the statement was prepared with
+	 * @param stmt the statement to release
+	 */
+	void release(@Nonnull final String sql, final int autoGeneratedKeys, @Nonnull final PreparedStatement stmt)
+	{
+		final Pair<String, Integer> key = Pair.createPair( sql, autoGeneratedKeys);
+		synchronized(statements)
+		{
+			if(!closed && !statements.containsKey( key ))
+			{
+				statements.put( key, stmt );
+				counters.sizeChanged( 1 );
+				if(statements.size() > capacity)
+				{
+					final Iterator<PreparedStatement> eldest = statements.values().iterator();
+					discard( eldest.next() );
+					eldest.remove();
+					counters.sizeChanged( -1 );
+					counters.evicted();
+				}
+				return;
+			}
+		}
+		discard( stmt );
+	}
+
+	/**
+	 * Closes the statement without putting it back into the cache, e.g. after it failed to execute
+	 * @param stmt the statement to close
+	 */
+	void discard(@Nonnull final PreparedStatement stmt)
+	{
+		try
+		{
+			stmt.close();
+		}
+		catch(final SQLException e)
+		{
+			Logging.getLogger().error( "JDBCStore", "Failed to close cached statement");
+			Logging.getLogger().error( "JDBCStore", e);
+		}
+	}
+
+	/**
+	 * Closes all cached statements
+	 */
+	void clear()
+	{
+		synchronized(statements)
+		{
+			statements.values().forEach( this::discard);
+			counters.sizeChanged( -statements.size());
+			statements.clear();
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		synchronized(statements)
+		{
+			clear();
+			if(!closed)
+			{
+				closed = true;
+				counters.capacityChanged( -capacity );
+			}
+		}
+	}
+}
@@ -62,31 +62,6 @@ final class StatementUtil
 		return preparedSQL;
 	}
 	
-	/**
-	 * Converts a SQL-statement with host-parameters ("?") into a SQL-statement without parameters by directly replacing
-	 * the parameters with their corresponding values
-	 * 
-	 * @param driver the JDBC driver to use
-	 * @param sql the prepared statement including host-parameters ("?")
-	 * @param values
-	 * @return the resulting statement
-	 * @throws IllegalArgumentException if an unsupported value-type is encountered
-	 */
-	@Nonnull
-	static String prepareUpdate(@Nonnull final JDBCDriver driver, @Nonnull final String sql, @Nullable final Object... values)
-	{
-		if(values == null || values.length == 0)
-		{
-			return sql;
-		}
-		String resultSQL = sql;
-		for(final Object val : values)
-		{
-			resultSQL = replaceNext(driver, resultSQL, val);
-		}
-		return resultSQL;
-	}
-	
 	private static String replaceNext(@Nonnull final JDBCDriver driver, @Nonnull final String sql, @Nullable final Object value)
 	{
 		if(value == null)
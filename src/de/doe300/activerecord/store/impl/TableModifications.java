@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.store.RecordStore;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The modification-counts of the tables of one or multiple record-stores accessing the same data-base
+ *
+ * @author doe300
+ * @since 0.9
+ * @see RecordStore#getModificationCount(java.lang.String) 
+ */
+@ThreadSafe
+class TableModifications
+{
+	private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>(16);
+
+	/**
+	 * Must be called after the table was modified
+	 * @param tableName the name of the modified table
+	 */
+	void modified(@Nonnull final String tableName)
+	{
+		counts.computeIfAbsent( tableName.toLowerCase(), (final String t) -> new AtomicLong(0)).incrementAndGet();
+	}
+
+	@Nonnegative
+	long getModificationCount(@Nonnull final String tableName)
+	{
+		final AtomicLong count = counts.get( tableName.toLowerCase());
+		return count == null ? 0 : count.get();
+	}
+}
@@ -26,8 +26,10 @@ package de.doe300.activerecord.store.impl;
 
 import de.doe300.activerecord.RecordBase;
 import de.doe300.activerecord.util.Pair;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -43,11 +45,16 @@ class WriteBack
 {
 	private final RecordBase<?> base;
 	private final Map<Integer, Map<String, Object>> data;
+	/**
+	 * The rows written back, to be marked as synchronized once the data is written
+	 */
+	private final List<RowCache> rows;
 
 	WriteBack(@Nonnull final RecordBase<?> base)
 	{
 		this.base = base;
 		this.data = new HashMap<>(10);
+		this.rows = new ArrayList<>(10);
 	}
 	
 	synchronized void addRow(@Nonnegative final int primaryKey, @Nonnull final Map<String, Object> rowData)
@@ -55,6 +62,31 @@ class WriteBack
 		data.put( primaryKey, new HashMap<>(rowData) );
 	}
 	
+	/**
+	 * Adds the modified data of a cached row, which keeps its modifications until {@link #writtenBack() } is called
+	 * @param row the cached row
+	 * @param rowData the modified data
+	 * @since 0.9
+	 */
+	synchronized void addRow(@Nonnull final RowCache row, @Nonnull final Map<String, Object> rowData)
+	{
+		addRow( row.getPrimaryKey(), rowData );
+		rows.add( row );
+	}
+	
+	/**
+	 * Marks the data of all cached rows as written back. Must only be called after the data was successfully written.
+	 * If the write-back fails, the rows keep their modifications to be written back later.
+	 * @since 0.9
+	 */
+	synchronized void writtenBack()
+	{
+		for(final RowCache row : rows)
+		{
+			row.writtenBack( data.get( row.getPrimaryKey()) );
+		}
+	}
+	
 	@Nonnull
 	synchronized Iterator<Pair<Integer, Map<String, Object>>> iterator()
 	{
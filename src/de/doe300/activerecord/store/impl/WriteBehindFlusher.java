@@ -0,0 +1,204 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.logging.Logging;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Background-thread periodically writing the modified rows of a {@link CachedJDBCRecordStore} back into the database.
+ * 
+ * The modified rows are flushed either after the flush-interval passed or as soon as the number of modified rows
+ * reaches the flush-threshold. If the number of modified rows exceeds the maximum, the modifying threads are blocked until
+ * the rows are written back.
+ *
+ * @author doe300
+ * @since 0.9
+ */
+@ThreadSafe
+class WriteBehindFlusher implements Runnable, AutoCloseable
+{
+	private final CachedJDBCRecordStore store;
+	@Nonnegative
+	private final long flushInterval;
+	@Nonnegative
+	private final int flushThreshold;
+	@Nonnegative
+	private final int maxModifiedRows;
+	private final Thread thread;
+	private final Object monitor = new Object();
+	private boolean flushRequested = false;
+	private volatile boolean running = true;
+	private volatile RuntimeException lastError = null;
+
+	/**
+	 * @param store the store to flush
+	 * @param flushInterval the maximum time in milliseconds, modified rows are kept before being written back
+	 * @param flushThreshold the number of modified rows to immediately trigger a flush
+	 * @param maxModifiedRows the maximum number of modified rows before blocking modifying threads
+	 */
+	WriteBehindFlusher(@Nonnull final CachedJDBCRecordStore store, @Nonnegative final long flushInterval, 
+			@Nonnegative final int flushThreshold, @Nonnegative final int maxModifiedRows)
+	{
+		this.store = store;
+		this.flushInterval = flushInterval;
+		this.flushThreshold = flushThreshold;
+		this.maxModifiedRows = Math.max( flushThreshold, maxModifiedRows);
+		this.thread = new Thread(this, "write-behind-flusher");
+		thread.setDaemon( true );
+		thread.start();
+	}
+
+	@Override
+	public void run()
+	{
+		while(running)
+		{
+			synchronized(monitor)
+			{
+				if(!flushRequested)
+				{
+					try
+					{
+						monitor.wait( flushInterval );
+					}
+					catch ( final InterruptedException ex )
+					{
+						//closing
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+				flushRequested = false;
+			}
+			if(!running)
+			{
+				return;
+			}
+			try
+			{
+				//don't use CachedJDBCRecordStore#flush(), which would rethrow the error of the previous cycle
+				store.writeBack();
+				//the rows failed to write before are written now
+				lastError = null;
+			}
+			catch(final RuntimeException e)
+			{
+				//the rows stay modified and are written with the next flush
+				Logging.getLogger().error( "CachedJDBCStore", "Failed to write back modified rows!");
+				Logging.getLogger().error( "CachedJDBCStore", e);
+				lastError = e;
+			}
+			synchronized(monitor)
+			{
+				//wake up blocked modifying threads
+				monitor.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Called after a row was modified. Triggers a flush, if the flush-threshold is reached and blocks, until the number of
+	 * modified rows drops beneath the maximum.
+	 * 
+	 * @param numModifiedRows the current number of modified rows
+	 * @throws RuntimeException if the last write-back failed
+	 */
+	void afterModification(@Nonnegative final int numModifiedRows) throws RuntimeException
+	{
+		rethrowError();
+		if(numModifiedRows < flushThreshold)
+		{
+			return;
+		}
+		requestFlush();
+		if(numModifiedRows <= maxModifiedRows || Thread.currentThread() == thread)
+		{
+			return;
+		}
+		//back-pressure
+		synchronized(monitor)
+		{
+			while(running && store.getModifiedRowCount() > maxModifiedRows)
+			{
+				flushRequested = true;
+				monitor.notifyAll();
+				try
+				{
+					monitor.wait( flushInterval );
+				}
+				catch ( final InterruptedException ex )
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+				rethrowError();
+			}
+		}
+	}
+
+	/**
+	 * Rethrows and resets the error of the last failed background write-back, if any
+	 * @throws RuntimeException the error of the last write-back
+	 */
+	void rethrowError() throws RuntimeException
+	{
+		final RuntimeException error = lastError;
+		if(error != null)
+		{
+			lastError = null;
+			throw error;
+		}
+	}
+
+	private void requestFlush()
+	{
+		synchronized(monitor)
+		{
+			flushRequested = true;
+			monitor.notifyAll();
+		}
+	}
+
+	/**
+	 * Stops the background-thread and waits for the write-back in progress to finish
+	 */
+	@Override
+	public void close()
+	{
+		running = false;
+		requestFlush();
+		try
+		{
+			thread.join();
+		}
+		catch(final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,510 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 doe300
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.doe300.activerecord.store.impl.memory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Storage for all values of a single column of a {@link MemoryTable}, addressed by the row-ordinal.
+ * 
+ * Numeric columns are stored in primitive arrays with a bitmap marking the non-null values, Strings are
+ * dictionary-encoded and all other types are stored as objects.
+ * 
+ * NOTE: column-vectors are not thread-safe, writes need to be synchronized by the table.
+ *
+ * @author doe300
+ * @since 0.9
+ */
+abstract class ColumnVector
+{
+	protected static final int INITIAL_CAPACITY = 64;
+	
+	/**
+	 * @param type the column-type
+	 * @return a new vector for the given type
+	 */
+	@Nonnull
+	static ColumnVector forType(@Nonnull final Class<?> type)
+	{
+		if(Integer.class.equals( type))
+		{
+			return new IntVector();
+		}
+		if(Long.class.equals( type))
+		{
+			return new LongVector();
+		}
+		if(Double.class.equals( type))
+		{
+			return new DoubleVector();
+		}
+		if(String.class.equals( type))
+		{
+			return new StringVector();
+		}
+		return new ObjectVector();
+	}
+
+	/**
+	 * @param row the row-ordinal
+	 * @return the value stored for the row
+	 */
+	@Nullable
+	public abstract Object get(@Nonnegative final int row);
+
+	/**
+	 * @param row the row-ordinal
+	 * @param value the already checked value
+	 */
+	public abstract void set(@Nonnegative final int row, @Nullable final Object value);
+	
+	/**
+	 * @param rows the row-ordinals to check
+	 * @return the number of non-null values in the given rows
+	 */
+	public long countNotNull(@Nonnull final BitSet rows)
+	{
+		long count = 0;
+		for(int row = rows.nextSetBit( 0); row >= 0; row = rows.nextSetBit( row + 1))
+		{
+			if(get( row) != null)
+			{
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Nonnegative
+	protected static int grow(@Nonnegative final int capacity, @Nonnegative final int row)
+	{
+		int newCapacity = Math.max( capacity, INITIAL_CAPACITY);
+		while(newCapacity <= row)
+		{
+			newCapacity = newCapacity + (newCapacity >> 1);
+		}
+		return newCapacity;
+	}
+	
+	/**
+	 * Column-vector for numeric values stored in a primitive array
+	 */
+	abstract static class NumericVector extends ColumnVector
+	{
+		/**
+		 * The rows with non-null values
+		 */
+		protected final BitSet present = new BitSet(INITIAL_CAPACITY);
+
+		@Override
+		public long countNotNull(@Nonnull final BitSet rows)
+		{
+			final BitSet nonNull = ( BitSet ) present.clone();
+			nonNull.and( rows );
+			return nonNull.cardinality();
+		}
+		
+		/**
+		 * @param rows
+		 * @return the non-null rows out of the given rows
+		 */
+		@Nonnull
+		protected BitSet getPresentRows(@Nonnull final BitSet rows)
+		{
+			final BitSet nonNull = ( BitSet ) present.clone();
+			nonNull.and( rows );
+			return nonNull;
+		}
+		
+		/**
+		 * @param rows
+		 * @return the sum of the {@link Number#longValue() long-values} of all non-null values
+		 * @see de.doe300.activerecord.dsl.functions.Sum
+		 */
+		public abstract long sumLong(@Nonnull final BitSet rows);
+		
+		/**
+		 * @param rows
+		 * @return the sum of the {@link Number#doubleValue() double-values} of all non-null values
+		 * @see de.doe300.activerecord.dsl.functions.SumDouble
+		 */
+		public abstract double sumDouble(@Nonnull final BitSet rows);
+		
+		/**
+		 * @param rows
+		 * @param maximum whether to determine the maximum or the minimum
+		 * @return the minimum/maximum of all non-null values or <code>null</code> if there are none
+		 */
+		@Nullable
+		public abstract Number extremum(@Nonnull final BitSet rows, final boolean maximum);
+	}
+	
+	static final class IntVector extends NumericVector
+	{
+		private int[] values = new int[INITIAL_CAPACITY];
+
+		@Override
+		public Object get( final int row )
+		{
+			return present.get( row) ? values[row] : null;
+		}
+
+		@Override
+		public void set( final int row, final Object value )
+		{
+			if(value == null)
+			{
+				present.clear( row);
+				return;
+			}
+			if(row >= values.length)
+			{
+				values = Arrays.copyOf( values, grow( values.length, row));
+			}
+			values[row] = (Integer)value;
+			present.set( row);
+		}
+
+		@Override
+		public long sumLong(final BitSet rows )
+		{
+			final BitSet nonNull = getPresentRows( rows );
+			final int[] vals = values;
+			long sum = 0;
+			for(int row = nonNull.nextSetBit( 0); row >= 0; row = nonNull.nextSetBit( row + 1))
+			{
+				sum += vals[row];
+			}
+			return sum;
+		}
+
+		@Override
+		public double sumDouble(final BitSet rows )
+		{
+			return sumLong( rows );
+		}
+
+		@Override
+		public Number extremum(final BitSet rows, final boolean maximum )
+		{
+			final BitSet nonNull = getPresentRows( rows );
+			final int[] vals = values;
+			boolean found = false;
+			int result = 0;
+			for(int row = nonNull.nextSetBit( 0); row >= 0; row = nonNull.nextSetBit( row + 1))
+			{
+				if(!found || (maximum ? vals[row] > result : vals[row] < result))
+				{
+					result = vals[row];
+					found = true;
+				}
+			}
+			return found ? (Number)result : null;
+		}
+	}
+	
+	static final class LongVector extends NumericVector
+	{
+		private long[] values = new long[INITIAL_CAPACITY];
+
+		@Override
+		public Object get( final int row )
+		{
+			return present.get( row) ? values[row] : null;
+		}
+
+		@Override
+		public void set( final int row, final Object value )
+		{
+			if(value == null)
+			{
+				present.clear( row);
+				return;
+			}
+			if(row >= values.length)
+			{
+				values = Arrays.copyOf( values, grow( values.length, row));
+			}
+			values[row] = (Long)value;
+			present.set( row);
+		}
+
+		@Override
+		public long sumLong(final BitSet rows )
+		{
+			final BitSet nonNull = getPresentRows( rows );
+			final long[] vals = values;
+			long sum = 0;
+			for(int row = nonNull.nextSetBit( 0); row >= 0; row = nonNull.nextSetBit( row + 1))
+			{
+				sum += vals[row];
+			}
+			return sum;
+		}
+
+		@Override
+		public double sumDouble(final BitSet rows )
+		{
+			final BitSet nonNull = getPresentRows( rows );
+			final long[] vals = values;
+			double sum = 0;
+			for(int row = nonNull.nextSetBit( 0); row >= 0; row = nonNull.nextSetBit( row + 1))
+			{
+				sum += vals[row];
+			}
+			return sum;
+		}
+
+		@Override
+		public Number extremum(final BitSet rows, final boolean maximum )
+		{
+			final BitSet nonNull = getPresentRows( rows );
+			final long[] vals = values;
+			boolean found = false;
+			long result = 0;
+			for(int row = nonNull.nextSetBit( 0); row >= 0; row = nonNull.nextSetBit( row + 1))
+			{
+				if(!found || (maximum ? vals[row] > result : vals[row] < result))
+				{
+					result = vals[row];
+					found = true;
+				}
+			}
+			return found ? (Number)result : null;
+		}
+	}
+	
+	static final class DoubleVector extends NumericVector
+	{
+		private double[] values = new double[INITIAL_CAPACITY];
+
+		@Override
+		public Object get( final int row )
+		{
+			return present.get( row) ? values[row] : null;
+		}
+
+		@Override
+		public void set( final int row, final Object value )
+		{
+			if(value == null)
+			{
+				present.clear( row);
+				return;
+			}
+			if(row >= values.length)
+			{
+				values = Arrays.copyOf( values, grow( values.length, row));
+			}
+			values[row] = (Double)value;
+			present.set( row);
+		}
+
+		@Override
+		public long sumLong(final BitSet rows )
+		{
+			final BitSet nonNull = getPresentRows( rows );
+			final double[] vals = values;
+			long sum = 0;
+			for(int row = nonNull.nextSetBit( 0); row >= 0; row = nonNull.nextSetBit( row + 1))
+			{
+				sum += (long)vals[row];
+			}
+			return sum;
+		}
+
+		@Override
+		public double sumDouble(final BitSet rows )
+		{
+			final BitSet nonNull = getPresentRows( rows );
+			final double[] vals = values;
+			double sum = 0;
+			for(int row = nonNull.nextSetBit( 0); row >= 0; row = nonNull.nextSetBit( row + 1))
+			{
+				sum += vals[row];
+			}
+			return sum;
+		}
+
+		@Override
+		public Number extremum(final BitSet rows, final boolean maximum )
+		{
+			final BitSet nonNull = getPresentRows( rows );
+			final double[] vals = values;
+			boolean found = false;
+			double result = 0;
+			for(int row = nonNull.nextSetBit( 0); row >= 0; row = nonNull.nextSetBit( row + 1))
+			{
+				//uses the same ordering as Double#compareTo
+				if(!found || (maximum ? Double.compare( vals[row], result) > 0 : Double.compare( vals[row], result) < 0))
+				{
+					result = vals[row];
+					found = true;
+				}
+			}
+			return found ? (Number)result : null;
+		}
+	}
+	
+	/**
+	 * Dictionary-encoded strings. Every distinct string is only stored once, the rows only contain the index into the 
+	 * dictionary. Entries no longer used by any row are reused for new strings.
+	 */
+	static final class StringVector extends ColumnVector
+	{
+		private static final int NULL_CODE = -1;
+		private int[] codes = new int[INITIAL_CAPACITY];
+		private final List<String> dictionary = new ArrayList<>(INITIAL_CAPACITY);
+		private final Map<String, Integer> lookup = new HashMap<>(INITIAL_CAPACITY);
+		private int[] usages = new int[INITIAL_CAPACITY];
+		private final Deque<Integer> freeCodes = new ArrayDeque<>(16);
+
+		StringVector()
+		{
+			Arrays.fill( codes, NULL_CODE);
+		}
+		
+		@Override
+		public Object get( final int row )
+		{
+			final int[] c = codes;
+			if(row >= c.length || c[row] == NULL_CODE)
+			{
+				return null;
+			}
+			return dictionary.get( c[row]);
+		}
+
+		@Override
+		public void set( final int row, final Object value )
+		{
+			if(row >= codes.length)
+			{
+				final int oldLength = codes.length;
+				final int[] newCodes = Arrays.copyOf( codes, grow( oldLength, row));
+				Arrays.fill( newCodes, oldLength, newCodes.length, NULL_CODE);
+				codes = newCodes;
+			}
+			release( codes[row]);
+			codes[row] = value == null ? NULL_CODE : acquire( (String)value);
+		}
+
+		@Override
+		public long countNotNull(final BitSet rows )
+		{
+			final int[] c = codes;
+			long count = 0;
+			for(int row = rows.nextSetBit( 0); row >= 0 && row < c.length; row = rows.nextSetBit( row + 1))
+			{
+				if(c[row] != NULL_CODE)
+				{
+					count++;
+				}
+			}
+			return count;
+		}
+		
+		/**
+		 * @return the number of distinct strings stored
+		 */
+		@Nonnegative
+		int getDictionarySize()
+		{
+			return lookup.size();
+		}
+		
+		private int acquire(@Nonnull final String value)
+		{
+			Integer code = lookup.get( value);
+			if(code == null)
+			{
+				if(freeCodes.isEmpty())
+				{
+					code = dictionary.size();
+					dictionary.add( value );
+					if(code >= usages.length)
+					{
+						usages = Arrays.copyOf( usages, grow( usages.length, code));
+					}
+				}
+				else
+				{
+					code = freeCodes.pop();
+					dictionary.set( code, value);
+				}
+				lookup.put( value, code);
+			}
+			usages[code]++;
+			return code;
+		}
+		
+		private void release(final int code)
+		{
+			if(code == NULL_CODE)
+			{
+				return;
+			}
+			usages[code]--;
+			if(usages[code] == 0)
+			{
+				lookup.remove( dictionary.get( code));
+				dictionary.set( code, null);
+				freeCodes.push( code);
+			}
+		}
+	}
+	
+	static final class ObjectVector extends ColumnVector
+	{
+		private Object[] values = new Object[INITIAL_CAPACITY];
+
+		@Override
+		public Object get( final int row )
+		{
+			final Object[] vals = values;
+			return row < vals.length ? vals[row] : null;
+		}
+
+		@Override
+		public void set( final int row, final Object value )
+		{
+			if(row >= values.length)
+			{
+				values = Arrays.copyOf( values, grow( values.length, row));
+			}
+			values[row] = value;
+		}
+	}
+}
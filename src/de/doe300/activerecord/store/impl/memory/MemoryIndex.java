@@ -0,0 +1,299 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 doe300
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.doe300.activerecord.store.impl.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Secondary index over one or more columns of a {@link MemoryTable}.
+ * 
+ * The index maintains a hash-map over the values of all its columns for equality-lookups and a sorted map over the values
+ * of the first column for range-lookups and ordered traversal. 
+ * For the hash-map, numeric values are normalized to allow for the same cross-type comparisons as the conditions, 
+ * so any lookup may return more rows than actually match and the conditions need to be re-checked.
+ * If the values of the first column are not mutually comparable, the sorted map is dropped.
+ * 
+ * NOTE: the index is not thread-safe, modifications need to be guarded by the table
+ *
+ * @author doe300
+ * @since 0.9
+ */
+class MemoryIndex
+{
+	@Nonnull
+	private final String name;
+	@Nonnull
+	private final String[] columns;
+	private final Map<Object, Set<Integer>> hashIndex;
+	/**
+	 * The rows for every value are kept in the order of their primary keys
+	 */
+	@Nullable
+	private NavigableMap<Object, Set<Integer>> sortedIndex;
+	/**
+	 * Rows with a <code>null</code>-value in the first column, which are not part of the sorted index
+	 */
+	private final Set<Integer> nullRows;
+
+	MemoryIndex(@Nonnull final String name, @Nonnull final String[] columns)
+	{
+		this.name = name;
+		this.columns = columns;
+		this.hashIndex = new HashMap<>(16);
+		this.sortedIndex = new TreeMap<>();
+		this.nullRows = new TreeSet<>();
+	}
+
+	/**
+	 * @return the name of the index
+	 */
+	@Nonnull
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * @return the indexed columns, the first column is the one the rows are sorted by
+	 */
+	@Nonnull
+	public String[] getColumns()
+	{
+		return columns;
+	}
+
+	/**
+	 * Adds the row to the index
+	 * @param primaryKey
+	 * @param row
+	 */
+	public void add(final int primaryKey, @Nonnull final MemoryRow row)
+	{
+		hashIndex.computeIfAbsent( toHashKey( row ), (final Object o) -> new HashSet<>(4)).add( primaryKey );
+		final Object sortKey = row.getRowValue( columns[0]);
+		if(sortKey == null)
+		{
+			nullRows.add( primaryKey );
+		}
+		else if(sortedIndex != null)
+		{
+			try
+			{
+				sortedIndex.computeIfAbsent( sortKey, (final Object o) -> new TreeSet<>()).add( primaryKey );
+			}
+			catch(final ClassCastException e)
+			{
+				sortedIndex = null;
+			}
+		}
+	}
+
+	/**
+	 * Removes the row from the index. Must be called before the indexed values of the row are changed
+	 * @param primaryKey
+	 * @param row 
+	 */
+	public void remove(final int primaryKey, @Nonnull final MemoryRow row)
+	{
+		removeFrom( hashIndex, toHashKey( row ), primaryKey);
+		final Object sortKey = row.getRowValue( columns[0]);
+		if(sortKey == null)
+		{
+			nullRows.remove( primaryKey );
+		}
+		else if(sortedIndex != null)
+		{
+			removeFrom( sortedIndex, sortKey, primaryKey );
+		}
+	}
+
+	/**
+	 * @param values the values for all columns of this index, in the order of the columns
+	 * @return the primary keys of all rows possibly matching the given values
+	 */
+	@Nonnull
+	public Set<Integer> findEquals(@Nonnull final Object[] values)
+	{
+		final Object key;
+		if(values.length == 1)
+		{
+			key = normalize( values[0]);
+		}
+		else
+		{
+			final List<Object> list = new ArrayList<>(values.length);
+			for(final Object value : values)
+			{
+				list.add( normalize( value ));
+			}
+			key = list;
+		}
+		final Set<Integer> rows = hashIndex.get( key );
+		return rows == null ? Collections.emptySet() : new HashSet<>(rows);
+	}
+
+	/**
+	 * @return whether this index supports range-lookups and ordered traversal
+	 */
+	public boolean isSorted()
+	{
+		return sortedIndex != null;
+	}
+
+	/**
+	 * @param from the lower bound or <code>null</code> for no lower bound
+	 * @param fromInclusive whether the lower bound is included
+	 * @param to the upper bound or <code>null</code> for no upper bound
+	 * @param toInclusive whether the upper bound is included
+	 * @return the primary keys of all rows with their first column within the given range
+	 * @throws ClassCastException if the bounds are not comparable to the indexed values
+	 * @see #isSorted() 
+	 */
+	@Nonnull
+	public Set<Integer> findRange(@Nullable final Object from, final boolean fromInclusive, @Nullable final Object to,
+			final boolean toInclusive) throws ClassCastException
+	{
+		final NavigableMap<Object, Set<Integer>> range = getRange( from, fromInclusive, to, toInclusive );
+		final Set<Integer> rows = new HashSet<>(Math.max( 16, range.size()));
+		range.values().forEach( rows::addAll);
+		return rows;
+	}
+	
+	/**
+	 * @param from the lower bound or <code>null</code> for no lower bound
+	 * @param fromInclusive whether the lower bound is included
+	 * @param to the upper bound or <code>null</code> for no upper bound
+	 * @param toInclusive whether the upper bound is included
+	 * @param descending whether to list the rows in descending order
+	 * @return the primary keys of all rows with their first column within the given range, ordered by the value of the first column
+	 *	and the primary key for rows with the same value
+	 * @throws ClassCastException if the bounds are not comparable to the indexed values
+	 * @see #isSorted() 
+	 */
+	@Nonnull
+	public List<Integer> findOrderedRange(@Nullable final Object from, final boolean fromInclusive, @Nullable final Object to,
+			final boolean toInclusive, final boolean descending) throws ClassCastException
+	{
+		final NavigableMap<Object, Set<Integer>> range = getRange( from, fromInclusive, to, toInclusive );
+		final List<Integer> rows = new ArrayList<>(Math.max( 16, range.size()));
+		(descending ? range.descendingMap() : range).values().forEach( rows::addAll);
+		return rows;
+	}
+	
+	@Nonnull
+	private NavigableMap<Object, Set<Integer>> getRange(@Nullable final Object from, final boolean fromInclusive, @Nullable final Object to,
+			final boolean toInclusive) throws ClassCastException
+	{
+		NavigableMap<Object, Set<Integer>> range = Objects.requireNonNull( sortedIndex);
+		if(from != null)
+		{
+			range = range.tailMap( from, fromInclusive);
+		}
+		if(to != null)
+		{
+			range = range.headMap( to, toInclusive);
+		}
+		return range;
+	}
+
+	/**
+	 * @param descending whether to list the rows in descending order
+	 * @return the primary keys of all rows, ordered by the value of the first column and the primary key for rows with the same value. 
+	 *	<code>null</code>-values are sorted lower than any other value, so these rows come first in ascending and last in descending order
+	 * @see #isSorted() 
+	 * @see de.doe300.activerecord.dsl.Order#compare(java.util.Map, java.util.Map) 
+	 */
+	@Nonnull
+	public List<Integer> getOrderedRows(final boolean descending)
+	{
+		final NavigableMap<Object, Set<Integer>> sorted = Objects.requireNonNull( sortedIndex);
+		final List<Integer> rows = new ArrayList<>(hashIndex.size() + nullRows.size());
+		if(!descending)
+		{
+			rows.addAll( nullRows );
+		}
+		(descending ? sorted.descendingMap() : sorted).values().forEach( rows::addAll);
+		if(descending)
+		{
+			rows.addAll( nullRows );
+		}
+		return rows;
+	}
+
+	@Nullable
+	private Object toHashKey(@Nonnull final MemoryRow row)
+	{
+		if(columns.length == 1)
+		{
+			return normalize( row.getRowValue( columns[0]));
+		}
+		final List<Object> key = new ArrayList<>(columns.length);
+		for(final String column : columns)
+		{
+			key.add( normalize( row.getRowValue( column)));
+		}
+		return key;
+	}
+
+	private static void removeFrom(@Nonnull final Map<Object, Set<Integer>> index, @Nullable final Object key, final int primaryKey)
+	{
+		final Set<Integer> rows = index.get( key );
+		if(rows != null)
+		{
+			rows.remove( primaryKey );
+			if(rows.isEmpty())
+			{
+				index.remove( key );
+			}
+		}
+	}
+
+	/**
+	 * Numbers of different types are compared by their double-value, see {@link de.doe300.activerecord.dsl.Comparison#IS}
+	 */
+	@Nullable
+	private static Object normalize(@Nullable final Object value)
+	{
+		if(value instanceof Number)
+		{
+			final double d = ((Number)value).doubleValue();
+			//0.0 == -0.0, but they are not equal as Double-objects
+			return d == 0.0 ? 0.0 : d;
+		}
+		return value;
+	}
+}
@@ -32,6 +32,7 @@ import javax.annotation.Nonnull;
 import de.doe300.activerecord.jdbc.driver.JDBCDriver;
 import de.doe300.activerecord.logging.Logging;
 import de.doe300.activerecord.migration.AutomaticMigration;
+import de.doe300.activerecord.migration.constraints.Index;
 import de.doe300.activerecord.record.ActiveRecord;
 
 /**
@@ -111,7 +112,8 @@ class MemoryMigration extends AutomaticMigration
 	{
 		Logging.getLogger().info( recordType != null ? recordType.getSimpleName() : tableName, "Creating memory-table...");
 		Logging.getLogger().info( recordType != null ? recordType.getSimpleName() : tableName, Arrays.toString( columns));
-		return memoryStore.addTable( tableName, columns, primaryColumn );
+		final Index[] indices = recordType != null ? recordType.getAnnotationsByType( Index.class) : new Index[0];
+		return memoryStore.addTable( tableName, columns, primaryColumn, indices );
 	}
 
 	@Override
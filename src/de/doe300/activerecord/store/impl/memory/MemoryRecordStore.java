@@ -26,10 +26,11 @@ package de.doe300.activerecord.store.impl.memory;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
@@ -38,6 +39,7 @@ import de.doe300.activerecord.RecordBase;
 import de.doe300.activerecord.dsl.AggregateFunction;
 import de.doe300.activerecord.dsl.Condition;
 import de.doe300.activerecord.dsl.Conditions;
+import de.doe300.activerecord.migration.constraints.Index;
 import de.doe300.activerecord.record.TimestampedRecord;
 import de.doe300.activerecord.scope.Scope;
 import de.doe300.activerecord.store.DBDriver;
@@ -64,7 +66,7 @@ public class MemoryRecordStore implements RecordStore
 	 */
 	public MemoryRecordStore()
 	{
-		this.tables = new TreeMap<>();
+		this.tables = new ConcurrentSkipListMap<>();
 		this.diagnostics = MemoryDBDriver.INSTANCE.createDiagnostics( this );
 	}
 
@@ -127,7 +129,8 @@ public class MemoryRecordStore implements RecordStore
 		{
 			if(recordBase.isAutoCreate())
 			{
-				if(new MemoryMigration(this, recordBase.getRecordType()).apply())
+				//the table may have been created concurrently
+				if(new MemoryMigration(this, recordBase.getRecordType()).apply() || tables.containsKey( recordBase.getTableName()))
 				{
 					return assertTableExists( recordBase.getTableName());
 				}
@@ -209,6 +212,25 @@ public class MemoryRecordStore implements RecordStore
 				() -> Pair.createPair(tableName, new Scope(Conditions.is( condColumn, condValue), null, Scope.NO_LIMIT))).get();
 	}
 
+	@Override
+	public Stream<Map<String, Object>> getValues( final String tableName, final String[] columns, final Condition condition ) throws
+	IllegalArgumentException
+	{
+		final MemoryTable table = assertTableExists( tableName );
+		assertColumnsExist( table, columns);
+		final Scope scope = new Scope(condition, null, Scope.NO_LIMIT);
+		return diagnostics.profileQuery( (ThrowingSupplier<Stream<Map<String, Object>>, IllegalArgumentException>)() -> 
+				table.findAllRows( scope ).map( (final Map.Entry<Integer, MemoryRow> e) -> {
+					final Map<String, Object> values = new HashMap<>(columns.length);
+					for(final String column : columns)
+					{
+						values.put( column, e.getValue().getRowValue( column));
+					}
+					return values;
+				}), 
+				() -> Pair.createPair(tableName, scope)).get();
+	}
+
 	@Override
 	public boolean addRow( final String tableName, final String[] columns, final Object[] values ) throws IllegalArgumentException
 	{
@@ -223,8 +245,8 @@ public class MemoryRecordStore implements RecordStore
 			}
 			data.put( columns[i], values[i]);
 		}
-		final int index = table.insertRow();
-		return table.putValues( index, data );
+		table.insertRow( data );
+		return !data.isEmpty();
 	}
 
 	@Override
@@ -240,6 +262,13 @@ public class MemoryRecordStore implements RecordStore
 		return false;
 	}
 
+	@Override
+	public long getModificationCount( final String tableName )
+	{
+		final MemoryTable table = tables.get( tableName);
+		return table == null ? 0 : table.getModificationCount();
+	}
+
 	@Override
 	public boolean save(final RecordBase<?> base, final int primaryKey )
 	{
@@ -278,14 +307,7 @@ public class MemoryRecordStore implements RecordStore
 		{
 			assertColumnsExist( table, columnData.keySet());
 		}
-		final int rowIndex = table.insertRow();
-		if(columnData != null)
-		{
-			for(final Map.Entry<String, Object> e : columnData.entrySet())
-			{
-				table.putValue( rowIndex, e.getKey(), e.getValue());
-			}
-		}
+		final int rowIndex = table.insertRow( columnData != null ? columnData : Collections.emptyMap());
 		updateTimestamps( base, rowIndex, true);
 		return rowIndex;
 	}
@@ -315,7 +337,7 @@ public class MemoryRecordStore implements RecordStore
 	{
 		final MemoryTable table = assertTableExists( base.getTableName() );
 		assertColumnsExist( table, columns);
-		final Scope effectiveScope = scope.getOrder() != null ? scope : new Scope(scope.getCondition(), base.getDefaultOrder(), scope.getLimit());
+		final Scope effectiveScope = scope.getOrder() != null ? scope : new Scope(scope.getCondition(), base.getDefaultOrder(), scope.getLimit(), scope.getFetchSize());
 		final Map.Entry<Integer, MemoryRow> row = diagnostics.profileQuery((ThrowingSupplier<Map.Entry<Integer, MemoryRow>, IllegalArgumentException>) () -> table.findFirstRow( effectiveScope), () -> Pair.createPair( base.getTableName(), effectiveScope)).get();
 		if(row != null)
 		{
@@ -329,16 +351,24 @@ public class MemoryRecordStore implements RecordStore
 	{
 		final MemoryTable table = assertTableExists( base.getTableName() );
 		assertColumnsExist( table, columns);
-		final Scope effectiveScope = scope.getOrder() != null ? scope : new Scope(scope.getCondition(), base.getDefaultOrder(), scope.getLimit());
+		final Scope effectiveScope = scope.getOrder() != null ? scope : new Scope(scope.getCondition(), base.getDefaultOrder(), scope.getLimit(), scope.getFetchSize());
 		return diagnostics.profileQuery((ThrowingSupplier<Stream<Map<String, Object>>, RuntimeException>) 
 				() -> table.findAllRows( effectiveScope ).map( (final Map.Entry<Integer, MemoryRow> e) -> e.getValue().getRowMap()), 
 				() -> Pair.createPair( base.getTableName(), effectiveScope) ).get();
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public <R> R aggregate(RecordBase<?> base, AggregateFunction<?, ?, ?, R> aggregateFunction, Condition condition )
 	{
 		final MemoryTable table = assertTableExists( base.getTableName() );
+		if(table.supportsAggregate( aggregateFunction ))
+		{
+			//the column-vectors compute the same result-types as the supported aggregate-functions
+			return diagnostics.profileQuery((ThrowingSupplier<R, RuntimeException>) 
+				() -> (R)table.aggregate( aggregateFunction, condition ), 
+				() -> Pair.createPair( base.getTableName(), new Scope(condition, null, Scope.NO_LIMIT))).get();
+		}
 		return diagnostics.profileQuery((ThrowingSupplier<R, RuntimeException>) 
 				() -> aggregateFunction.aggregate( table.findAllRows( new Scope(condition, null, Scope.NO_LIMIT)).
 				map( Map.Entry::getValue ).map(MemoryRow::getRowMap)), 
@@ -346,6 +376,25 @@ public class MemoryRecordStore implements RecordStore
 				() -> Pair.createPair( base.getTableName(), new Scope(condition, null, Scope.NO_LIMIT))).get();
 	}
 
+	@Override
+	public Object[] aggregateAll( RecordBase<?> base, AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, Condition condition )
+	{
+		final MemoryTable table = assertTableExists( base.getTableName() );
+		return diagnostics.profileQuery((ThrowingSupplier<Object[], RuntimeException>) 
+				() -> table.aggregateAll( aggregateFunctions, condition ), 
+				() -> Pair.createPair( base.getTableName(), new Scope(condition, null, Scope.NO_LIMIT))).get();
+	}
+
+	@Override
+	public Map<List<Object>, Object[]> aggregateGrouped( RecordBase<?> base, String[] groupColumns,
+			AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, Condition condition )
+	{
+		final MemoryTable table = assertTableExists( base.getTableName() );
+		return diagnostics.profileQuery((ThrowingSupplier<Map<List<Object>, Object[]>, RuntimeException>) 
+				() -> table.aggregateGrouped( groupColumns, aggregateFunctions, condition ), 
+				() -> Pair.createPair( base.getTableName(), new Scope(condition, null, Scope.NO_LIMIT))).get();
+	}
+
 	@Override
 	public void close() throws Exception
 	{
@@ -362,16 +411,13 @@ public class MemoryRecordStore implements RecordStore
 	 * @param tableName the name of the new table
 	 * @param columns the columns for the new table
 	 * @param primaryColumn the name of the column holding the primary-keys
+	 * @param indices the indices to maintain for the new table
 	 * @return whether the new table was added
 	 */
-	boolean addTable(@Nonnull final String tableName, @Nonnull final MemoryColumn[] columns, @Nonnull final String primaryColumn)
+	boolean addTable(@Nonnull final String tableName, @Nonnull final MemoryColumn[] columns, @Nonnull final String primaryColumn, 
+			@Nonnull final Index[] indices)
 	{
-		if(tables.containsKey( tableName))
-		{
-			return false;
-		}
-		tables.put( tableName, new MemoryTable(primaryColumn, columns));
-		return true;
+		return tables.putIfAbsent( tableName, new MemoryTable(primaryColumn, columns, indices)) == null;
 	}
 
 	boolean removeTable(@Nonnull final String tableName)
@@ -59,6 +59,15 @@ class MemoryRow
 		rowMap.put( primaryColumn, primaryKey);
 	}
 	
+	/**
+	 * @param rowMap the map to store the values in, may be a view of the table's columns
+	 * @since 0.9
+	 */
+	MemoryRow(@Nonnull final Map<String, Object> rowMap)
+	{
+		this.rowMap = rowMap;
+	}
+	
 	public void putRowValue(@Nonnull final String column, @Nullable final Object value)
 	{
 		rowMap.put( column, value );
@@ -24,15 +24,40 @@
  */
 package de.doe300.activerecord.store.impl.memory;
 
+import de.doe300.activerecord.dsl.AggregateFunction;
+import de.doe300.activerecord.dsl.AndCondition;
+import de.doe300.activerecord.dsl.ColumnLayout;
+import de.doe300.activerecord.dsl.Comparison;
 import de.doe300.activerecord.dsl.Condition;
+import de.doe300.activerecord.dsl.OrCondition;
 import de.doe300.activerecord.dsl.Order;
+import de.doe300.activerecord.dsl.Orders;
+import de.doe300.activerecord.dsl.RowPredicate;
+import de.doe300.activerecord.dsl.RowValues;
+import de.doe300.activerecord.dsl.SimpleCondition;
+import de.doe300.activerecord.dsl.functions.Average;
+import de.doe300.activerecord.dsl.functions.CountNotNull;
+import de.doe300.activerecord.dsl.functions.Maximum;
+import de.doe300.activerecord.dsl.functions.Minimum;
+import de.doe300.activerecord.dsl.functions.Sum;
+import de.doe300.activerecord.dsl.functions.SumDouble;
+import de.doe300.activerecord.migration.constraints.Index;
 import de.doe300.activerecord.scope.Scope;
 import de.doe300.activerecord.store.NoSuchAttributeException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -41,34 +66,147 @@ import java.util.SortedMap;
 import java.util.Spliterator;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
 
 /**
+ * Column-oriented in-memory table.
+ * 
+ * The values of every column are stored in a {@link ColumnVector} addressed by the primary key of the row, which is 
+ * used as row-ordinal. Removed rows are only marked as deleted and their primary keys are never reused.
+ * The primary key itself is not stored.
+ * 
+ * Writers hold the write-lock of the table, single reads the read-lock. Scans iterate a snapshot of the rows existing
+ * at the start of the scan without copying them. The values of removed rows are released, once no more snapshot 
+ * can see them.
  *
  * @author doe300
  * @since 0.3
  */
+@ThreadSafe
 class MemoryTable
 {
 	private final String primaryColumn;
 	private final SortedMap<String, MemoryColumn> columns;
-	private final SortedMap<Integer, MemoryRow> data;
-	
-	//cache values
-	private Map<String, Class<?>> columnTypes;
+	private final Map<String, Class<?>> columnTypes;
+	private final Map<String, ColumnVector> vectors;
+	/**
+	 * The columns by their slot in the {@link ColumnLayout} of this table, slot zero is the primary column
+	 */
+	@Nonnull
+	private final String[] slotColumns;
+	/**
+	 * The column-vectors by their slot, the primary column has no vector
+	 */
+	@Nonnull
+	private final ColumnVector[] slotVectors;
+	@Nonnull
+	private final MemoryIndex[] indices;
+	/**
+	 * Guards all row-data, the column-vectors and the indices
+	 */
+	private final ReadWriteLock lock;
+	/**
+	 * The version of the table, increased with every removal of a row
+	 */
+	private long version = 0;
+	/**
+	 * The version each row was removed in or zero for existing rows
+	 */
+	private long[] removedIn;
+	/**
+	 * The removed rows, whose values may still be visible to snapshots, in order of their removal
+	 */
+	private final Deque<Integer> removedRows;
+	/**
+	 * The snapshots currently in use, weakly referenced to release abandoned snapshots
+	 */
+	private final Set<Snapshot> snapshots;
 	private int nextRowIndex = 0;
+	private int rowCount = 0;
+	/**
+	 * The number of modifications of the table, only written with the write-lock held
+	 */
+	private volatile long modificationCount = 0;
 
 	MemoryTable(@Nonnull final String primaryColumn, @Nonnull final MemoryColumn[] columns)
+	{
+		this(primaryColumn, columns, new Index[0]);
+	}
+
+	/**
+	 * @param primaryColumn
+	 * @param columns
+	 * @param indices the indices to maintain for this table
+	 * @throws NoSuchAttributeException if an index references an unknown column
+	 * @since 0.9
+	 */
+	MemoryTable(@Nonnull final String primaryColumn, @Nonnull final MemoryColumn[] columns, @Nonnull final Index[] indices)
+		throws NoSuchAttributeException
 	{
 		this.primaryColumn = primaryColumn;
 		this.columns = new TreeMap<>();
 		Arrays.stream( columns).forEach( (MemoryColumn c) -> this.columns.put( c.getName(), c));
-		this.data = new TreeMap<>();
+		this.columnTypes = new HashMap<>(columns.length);
+		this.vectors = new HashMap<>(columns.length);
+		for(final MemoryColumn column : columns)
+		{
+			columnTypes.put( column.getName(), column.getType());
+			if(!primaryColumn.equals( column.getName()))
+			{
+				vectors.put( column.getName(), ColumnVector.forType( column.getType()));
+			}
+		}
+		this.slotColumns = new String[vectors.size() + 1];
+		this.slotVectors = new ColumnVector[vectors.size() + 1];
+		slotColumns[0] = primaryColumn;
+		int slot = 1;
+		for(final Map.Entry<String, ColumnVector> vector : vectors.entrySet())
+		{
+			slotColumns[slot] = vector.getKey();
+			slotVectors[slot] = vector.getValue();
+			slot++;
+		}
+		this.indices = new MemoryIndex[indices.length];
+		for(int i = 0; i < indices.length; i++)
+		{
+			final String[] indexColumns = new String[indices[i].columns().length];
+			for(int c = 0; c < indexColumns.length; c++)
+			{
+				indexColumns[c] = resolveColumn( indices[i].columns()[c]);
+			}
+			this.indices[i] = new MemoryIndex(indices[i].name(), indexColumns);
+		}
+		this.lock = new ReentrantReadWriteLock();
+		this.removedIn = new long[ColumnVector.INITIAL_CAPACITY];
+		this.removedRows = new ArrayDeque<>(ColumnVector.INITIAL_CAPACITY);
+		this.snapshots = Collections.newSetFromMap( new WeakHashMap<>(16));
+	}
+
+	@Nonnull
+	private String resolveColumn(@Nonnull final String columnName) throws NoSuchAttributeException
+	{
+		if(primaryColumn.equalsIgnoreCase( columnName))
+		{
+			return primaryColumn;
+		}
+		for(final String column : columns.keySet())
+		{
+			if(column.equalsIgnoreCase( columnName))
+			{
+				return column;
+			}
+		}
+		throw new NoSuchAttributeException("MemoryTable", columnName);
 	}
 	
 	@Nonnull
@@ -80,24 +218,12 @@ class MemoryTable
 	@Nonnull
 	public Set<String> getColumnNames()
 	{
-		if(columnTypes == null)
-		{
-			getColumnTypes();
-		}
 		return columnTypes.keySet();
 	}
 	
 	@Nonnull
 	public Map<String, Class<?>> getColumnTypes()
 	{
-		if(columnTypes == null)
-		{
-			columnTypes = new HashMap<>(columns.size());
-			for(Map.Entry<String, MemoryColumn> column : columns.entrySet())
-			{
-				columnTypes.put( column.getKey(), column.getValue().getType());
-			}
-		}
 		return columnTypes;
 	}
 	
@@ -110,43 +236,102 @@ class MemoryTable
 		return columns.get( columnName).checkValue( value );
 	}
 	
-	public boolean putValue(@Nonnegative int primaryKey, @Nonnull final String columnName, @Nullable final Object value)
+	@Nonnull
+	private Map<String, Object> checkValues(@Nonnull final Map<String, Object> values)
 	{
-		if(!data.containsKey( primaryKey))
+		final Map<String, Object> checkedValues = new HashMap<>(values.size());
+		for(Map.Entry<String, Object> e : values.entrySet())
 		{
-			return false;
+			if(primaryColumn.equals( e.getKey()))
+			{
+				continue;
+			}
+			checkedValues.put( e.getKey(), checkColumn( e.getKey(), e.getValue()));
 		}
+		return checkedValues;
+	}
+	
+	public boolean putValue(@Nonnegative int primaryKey, @Nonnull final String columnName, @Nullable final Object value)
+	{
 		if(primaryColumn.equals( columnName))
 		{
 			return false;
 		}
-		data.get(primaryKey ).putRowValue( columnName, checkColumn( columnName, value ) );
-		return true;
+		final Object checkedValue = checkColumn( columnName, value );
+		lock.writeLock().lock();
+		try
+		{
+			if(!isLive( primaryKey ))
+			{
+				return false;
+			}
+			writeValues( primaryKey, Collections.singletonMap( columnName, checkedValue));
+			return true;
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
 	}
 	
 	public boolean putValues(@Nonnegative int primaryKey, @Nonnull final Map<String, Object> values)
 	{
-		MemoryRow row = data.get(primaryKey );
-		if(row == null)
+		final Map<String, Object> checkedValues = checkValues( values );
+		lock.writeLock().lock();
+		try
 		{
-			return false;
-		}
-		boolean rowUpdated = false;
-		for(Map.Entry<String, Object> e : values.entrySet())
-		{
-			if(primaryColumn.equals( e.getKey()))
+			if(!isLive( primaryKey ))
 			{
-				continue;
+				return false;
 			}
-			row.putRowValue( e.getKey(), checkColumn( e.getKey(), e.getValue()));
-			rowUpdated = true;
+			writeValues( primaryKey, checkedValues );
+			return !checkedValues.isEmpty();
+		}
+		finally
+		{
+			lock.writeLock().unlock();
 		}
-		return rowUpdated;
+	}
+	
+	/**
+	 * Writes the checked values and updates the indices. Requires the write-lock to be held
+	 */
+	private void writeValues(@Nonnegative final int primaryKey, @Nonnull final Map<String, Object> checkedValues)
+	{
+		final MemoryRow row = new MemoryRow(new RowMap(primaryKey));
+		final List<MemoryIndex> affectedIndices = getAffectedIndices( checkedValues.keySet());
+		affectedIndices.forEach( (final MemoryIndex index) -> index.remove( primaryKey, row ));
+		checkedValues.forEach( (final String column, final Object value) -> vectors.get( column).set( primaryKey, value));
+		affectedIndices.forEach( (final MemoryIndex index) -> index.add( primaryKey, row ));
+		modificationCount++;
+	}
+	
+	/**
+	 * @return the number of modifications of the rows of this table
+	 * @since 0.9
+	 * @see de.doe300.activerecord.store.RecordStore#getModificationCount(java.lang.String) 
+	 */
+	@Nonnegative
+	public long getModificationCount()
+	{
+		return modificationCount;
 	}
 	
 	public boolean containsValue(@Nonnegative int primaryKey, @Nonnull final String columnName)
 	{
-		return data.containsKey( primaryKey) && data.get( primaryKey).getRowMap().containsKey( columnName);
+		if(!primaryColumn.equals( columnName) && !vectors.containsKey( columnName))
+		{
+			return false;
+		}
+		lock.readLock().lock();
+		try
+		{
+			return isLive( primaryKey );
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
 	}
 	
 	@Nullable
@@ -156,94 +341,210 @@ class MemoryTable
 		{
 			throw new NoSuchAttributeException("MemoryTable", columnName);
 		}
-		if(!data.containsKey( primaryKey))
+		lock.readLock().lock();
+		try
 		{
-			return null;
+			if(!isLive( primaryKey ))
+			{
+				return null;
+			}
+			if(primaryColumn.equals( columnName))
+			{
+				return primaryKey;
+			}
+			return vectors.get( columnName).get( primaryKey);
+		}
+		finally
+		{
+			lock.readLock().unlock();
 		}
-		return data.get(primaryKey ).getRowValue( columnName );
 	}
 	
 	@Nonnull
 	public Map<String, Object> getValues(@Nonnegative int primaryKey, @Nonnull final String[] columnNames)
 	{
-		if(!data.containsKey( primaryKey))
+		lock.readLock().lock();
+		try
 		{
-			return Collections.emptyMap();
+			if(!isLive( primaryKey ))
+			{
+				return Collections.emptyMap();
+			}
+			Map<String, Object> values = new HashMap<>(columnNames.length);
+			for(String columnName : columnNames)
+			{
+				values.put( columnName, getValue( primaryKey, columnName));
+			}
+			return values;
 		}
-		Map<String, Object> values = new HashMap<>(columnNames.length);
-		for(String columnName : columnNames)
+		finally
 		{
-			values.put( columnName, getValue( primaryKey, columnName));
+			lock.readLock().unlock();
 		}
-		return values;
 	}
 	
 	@Nonnegative
 	public int insertRow()
 	{
-		int rowIndex = nextRowIndex;
-		nextRowIndex++;
-		data.put( rowIndex, new MemoryRow(columns.keySet(), primaryColumn, rowIndex));
-		return rowIndex;
+		return insertRow( Collections.emptyMap());
 	}
 	
-	public void removeRow(@Nonnegative int primaryKey)
+	/**
+	 * Inserts a new row with the given values. The row becomes visible to readers with all values set.
+	 * 
+	 * @param values the initial values
+	 * @return the primary key of the new row
+	 * @since 0.9
+	 */
+	@Nonnegative
+	public int insertRow(@Nonnull final Map<String, Object> values)
 	{
-		data.remove( primaryKey);
+		final Map<String, Object> checkedValues = checkValues( values );
+		lock.writeLock().lock();
+		try
+		{
+			final int rowIndex = nextRowIndex;
+			if(rowIndex >= removedIn.length)
+			{
+				removedIn = Arrays.copyOf( removedIn, removedIn.length + (removedIn.length >> 1));
+			}
+			checkedValues.forEach( (final String column, final Object value) -> vectors.get( column).set( rowIndex, value));
+			final MemoryRow row = new MemoryRow(new RowMap(rowIndex));
+			for(final MemoryIndex index : indices)
+			{
+				index.add( rowIndex, row );
+			}
+			nextRowIndex++;
+			rowCount++;
+			modificationCount++;
+			return rowIndex;
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
 	}
 	
-	@Nonnull
-	public Stream<Object> getValues(@Nonnull final String column, @Nonnull final String condColumn, @Nullable final Object condValue)
+	public void removeRow(@Nonnegative int primaryKey)
 	{
-		return StreamSupport.stream( new Spliterator<Object>()
+		lock.writeLock().lock();
+		try
 		{
-			//i.e. for HasManyThroughAssociationSet#removeAll(), elements are removed while map is traversed
-			//so we need to copy the indices and traverse the copy
-			private final Iterator<Integer> rowKeys = new TreeSet<Integer>(data.keySet()).iterator();
-			@Override
-			public boolean tryAdvance(final Consumer<? super Object> action )
+			if(isLive( primaryKey ))
 			{
-				int rowIndex;
-				while(rowKeys.hasNext())
+				final MemoryRow row = new MemoryRow(new RowMap(primaryKey));
+				for(final MemoryIndex index : indices)
 				{
-					rowIndex = rowKeys.next();
-					if(Objects.equals( data.get( rowIndex).getRowValue( condColumn), condValue))
-					{
-						action.accept( data.get( rowIndex).getRowValue( column) );
-						return true;
-					}
+					index.remove( primaryKey, row );
 				}
-				return false;
-			}
-
-			@Override
-			public Spliterator<Object> trySplit()
-			{
-				return null;
+				version++;
+				rowCount--;
+				removedIn[primaryKey] = version;
+				removedRows.add( primaryKey );
+				releaseRemovedRows();
+				modificationCount++;
 			}
-
-			@Override
-			public long estimateSize()
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Releases the values of all removed rows, which are no longer visible to any snapshot.
+	 * Requires the write-lock to be held
+	 */
+	private void releaseRemovedRows()
+	{
+		long oldestVersion = version;
+		synchronized(snapshots)
+		{
+			for(final Snapshot snapshot : snapshots)
 			{
-				return Long.MAX_VALUE;
+				oldestVersion = Math.min( oldestVersion, snapshot.version);
 			}
-
-			@Override
-			public int characteristics()
+		}
+		while(!removedRows.isEmpty() && removedIn[removedRows.peek()] <= oldestVersion)
+		{
+			final int row = removedRows.poll();
+			vectors.values().forEach( (final ColumnVector vector) -> vector.set( row, null));
+		}
+	}
+	
+	/**
+	 * Requires the read-lock to be held
+	 */
+	private boolean isLive(final int primaryKey)
+	{
+		return primaryKey >= 0 && primaryKey < nextRowIndex && removedIn[primaryKey] == 0;
+	}
+	
+	@Nonnull
+	private List<MemoryIndex> getAffectedIndices(@Nonnull final Set<String> columnNames)
+	{
+		final List<MemoryIndex> affected = new ArrayList<>(indices.length);
+		for(final MemoryIndex index : indices)
+		{
+			for(final String column : index.getColumns())
 			{
-				return Spliterator.IMMUTABLE|Spliterator.ORDERED;
+				if(columnNames.contains( column))
+				{
+					affected.add( index );
+					break;
+				}
 			}
-		},false);
+		}
+		return affected;
 	}
 	
-	@Nullable
-	public Map.Entry<Integer, MemoryRow> findFirstRow(@Nonnull final Scope scope)
+	/**
+	 * Creates a snapshot of the rows currently existing. Requires the read-lock to be held
+	 */
+	@Nonnull
+	private Snapshot createSnapshot()
+	{
+		final Snapshot snapshot = new Snapshot(nextRowIndex, version, rowCount);
+		synchronized(snapshots)
+		{
+			snapshots.add( snapshot );
+		}
+		return snapshot;
+	}
+	
+	private void releaseSnapshot(@Nonnull final Snapshot snapshot)
 	{
-		Stream<Map.Entry<Integer, MemoryRow>> result = findAllRows( scope.getCondition());
-		if(scope.getOrder() != null)
+		synchronized(snapshots)
 		{
-			result = sortResult( scope.getOrder(), result);
+			snapshots.remove( snapshot );
 		}
+	}
+	
+	@Nonnull
+	public Stream<Object> getValues(@Nonnull final String column, @Nonnull final String condColumn, @Nullable final Object condValue)
+	{
+		final Snapshot snapshot;
+		final Set<Integer> candidates;
+		lock.readLock().lock();
+		try
+		{
+			snapshot = createSnapshot();
+			candidates = findEqualRows( condColumn, condValue );
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+		final int condSlot = getSlot( condColumn );
+		return findRows( snapshot, candidates == null ? null : new TreeSet<>(candidates), 
+				(final RowValues row) -> Objects.equals( condSlot == ColumnLayout.NO_SLOT ? null : row.getValue( condSlot), condValue), 0).
+				map( (final Map.Entry<Integer, MemoryRow> e) -> e.getValue().getRowValue( column));
+	}
+	
+	@Nullable
+	public Map.Entry<Integer, MemoryRow> findFirstRow(@Nonnull final Scope scope)
+	{
+		Stream<Map.Entry<Integer, MemoryRow>> result = findAllRows( scope.getCondition(), scope.getOrder());
 		Optional<Map.Entry<Integer, MemoryRow>> first = result.findFirst();
 		return first.isPresent() ? first.get() : null;
 	}
@@ -251,11 +552,7 @@ class MemoryTable
 	@Nonnull
 	public Stream<Map.Entry<Integer, MemoryRow>> findAllRows(@Nonnull final Scope scope)
 	{
-		Stream<Map.Entry<Integer, MemoryRow>> result = findAllRows( scope.getCondition());
-		if(scope.getOrder() != null)
-		{
-			result = sortResult( scope.getOrder(), result);
-		}
+		final Stream<Map.Entry<Integer, MemoryRow>> result = findAllRows( scope.getCondition(), scope.getOrder());
 		if(scope.getLimit() != Scope.NO_LIMIT)
 		{
 			return result.limit( scope.getLimit());
@@ -273,51 +570,930 @@ class MemoryTable
 	}
 	
 	@Nonnull
-	private Stream<Map.Entry<Integer, MemoryRow>> findAllRows(@Nullable final Condition cond)
+	private Stream<Map.Entry<Integer, MemoryRow>> findAllRows(@Nullable final Condition cond, @Nullable final Order order)
+	{
+		final Snapshot snapshot;
+		Collection<Integer> candidates;
+		boolean isSorted = false;
+		lock.readLock().lock();
+		try
+		{
+			snapshot = createSnapshot();
+			final Set<Integer> candidateRows = cond == null ? null : findCandidateRows( cond );
+			candidates = candidateRows == null ? null : new TreeSet<>(candidateRows);
+			if(order != null)
+			{
+				//try to use an index to retrieve the rows in order, all of them or the range restricted by the condition
+				final List<Integer> orderedRows = findOrderedRows( order, cond, candidateRows == null );
+				if(orderedRows != null && (candidateRows == null || orderedRows.size() <= candidateRows.size()))
+				{
+					candidates = orderedRows;
+					isSorted = true;
+				}
+			}
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+		final Stream<Map.Entry<Integer, MemoryRow>> rows = findRows( snapshot, candidates, 
+				cond == null ? null : cond.compile( this::getSlot ), cond == null ? 0 : findFirstRow( cond ));
+		if(order == null || isSorted)
+		{
+			return rows;
+		}
+		return sortResult( order, rows );
+	}
+	
+	/**
+	 * Iterates the rows of a consistent snapshot of this table. Rows inserted after the snapshot was taken are not 
+	 * visible, rows removed afterwards are still visible. Updated values are visible immediately.
+	 * The returned stream can be split into ranges of rows for parallel processing.
+	 * 
+	 * @param snapshot the snapshot to iterate
+	 * @param candidates the primary keys of the rows to check, in the order to return them, or <code>null</code> to 
+	 *	check all rows in ascending order
+	 * @param filter the filter for the rows or <code>null</code> to accept all rows
+	 * @param firstRow the row to start checking all rows at, if no candidates are given
+	 * @return the matching rows
+	 */
+	@Nonnull
+	private Stream<Map.Entry<Integer, MemoryRow>> findRows(@Nonnull final Snapshot snapshot, 
+			@Nullable final Collection<Integer> candidates, @Nullable final RowPredicate filter, @Nonnegative final int firstRow)
+	{
+		final int[] keys = candidates == null ? null : candidates.stream().mapToInt( Integer::intValue).toArray();
+		return StreamSupport.stream( new RowSpliterator(snapshot, keys, filter, firstRow), false);
+	}
+	
+	/**
+	 * Requires the read-lock to be held
+	 */
+	private boolean isVisible(@Nonnull final Snapshot snapshot, final int row)
 	{
-		return StreamSupport.stream( new Spliterator<Map.Entry<Integer, MemoryRow>>()
+		return row >= 0 && row < snapshot.rowLimit && (removedIn[row] == 0 || removedIn[row] > snapshot.version);
+	}
+	
+	/**
+	 * Spliterator over a range of the rows of a snapshot, either the row-ordinals or the given primary keys.
+	 * 
+	 * The rows are checked in chunks, holding the read-lock once per chunk. The matching rows are passed on 
+	 * after the lock is released, so the consumer may modify this table.
+	 */
+	private final class RowSpliterator implements Spliterator<Map.Entry<Integer, MemoryRow>>
+	{
+		/**
+		 * Ranges with fewer rows are not split any further
+		 */
+		private static final int MIN_SPLIT_SIZE = 256;
+		/**
+		 * The maximum number of rows checked while holding the read-lock
+		 */
+		private static final int CHUNK_SIZE = 256;
+		@Nonnull
+		private final Snapshot snapshot;
+		@Nullable
+		private final int[] keys;
+		@Nullable
+		private final RowPredicate filter;
+		/**
+		 * The row tested by the filter, re-used for all rows of this part
+		 */
+		@Nonnull
+		private final RowCursor cursor = new RowCursor();
+		/**
+		 * The number of parts of the snapshot not yet read to the end, shared by all parts
+		 */
+		@Nonnull
+		private final AtomicInteger activeParts;
+		/**
+		 * The matching rows of the last chunk checked
+		 */
+		private final int[] matches = new int[CHUNK_SIZE];
+		private int matchCount = 0;
+		private int matchIndex = 0;
+		private int index;
+		private final int end;
+		/**
+		 * The exact number of remaining rows or -1 if unknown
+		 */
+		private long exactSize;
+		/**
+		 * Whether every row of the range is visible and returned, so the sizes of all parts are exact
+		 */
+		private final boolean dense;
+		private boolean finished = false;
+
+		RowSpliterator(@Nonnull final Snapshot snapshot, @Nullable final int[] keys, @Nullable final RowPredicate filter, 
+				@Nonnegative final int firstRow)
+		{
+			this(snapshot, keys, filter, new AtomicInteger(1), keys == null ? Math.min( firstRow, snapshot.rowLimit) : 0, 
+					keys == null ? snapshot.rowLimit : keys.length);
+			//without restrictions, all rows existing at the time of the snapshot are returned
+			this.exactSize = keys == null && filter == null ? snapshot.rowCount : -1;
+		}
+
+		private RowSpliterator(@Nonnull final Snapshot snapshot, @Nullable final int[] keys, @Nullable final RowPredicate filter,
+				@Nonnull final AtomicInteger activeParts, final int start, final int end)
+		{
+			this.snapshot = snapshot;
+			this.keys = keys;
+			this.filter = filter;
+			this.activeParts = activeParts;
+			this.index = start;
+			this.end = end;
+			this.exactSize = -1;
+			//no row was removed before the snapshot was taken
+			this.dense = keys == null && filter == null && snapshot.rowCount == snapshot.rowLimit;
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super Map.Entry<Integer, MemoryRow>> action )
 		{
-			private final Iterator<Map.Entry<Integer, MemoryRow>> rowKeys;
+			while(matchIndex == matchCount && index < end)
+			{
+				checkNextChunk();
+			}
+			if(matchIndex < matchCount)
 			{
-				//to prevent ConcurrentModificationException while copying the entries
-				synchronized(data)
+				final int rowIndex = matches[matchIndex++];
+				if(exactSize > 0)
 				{
-					rowKeys = new HashSet<>(data.entrySet()).iterator();
+					exactSize--;
 				}
+				action.accept( new AbstractMap.SimpleImmutableEntry<>(rowIndex, new MemoryRow(new RowMap(rowIndex))) );
+				return true;
 			}
-			@Override
-			public boolean tryAdvance(final Consumer<? super Map.Entry<Integer, MemoryRow>> action )
+			if(!finished)
 			{
-				Map.Entry<Integer, MemoryRow> currentRow;
-				while(rowKeys.hasNext())
+				finished = true;
+				if(activeParts.decrementAndGet() == 0)
 				{
-					currentRow = rowKeys.next();
-					if(cond == null || cond.test( currentRow.getValue().getRowMap()))
+					releaseSnapshot( snapshot );
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Checks the next chunk of rows, holding the read-lock once for the whole chunk
+		 */
+		private void checkNextChunk()
+		{
+			matchCount = 0;
+			matchIndex = 0;
+			final int chunkEnd = Math.min( end, index + CHUNK_SIZE);
+			lock.readLock().lock();
+			try
+			{
+				for(; index < chunkEnd; index++)
+				{
+					final int rowIndex = keys == null ? index : keys[index];
+					if(isVisible( snapshot, rowIndex ))
 					{
-						action.accept( currentRow );
-						return true;
+						cursor.row = rowIndex;
+						if(filter == null || filter.test( cursor))
+						{
+							matches[matchCount++] = rowIndex;
+						}
 					}
 				}
-				return false;
 			}
+			finally
+			{
+				lock.readLock().unlock();
+			}
+		}
+
+		@Override
+		public Spliterator<Map.Entry<Integer, MemoryRow>> trySplit()
+		{
+			final int remaining = end - index;
+			//the pending matches precede the remaining rows, so they can't be split off
+			if(remaining < MIN_SPLIT_SIZE || matchIndex < matchCount)
+			{
+				return null;
+			}
+			final int middle = index + remaining / 2;
+			activeParts.incrementAndGet();
+			final RowSpliterator prefix = new RowSpliterator(snapshot, keys, filter, activeParts, index, middle);
+			index = middle;
+			//the number of rows per range is not known
+			exactSize = -1;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize()
+		{
+			return exactSize >= 0 && !dense ? exactSize : end - index + matchCount - matchIndex;
+		}
+
+		@Override
+		public int characteristics()
+		{
+			//not immutable, since updated values are visible immediately
+			final int sized = dense ? Spliterator.SIZED|Spliterator.SUBSIZED : (exactSize >= 0 ? Spliterator.SIZED : 0);
+			return Spliterator.ORDERED|Spliterator.DISTINCT|Spliterator.NONNULL|sized;
+		}
+	}
+	
+	/**
+	 * A consistent view of the rows existing at a point of time
+	 */
+	private static final class Snapshot
+	{
+		/**
+		 * All rows with a primary key below this value existed at the time of the snapshot
+		 */
+		final int rowLimit;
+		/**
+		 * The version of the table at the time of the snapshot
+		 */
+		final long version;
+		/**
+		 * The number of rows existing at the time of the snapshot
+		 */
+		final int rowCount;
 
-			@Override
-			public Spliterator<Map.Entry<Integer, MemoryRow>> trySplit()
+		Snapshot(@Nonnegative final int rowLimit, final long version, @Nonnegative final int rowCount)
+		{
+			this.rowCount = rowCount;
+			this.rowLimit = rowLimit;
+			this.version = version;
+		}
+	}
+	
+	////
+	// Index-lookups
+	////
+	
+	/**
+	 * Uses the primary key or the indices to determine the rows which may match the given condition.
+	 * 
+	 * @param cond the condition
+	 * @return the primary keys of all rows possibly matching the condition or <code>null</code>, if no index can be used
+	 */
+	@Nullable
+	private Set<Integer> findCandidateRows(@Nonnull final Condition cond)
+	{
+		if(cond instanceof SimpleCondition)
+		{
+			return findCandidateRows( (SimpleCondition)cond);
+		}
+		if(cond instanceof AndCondition)
+		{
+			final Condition[] conditions = ((AndCondition)cond).getConditions();
+			Set<Integer> candidates = findCombinedCandidateRows( conditions );
+			for(final Condition c : conditions)
+			{
+				final Set<Integer> rows = findCandidateRows( c );
+				if(rows != null && (candidates == null || rows.size() < candidates.size()))
+				{
+					candidates = rows;
+				}
+			}
+			return candidates;
+		}
+		if(cond instanceof OrCondition)
+		{
+			final Set<Integer> candidates = new HashSet<>();
+			for(final Condition c : ((OrCondition)cond).getConditions())
+			{
+				final Set<Integer> rows = findCandidateRows( c );
+				if(rows == null)
+				{
+					//any row may match this alternative
+					return null;
+				}
+				candidates.addAll( rows );
+			}
+			return candidates;
+		}
+		return null;
+	}
+	
+	/**
+	 * Uses lower bounds of the primary key (e.g. from keyset-pagination) to skip the rows which can't match the condition
+	 * 
+	 * @param cond the condition
+	 * @return the smallest primary key possibly matching the condition
+	 */
+	@Nonnegative
+	private int findFirstRow(@Nonnull final Condition cond)
+	{
+		if(cond instanceof AndCondition)
+		{
+			int firstRow = 0;
+			for(final Condition c : ((AndCondition)cond).getConditions())
+			{
+				firstRow = Math.max( firstRow, findFirstRow( c ));
+			}
+			return firstRow;
+		}
+		if(cond instanceof OrCondition)
+		{
+			int firstRow = Integer.MAX_VALUE;
+			for(final Condition c : ((OrCondition)cond).getConditions())
 			{
+				firstRow = Math.min( firstRow, findFirstRow( c ));
+			}
+			return firstRow;
+		}
+		if(cond instanceof SimpleCondition && primaryColumn.equals( ((SimpleCondition)cond).getColumnName()))
+		{
+			final Object[] values = cond.getValues();
+			if(values != null && values[0] instanceof Number)
+			{
+				final double bound = ((Number)values[0]).doubleValue();
+				switch(((SimpleCondition)cond).getComparison())
+				{
+					case LARGER:
+						return (int)Math.max( 0, Math.min( Integer.MAX_VALUE, Math.floor( bound ) + 1));
+					case LARGER_EQUALS:
+						return (int)Math.max( 0, Math.min( Integer.MAX_VALUE, Math.ceil( bound )));
+					default:
+						break;
+				}
+			}
+		}
+		return 0;
+	}
+	
+	@Nullable
+	private Set<Integer> findCandidateRows(@Nonnull final SimpleCondition cond)
+	{
+		final String column = cond.getColumnName();
+		if(column == null)
+		{
+			return null;
+		}
+		final Object[] values = cond.getValues();
+		switch(cond.getComparison())
+		{
+			case IS:
+				return values == null ? null : findEqualRows( column, values[0]);
+			case IS_NULL:
+				return findEqualRows( column, null);
+			case IN:
+			{
+				if(values == null)
+				{
+					return null;
+				}
+				final Set<Integer> rows = new HashSet<>(values.length);
+				for(final Object value : values)
+				{
+					final Set<Integer> valueRows = findEqualRows( column, value );
+					if(valueRows == null)
+					{
+						return null;
+					}
+					rows.addAll( valueRows );
+				}
+				return rows;
+			}
+			case LARGER:
+				return values == null ? null : findRangeRows( column, values[0], false, null, false);
+			case LARGER_EQUALS:
+				return values == null ? null : findRangeRows( column, values[0], true, null, false);
+			case SMALLER:
+				return values == null ? null : findRangeRows( column, null, false, values[0], false);
+			case SMALLER_EQUALS:
+				return values == null ? null : findRangeRows( column, null, false, values[0], true);
+			default:
 				return null;
+		}
+	}
+	
+	/**
+	 * Looks up the rows for multi-column indices, whose columns are all restricted to a single value
+	 */
+	@Nullable
+	private Set<Integer> findCombinedCandidateRows(@Nonnull final Condition[] conditions)
+	{
+		final Map<String, Object> equalValues = new HashMap<>(conditions.length);
+		for(final Condition c : conditions)
+		{
+			if(c instanceof SimpleCondition && ((SimpleCondition)c).getColumnName() != null)
+			{
+				final SimpleCondition simpleCondition = (SimpleCondition)c;
+				if(simpleCondition.getComparison() == Comparison.IS && simpleCondition.getValues() != null)
+				{
+					equalValues.put( simpleCondition.getColumnName(), simpleCondition.getValues()[0]);
+				}
+				else if(simpleCondition.getComparison() == Comparison.IS_NULL)
+				{
+					equalValues.put( simpleCondition.getColumnName(), null);
+				}
+			}
+		}
+		Set<Integer> candidates = null;
+		for(final MemoryIndex index : indices)
+		{
+			if(index.getColumns().length > 1 && equalValues.keySet().containsAll( Arrays.asList( index.getColumns())))
+			{
+				final Object[] values = Arrays.stream( index.getColumns()).map( equalValues::get).toArray();
+				final Set<Integer> rows = index.findEquals( values );
+				if(candidates == null || rows.size() < candidates.size())
+				{
+					candidates = rows;
+				}
+			}
+		}
+		return candidates;
+	}
+	
+	@Nullable
+	private Set<Integer> findEqualRows(@Nonnull final String column, @Nullable final Object value)
+	{
+		if(primaryColumn.equals( column))
+		{
+			if(value instanceof Number && ((Number)value).doubleValue() == ((Number)value).intValue())
+			{
+				final int key = ((Number)value).intValue();
+				return isLive( key ) ? Collections.singleton( key) : Collections.emptySet();
+			}
+			return null;
+		}
+		for(final MemoryIndex index : indices)
+		{
+			if(index.getColumns().length == 1 && index.getColumns()[0].equals( column))
+			{
+				return index.findEquals( new Object[]{value});
 			}
+		}
+		//a multi-column index can be used, if the column is the first one
+		return value == null ? null : findRangeRows( column, value, true, value, true);
+	}
+	
+	@Nullable
+	private Set<Integer> findRangeRows(@Nonnull final String column, @Nullable final Object from, final boolean fromInclusive,
+			@Nullable final Object to, final boolean toInclusive)
+	{
+		for(final MemoryIndex index : indices)
+		{
+			if(index.getColumns()[0].equals( column) && index.isSorted())
+			{
+				try
+				{
+					return index.findRange( from, fromInclusive, to, toInclusive);
+				}
+				catch(final ClassCastException e)
+				{
+					//values are not comparable, fall back to checking all rows
+					return null;
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @param order the order
+	 * @param cond the condition, whose range of the ordered column is retrieved, may be <code>null</code>
+	 * @param allowUnrestricted whether to return all rows, if the condition does not restrict the range of the ordered column
+	 * @return the primary keys of the rows in the given order or <code>null</code>, if no index provides this order
+	 */
+	@Nullable
+	private List<Integer> findOrderedRows(@Nonnull final Order order, @Nullable final Condition cond, final boolean allowUnrestricted)
+	{
+		final String[] orderColumns = order.getColumnNames();
+		if(orderColumns == null || orderColumns.length != 1)
+		{
+			return null;
+		}
+		final boolean descending;
+		if(order.equals( Orders.sortAscending( orderColumns[0])))
+		{
+			descending = false;
+		}
+		else if(order.equals( Orders.sortDescending( orderColumns[0])))
+		{
+			descending = true;
+		}
+		else
+		{
+			return null;
+		}
+		for(final MemoryIndex index : indices)
+		{
+			if(index.getColumns()[0].equals( orderColumns[0]) && index.isSorted())
+			{
+				final SimpleCondition[] bounds = findBounds( orderColumns[0], cond );
+				if(bounds[0] == null && bounds[1] == null)
+				{
+					return allowUnrestricted ? index.getOrderedRows( descending ) : null;
+				}
+				try
+				{
+					return index.findOrderedRange( bounds[0] == null ? null : bounds[0].getValues()[0], 
+							bounds[0] != null && bounds[0].getComparison() == Comparison.LARGER_EQUALS, 
+							bounds[1] == null ? null : bounds[1].getValues()[0], 
+							bounds[1] != null && bounds[1].getComparison() == Comparison.SMALLER_EQUALS, descending);
+				}
+				catch(final ClassCastException e)
+				{
+					//values are not comparable, fall back to sorting the rows
+					return null;
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @param column the column to find the bounds for
+	 * @param cond the condition
+	 * @return the conditions specifying the lower and upper bound of the column, if any
+	 */
+	@Nonnull
+	private static SimpleCondition[] findBounds(@Nonnull final String column, @Nullable final Condition cond)
+	{
+		final SimpleCondition[] bounds = new SimpleCondition[2];
+		final Condition[] conditions = cond instanceof AndCondition ? ((AndCondition)cond).getConditions() : new Condition[]{cond};
+		for(final Condition c : conditions)
+		{
+			if(c instanceof SimpleCondition && column.equals( ((SimpleCondition)c).getColumnName()) && c.getValues() != null 
+					&& c.getValues()[0] != null)
+			{
+				switch(((SimpleCondition)c).getComparison())
+				{
+					case LARGER:
+					case LARGER_EQUALS:
+						bounds[0] = bounds[0] == null ? (SimpleCondition)c : bounds[0];
+						break;
+					case SMALLER:
+					case SMALLER_EQUALS:
+						bounds[1] = bounds[1] == null ? (SimpleCondition)c : bounds[1];
+						break;
+					default:
+						break;
+				}
+			}
+		}
+		return bounds;
+	}
+	
+	////
+	// Aggregates
+	////
+	
+	/**
+	 * @param aggregateFunction
+	 * @return whether the aggregate-function can be computed directly on the column-vector
+	 * @see #aggregate(de.doe300.activerecord.dsl.AggregateFunction, de.doe300.activerecord.dsl.Condition) 
+	 */
+	public boolean supportsAggregate(@Nonnull final AggregateFunction<?, ?, ?, ?> aggregateFunction)
+	{
+		final String column = aggregateFunction.getColumnName();
+		final ColumnVector vector = column == null ? null : vectors.get( column);
+		if(vector == null)
+		{
+			return false;
+		}
+		//sub-classes may change the behavior
+		final Class<?> type = aggregateFunction.getClass();
+		if(type == CountNotNull.class)
+		{
+			return true;
+		}
+		return vector instanceof ColumnVector.NumericVector && (type == Sum.class || type == SumDouble.class || 
+				type == Average.class || type == Minimum.class || type == Maximum.class);
+	}
+	
+	/**
+	 * Computes the aggregate-function by iterating over the column-vector of the aggregated column.
+	 * 
+	 * @param aggregateFunction the aggregate-function
+	 * @param cond the condition to filter the rows, may be <code>null</code>
+	 * @return the aggregated value
+	 * @throws IllegalArgumentException if the aggregate-function is not supported
+	 * @see #supportsAggregate(de.doe300.activerecord.dsl.AggregateFunction) 
+	 */
+	@Nullable
+	public Object aggregate(@Nonnull final AggregateFunction<?, ?, ?, ?> aggregateFunction, @Nullable final Condition cond) 
+			throws IllegalArgumentException
+	{
+		if(!supportsAggregate( aggregateFunction ))
+		{
+			throw new IllegalArgumentException("Unsupported aggregate-function: " + aggregateFunction);
+		}
+		//the rows may not change while aggregating
+		lock.readLock().lock();
+		try
+		{
+			return aggregate( aggregateFunction, findMatchingRows( cond ));
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Computes all aggregate-functions with a single look-up of the matching rows. Supported aggregate-functions are computed 
+	 * on the column-vectors, all other functions are applied to the matching rows.
+	 * 
+	 * @param aggregateFunctions the aggregate-functions to compute
+	 * @param cond the condition to filter the rows, may be <code>null</code>
+	 * @return the aggregated values, in the order of the aggregate-functions
+	 * @see #aggregate(de.doe300.activerecord.dsl.AggregateFunction, de.doe300.activerecord.dsl.Condition) 
+	 */
+	@Nonnull
+	public Object[] aggregateAll(@Nonnull final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, @Nullable final Condition cond)
+	{
+		lock.readLock().lock();
+		try
+		{
+			return aggregateAll( aggregateFunctions, findMatchingRows( cond ));
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Groups the matching rows by the values of the group-columns (hash-aggregation) and computes the aggregate-functions 
+	 * for every group. Supported aggregate-functions are computed on the column-vectors, all other functions are 
+	 * applied to the rows of the group.
+	 * 
+	 * @param groupColumns the columns to group by
+	 * @param aggregateFunctions the aggregate-functions to compute per group
+	 * @param cond the condition to filter the rows, may be <code>null</code>
+	 * @return the values of the group-columns mapped to the aggregated values, in the order of the first row of every group
+	 * @see #aggregate(de.doe300.activerecord.dsl.AggregateFunction, de.doe300.activerecord.dsl.Condition) 
+	 */
+	@Nonnull
+	public Map<List<Object>, Object[]> aggregateGrouped(@Nonnull final String[] groupColumns, 
+			@Nonnull final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, @Nullable final Condition cond)
+	{
+		for(final String column : groupColumns)
+		{
+			if(!columns.containsKey( column))
+			{
+				throw new NoSuchAttributeException("MemoryTable", column);
+			}
+		}
+		lock.readLock().lock();
+		try
+		{
+			final BitSet rows = findMatchingRows( cond );
+			//the rows are collected per group in compact lists, so the memory is linear in the number of matching rows
+			final Map<List<Object>, GroupRows> groups = new LinkedHashMap<>(16);
+			for(int row = rows.nextSetBit( 0); row >= 0; row = rows.nextSetBit( row + 1))
+			{
+				final RowMap rowMap = new RowMap(row);
+				final List<Object> key = Arrays.asList( Arrays.stream( groupColumns).map( rowMap::get).toArray());
+				groups.computeIfAbsent( key, (final List<Object> k) -> new GroupRows()).add( row);
+			}
+			final Map<List<Object>, Object[]> results = new LinkedHashMap<>(groups.size());
+			//the bitmap of all matching rows is re-used for the rows of one group at a time
+			for(final Map.Entry<List<Object>, GroupRows> group : groups.entrySet())
+			{
+				group.getValue().copyTo( rows );
+				results.put( group.getKey(), aggregateAll( aggregateFunctions, rows));
+			}
+			return results;
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Requires the read-lock to be held
+	 */
+	@Nonnull
+	private Object[] aggregateAll(@Nonnull final AggregateFunction<?, ?, ?, ?>[] aggregateFunctions, @Nonnull final BitSet rows)
+	{
+		final Object[] values = new Object[aggregateFunctions.length];
+		//the row-maps are only created once for all functions not supported on the column-vectors
+		List<Map<String, Object>> rowMaps = null;
+		for(int i = 0; i < values.length; i++)
+		{
+			if(supportsAggregate( aggregateFunctions[i] ))
+			{
+				values[i] = aggregate( aggregateFunctions[i], rows );
+			}
+			else
+			{
+				if(rowMaps == null)
+				{
+					rowMaps = new ArrayList<>(rows.cardinality());
+					for(int row = rows.nextSetBit( 0); row >= 0; row = rows.nextSetBit( row + 1))
+					{
+						rowMaps.add( new RowMap(row));
+					}
+				}
+				values[i] = aggregateFunctions[i].aggregate( rowMaps.stream());
+			}
+		}
+		return values;
+	}
+	
+	/**
+	 * Requires the read-lock to be held and the aggregate-function to be supported
+	 */
+	@Nullable
+	private Object aggregate(@Nonnull final AggregateFunction<?, ?, ?, ?> aggregateFunction, @Nonnull final BitSet rows)
+	{
+		final ColumnVector vector = vectors.get( aggregateFunction.getColumnName());
+		final Class<?> type = aggregateFunction.getClass();
+		if(type == CountNotNull.class)
+		{
+			return vector.countNotNull( rows );
+		}
+		final ColumnVector.NumericVector numbers = (ColumnVector.NumericVector)vector;
+		if(type == Sum.class)
+		{
+			return numbers.sumLong( rows );
+		}
+		if(type == SumDouble.class)
+		{
+			return numbers.sumDouble( rows );
+		}
+		if(type == Average.class)
+		{
+			final long count = numbers.countNotNull( rows );
+			return count == 0 ? null : numbers.sumDouble( rows ) / count;
+		}
+		return numbers.extremum( rows, type == Maximum.class);
+	}
+	
+	/**
+	 * Requires the read-lock to be held
+	 */
+	@Nonnull
+	private BitSet findMatchingRows(@Nullable final Condition cond)
+	{
+		final BitSet rows = new BitSet(nextRowIndex);
+		final Set<Integer> candidates = cond == null ? null : findCandidateRows( cond );
+		if(candidates != null)
+		{
+			candidates.forEach( rows::set);
+		}
+		else
+		{
+			rows.set( 0, nextRowIndex);
+		}
+		final RowPredicate filter = cond == null ? null : cond.compile( this::getSlot );
+		final RowCursor cursor = new RowCursor();
+		for(int row = rows.nextSetBit( 0); row >= 0; row = rows.nextSetBit( row + 1))
+		{
+			cursor.row = row;
+			if(!isLive( row ) || (filter != null && !filter.test( cursor)))
+			{
+				rows.clear( row);
+			}
+		}
+		return rows;
+	}
+	
+	/**
+	 * @param column the name of the column
+	 * @return the slot of the column in the layout of this table or {@link ColumnLayout#NO_SLOT}
+	 * @see ColumnLayout#getSlot(java.lang.String) 
+	 */
+	private int getSlot(@Nonnull final String column)
+	{
+		for(int slot = 0; slot < slotColumns.length; slot++)
+		{
+			if(slotColumns[slot].equals( column))
+			{
+				return slot;
+			}
+		}
+		return ColumnLayout.NO_SLOT;
+	}
+	
+	/**
+	 * Mutable accessor to the values of a row, moved from row to row by a scan.
+	 * Conditions are compiled against the slots of this table, so testing a row does not create any row-map, unless
+	 * the condition does not support compilation.
+	 * 
+	 * The scan must hold the read-lock while testing rows.
+	 */
+	/**
+	 * Growable list of the (ascending) row-ordinals of a single group
+	 */
+	private static final class GroupRows
+	{
+		private int[] rows = new int[8];
+		private int size = 0;
+
+		void add(@Nonnegative final int row)
+		{
+			if(size == rows.length)
+			{
+				rows = Arrays.copyOf( rows, size << 1);
+			}
+			rows[size++] = row;
+		}
 
-			@Override
-			public long estimateSize()
+		/**
+		 * @param target the bitmap to overwrite with the rows of this group
+		 */
+		void copyTo(@Nonnull final BitSet target)
+		{
+			target.clear();
+			for(int i = 0; i < size; i++)
 			{
-				return Long.MAX_VALUE;
+				target.set( rows[i]);
 			}
+		}
+	}
+	
+	private final class RowCursor implements RowValues
+	{
+		@Nonnegative
+		int row;
+
+		@Override
+		public Object getValue( final int slot )
+		{
+			if(slot == 0)
+			{
+				return row;
+			}
+			return slotVectors[slot].get( row);
+		}
+
+		@Override
+		public Map<String, Object> asMap()
+		{
+			return new RowMap(row);
+		}
+	}
+	
+	/**
+	 * Read-only view of a single row backed by the column-vectors
+	 */
+	private final class RowMap extends AbstractMap<String, Object>
+	{
+		@Nonnegative
+		private final int row;
+
+		RowMap(@Nonnegative final int row)
+		{
+			this.row = row;
+		}
 
-			@Override
-			public int characteristics()
+		@Override
+		public Object get( final Object key )
+		{
+			if(primaryColumn.equals( key))
 			{
-				return Spliterator.IMMUTABLE|Spliterator.ORDERED|Spliterator.DISTINCT|Spliterator.NONNULL;
+				return row;
 			}
-		},false);
+			final ColumnVector vector = vectors.get( key);
+			if(vector == null)
+			{
+				return null;
+			}
+			lock.readLock().lock();
+			try
+			{
+				return vector.get( row);
+			}
+			finally
+			{
+				lock.readLock().unlock();
+			}
+		}
+
+		@Override
+		public boolean containsKey( final Object key )
+		{
+			return primaryColumn.equals( key) || vectors.containsKey( key);
+		}
+
+		@Override
+		public int size()
+		{
+			return vectors.size() + 1;
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet()
+		{
+			return new AbstractSet<Entry<String, Object>>()
+			{
+				@Override
+				public Iterator<Entry<String, Object>> iterator()
+				{
+					return Stream.concat( Stream.of( primaryColumn), vectors.keySet().stream()).
+							<Entry<String, Object>>map( (final String column) -> new AbstractMap.SimpleImmutableEntry<>(column, get( column))).
+							iterator();
+				}
+
+				@Override
+				public int size()
+				{
+					return RowMap.this.size();
+				}
+			};
+		}
 	}
 }
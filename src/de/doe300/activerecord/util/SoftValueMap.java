@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Map holding its values via {@link SoftReference soft references}.
+ * 
+ * Values which are not strongly referenced anywhere else may be reclaimed by the garbage-collector,
+ * if memory is required. The entries of reclaimed values are removed from this map on the next modification.
+ *
+ * @author doe300
+ * @param <K> the key-type
+ * @param <V> the value-type
+ * @since 0.9
+ */
+@ThreadSafe
+public class SoftValueMap<K, V>
+{
+	private final Map<K, KeyedReference<K, V>> map;
+	private final ReferenceQueue<V> queue;
+
+	/**
+	 * Creates an empty map
+	 */
+	public SoftValueMap()
+	{
+		this.map = new HashMap<>(16);
+		this.queue = new ReferenceQueue<>();
+	}
+
+	/**
+	 * @param key
+	 * @return the value mapped to the key or <code>null</code> if there is no such value or it was reclaimed
+	 */
+	@Nullable
+	public synchronized V get(@Nonnull final K key)
+	{
+		final KeyedReference<K, V> ref = map.get( key );
+		return ref == null ? null : ref.get();
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 * @return the previous value or <code>null</code>
+	 */
+	@Nullable
+	public synchronized V put(@Nonnull final K key, @Nonnull final V value)
+	{
+		purge();
+		final KeyedReference<K, V> ref = map.put( key, new KeyedReference<>(key, value, queue));
+		return ref == null ? null : ref.get();
+	}
+
+	/**
+	 * @param key
+	 * @return the removed value or <code>null</code>
+	 */
+	@Nullable
+	public synchronized V remove(@Nonnull final K key)
+	{
+		purge();
+		final KeyedReference<K, V> ref = map.remove( key );
+		return ref == null ? null : ref.get();
+	}
+
+	/**
+	 * Removes all entries
+	 */
+	public synchronized void clear()
+	{
+		map.clear();
+		//drain queue, the references are no longer mapped
+		while(queue.poll() != null)
+		{
+			//nothing to do
+		}
+	}
+
+	/**
+	 * @return the number of mapped entries, including values already reclaimed but not yet removed
+	 */
+	public synchronized int size()
+	{
+		purge();
+		return map.size();
+	}
+
+	/**
+	 * @return a snapshot of all values not yet reclaimed
+	 */
+	@Nonnull
+	public synchronized List<V> values()
+	{
+		purge();
+		final List<V> values = new ArrayList<>(map.size());
+		for(final KeyedReference<K, V> ref : map.values())
+		{
+			final V value = ref.get();
+			if(value != null)
+			{
+				values.add( value );
+			}
+		}
+		return values;
+	}
+
+	private void purge()
+	{
+		Reference<? extends V> ref;
+		while((ref = queue.poll()) != null)
+		{
+			//only remove the mapping if it was not replaced in the meantime
+			map.remove( ((KeyedReference<?, ?>)ref).key, ref);
+		}
+	}
+
+	private static class KeyedReference<K, V> extends SoftReference<V>
+	{
+		private final K key;
+
+		KeyedReference(@Nonnull final K key, @Nonnull final V value, @Nonnull final ReferenceQueue<V> queue)
+		{
+			super( value, queue );
+			this.key = key;
+		}
+	}
+}
@@ -43,8 +43,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -443,6 +445,30 @@ public class RecordBaseTest<T extends TestInterface> extends TestBase implements
 		}));
 	}
 
+	@Test
+	public void testCreateRecords()
+	{
+		final Map<String, Object> withAge = new HashMap<>(2);
+		withAge.put( "name", "Bulk1");
+		withAge.put( "age", 1);
+		final Map<String, Object> withAge2 = new HashMap<>(withAge);
+		withAge2.put( "name", "Bulk3");
+		final List<T> created = base.createRecords( Stream.<Map<String, Object>>of( withAge, Collections.singletonMap( "name", "Bulk2"), withAge2, Collections.emptyMap()));
+		assertEquals( 4, created.size());
+		assertEquals( "Bulk1", created.get( 0).getName());
+		assertEquals( "Bulk2", created.get( 1).getName());
+		assertEquals( "Bulk3", created.get( 2).getName());
+		assertNull( created.get( 3).getName());
+		assertEquals( 4, created.stream().mapToInt( T::getPrimaryKey).distinct().count());
+		for(final T record : created)
+		{
+			assertTrue( base.getStore().containsRecord( base, record.getPrimaryKey()));
+			assertSame( record, base.getRecord( record.getPrimaryKey()));
+		}
+		assertEquals( 1, base.findFirstFor( "name", "Bulk3").getAge());
+		assertTrue( base.createRecords( Stream.empty()).isEmpty());
+	}
+
 	@Test
 	public void testDuplicate()
 	{
@@ -484,6 +510,21 @@ public class RecordBaseTest<T extends TestInterface> extends TestBase implements
 		assertNotNull( base.findFirstWithScope( scope ));
 	}
 
+	@Test
+	public void testFindWithScope_Columns()
+	{
+		final T t = base.createRecord();
+		t.setName( "Hydrated");
+		base.getStore().save( base, t.getPrimaryKey());
+		base.clearRecords();
+		Scope scope = new Scope(Conditions.is(base.getPrimaryColumn(), t.getPrimaryKey()), null, Scope.NO_LIMIT );
+		final T found = base.findWithScope( scope, new String[]{"name"} ).findFirst().get();
+		assertEquals( t.getPrimaryKey(), found.getPrimaryKey());
+		assertEquals( "Hydrated", found.getName());
+		//the same record-object is returned for subsequent finds
+		assertSame( found, base.findWithScope( scope, base.getDefaultColumns()).findFirst().get());
+	}
+
 	@Test
 	public void testFindFirstWithScope()
 	{
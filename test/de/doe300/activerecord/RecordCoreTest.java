@@ -24,6 +24,7 @@
  */
 package de.doe300.activerecord;
 
+import de.doe300.activerecord.proxy.ProxyBase;
 import de.doe300.activerecord.proxy.handlers.MapHandler;
 import de.doe300.activerecord.record.ActiveRecord;
 import de.doe300.activerecord.store.impl.CachedJDBCRecordStore;
@@ -106,6 +107,8 @@ public class RecordCoreTest extends Assert
 	public void testGetBase()
 	{
 		assertNotNull( core.getBase( TestPOJO.class));
+		//record-types requiring proxy-handlers are never served by generated implementations
+		assertTrue( core.getBase( TestInterface.class) instanceof ProxyBase);
 	}
 
 	@Test
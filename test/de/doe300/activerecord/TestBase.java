@@ -26,6 +26,7 @@ package de.doe300.activerecord;
 
 import static de.doe300.activerecord.TestServer.getTestCore;
 import de.doe300.activerecord.store.impl.CachedJDBCRecordStore;
+import de.doe300.activerecord.store.impl.PooledJDBCRecordStore;
 import de.doe300.activerecord.store.impl.SimpleJDBCRecordStore;
 import de.doe300.activerecord.store.impl.memory.MemoryRecordStore;
 import java.sql.SQLException;
@@ -56,6 +57,7 @@ public abstract class TestBase extends Assert implements AssertException
 		return Arrays.asList(
 				new Object[]{getTestCore( SimpleJDBCRecordStore.class)},
 				new Object[]{getTestCore( CachedJDBCRecordStore.class)},
+				new Object[]{getTestCore( PooledJDBCRecordStore.class)},
 				new Object[]{getTestCore( MemoryRecordStore.class)}
 		);
 	}	
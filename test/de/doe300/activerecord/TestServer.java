@@ -40,6 +40,7 @@ import org.junit.Assert;
 import de.doe300.activerecord.record.ActiveRecord;
 import de.doe300.activerecord.store.RecordStore;
 import de.doe300.activerecord.store.impl.CachedJDBCRecordStore;
+import de.doe300.activerecord.store.impl.PooledJDBCRecordStore;
 import de.doe300.activerecord.store.impl.SimpleJDBCRecordStore;
 import de.doe300.activerecord.store.impl.memory.MemoryRecordStore;
 import java.lang.reflect.Field;
@@ -81,6 +82,10 @@ public class TestServer extends Assert
 			{
 				core = RecordCore.fromStore( storeType.getSimpleName(), new SimpleJDBCRecordStore(getTestConnection()));
 			}
+			else if(storeType == PooledJDBCRecordStore.class)
+			{
+				core = RecordCore.fromStore( storeType.getSimpleName(), new PooledJDBCRecordStore(TestServer::getTestConnection, 4, PooledJDBCRecordStore.DEFAULT_BORROW_TIMEOUT));
+			}
 			else if(storeType == MemoryRecordStore.class)
 			{
 				core = RecordCore.fromStore( storeType.getSimpleName(), new MemoryRecordStore());
@@ -40,7 +40,9 @@ import de.doe300.activerecord.dsl.functions.Sum;
 import de.doe300.activerecord.dsl.functions.SumDouble;
 import de.doe300.activerecord.record.ActiveRecord;
 import de.doe300.activerecord.scope.Scope;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.Stream;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -196,6 +198,39 @@ public class AggregateFunctionTest extends TestBase
 		assertEquals(0L, sum.aggregate( Stream.empty()));
 	}
 
+	@Test
+	public void testAggregateAll()
+	{
+		final List<AggregateFunction<TestInterface, ?, ?, ?>> functions = Arrays.asList(
+			new CountNotNull<>("age", TestInterface::getAge), new Sum<>("age", TestInterface::getAge), 
+			new Minimum<>("age", TestInterface::getAge), new Maximum<>("name", TestInterface::getName)
+		);
+		final Object[] expected = new Object[]{4L, 3652L, 912, "SomeName"};
+		assertAggregates( expected, Stream.of( t1, t2, t3, t4).parallel().collect( AggregateFunction.combine( functions )));
+		assertAggregates( expected, base.aggregateAll( null, functions));
+		assertAggregates( expected, base.getStore().aggregateAll( base, functions.toArray( new AggregateFunction<?, ?, ?, ?>[functions.size()]), null));
+		assertAggregates( expected, base.where( Conditions.isNotNull( "age")).aggregateAll( null, functions));
+		assertAggregates( expected, new QueryResult<>(Stream.of( t1, t2, t3, t4), 4, null).aggregateAll( null, functions));
+		assertAggregates( new Object[]{2L, 1826L, 913, "SomeName"}, base.aggregateAll( Conditions.is( "age", 913), functions));
+		assertEquals( 0, base.aggregateAll( null, Collections.emptyList()).length);
+	}
+	
+	private static void assertAggregates(final Object[] expected, final Object[] actual)
+	{
+		assertEquals( expected.length, actual.length);
+		for(int i = 0; i < expected.length; i++)
+		{
+			if(expected[i] instanceof Number)
+			{
+				assertEquals( ((Number)expected[i]).longValue(), ((Number)actual[i]).longValue());
+			}
+			else
+			{
+				assertEquals( expected[i], actual[i]);
+			}
+		}
+	}
+
 	@Test
 	public void testSUM_FLOATING()
 	{
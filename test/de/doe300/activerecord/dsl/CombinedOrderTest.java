@@ -120,6 +120,13 @@ public class CombinedOrderTest extends TestBase
 		assertTrue( order2.compare( t1, t1) == 0);
 	}
 
+	@Test
+	public void testGetColumnNames()
+	{
+		Order o = Orders.combine(Orders.fromSQLString( "name ASC, age DESC"), Orders.sortAscending( new LowerCase<TestInterface>("name", TestInterface::getName)));
+		assertArrayEquals( new String[]{"name", "age"}, o.getColumnNames());
+	}
+
 	@Test
 	public void testEquals()
 	{
@@ -141,4 +148,28 @@ public class CombinedOrderTest extends TestBase
 		assertEquals( o1.hashCode(), o1.hashCode());
 		assertEquals( o1.hashCode(), o2.hashCode());
 	}
+	
+	@Test
+	public void testToKeysetCondition()
+	{
+		final Order o = Orders.combine( Orders.sortAscending( "name"), Orders.sortDescending( "age"));
+		final Map<String, Object> lastRow = new HashMap<>(2);
+		lastRow.put( "name", "Adam");
+		lastRow.put( "age", 23);
+		final Condition cond = o.toKeysetCondition( lastRow, JDBCDriver.DEFAULT );
+		assertNotNull( cond );
+		final Map<String, Object> row = new HashMap<>(2);
+		row.put( "name", "Bob");
+		row.put( "age", 100);
+		assertTrue( cond.test( row ));
+		row.put( "name", "Adam");
+		row.put( "age", 20);
+		assertTrue( cond.test( row ));
+		row.put( "age", 24);
+		assertFalse( cond.test( row ));
+		
+		//orders over scalar functions are not supported
+		assertNull( Orders.combine( Orders.sortAscending( "age"), 
+				Orders.sortAscending( new LowerCase<TestInterface>("name", TestInterface::getName))).toKeysetCondition( lastRow, JDBCDriver.DEFAULT ));
+	}
 }
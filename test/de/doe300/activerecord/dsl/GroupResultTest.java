@@ -85,6 +85,13 @@ public class GroupResultTest extends TestBase
 		assertTrue( res.where( Conditions.is("name", "Adam5")).stream().count() == 3);
 	}
 
+	@Test
+	public void testPages()
+	{
+		GroupResult<String,TestInterface> res = new GroupResult<String,TestInterface>("Adam5", base.find( Conditions.is("name", "Adam5")), GroupResult.SIZE_UNKNOWN, base.getDefaultOrder());
+		assertThrows( IllegalStateException.class, () -> res.pages( 2));
+	}
+
 	@Test
 	public void testLimit()
 	{
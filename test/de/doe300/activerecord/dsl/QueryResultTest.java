@@ -29,9 +29,22 @@ import de.doe300.activerecord.RecordCore;
 import de.doe300.activerecord.TestBase;
 import de.doe300.activerecord.TestInterface;
 import de.doe300.activerecord.TestServer;
+import de.doe300.activerecord.dsl.functions.LowerCase;
 import de.doe300.activerecord.dsl.functions.Sum;
+import de.doe300.activerecord.profiling.Profiler;
+import de.doe300.activerecord.profiling.ProfilingRecordStore;
 import de.doe300.activerecord.record.ActiveRecord;
 import de.doe300.activerecord.scope.Scope;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -135,6 +148,47 @@ public class QueryResultTest extends TestBase
 		}
 	}
 
+	@Test
+	public void testOrder_Limit() throws Exception
+	{
+		//order and limit are pushed to the store
+		try(QueryResult<TestInterface> r = base.where( Conditions.isNotNull("name")).order( Orders.sortDescending( "age")).limit( 2))
+		{
+			assertArrayEquals( new Object[]{23, 20}, r.stream().map( TestInterface::getAge).toArray());
+		}
+		//sorted in memory after the limit is applied
+		try(QueryResult<TestInterface> r = base.where( Conditions.isNotNull("name")).limit( 2).order( Orders.sortAscending( "age")))
+		{
+			final Object[] ages = r.stream().map( TestInterface::getAge).toArray();
+			assertEquals( 2, ages.length);
+			assertTrue( (Integer)ages[0] <= (Integer)ages[1]);
+		}
+	}
+
+	@Test
+	public void testSortRecords()
+	{
+		//the profiling base does not share the cache of this base
+		base.getStore().saveAll( base );
+		final RecordCore profilingCore = RecordCore.fromStore( "QueryResultTest" + base.getStore().getClass().getSimpleName(), 
+				new ProfilingRecordStore(base.getStore()));
+		final Profiler profiler = ((ProfilingRecordStore)profilingCore.getStore()).getProfiler();
+		final RecordBase<TestInterface> profilingBase = profilingCore.getBase( TestInterface.class).getShardBase( 
+				QueryResultTest.class.getSimpleName());
+		final List<TestInterface> records = profilingBase.find( Conditions.isNotNull( "name")).collect( Collectors.toList());
+		assertEquals( 3, records.size());
+		final int streamsBefore = profiler.getNumberOfRuns( "streamAllWithData");
+		final int valuesBefore = profiler.getNumberOfRuns( "getValuesMap");
+		final Stream<TestInterface> sorted = Orders.sortRecords( records.stream(), Orders.sortDescending( "age"));
+		//the values are only loaded, once the stream is consumed
+		assertEquals( streamsBefore, profiler.getNumberOfRuns( "streamAllWithData"));
+		final List<TestInterface> result = sorted.collect( Collectors.toList());
+		//the values of all records are loaded with a single query
+		assertEquals( streamsBefore + 1, profiler.getNumberOfRuns( "streamAllWithData"));
+		assertEquals( valuesBefore, profiler.getNumberOfRuns( "getValuesMap"));
+		assertArrayEquals( new Object[]{23, 20, -123}, result.stream().map( TestInterface::getAge).toArray());
+	}
+
 	@Test
 	public void testWithScope() throws Exception
 	{
@@ -152,4 +206,67 @@ public class QueryResultTest extends TestBase
 			assertTrue( r.aggregate( new Sum<>(base.getPrimaryColumn(), ActiveRecord::getPrimaryKey), null ).intValue() > 0);
 		}
 	}
-}	
+	
+	@Test
+	public void testPages()
+	{
+		final Iterator<List<TestInterface>> pages = base.where( Conditions.isNotNull( "name")).order( Orders.sortDescending( "age")).pages( 2);
+		assertTrue( pages.hasNext());
+		final List<TestInterface> first = pages.next();
+		assertEquals( 2, first.size());
+		assertEquals( 23, first.get( 0).getAge());
+		assertEquals( 20, first.get( 1).getAge());
+		assertTrue( pages.hasNext());
+		final List<TestInterface> second = pages.next();
+		assertEquals( 1, second.size());
+		assertEquals( -123, second.get( 0).getAge());
+		assertFalse( pages.hasNext());
+		assertThrows( NoSuchElementException.class, pages::next);
+		
+		//pages by the default order (the primary key), one record per page
+		final Set<Integer> keys = new HashSet<>(3);
+		final Iterator<List<TestInterface>> singlePages = base.where( null).pages( 1);
+		while(singlePages.hasNext())
+		{
+			final List<TestInterface> page = singlePages.next();
+			assertEquals( 1, page.size());
+			assertTrue( keys.add( page.get( 0).getPrimaryKey()));
+		}
+		assertEquals( 3, keys.size());
+		
+		assertFalse( base.where( Conditions.is( "name", "NoSuchName")).pages( 10).hasNext());
+		assertThrows( IllegalArgumentException.class, () -> base.where( null).pages( 0));
+		//stream-backed results can't be queried once per page
+		assertThrows( IllegalStateException.class, () -> new QueryResult<>(base.find( null), QueryMethods.SIZE_UNKNOWN, null).pages( 2));
+	}
+
+	@Test
+	public void testPages_Null()
+	{
+		base.createRecord().setName( "NullAge1");
+		base.createRecord().setName( "NullAge2");
+		//NULL values are neither larger nor smaller than any value, but still need to be paged
+		final List<Integer> ascending = collectPages( base.where( Conditions.isNotNull( "name")).order( Orders.sortAscending( "age")).pages( 1));
+		assertEquals( 5, ascending.size());
+		assertEquals( 5, new HashSet<>(ascending).size());
+		final List<Integer> descending = collectPages( base.where( Conditions.isNotNull( "name")).order( Orders.sortDescending( "age")).pages( 2));
+		assertEquals( 5, descending.size());
+		assertEquals( 5, new HashSet<>(descending).size());
+		assertEquals( Arrays.asList( 23, 20, -123), descending.stream().map( (final Integer key) -> 
+				base.getStore().getValue( base, key, "age")).filter( Objects::nonNull).collect( Collectors.toList()));
+		//orders over scalar functions are paged in memory
+		final List<Integer> scalar = collectPages( base.where( Conditions.isNotNull( "name")).order( 
+				Orders.sortAscending( new LowerCase<TestInterface>("name", TestInterface::getName))).pages( 2));
+		assertEquals( 5, new HashSet<>(scalar).size());
+	}
+	
+	private static List<Integer> collectPages(final Iterator<List<TestInterface>> pages)
+	{
+		final List<Integer> keys = new ArrayList<>(5);
+		while(pages.hasNext())
+		{
+			pages.next().forEach( (final TestInterface record) -> keys.add( record.getPrimaryKey()));
+		}
+		return keys;
+	}
+}
@@ -33,10 +33,13 @@ import de.doe300.activerecord.TestServer;
 import de.doe300.activerecord.scope.Scope;
 import de.doe300.activerecord.dsl.functions.Absolute;
 import de.doe300.activerecord.dsl.functions.LowerCase;
+import de.doe300.activerecord.jdbc.driver.JDBCDriver;
 import de.doe300.activerecord.record.ActiveRecord;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.AfterClass;
@@ -300,4 +303,105 @@ public class SimpleConditionTest extends TestBase implements AssertException
 		assertEquals( s1.hashCode(), s2.hashCode());
 		assertEquals( s1.hashCode(), s2.hashCode());
 	}
+	
+	@Test
+	public void testMemoizedSQL()
+	{
+		final Condition cond = new SimpleCondition("name", "123Name1", Comparison.IS).and( new SimpleCondition(
+				new LowerCase<>("name", TestInterface::getName), Arrays.asList( "a", "b"), Comparison.IN));
+		final JDBCDriver driver = JDBCDriver.guessDriver( null );
+		final String sql = cond.toSQL( driver, "test");
+		assertSame( sql, cond.toSQL( driver, "test"));
+		assertEquals( sql, Conditions.and( new SimpleCondition("name", "123Name1", Comparison.IS), new SimpleCondition(
+				new LowerCase<>("name", TestInterface::getName), Arrays.asList( "a", "b"), Comparison.IN)).toSQL( driver, "test"));
+		//a different table-name is rendered anew
+		assertNotEquals( sql, cond.toSQL( driver, "other"));
+		assertSame( cond.toSQL( JDBCDriver.DEFAULT, null), cond.toSQL( JDBCDriver.DEFAULT, null));
+		
+		assertSame( cond.getValues(), cond.getValues());
+		assertArrayEquals( new Object[]{"123Name1", "a", "b"}, cond.getValues());
+	}
+	
+	@Test
+	public void testCompile()
+	{
+		final String[] columns = {"id", "name", "age", "other"};
+		final ColumnLayout layout = (final String column) -> Arrays.asList( columns).indexOf( column);
+		final List<Map<String, Object>> rows = Arrays.asList(
+				createRow( columns, 1, "123Name1", -912, 2),
+				createRow( columns, 2, "123Name1", -913, null),
+				createRow( columns, 3, "Name4", 7, 3),
+				createRow( columns, 4, null, null, 4));
+		final List<Condition> conditions = Arrays.asList(
+				new SimpleCondition("name", "123Name1", Comparison.IS),
+				new SimpleCondition("age", -913L, Comparison.IS),
+				new SimpleCondition("age", 7.0, Comparison.IS_NOT),
+				new SimpleCondition("name", null, Comparison.IS),
+				new SimpleCondition("other", null, Comparison.IS_NOT),
+				new SimpleCondition("name", "%Name%", Comparison.LIKE),
+				new SimpleCondition("name", "123%", Comparison.LIKE),
+				new SimpleCondition("age", -913, Comparison.LARGER),
+				new SimpleCondition("id", 2, Comparison.LARGER_EQUALS),
+				new SimpleCondition("id", 2, Comparison.SMALLER),
+				new SimpleCondition("id", 3, Comparison.SMALLER_EQUALS),
+				new SimpleCondition("age", new Object[]{-913.0, 7L, "dummy"}, Comparison.IN),
+				new SimpleCondition("name", Arrays.asList( "Name4", null), Comparison.IN),
+				new SimpleCondition("id", "other", Comparison.IS),
+				new SimpleCondition("id", null, Comparison.TRUE),
+				new SimpleCondition(new LowerCase<>("name", TestInterface::getName), "name4", Comparison.IS),
+				Conditions.and( new SimpleCondition("name", "123Name1", Comparison.IS), new SimpleCondition("id", 1, Comparison.IS)),
+				Conditions.or( new SimpleCondition("id", 3, Comparison.IS), new SimpleCondition("age", null, Comparison.IS)),
+				Conditions.xor( new SimpleCondition("id", 3, Comparison.SMALLER), new SimpleCondition("name", "123Name1", Comparison.IS)),
+				Conditions.invert( new SimpleCondition("name", "%4", Comparison.LIKE))
+		);
+		for(final Condition cond : conditions)
+		{
+			final RowPredicate predicate = cond.compile( layout );
+			for(final Map<String, Object> row : rows)
+			{
+				final RowValues values = new RowValues()
+				{
+					@Override
+					public Object getValue( final int slot )
+					{
+						return row.get( columns[slot]);
+					}
+
+					@Override
+					public Map<String, Object> asMap()
+					{
+						return row;
+					}
+				};
+				assertEquals( cond.toSQL( JDBCDriver.DEFAULT, null) + " " + row, cond.test( row ), predicate.test( values ));
+			}
+		}
+		
+		//nonexistent columns can't be compared
+		final RowPredicate predicate = new SimpleCondition("dummy", 1, Comparison.IS).compile( layout );
+		assertThrows( IllegalArgumentException.class, () -> predicate.test( new RowValues()
+		{
+			@Override
+			public Object getValue( final int slot )
+			{
+				return null;
+			}
+
+			@Override
+			public Map<String, Object> asMap()
+			{
+				return Collections.emptyMap();
+			}
+		}));
+	}
+	
+	private static Map<String, Object> createRow(final String[] columns, final Object... values)
+	{
+		final Map<String, Object> row = new HashMap<>(columns.length);
+		for(int i = 0; i < columns.length; i++)
+		{
+			row.put( columns[i], values[i]);
+		}
+		return row;
+	}
 }
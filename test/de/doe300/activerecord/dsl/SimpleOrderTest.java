@@ -180,4 +180,92 @@ public class SimpleOrderTest extends TestBase
 		assertEquals(o.hashCode(), o.hashCode());
 		assertEquals( o.hashCode(), o1.hashCode());
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testToKeysetCondition()
+	{
+		final Order o = Orders.fromSQLString( "name ASC, age DESC");
+		final Map<String, Object> lastRow = new HashMap<>(2);
+		lastRow.put( "name", "Adam");
+		lastRow.put( "age", 23);
+		final Condition cond = o.toKeysetCondition( lastRow, JDBCDriver.DEFAULT );
+		assertNotNull( cond );
+		final Map<String, Object> row = new HashMap<>(2);
+		row.put( "name", "Bob");
+		row.put( "age", 100);
+		assertTrue( cond.test( row ));
+		row.put( "name", "Adam");
+		row.put( "age", 20);
+		assertTrue( cond.test( row ));
+		row.put( "age", 23);
+		assertFalse( cond.test( row ));
+		row.put( "age", 24);
+		assertFalse( cond.test( row ));
+		row.put( "name", "Aaron");
+		row.put( "age", 1);
+		assertFalse( cond.test( row ));
+		
+		//missing values can't be compared
+		lastRow.remove( "age");
+		assertNull( o.toKeysetCondition( lastRow, JDBCDriver.DEFAULT ));
+	}
+	
+	@Test
+	public void testToKeysetCondition_Null()
+	{
+		final Order o = Orders.fromSQLString( "name ASC, age DESC");
+		final Map<String, Object> lastRow = new HashMap<>(2);
+		lastRow.put( "name", "Adam");
+		lastRow.put( "age", null);
+		final Map<String, Object> row = new HashMap<>(2);
+		//NULL sorted low -> NULL is the last value in descending order
+		final Condition nullsLow = o.toKeysetCondition( lastRow, JDBCDriver.DEFAULT );
+		assertNotNull( nullsLow );
+		row.put( "name", "Adam");
+		row.put( "age", 5);
+		assertFalse( nullsLow.test( row ));
+		row.put( "age", null);
+		assertFalse( nullsLow.test( row ));
+		row.put( "name", "Bob");
+		assertTrue( nullsLow.test( row ));
+		//NULL sorted high -> NULL is the first value in descending order
+		final Condition nullsHigh = o.toKeysetCondition( lastRow, new JDBCDriver()
+		{
+			@Override
+			public boolean isNullOrderedFirst( final boolean ascending )
+			{
+				return !ascending;
+			}
+		});
+		assertNotNull( nullsHigh );
+		row.put( "name", "Adam");
+		row.put( "age", 5);
+		assertTrue( nullsHigh.test( row ));
+		row.put( "age", null);
+		assertFalse( nullsHigh.test( row ));
+		
+		//rows with NULL are ordered after a value, if NULL is sorted low in descending order
+		lastRow.put( "age", 5);
+		final Condition afterValue = o.toKeysetCondition( lastRow, JDBCDriver.DEFAULT );
+		row.put( "age", null);
+		assertTrue( afterValue.test( row ));
+		row.put( "age", 6);
+		assertFalse( afterValue.test( row ));
+	}
+	
+	@Test
+	public void testCompare_Null()
+	{
+		final Order o = Orders.sortAscending( "age");
+		final Map<String, Object> row1 = new HashMap<>(1);
+		final Map<String, Object> row2 = new HashMap<>(1);
+		row1.put( "age", null);
+		row2.put( "age", 5);
+		assertTrue( o.compare( row1, row2 ) < 0);
+		assertTrue( o.compare( row2, row1 ) > 0);
+		assertEquals( 0, o.compare( row1, row1 ));
+		assertTrue( o.reversed().compare( row1, row2 ) > 0);
+		assertTrue( JDBCDriver.DEFAULT.isNullOrderedFirst( true ));
+		assertFalse( JDBCDriver.DEFAULT.isNullOrderedFirst( false ));
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package de.doe300.activerecord.pojo.generation;
+
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.RecordCore;
+import de.doe300.activerecord.pojo.GeneratedBase;
+import de.doe300.activerecord.record.ActiveRecord;
+import de.doe300.activerecord.record.validation.ValidationException;
+import de.doe300.activerecord.store.impl.memory.MemoryRecordStore;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Runs the annotation-processor on a record-type and checks the behavior of the generated implementation
+ *
+ * @author doe300
+ * @since 0.9
+ */
+public class RecordImplementationGeneratorTest extends Assert
+{
+	private static final String RECORD_SOURCE = "package generated;\n"
+			+ "import de.doe300.activerecord.record.ActiveRecord;\n"
+			+ "import de.doe300.activerecord.record.RecordType;\n"
+			+ "import de.doe300.activerecord.record.attributes.AttributeGetter;\n"
+			+ "import de.doe300.activerecord.record.attributes.AttributeSetter;\n"
+			+ "import de.doe300.activerecord.record.validation.ValidationException;\n"
+			+ "@RecordType(typeName = \"GENERATED_RECORD\", primaryKey = \"id\", defaultColumns = {\"id\", \"name\", \"age\"}, autoCreate = true)\n"
+			+ "public interface GeneratedRecord extends ActiveRecord {\n"
+			+ "	public String getName();\n"
+			+ "	public void setName(String name);\n"
+			+ "	public Integer getAge();\n"
+			+ "	@AttributeSetter(name = \"age\", validatorClass = Accessors.class, validatorMethod = \"isPositive\")\n"
+			+ "	public void setAge(Integer age) throws ValidationException;\n"
+			+ "	@AttributeGetter(name = \"name\", converterClass = Accessors.class, converterMethod = \"toUpperCase\")\n"
+			+ "	public String getUpperCaseName();\n"
+			+ "	@AttributeSetter(name = \"name\", converterClass = Accessors.class, converterMethod = \"toLowerCase\")\n"
+			+ "	public void setLowerCaseName(String name);\n"
+			+ "}\n";
+	private static final String ACCESSORS_SOURCE = "package generated;\n"
+			+ "public class Accessors {\n"
+			+ "	public static boolean isPositive(Object value) {\n"
+			+ "		return value == null || ((Integer) value) > 0;\n"
+			+ "	}\n"
+			+ "	public static String toUpperCase(Object value) {\n"
+			+ "		return value == null ? null : value.toString().toUpperCase();\n"
+			+ "	}\n"
+			+ "	public static Object toLowerCase(Object value) {\n"
+			+ "		return value == null ? null : value.toString().toLowerCase();\n"
+			+ "	}\n"
+			+ "}\n";
+	
+	private static Path tempDir;
+	private static URLClassLoader loader;
+	
+	public RecordImplementationGeneratorTest()
+	{
+	}
+	
+	@BeforeClass
+	public static void compileRecordType() throws IOException
+	{
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		Assume.assumeNotNull( compiler );
+		tempDir = Files.createTempDirectory( "generated-records");
+		final Path sourceDir = Files.createDirectories( tempDir.resolve( "src").resolve( "generated"));
+		final Path classDir = Files.createDirectories( tempDir.resolve( "classes"));
+		final File recordFile = Files.write( sourceDir.resolve( "GeneratedRecord.java"), RECORD_SOURCE.getBytes( StandardCharsets.UTF_8)).toFile();
+		final File accessorsFile = Files.write( sourceDir.resolve( "Accessors.java"), ACCESSORS_SOURCE.getBytes( StandardCharsets.UTF_8)).toFile();
+		//compile against the library and its dependencies
+		final String classPath = getClassPath( RecordCore.class) + File.pathSeparator + getClassPath( Nonnull.class);
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		try(final StandardJavaFileManager fileManager = compiler.getStandardFileManager( diagnostics, null, StandardCharsets.UTF_8))
+		{
+			final JavaCompiler.CompilationTask task = compiler.getTask( null, fileManager, diagnostics, 
+					Arrays.asList( "-classpath", classPath, "-d", classDir.toString(), "-s", tempDir.resolve( "src").toString()), 
+					null, fileManager.getJavaFileObjects( recordFile, accessorsFile));
+			task.setProcessors( Collections.singletonList( new RecordImplementationGenerator()));
+			assertTrue( diagnostics.getDiagnostics().toString(), task.call());
+		}
+		loader = new URLClassLoader(new URL[]{classDir.toUri().toURL()}, RecordImplementationGeneratorTest.class.getClassLoader());
+	}
+	
+	@AfterClass
+	public static void deleteGeneratedFiles() throws IOException
+	{
+		if(loader != null)
+		{
+			loader.close();
+		}
+		if(tempDir != null)
+		{
+			try(final Stream<Path> files = Files.walk( tempDir))
+			{
+				files.sorted( Comparator.reverseOrder()).map( Path::toFile).forEach( File::delete);
+			}
+		}
+	}
+	
+	@Test
+	public void testGeneratedImplementation() throws Exception
+	{
+		final Class<? extends ActiveRecord> recordType = loader.loadClass( "generated.GeneratedRecord").asSubclass( ActiveRecord.class);
+		assertTrue( new String(Files.readAllBytes( tempDir.resolve( "classes").resolve( "META-INF").resolve( "services").
+				resolve( RecordFactory.class.getCanonicalName())), StandardCharsets.UTF_8).contains( "generated.GeneratedRecordImpl$Factory"));
+		final RecordFactory<? extends ActiveRecord> factory = GeneratedRecords.getFactory( recordType );
+		assertNotNull( factory );
+		assertEquals( recordType, factory.getRecordType());
+		
+		try(final RecordCore core = RecordCore.fromStore( RecordImplementationGeneratorTest.class.getSimpleName(), new MemoryRecordStore()))
+		{
+			final RecordBase<? extends ActiveRecord> base = core.getBase( recordType );
+			assertTrue( base instanceof GeneratedBase);
+			final ActiveRecord record = base.createRecord();
+			assertFalse( Proxy.isProxyClass( record.getClass()));
+			assertEquals( "generated.GeneratedRecordImpl", record.getClass().getName());
+			assertSame( base, record.getBase());
+			assertEquals( record, base.getRecord( record.getPrimaryKey()));
+			
+			//getters and setters
+			invoke( record, "setName", String.class, "Adam");
+			assertEquals( "Adam", invoke( record, "getName", null, null));
+			assertEquals( "Adam", base.getStore().getValue( base, record.getPrimaryKey(), "name"));
+			invoke( record, "setAge", Integer.class, 42);
+			assertEquals( 42, invoke( record, "getAge", null, null));
+			
+			//converters
+			assertEquals( "ADAM", invoke( record, "getUpperCaseName", null, null));
+			invoke( record, "setLowerCaseName", String.class, "Eve");
+			assertEquals( "eve", invoke( record, "getName", null, null));
+			
+			//validators
+			try
+			{
+				invoke( record, "setAge", Integer.class, -1);
+				fail( "Validation did not fail");
+			}
+			catch(final ValidationException e)
+			{
+				//expected
+			}
+			assertEquals( 42, invoke( record, "getAge", null, null));
+		}
+	}
+	
+	private static Object invoke(@Nonnull final ActiveRecord record, @Nonnull final String methodName, final Class<?> paramType,
+			final Object arg) throws Exception
+	{
+		final Method method = paramType == null ? record.getClass().getMethod( methodName) : record.getClass().getMethod( methodName, paramType);
+		try
+		{
+			return paramType == null ? method.invoke( record) : method.invoke( record, arg);
+		}
+		catch(final InvocationTargetException e)
+		{
+			throw (Exception)e.getCause();
+		}
+	}
+	
+	@Nonnull
+	private static String getClassPath(@Nonnull final Class<?> type)
+	{
+		try
+		{
+			return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+		}
+		catch(final Exception e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -34,6 +34,7 @@ import de.doe300.activerecord.record.ActiveRecord;
 import de.doe300.activerecord.record.validation.ValidatedRecord;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -134,8 +135,51 @@ public class RecordHandlerTest extends TestBase implements AssertException
 		}
 	}
 
+	@Test
+	public void testDispatchTable() throws Throwable
+	{
+		final RecordHandler.DispatchTable table = new RecordHandler.DispatchTable(TestInterface.class, null);
+		final Method getName = TestInterface.class.getMethod( "getName"), getOther = TestInterface.class.getMethod( "getOther");
+		assertSame( table.getInvoker( getName), table.getInvoker( getName));
+		assertSame( table.getInvoker( getOther), table.getInvoker( getOther));
+		testI.setName( "Dispatch");
+		final RecordHandler<TestInterface> tableHandler = new RecordHandler<>(testI.getPrimaryKey(), base, table);
+		assertEquals( "Dispatch", tableHandler.invoke( testI, getName, null));
+		//methods not declared by the record-type are resolved on the fly
+		assertThrows( NoSuchMethodException.class, () -> tableHandler.invoke( testI, String.class.getMethod( "length"), null ));
+	}
+
+	@Test
+	public void testInvokeVarargsDefaultMethods() throws Throwable
+	{
+		final RecordHandler.DispatchTable table = new RecordHandler.DispatchTable(VarargsRecord.class, null);
+		final VarargsRecord record = (VarargsRecord)Proxy.newProxyInstance( VarargsRecord.class.getClassLoader(), new Class<?>[]{VarargsRecord.class}, 
+				(final Object proxy, final Method method, final Object[] args) -> table.getInvoker( method ).invoke( handler, proxy, 
+						(ActiveRecord)proxy, method, args));
+		assertEquals( "a-b-c", record.join( "-", "a", "b", "c"));
+		assertEquals( "a", record.join( "-", "a"));
+		assertEquals( "", record.join( "-"));
+		assertEquals( 0, record.count());
+		assertEquals( 1, record.count( "x"));
+		assertEquals( 2, record.count( new Object[]{"x", "y"}));
+		assertEquals( 1, record.count( (Object)new Object[]{"x", "y"}));
+	}
+
 	public void testGetRecordType()
 	{
 		assertEquals( TestInterface.class, handler.getRecordType());
 	}
+	
+	public static interface VarargsRecord extends ActiveRecord
+	{
+		public default String join(final String separator, final String... parts)
+		{
+			return String.join( separator, parts);
+		}
+		
+		public default int count(final Object... values)
+		{
+			return values.length;
+		}
+	}
 }
@@ -69,6 +69,14 @@ public class MapHandlerTest extends TestBase implements AssertException
 		TestServer.destroyTestTables(TestMapInterface.class, MapHandlerTest.class.getSimpleName());
 	}
 	
+	@Test
+	public void testHandlesMethodForType() throws NoSuchMethodException
+	{
+		assertTrue( handler.handlesMethodForType( TestMapInterface.class, Map.class.getMethod( "size")));
+		assertFalse( handler.handlesMethodForType( TestInterface.class, Map.class.getMethod( "size")));
+		assertFalse( handler.handlesMethodForType( TestMapInterface.class, TestMapInterface.class.getMethod( "getName")));
+	}
+
 	@Test
 	public void testSize()
 	{
@@ -34,6 +34,7 @@ import de.doe300.activerecord.dsl.Orders;
 import de.doe300.activerecord.dsl.functions.CountDistinct;
 import de.doe300.activerecord.scope.Scope;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.SortedSet;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -265,6 +266,20 @@ public class HasManyThroughAssociationSetTest extends TestBase
 		assertEquals(2, subSet.countDistinct("id", TestInterface::getPrimaryKey));
 	}
 
+	@Test
+	public void testSubSetQueries()
+	{
+		n1.setName( "Hans");
+		RecordSet<TestInterface> subSet = set.getForCondition( Conditions.is("name", "Hans") );
+		assertTrue( subSet.contains( a2));
+		assertFalse( subSet.contains( a1));
+		assertFalse( subSet.contains( n1));
+		assertEquals( 2, subSet.findWithScope( new Scope(null, null, Scope.NO_LIMIT)).count());
+		assertEquals( a2.getPrimaryKey() + a3.getPrimaryKey(), subSet.sum( base.getPrimaryColumn(), TestInterface::getPrimaryKey));
+		assertEquals( a1.getPrimaryKey() + a2.getPrimaryKey() + a3.getPrimaryKey(), set.sum( base.getPrimaryColumn(), TestInterface::getPrimaryKey));
+		assertEquals( 3L, ((Number)set.aggregateAll( null, Collections.singletonList( new CountDistinct<>("id", TestInterface::getPrimaryKey)))[0]).longValue());
+	}
+
 	@Test
 	public void testFindWithScope()
 	{
@@ -0,0 +1,210 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 doe300
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.doe300.activerecord.record.association;
+
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.RecordCore;
+import de.doe300.activerecord.TestBase;
+import de.doe300.activerecord.TestInterface;
+import de.doe300.activerecord.TestServer;
+import de.doe300.activerecord.dsl.Conditions;
+import de.doe300.activerecord.profiling.Profiler;
+import de.doe300.activerecord.profiling.ProfilingRecordStore;
+import de.doe300.activerecord.record.ActiveRecord;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author doe300
+ * @since 0.9
+ */
+public class IncludeTest extends TestBase
+{
+	private final RecordBase<TestInterface> base;
+	
+	public IncludeTest(final RecordCore core)
+	{
+		super(core);
+		base = core.getBase( TestInterface.class);
+		base.findAll().parallel().forEach( ActiveRecord::destroy);
+		core.getStore().removeRow( "mappingTableInclude", null);
+	}
+	
+	@BeforeClass
+	public static void createTables() throws Exception
+	{
+		TestServer.buildTestMappingTables( "mappingTableInclude");
+		TestServer.buildTestTables(TestInterface.class, "TESTTABLE");
+	}
+	
+	@AfterClass
+	public static void destroyTables() throws Exception
+	{
+		TestServer.destroyTestTables(TestInterface.class, "TESTTABLE");
+		TestServer.destroyTestMappingTables( "mappingTableInclude");
+	}
+
+	@Test
+	public void testBelongsTo()
+	{
+		final TestInterface i = base.createRecord(), j = base.createRecord(), k = base.createRecord();
+		base.getStore().setValue( base, i.getPrimaryKey(), "fk_test_id", j.getPrimaryKey());
+		base.getStore().setValue( base, j.getPrimaryKey(), "fk_test_id", j.getPrimaryKey());
+		final List<TestInterface> records = Include.preload( base.find( Conditions.isIn( "id", new Integer[]{i.getPrimaryKey(), 
+				j.getPrimaryKey(), k.getPrimaryKey()})), Include.belongsTo( base, "fk_test_id")).collect( Collectors.toList());
+		assertEquals( 3, records.size());
+		assertEquals( j, AssociationHelper.getBelongsTo( i, base, "fk_test_id"));
+		assertEquals( j, AssociationHelper.getBelongsTo( j, base, "fk_test_id"));
+		assertNull( AssociationHelper.getBelongsTo( k, base, "fk_test_id"));
+	}
+
+	@Test
+	public void testHasMany()
+	{
+		final TestInterface i = base.createRecord(), m1 = base.createRecord(), m2 = base.createRecord();
+		base.getStore().setValue( base, m1.getPrimaryKey(), "fk_test_id", i.getPrimaryKey());
+		base.getStore().setValue( base, m2.getPrimaryKey(), "fk_test_id", i.getPrimaryKey());
+		Include.preload( Arrays.asList( i, m1), Include.hasMany( base, "fk_test_id"));
+		assertEquals( 2, AssociationHelper.getHasMany( i, TestInterface.class, "fk_test_id").count());
+		assertTrue( AssociationHelper.getHasMany( i, TestInterface.class, "fk_test_id").allMatch( r -> r.equals( m1) || r.equals( m2)));
+		assertEquals( 0, AssociationHelper.getHasMany( m1, TestInterface.class, "fk_test_id").count());
+	}
+
+	@Test
+	public void testHasManyThrough()
+	{
+		final TestInterface i = base.createRecord(), m1 = base.createRecord(), m2 = base.createRecord();
+		AssociationHelper.addHasManyThrough(i, m1, "mappingTableInclude", "fk_test1", "fk_test2");
+		AssociationHelper.addHasManyThrough(i, m2, "mappingTableInclude", "fk_test1", "fk_test2");
+		final Include include = Include.hasManyThrough( base, "mappingTableInclude", "fk_test1", "fk_test2");
+		Include.preload( Arrays.asList( i, m1, m2), include);
+		assertEquals(2, AssociationHelper.getHasManyThrough( i, TestInterface.class, "mappingTableInclude", "fk_test1", "fk_test2").count());
+		assertEquals(0, AssociationHelper.getHasManyThrough( m1, TestInterface.class, "mappingTableInclude", "fk_test1", "fk_test2").count());
+		
+		//modifying the association invalidates the preloaded values
+		AssociationHelper.addHasManyThrough(m1, m2, "mappingTableInclude", "fk_test1", "fk_test2");
+		assertEquals(1, AssociationHelper.getHasManyThrough( m1, TestInterface.class, "mappingTableInclude", "fk_test1", "fk_test2").count());
+	}
+
+	@Test
+	public void testInvalidatedByModifications()
+	{
+		final TestInterface i = base.createRecord(), j = base.createRecord(), m1 = base.createRecord();
+		base.getStore().setValue( base, m1.getPrimaryKey(), "fk_test_id", i.getPrimaryKey());
+		Include.preload( Arrays.asList( i, j, m1), Include.belongsTo( base, "fk_test_id"), Include.hasMany( base, "fk_test_id"));
+		assertEquals( i, m1.getDirectionOne());
+		assertEquals( 1, AssociationHelper.getHasMany( i, TestInterface.class, "fk_test_id").count());
+		
+		//setting the foreign key directly
+		base.getStore().setValue( base, m1.getPrimaryKey(), "fk_test_id", j.getPrimaryKey());
+		assertEquals( j, m1.getDirectionOne());
+		assertEquals( 0, AssociationHelper.getHasMany( i, TestInterface.class, "fk_test_id").count());
+		
+		//creating an associated record
+		Include.preload( Arrays.asList( i, j, m1), Include.belongsTo( base, "fk_test_id"), Include.hasMany( base, "fk_test_id"));
+		assertEquals( 1, AssociationHelper.getHasMany( j, TestInterface.class, "fk_test_id").count());
+		final TestInterface m2 = base.createRecord( Collections.singletonMap( "fk_test_id", j.getPrimaryKey()));
+		assertEquals( 2, AssociationHelper.getHasMany( j, TestInterface.class, "fk_test_id").count());
+		
+		//destroying an associated record
+		Include.preload( Arrays.asList( i, j, m1, m2), Include.belongsTo( base, "fk_test_id"), Include.hasMany( base, "fk_test_id"));
+		assertEquals( j, m1.getDirectionOne());
+		assertEquals( 2, AssociationHelper.getHasMany( j, TestInterface.class, "fk_test_id").count());
+		m2.destroy();
+		assertEquals( 1, AssociationHelper.getHasMany( j, TestInterface.class, "fk_test_id").count());
+		j.destroy();
+		assertNull( m1.getDirectionOne());
+	}
+
+	@Test
+	public void testQueriesPerBatch()
+	{
+		final RecordCore profilingCore = RecordCore.fromStore( "IncludeTest" + base.getStore().getClass().getSimpleName(), 
+				new ProfilingRecordStore(base.getStore()));
+		final Profiler profiler = ((ProfilingRecordStore)profilingCore.getStore()).getProfiler();
+		final RecordBase<TestInterface> profilingBase = profilingCore.getBase( TestInterface.class);
+		for(int i = 0; i < 10; i++)
+		{
+			final TestInterface parent = profilingBase.createRecord( Collections.singletonMap( "name", "IncludeProfiling"));
+			for(int c = 0; c < 2; c++)
+			{
+				final Map<String, Object> data = new HashMap<>(2);
+				data.put( "name", "IncludeProfiling");
+				data.put( "fk_test_id", parent.getPrimaryKey());
+				profilingBase.createRecord( data );
+			}
+		}
+		final int queriesBefore = countQueries( profiler );
+		final List<TestInterface> records = profilingBase.where( Conditions.is( "name", "IncludeProfiling")).
+				includes( Include.belongsTo( profilingBase, "fk_test_id"), Include.hasMany( profilingBase, "fk_test_id")).stream().
+				collect( Collectors.toList());
+		assertEquals( 30, records.size());
+		//one query for the records and at most two queries per association, independent of the number of records
+		final int loadQueries = countQueries( profiler ) - queriesBefore;
+		assertTrue( "Executed " + loadQueries + " queries", loadQueries <= 5);
+		for(final TestInterface record : records)
+		{
+			final TestInterface parent = record.getDirectionOne();
+			assertEquals( parent == null ? 2 : 0, AssociationHelper.getHasMany( record, TestInterface.class, "fk_test_id").count());
+		}
+		//the associations are not queried again
+		assertEquals( queriesBefore + loadQueries, countQueries( profiler ));
+	}
+	
+	private static int countQueries(final Profiler profiler)
+	{
+		return Stream.of( "getValue", "getValuesMap", "getAlLValues", "getValuesStream", "getValuesRows", "containsRecord", 
+				"findFirstWithData", "streamAllWithData", "findFirst", "streamAll", "count").mapToInt( profiler::getNumberOfRuns).sum();
+	}
+
+	@Test
+	public void testQueryResultIncludes()
+	{
+		final TestInterface i = base.createRecord(), m1 = base.createRecord(), m2 = base.createRecord();
+		i.setName( "Include1");
+		m1.setName( "Include2");
+		m2.setName( "Include3");
+		base.getStore().setValue( base, m1.getPrimaryKey(), "fk_test_id", i.getPrimaryKey());
+		base.getStore().setValue( base, m2.getPrimaryKey(), "fk_test_id", i.getPrimaryKey());
+		final List<TestInterface> records = base.where( Conditions.isLike( "name", "Include%")).
+				includes( Include.belongsTo( base, "fk_test_id"), Include.hasMany( base, "fk_test_id")).stream().
+				collect( Collectors.toList());
+		assertEquals( 3, records.size());
+		for(final TestInterface record : records)
+		{
+			assertEquals( record.equals( i) ? null : i, record.getDirectionOne());
+			assertEquals( record.equals( i) ? 2 : 0, AssociationHelper.getHasMany( record, TestInterface.class, "fk_test_id").count());
+		}
+	}
+}
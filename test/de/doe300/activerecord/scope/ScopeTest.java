@@ -24,8 +24,13 @@
  */
 package de.doe300.activerecord.scope;
 
+import de.doe300.activerecord.AssertException;
 import de.doe300.activerecord.dsl.Conditions;
 import de.doe300.activerecord.dsl.Orders;
+import de.doe300.activerecord.jdbc.driver.JDBCDriver;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -34,7 +39,7 @@ import org.junit.Test;
  * @author doe300
  * @since 0.8
  */
-public class ScopeTest extends Assert
+public class ScopeTest extends Assert implements AssertException
 {
 	private final Scope emptyScope = new Scope(null, null, 0);
 	private final Scope usefulScope = new Scope(Conditions.is( "age", 12), Orders.sortAscending( "name"), 100);
@@ -82,4 +87,23 @@ public class ScopeTest extends Assert
 		assertNotEquals( emptyScope.hashCode(), Scope.DEFAULT.hashCode());
 	}
 	
+	@Test
+	public void testAfter()
+	{
+		final Scope next = usefulScope.after( Collections.singletonMap( "name", "Adam"), JDBCDriver.DEFAULT);
+		assertEquals( usefulScope.getOrder(), next.getOrder());
+		assertEquals( usefulScope.getLimit(), next.getLimit());
+		final Map<String, Object> row = new HashMap<>(2);
+		row.put( "age", 12);
+		row.put( "name", "Eve");
+		assertTrue( next.getCondition().test( row ));
+		row.put( "name", "Adam");
+		assertFalse( next.getCondition().test( row ));
+		row.put( "age", 13);
+		row.put( "name", "Eve");
+		assertFalse( next.getCondition().test( row ));
+		
+		assertThrows( IllegalStateException.class, () -> emptyScope.after( Collections.singletonMap( "name", "Adam"), JDBCDriver.DEFAULT));
+		assertThrows( IllegalArgumentException.class, () -> usefulScope.after( Collections.emptyMap(), JDBCDriver.DEFAULT));
+	}
 }
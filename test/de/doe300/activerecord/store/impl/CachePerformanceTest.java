@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 doe300
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.TestInterface;
+import de.doe300.activerecord.TestServer;
+import de.doe300.activerecord.store.impl.memory.MemoryRecordStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Measures the scalability of concurrent reads from the row-cache with the number of threads
+ *
+ * @author doe300
+ * @since 0.9
+ */
+@Ignore("Too heavy for 'normal' error-tests")
+public class CachePerformanceTest extends Assert
+{
+	private static final int NUM_ROWS = 10000;
+	private static final long DURATION_MILLIS = 2000;
+	private static final String[] COLUMNS = {"id", "name", "age", "fk_test_id", "other", "created_at", "updated_at", "test_enum"};
+
+	public CachePerformanceTest()
+	{
+	}
+
+	@Test
+	public void testConcurrentReads() throws Exception
+	{
+		final RecordBase<TestInterface> base = TestServer.getTestCore( MemoryRecordStore.class).getBase( TestInterface.class);
+		final BaseCache cache = new BaseCache(base, new HashSet<>(Arrays.asList( COLUMNS)), NUM_ROWS, new CacheCounters());
+		for(int i = 0; i < NUM_ROWS; i++)
+		{
+			final RowCache row = cache.getOrCreateRow( i );
+			row.setData( "name", "Name" + i, false);
+			row.setData( "age", i, false);
+		}
+		final int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+		System.out.printf( "%8s: %16s\n", "Threads", "Reads/s");
+		for(int numThreads = 1; numThreads <= maxThreads; numThreads *= 2)
+		{
+			final ExecutorService executor = Executors.newFixedThreadPool( numThreads );
+			final LongAdder reads = new LongAdder();
+			final long end = System.currentTimeMillis() + DURATION_MILLIS;
+			final List<Future<?>> futures = new ArrayList<>(numThreads);
+			for(int t = 0; t < numThreads; t++)
+			{
+				final int offset = t;
+				futures.add( executor.submit( () ->
+				{
+					int key = offset;
+					long count = 0;
+					while(System.currentTimeMillis() < end)
+					{
+						for(int i = 0; i < 1000; i++)
+						{
+							key = (key + 7) % NUM_ROWS;
+							final RowCache row = cache.getOrCreateRow( key );
+							assertNotNull( row.getData( "name"));
+							assertTrue( row.hasData( "age"));
+							count++;
+						}
+					}
+					reads.add( count );
+				}));
+			}
+			for(final Future<?> f : futures)
+			{
+				f.get();
+			}
+			executor.shutdown();
+			executor.awaitTermination( 1, TimeUnit.MINUTES);
+			System.out.printf( "%8d: %16d\n", numThreads, reads.sum() * 1000 / DURATION_MILLIS );
+		}
+	}
+}
@@ -24,6 +24,7 @@
  */
 package de.doe300.activerecord.store.impl;
 
+import de.doe300.activerecord.AssertException;
 import de.doe300.activerecord.RecordBase;
 import de.doe300.activerecord.RecordCore;
 import de.doe300.activerecord.TestInterface;
@@ -31,13 +32,21 @@ import de.doe300.activerecord.TestServer;
 import de.doe300.activerecord.dsl.Conditions;
 import de.doe300.activerecord.dsl.Orders;
 import de.doe300.activerecord.dsl.functions.Sum;
+import de.doe300.activerecord.jdbc.driver.JDBCDriver;
 import de.doe300.activerecord.scope.Scope;
+import de.doe300.activerecord.store.diagnostics.CacheStatistics;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -49,7 +58,7 @@ import org.junit.Test;
  * @author daniel
  */
 @Deprecated
-public class CachedJDBCRecordStoreTest extends Assert
+public class CachedJDBCRecordStoreTest extends Assert implements AssertException
 {
 	private static final CachedJDBCRecordStore store;
 	static
@@ -145,6 +154,284 @@ public class CachedJDBCRecordStoreTest extends Assert
 		assertEquals( 113, store.getValue( base, primaryKey, "age"));
 	}
 
+	@Test
+	public void testSaveAll_Batched()
+	{
+		final int key1 = store.insertNewRecord( base, null);
+		final int key2 = store.insertNewRecord( base, null);
+		final int key3 = store.insertNewRecord( base, null);
+		store.setValue( base, key1, "name", "Adam");
+		store.setValue( base, key2, "name", "Bob");
+		store.setValue( base, key2, "age", 42);
+		store.setValue( base, key3, "age", 43);
+		store.setValue( base, key3, "name", "Carl");
+		assertTrue( store.saveAll( base ));
+		store.clearCache( base, key1 );
+		store.clearCache( base, key2 );
+		store.clearCache( base, key3 );
+		assertEquals( "Adam", store.getValue( base, key1, "name"));
+		assertEquals( "Bob", store.getValue( base, key2, "name"));
+		assertEquals( 42, store.getValue( base, key2, "age"));
+		assertEquals( "Carl", store.getValue( base, key3, "name"));
+		assertEquals( 43, store.getValue( base, key3, "age"));
+	}
+
+	@Test
+	public void testCacheCapacity() throws SQLException
+	{
+		final Connection con = TestServer.getTestConnection();
+		final CachedJDBCRecordStore boundedStore = new CachedJDBCRecordStore(con, JDBCDriver.guessDriver( con), 2);
+		final RecordBase<TestInterface> boundedBase = RecordCore.fromStore( "TestCapacity", boundedStore).getBase(TestInterface.class).getShardBase( CachedJDBCRecordStoreTest.class.getSimpleName() );
+		final CacheStatistics stats = boundedStore.getDiagnostics().getRowCacheStatistics();
+		final int key1 = boundedStore.insertNewRecord( boundedBase, null);
+		final int key2 = boundedStore.insertNewRecord( boundedBase, null);
+		final int key3 = boundedStore.insertNewRecord( boundedBase, null);
+		//modified row must not be evicted
+		boundedStore.setValue( boundedBase, key1, "name", "Dirty");
+		boundedStore.getValue( boundedBase, key2, "name");
+		boundedStore.getValue( boundedBase, key3, "name");
+		assertEquals( 2, stats.getCapacity());
+		assertEquals( 2, stats.getSize());
+		assertTrue( stats.getEvictions() >= 1);
+		assertFalse( boundedStore.isSynchronized( boundedBase, key1));
+		assertTrue( boundedStore.saveAll( boundedBase ));
+		assertEquals( "Dirty", store.getValue( base, key1, "name"));
+
+		boundedStore.getValue( boundedBase, key3, "name");
+		assertTrue( stats.getHits() >= 1);
+		assertTrue( stats.getMisses() >= 3);
+
+		boundedStore.setCacheCapacity( boundedBase, 1);
+		assertEquals( 1, stats.getCapacity());
+		assertEquals( 1, stats.getSize());
+	}
+
+	@Test
+	public void testEvictedRowRejectsModifications()
+	{
+		final BaseCache cache = new BaseCache(base, store.getAllColumnNames( base.getTableName()), 2, new CacheCounters());
+		final RowCache row = cache.getOrCreateRow( primaryKey );
+		assertTrue( row.setData( "name", "Loaded", false));
+		cache.invalidate();
+		assertTrue( row.isEvicted());
+		assertFalse( cache.containsRow( primaryKey ));
+		//the modification is rejected instead of being lost with the evicted row
+		assertFalse( row.setData( "name", "Lost", true));
+		assertFalse( row.update( Collections.singletonMap( "name", "Lost"), true));
+		assertTrue( row.isSynchronized());
+		assertEquals( 0, cache.getModifiedCount());
+		//modified rows are not evicted
+		final RowCache newRow = cache.getOrCreateRow( primaryKey );
+		assertNotSame( row, newRow );
+		assertTrue( newRow.setData( "name", "Kept", true));
+		cache.invalidate();
+		assertFalse( newRow.isEvicted());
+		assertSame( newRow, cache.getRow( primaryKey ));
+		assertEquals( 1, cache.getModifiedCount());
+	}
+
+	@Test
+	public void testExistenceCache() throws SQLException
+	{
+		final int key = store.insertNewRecord( base, null);
+		store.setValue( base, key, "name", "Existing");
+		assertTrue( store.save( base, key));
+		//remove the row from outside of the store
+		final SimpleJDBCRecordStore externalStore = new SimpleJDBCRecordStore(TestServer.getTestConnection());
+		assertTrue( externalStore.removeRow( base.getTableName(), Conditions.is( base.getPrimaryColumn(), key)));
+		//cached rows are not checked against the DB
+		assertTrue( store.containsRecord( base, key));
+		assertEquals( "Existing", store.getValue( base, key, "name"));
+		store.invalidateCache( base );
+		assertFalse( store.containsRecord( base, key));
+		assertNull( store.getValue( base, key, "name"));
+
+		final int key2 = store.insertNewRecord( base, null);
+		assertTrue( store.containsRecord( base, key2));
+		store.destroy( base, key2 );
+		assertFalse( store.containsRecord( base, key2));
+		assertNull( store.getValue( base, key2, "name"));
+	}
+
+	@Test
+	public void testWriteBehind() throws Exception
+	{
+		final CachedJDBCRecordStore asyncStore = new CachedJDBCRecordStore(TestServer.getTestConnection());
+		final RecordBase<TestInterface> asyncBase = RecordCore.fromStore( "TestWriteBehind", asyncStore).getBase(TestInterface.class).getShardBase( CachedJDBCRecordStoreTest.class.getSimpleName() );
+		final int key = asyncStore.insertNewRecord( asyncBase, null);
+		asyncStore.enableWriteBehind( 10, 1000, 1000);
+		try
+		{
+			asyncStore.setValue( asyncBase, key, "name", "Later");
+			final long end = System.currentTimeMillis() + 5000;
+			while(!asyncStore.isSynchronized( asyncBase, key) && System.currentTimeMillis() < end)
+			{
+				Thread.sleep( 10 );
+			}
+			assertTrue( asyncStore.isSynchronized( asyncBase, key));
+			//wait for the write-back in progress
+			asyncStore.flush();
+			store.clearCache( base, key );
+			assertEquals( "Later", store.getValue( base, key, "name"));
+		}
+		finally
+		{
+			asyncStore.disableWriteBehind();
+		}
+		assertThrows( IllegalArgumentException.class, () -> asyncStore.enableWriteBehind( 0, 1, 1));
+	}
+
+	@Test
+	public void testWriteBehind_Flush() throws Exception
+	{
+		final CachedJDBCRecordStore asyncStore = new CachedJDBCRecordStore(TestServer.getTestConnection());
+		final RecordBase<TestInterface> asyncBase = RecordCore.fromStore( "TestWriteBehindFlush", asyncStore).getBase(TestInterface.class).getShardBase( CachedJDBCRecordStoreTest.class.getSimpleName() );
+		final int[] keys = {asyncStore.insertNewRecord( asyncBase, null), asyncStore.insertNewRecord( asyncBase, null),
+			asyncStore.insertNewRecord( asyncBase, null)};
+		//only flush on back-pressure or explicitly
+		asyncStore.enableWriteBehind( 60000, 1, 1);
+		try
+		{
+			for(final int key : keys)
+			{
+				asyncStore.setValue( asyncBase, key, "age", key);
+				assertTrue( asyncStore.getModifiedRowCount() <= 1);
+			}
+			asyncStore.flush();
+			assertEquals( 0, asyncStore.getModifiedRowCount());
+			for(final int key : keys)
+			{
+				assertTrue( asyncStore.isSynchronized( asyncBase, key));
+				store.clearCache( base, key );
+				assertEquals( key, store.getValue( base, key, "age"));
+			}
+		}
+		finally
+		{
+			asyncStore.disableWriteBehind();
+		}
+	}
+
+	@Test
+	public void testFailedWriteBackIsRetried() throws Exception
+	{
+		final String tableName = "failingWriteBack" + CachedJDBCRecordStoreTest.class.getSimpleName();
+		final AtomicBoolean failBatch = new AtomicBoolean(false);
+		final Connection con = TestServer.getTestConnection();
+		final Connection failingCon = (Connection)Proxy.newProxyInstance( getClass().getClassLoader(), new Class<?>[]{Connection.class}, 
+				(final Object proxy, final Method method, final Object[] args) -> 
+		{
+			final Object result = invoke( con, method, args);
+			if(result instanceof PreparedStatement)
+			{
+				return Proxy.newProxyInstance( getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, 
+						(final Object stmtProxy, final Method stmtMethod, final Object[] stmtArgs) ->
+				{
+					if("executeBatch".equals( stmtMethod.getName()) && failBatch.get())
+					{
+						throw new SQLException("Failed to write batch");
+					}
+					return invoke( result, stmtMethod, stmtArgs);
+				});
+			}
+			return result;
+		});
+		final CachedJDBCRecordStore failingStore = new CachedJDBCRecordStore(failingCon);
+		TestServer.buildTestTable( failingStore, TestInterface.class, tableName);
+		try
+		{
+			final RecordBase<TestInterface> failingBase = RecordCore.fromStore( "FailingWriteBack", failingStore).getBase( TestInterface.class).
+					getShardBase( tableName );
+			final int key = failingStore.insertNewRecord( failingBase, null);
+			failingStore.setValue( failingBase, key, "age", 42);
+			failBatch.set( true);
+			assertThrows( IllegalArgumentException.class, () -> failingStore.flush());
+			//the modification is kept and the row can't be evicted
+			assertFalse( failingStore.isSynchronized( failingBase, key));
+			assertEquals( 1, failingStore.getModifiedRowCount());
+			failBatch.set( false);
+			failingStore.flush();
+			assertTrue( failingStore.isSynchronized( failingBase, key));
+			assertEquals( 0, failingStore.getModifiedRowCount());
+			failingStore.clearCache( failingBase, key );
+			assertEquals( 42, failingStore.getValue( failingBase, key, "age"));
+		}
+		finally
+		{
+			TestServer.destroyTestTable( failingStore, TestInterface.class, tableName);
+		}
+	}
+	
+	@Test
+	public void testWriteBehind_ErrorReportedOnce() throws Exception
+	{
+		final String tableName = "failingWriteBehind" + CachedJDBCRecordStoreTest.class.getSimpleName();
+		final AtomicBoolean failBatch = new AtomicBoolean(false);
+		final Connection con = TestServer.getTestConnection();
+		final Connection failingCon = (Connection)Proxy.newProxyInstance( getClass().getClassLoader(), new Class<?>[]{Connection.class}, 
+				(final Object proxy, final Method method, final Object[] args) -> 
+		{
+			final Object result = invoke( con, method, args);
+			if(result instanceof PreparedStatement)
+			{
+				return Proxy.newProxyInstance( getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, 
+						(final Object stmtProxy, final Method stmtMethod, final Object[] stmtArgs) ->
+				{
+					if("executeBatch".equals( stmtMethod.getName()) && failBatch.get())
+					{
+						throw new SQLException("Failed to write batch");
+					}
+					return invoke( result, stmtMethod, stmtArgs);
+				});
+			}
+			return result;
+		});
+		final CachedJDBCRecordStore failingStore = new CachedJDBCRecordStore(failingCon);
+		TestServer.buildTestTable( failingStore, TestInterface.class, tableName);
+		try
+		{
+			final RecordBase<TestInterface> failingBase = RecordCore.fromStore( "FailingWriteBehind", failingStore).getBase( TestInterface.class).
+					getShardBase( tableName );
+			final int key = failingStore.insertNewRecord( failingBase, null);
+			failBatch.set( true);
+			failingStore.enableWriteBehind( 10, 1000, 1000);
+			failingStore.setValue( failingBase, key, "age", 42);
+			//let the background write-back fail at least once
+			Thread.sleep( 100 );
+			failBatch.set( false);
+			final long end = System.currentTimeMillis() + 5000;
+			while(!failingStore.isSynchronized( failingBase, key) && System.currentTimeMillis() < end)
+			{
+				Thread.sleep( 10 );
+			}
+			assertTrue( failingStore.isSynchronized( failingBase, key));
+			//wait for some successful cycles, which must not keep the old error
+			Thread.sleep( 100 );
+			failingStore.flush();
+			failingStore.setValue( failingBase, key, "age", 43);
+			failingStore.disableWriteBehind();
+			failingStore.clearCache( failingBase, key );
+			assertEquals( 43, failingStore.getValue( failingBase, key, "age"));
+		}
+		finally
+		{
+			failingStore.disableWriteBehind();
+			TestServer.destroyTestTable( failingStore, TestInterface.class, tableName);
+		}
+	}
+	
+	private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke( target, args);
+		}
+		catch(final InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+	}
+
 	@Test
 	public void testIsSynchronized()
 	{
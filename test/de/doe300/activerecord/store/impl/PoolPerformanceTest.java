@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.RecordCore;
+import de.doe300.activerecord.TestInterface;
+import de.doe300.activerecord.TestServer;
+import de.doe300.activerecord.dsl.Conditions;
+import de.doe300.activerecord.store.RecordStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Measures the throughput of concurrent queries with the number of threads, 
+ * for a single shared connection and for a connection-pool
+ *
+ * @author doe300
+ * @since 0.9
+ */
+@Ignore("Too heavy for 'normal' error-tests")
+public class PoolPerformanceTest extends Assert
+{
+	private static final int NUM_ROWS = 1000;
+	private static final long DURATION_MILLIS = 2000;
+	private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+	public PoolPerformanceTest()
+	{
+	}
+
+	@Test
+	public void testSharedConnection() throws Exception
+	{
+		measureThroughput( new SimpleJDBCRecordStore(TestServer.getTestConnection()));
+	}
+
+	@Test
+	public void testPooledConnections() throws Exception
+	{
+		measureThroughput( new PooledJDBCRecordStore(TestServer::getTestConnection, MAX_THREADS, 
+				PooledJDBCRecordStore.DEFAULT_BORROW_TIMEOUT));
+	}
+
+	private void measureThroughput(final RecordStore store) throws Exception
+	{
+		final String tableName = PoolPerformanceTest.class.getSimpleName() + store.getClass().getSimpleName();
+		TestServer.buildTestTable( store, TestInterface.class, tableName);
+		final RecordCore core = RecordCore.fromStore( tableName, store);
+		try
+		{
+			final RecordBase<TestInterface> base = core.getBase( TestInterface.class).getShardBase( tableName );
+			for(int i = 0; i < NUM_ROWS; i++)
+			{
+				base.createRecord().setAge( i);
+			}
+			System.out.println( store.getClass().getSimpleName());
+			System.out.printf( "%8s: %16s\n", "Threads", "Queries/s");
+			for(int numThreads = 1; numThreads <= MAX_THREADS; numThreads *= 2)
+			{
+				final ExecutorService executor = Executors.newFixedThreadPool( numThreads );
+				final LongAdder queries = new LongAdder();
+				final long end = System.currentTimeMillis() + DURATION_MILLIS;
+				final List<Future<?>> futures = new ArrayList<>(numThreads);
+				for(int t = 0; t < numThreads; t++)
+				{
+					final int offset = t;
+					futures.add( executor.submit( () ->
+					{
+						int age = offset;
+						long count = 0;
+						while(System.currentTimeMillis() < end)
+						{
+							age = (age + 7) % NUM_ROWS;
+							assertNotNull( base.findFirstFor( "age", age));
+							assertEquals( 1, base.count( Conditions.is( "age", age)));
+							count += 2;
+						}
+						queries.add( count );
+					}));
+				}
+				for(final Future<?> f : futures)
+				{
+					f.get();
+				}
+				executor.shutdown();
+				executor.awaitTermination( 1, TimeUnit.MINUTES);
+				System.out.printf( "%8d: %16d\n", numThreads, queries.sum() * 1000 / DURATION_MILLIS );
+			}
+		}
+		finally
+		{
+			TestServer.destroyTestTable( store, TestInterface.class, tableName);
+			core.close();
+		}
+	}
+}
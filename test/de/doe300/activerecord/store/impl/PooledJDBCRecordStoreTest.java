@@ -0,0 +1,187 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.AssertException;
+import de.doe300.activerecord.RecordBase;
+import de.doe300.activerecord.RecordCore;
+import de.doe300.activerecord.TestInterface;
+import de.doe300.activerecord.TestServer;
+import de.doe300.activerecord.dsl.Conditions;
+import de.doe300.activerecord.scope.Scope;
+import de.doe300.activerecord.store.diagnostics.PoolStatistics;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author doe300
+ * @since 0.9
+ */
+public class PooledJDBCRecordStoreTest extends Assert implements AssertException
+{
+	private static final int POOL_SIZE = 2;
+	private static PooledJDBCRecordStore store;
+	private static RecordBase<TestInterface> base;
+	
+	@BeforeClass
+	public static void createTables() throws Exception
+	{
+		store = new PooledJDBCRecordStore(TestServer::getTestConnection, POOL_SIZE, 1000);
+		TestServer.buildTestTable(store, TestInterface.class, PooledJDBCRecordStoreTest.class.getSimpleName());
+		base = RecordCore.fromStore( PooledJDBCRecordStoreTest.class.getSimpleName(), store).getBase(TestInterface.class).
+				getShardBase( PooledJDBCRecordStoreTest.class.getSimpleName());
+	}
+	
+	@AfterClass
+	public static void destroyTables() throws Exception
+	{
+		TestServer.destroyTestTable(store, TestInterface.class, PooledJDBCRecordStoreTest.class.getSimpleName());
+		RecordCore.getCore( PooledJDBCRecordStoreTest.class.getSimpleName()).close();
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception
+	{
+		final PoolStatistics stats = store.getDiagnostics().getPoolStatistics();
+		final long borrowsBefore = stats.getBorrowCount();
+		final ExecutorService executor = Executors.newFixedThreadPool( 8);
+		try
+		{
+			final List<Future<Integer>> results = new ArrayList<>(8);
+			for(int i = 0; i < 8; i++)
+			{
+				final int age = 1000 + i;
+				results.add( executor.submit( () ->
+				{
+					for(int j = 0; j < 25; j++)
+					{
+						base.createRecord().setAge( age);
+					}
+					return base.count( Conditions.is( "age", age));
+				}));
+			}
+			for(final Future<Integer> result : results)
+			{
+				assertEquals( 25, result.get().intValue());
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		assertTrue( stats.getBorrowCount() > borrowsBefore);
+		assertTrue( stats.getOpenConnections() <= POOL_SIZE);
+		assertEquals( 0, stats.getActiveConnections());
+		assertEquals( POOL_SIZE, stats.getPoolSize());
+	}
+
+	@Test
+	public void testStreamReleasesConnection() throws SQLException
+	{
+		final PoolStatistics stats = store.getDiagnostics().getPoolStatistics();
+		base.createRecord().setName( "Streamed");
+		try(final Stream<Object> names = store.getValues( base.getTableName(), "name", "name", "Streamed"))
+		{
+			assertEquals( 1, stats.getActiveConnections());
+			//nested access of the same thread re-uses the connection
+			assertTrue( store.containsRecord( base, base.findFirstFor( "name", "Streamed").getPrimaryKey()));
+			assertEquals( 1, stats.getActiveConnections());
+			assertEquals( "Streamed", names.findFirst().get());
+		}
+		assertEquals( 0, stats.getActiveConnections());
+		//reading the stream to the end releases the connection
+		assertEquals( 1, base.find( Conditions.is( "name", "Streamed")).count());
+		assertEquals( 0, stats.getActiveConnections());
+	}
+
+	@Test
+	public void testPartitionedStream()
+	{
+		for(int i = 0; i < 20; i++)
+		{
+			base.createRecord().setAge( 2000 + i);
+		}
+		final Scope scope = new Scope(Conditions.isLargerEquals( "age", 2000), null, Scope.NO_LIMIT);
+		final List<Integer> expected;
+		try(final Stream<Map<String, Object>> rows = store.streamAllWithData( base, new String[]{"id"}, scope))
+		{
+			expected = rows.map( (final Map<String, Object> row) -> ((Number)row.get( "id")).intValue()).collect( Collectors.toList());
+		}
+		assertEquals( 20, expected.size());
+		store.setStreamPartitions( POOL_SIZE );
+		try(final Stream<Map<String, Object>> rows = store.streamAllWithData( base, new String[]{"id"}, scope))
+		{
+			assertEquals( expected, rows.parallel().map( (final Map<String, Object> row) -> ((Number)row.get( "id")).intValue()).
+					collect( Collectors.toList()));
+		}
+		finally
+		{
+			store.setStreamPartitions( 1 );
+		}
+		assertEquals( 0, store.getDiagnostics().getPoolStatistics().getActiveConnections());
+		assertThrows( IllegalArgumentException.class, () -> store.setStreamPartitions( 0 ));
+	}
+	
+	@Test
+	public void testAbandonedStreamReleasesConnection() throws InterruptedException
+	{
+		final PoolStatistics stats = store.getDiagnostics().getPoolStatistics();
+		base.createRecord().setName( "Abandoned");
+		final Set<ResourceCleaner.Cleanable> registeredBefore = ResourceCleaner.getRegistered();
+		final Stream<Object> names = store.getValues( base.getTableName(), "name", "name", "Abandoned");
+		assertEquals( "Abandoned", names.iterator().next());
+		assertEquals( 1, stats.getActiveConnections());
+		final Set<ResourceCleaner.Cleanable> cleanables = ResourceCleaner.getRegistered();
+		cleanables.removeAll( registeredBefore );
+		assertFalse( cleanables.isEmpty());
+		//the stream is neither closed nor read to the end, enqueuing the references has the same effect as the 
+		//garbage-collector detecting the stream (and the wrapped result-set stream) as unreachable
+		for(final ResourceCleaner.Cleanable cleanable : cleanables)
+		{
+			assertTrue( cleanable.enqueue());
+		}
+		//the handles are marked as cleaned before their clean-up actions run
+		for(int i = 0; i < 500 && (!cleanables.stream().allMatch( ResourceCleaner.Cleanable::isCleaned) || 
+				stats.getActiveConnections() > 0); i++)
+		{
+			Thread.sleep( 10 );
+		}
+		assertTrue( cleanables.stream().allMatch( ResourceCleaner.Cleanable::isCleaned));
+		assertEquals( 0, stats.getActiveConnections());
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package de.doe300.activerecord.store.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author doe300
+ * @since 0.9
+ */
+public class PrimaryKeyMapTest extends Assert
+{
+	@Test
+	public void testComputeIfAbsent()
+	{
+		final PrimaryKeyMap<Integer> map = new PrimaryKeyMap<>(Integer::intValue);
+		final AtomicInteger created = new AtomicInteger(0);
+		for(int i = -500; i < 1000; i++)
+		{
+			assertEquals( Integer.valueOf( i), map.computeIfAbsent( i, (final int key) -> {created.incrementAndGet(); return key;}));
+		}
+		assertEquals( 1500, map.size());
+		assertEquals( 1500, created.get());
+		//existing values are not created again
+		assertEquals( Integer.valueOf( 42), map.computeIfAbsent( 42, (final int key) -> {created.incrementAndGet(); return key;}));
+		assertEquals( 1500, created.get());
+		for(int i = -500; i < 1000; i++)
+		{
+			assertTrue( map.containsKey( i ));
+			assertEquals( Integer.valueOf( i), map.get( i ));
+		}
+		assertFalse( map.containsKey( 1000 ));
+		assertNull( map.get( -501 ));
+	}
+
+	@Test
+	public void testRemove()
+	{
+		final PrimaryKeyMap<Integer> map = new PrimaryKeyMap<>(Integer::intValue);
+		IntStream.range( 0, 1000).forEach( (final int i) -> map.computeIfAbsent( i, Integer::valueOf));
+		for(int i = 0; i < 1000; i += 2)
+		{
+			assertEquals( Integer.valueOf( i), map.remove( i ));
+		}
+		assertNull( map.remove( 0 ));
+		assertEquals( 500, map.size());
+		for(int i = 0; i < 1000; i++)
+		{
+			assertEquals( i % 2 == 1, map.containsKey( i ));
+		}
+		//only the stored instance is removed
+		assertFalse( map.remove( new Integer(1001)));
+		assertTrue( map.remove( map.get( 1)));
+		assertFalse( map.containsKey( 1 ));
+		//removed slots are re-used
+		IntStream.range( 0, 1000).forEach( (final int i) -> map.computeIfAbsent( i, Integer::valueOf));
+		assertEquals( 1000, map.size());
+		IntStream.range( 0, 1000).forEach( (final int i) -> assertTrue( map.containsKey( i )));
+	}
+
+	@Test
+	public void testValues()
+	{
+		final PrimaryKeyMap<Integer> map = new PrimaryKeyMap<>(Integer::intValue);
+		assertTrue( map.values().isEmpty());
+		final Set<Integer> expected = new HashSet<>(100);
+		for(int i = 0; i < 100; i++)
+		{
+			expected.add( map.computeIfAbsent( i * 31, Integer::valueOf));
+		}
+		map.remove( 31 );
+		expected.remove( 31 );
+		assertEquals( expected, new HashSet<>(map.values()));
+		assertEquals( 99, map.values().size());
+	}
+
+	@Test
+	public void testConcurrentModifications() throws InterruptedException
+	{
+		final PrimaryKeyMap<Integer> map = new PrimaryKeyMap<>(Integer::intValue);
+		final Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++)
+		{
+			final int offset = t;
+			threads[t] = new Thread(() ->
+			{
+				for(int i = offset; i < 20000; i += threads.length)
+				{
+					map.computeIfAbsent( i, Integer::valueOf);
+					if(i % 3 == 0)
+					{
+						map.remove( i );
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(final Thread thread : threads)
+		{
+			thread.join();
+		}
+		for(int i = 0; i < 20000; i++)
+		{
+			assertEquals( i % 3 != 0, map.containsKey( i ));
+		}
+		assertEquals( 20000 - 6667, map.size());
+	}
+}
@@ -29,14 +29,26 @@ import de.doe300.activerecord.RecordBase;
 import de.doe300.activerecord.RecordCore;
 import de.doe300.activerecord.TestInterface;
 import de.doe300.activerecord.TestServer;
+import de.doe300.activerecord.dsl.AggregateFunction;
 import de.doe300.activerecord.dsl.Conditions;
+import de.doe300.activerecord.dsl.functions.CountNotNull;
 import de.doe300.activerecord.dsl.functions.Sum;
 import de.doe300.activerecord.scope.Scope;
+import de.doe300.activerecord.store.diagnostics.CacheStatistics;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -300,6 +312,27 @@ public class SimpleJDBCRecordStoreTest extends Assert implements AssertException
 		assertThrows( IllegalArgumentException.class, () -> store.aggregate( base, new Sum<TestInterface, Integer>("no_such_row", TestInterface::getAge), null ));
 	}
 
+	@Test
+	public void testAggregateGrouped()
+	{
+		for(int i = 1; i <= 6; i++)
+		{
+			Map<String, Object> values = new HashMap<>(2);
+			values.put( "name", i % 2 == 0 ? "GroupEven" : "GroupOdd");
+			values.put( "age", i);
+			store.insertNewRecord( base, values );
+		}
+		final Map<List<Object>, Object[]> groups = store.aggregateGrouped( base, new String[]{"name"}, new AggregateFunction<?, ?, ?, ?>[]{
+			new Sum<TestInterface, Integer>("age", TestInterface::getAge), new CountNotNull<TestInterface, Integer>("age", TestInterface::getAge)
+		}, Conditions.isLike( "name", "Group%"));
+		assertEquals( 2, groups.size());
+		assertEquals( 12, ((Number)groups.get( Collections.singletonList( "GroupEven"))[0]).intValue());
+		assertEquals( 9, ((Number)groups.get( Collections.singletonList( "GroupOdd"))[0]).intValue());
+		assertEquals( 3, ((Number)groups.get( Collections.singletonList( "GroupOdd"))[1]).intValue());
+		assertThrows( IllegalArgumentException.class, () -> store.aggregateGrouped( base, new String[]{"no_such_row"}, 
+				new AggregateFunction<?, ?, ?, ?>[]{new Sum<TestInterface, Integer>("age", TestInterface::getAge)}, null ));
+	}
+
 	@Test
 	public void testGetAllColumnTypes()
 	{
@@ -308,4 +341,159 @@ public class SimpleJDBCRecordStoreTest extends Assert implements AssertException
 		//fails
 		assertThrows( IllegalArgumentException.class, () -> store.getAllColumnTypes( "no_such_table"));
 	}
+
+	@Test
+	public void testStatementCache()
+	{
+		final CacheStatistics stats = store.getDiagnostics().getStatementCacheStatistics();
+		store.getValue( base, primaryKey, "name");
+		final long hits = stats.getHits();
+		final long misses = stats.getMisses();
+		store.getValue( base, primaryKey, "name");
+		store.getValue( base, primaryKey + 1, "name");
+		assertEquals( hits + 2, stats.getHits());
+		assertEquals( misses, stats.getMisses());
+		assertTrue( stats.getSize() <= stats.getCapacity());
+	}
+	
+	@Test
+	public void testFetchSize()
+	{
+		base.createRecord().setAge( 321);
+		base.createRecord().setAge( 321);
+		base.createRecord().setAge( 321);
+		assertEquals( 3, store.streamAllWithData( base, base.getDefaultColumns(), new Scope(Conditions.is( "age", 321), null, Scope.NO_LIMIT, 1)).count());
+		store.setFetchSize( 2 );
+		try(final Stream<Object> ages = store.getValues( base.getTableName(), "age", "age", 321))
+		{
+			assertEquals( 3, ages.count());
+		}
+		finally
+		{
+			store.setFetchSize( Scope.DEFAULT_FETCH_SIZE );
+		}
+		assertThrows( IllegalArgumentException.class, () -> store.setFetchSize( -1 ));
+		assertThrows( IllegalArgumentException.class, () -> new Scope(null, null, Scope.NO_LIMIT, -1));
+	}
+	
+	@Test
+	public void testFailedCachedInsertIsNotRetried() throws Exception
+	{
+		final String tableName = "failingInsert" + SimpleJDBCRecordStoreTest.class.getSimpleName();
+		final AtomicBoolean failKeys = new AtomicBoolean(false);
+		final Connection con = TestServer.getTestConnection();
+		//fails reading the generated keys, after the INSERT was executed
+		final Connection failingCon = (Connection)Proxy.newProxyInstance( getClass().getClassLoader(), new Class<?>[]{Connection.class}, 
+				(final Object proxy, final Method method, final Object[] args) -> 
+		{
+			final Object result = invoke( con, method, args);
+			if(result instanceof PreparedStatement)
+			{
+				return Proxy.newProxyInstance( getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, 
+						(final Object stmtProxy, final Method stmtMethod, final Object[] stmtArgs) ->
+				{
+					if("getGeneratedKeys".equals( stmtMethod.getName()) && failKeys.get())
+					{
+						throw new SQLException("Failed to read keys");
+					}
+					return invoke( result, stmtMethod, stmtArgs);
+				});
+			}
+			return result;
+		});
+		final SimpleJDBCRecordStore failingStore = new SimpleJDBCRecordStore(failingCon);
+		TestServer.buildTestTable( failingStore, TestInterface.class, tableName);
+		try
+		{
+			final RecordBase<TestInterface> failingBase = RecordCore.fromStore( "FailingInsert", failingStore).getBase( TestInterface.class).
+					getShardBase( tableName );
+			//prepares and caches the INSERT-statement
+			failingStore.insertNewRecord( failingBase, Collections.singletonMap( "age", 12));
+			failKeys.set( true);
+			assertThrows( IllegalArgumentException.class, () -> failingStore.insertNewRecord( failingBase, Collections.singletonMap( "age", 12)));
+			failKeys.set( false);
+			//the failed INSERT was executed exactly once
+			assertEquals( 2, failingStore.count( failingBase, Conditions.is( "age", 12)));
+		}
+		finally
+		{
+			TestServer.destroyTestTable( failingStore, TestInterface.class, tableName);
+		}
+	}
+	
+	@Test
+	public void testFailedReadIsReported() throws Exception
+	{
+		final String tableName = "failingRead" + SimpleJDBCRecordStoreTest.class.getSimpleName();
+		final AtomicBoolean failNext = new AtomicBoolean(false);
+		final AtomicBoolean resultClosed = new AtomicBoolean(false);
+		final Connection con = TestServer.getTestConnection();
+		//fails reading the next row of a result
+		final Connection failingCon = (Connection)Proxy.newProxyInstance( getClass().getClassLoader(), new Class<?>[]{Connection.class}, 
+				(final Object proxy, final Method method, final Object[] args) -> 
+		{
+			final Object result = invoke( con, method, args);
+			if(result instanceof PreparedStatement)
+			{
+				return Proxy.newProxyInstance( getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, 
+						(final Object stmtProxy, final Method stmtMethod, final Object[] stmtArgs) ->
+				{
+					final Object stmtResult = invoke( result, stmtMethod, stmtArgs);
+					if(stmtResult instanceof ResultSet)
+					{
+						return Proxy.newProxyInstance( getClass().getClassLoader(), new Class<?>[]{ResultSet.class}, 
+								(final Object resProxy, final Method resMethod, final Object[] resArgs) ->
+						{
+							if("next".equals( resMethod.getName()) && failNext.get())
+							{
+								throw new SQLException("Failed to read row");
+							}
+							if("close".equals( resMethod.getName()))
+							{
+								resultClosed.set( true);
+							}
+							return invoke( stmtResult, resMethod, resArgs);
+						});
+					}
+					return stmtResult;
+				});
+			}
+			return result;
+		});
+		final SimpleJDBCRecordStore failingStore = new SimpleJDBCRecordStore(failingCon);
+		TestServer.buildTestTable( failingStore, TestInterface.class, tableName);
+		try
+		{
+			final RecordBase<TestInterface> failingBase = RecordCore.fromStore( "FailingRead", failingStore).getBase( TestInterface.class).
+					getShardBase( tableName );
+			failingStore.insertNewRecord( failingBase, Collections.singletonMap( "age", 12));
+			failingStore.insertNewRecord( failingBase, Collections.singletonMap( "age", 12));
+			try(final Stream<Object> ages = failingStore.getValues( tableName, "age", "age", 12))
+			{
+				final Iterator<Object> it = ages.iterator();
+				assertEquals( 12, it.next());
+				failNext.set( true);
+				//the error is not swallowed as end of the result
+				assertThrows( IllegalArgumentException.class, () -> it.hasNext());
+				assertTrue( resultClosed.get());
+			}
+			failNext.set( false);
+		}
+		finally
+		{
+			TestServer.destroyTestTable( failingStore, TestInterface.class, tableName);
+		}
+	}
+	
+	private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke( target, args);
+		}
+		catch(final InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+	}
 }
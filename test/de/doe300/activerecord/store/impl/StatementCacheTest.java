@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.doe300.activerecord.store.impl;
+
+import de.doe300.activerecord.TestServer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author doe300
+ * @since 0.9
+ */
+public class StatementCacheTest extends Assert
+{
+	@Test
+	public void testAcquireRelease() throws Exception
+	{
+		final CacheCounters counters = new CacheCounters();
+		try(final Connection con = TestServer.getTestConnection())
+		{
+			final StatementCache cache = new StatementCache(2, counters);
+			final String sql = "VALUES(1)";
+			assertNull( cache.acquire( sql, Statement.NO_GENERATED_KEYS));
+			assertEquals( 1, counters.getMisses());
+			final PreparedStatement stmt = con.prepareStatement( sql );
+			cache.release( sql, Statement.NO_GENERATED_KEYS, stmt);
+			assertEquals( 1, counters.getSize());
+			//generated keys are part of the key
+			assertNull( cache.acquire( sql, Statement.RETURN_GENERATED_KEYS));
+			assertSame( stmt, cache.acquire( sql, Statement.NO_GENERATED_KEYS));
+			assertEquals( 1, counters.getHits());
+			//statement is in use, so it is not returned twice
+			assertNull( cache.acquire( sql, Statement.NO_GENERATED_KEYS));
+			cache.release( sql, Statement.NO_GENERATED_KEYS, stmt);
+			cache.close();
+			assertTrue( stmt.isClosed());
+			assertEquals( 0, counters.getSize());
+			assertEquals( 0, counters.getCapacity());
+		}
+	}
+
+	@Test
+	public void testEviction() throws Exception
+	{
+		final CacheCounters counters = new CacheCounters();
+		try(final Connection con = TestServer.getTestConnection())
+		{
+			final StatementCache cache = new StatementCache(2, counters);
+			final PreparedStatement stmt1 = con.prepareStatement( "VALUES(1)" );
+			final PreparedStatement stmt2 = con.prepareStatement( "VALUES(2)" );
+			final PreparedStatement stmt3 = con.prepareStatement( "VALUES(3)" );
+			cache.release( "VALUES(1)", Statement.NO_GENERATED_KEYS, stmt1);
+			cache.release( "VALUES(2)", Statement.NO_GENERATED_KEYS, stmt2);
+			cache.release( "VALUES(3)", Statement.NO_GENERATED_KEYS, stmt3);
+			//least recently used statement is evicted and closed
+			assertTrue( stmt1.isClosed());
+			assertFalse( stmt2.isClosed());
+			assertEquals( 1, counters.getEvictions());
+			assertEquals( 2, counters.getSize());
+			cache.close();
+		}
+	}
+}
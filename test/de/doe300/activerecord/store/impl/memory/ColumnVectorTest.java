@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 doe300
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package de.doe300.activerecord.store.impl.memory;
+
+import java.util.BitSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author doe300
+ */
+public class ColumnVectorTest extends Assert
+{
+	
+	public ColumnVectorTest()
+	{
+	}
+
+	@Test
+	public void testForType()
+	{
+		assertTrue( ColumnVector.forType( Integer.class) instanceof ColumnVector.IntVector);
+		assertTrue( ColumnVector.forType( Long.class) instanceof ColumnVector.LongVector);
+		assertTrue( ColumnVector.forType( Double.class) instanceof ColumnVector.DoubleVector);
+		assertTrue( ColumnVector.forType( String.class) instanceof ColumnVector.StringVector);
+		assertTrue( ColumnVector.forType( java.sql.Timestamp.class) instanceof ColumnVector.ObjectVector);
+	}
+
+	@Test
+	public void testNumericVector()
+	{
+		final ColumnVector.NumericVector vector = new ColumnVector.IntVector();
+		vector.set( 0, 5);
+		vector.set( 2, -3);
+		vector.set( 1000, 10);
+		assertEquals( 5, vector.get( 0));
+		assertNull( vector.get( 1));
+		assertEquals( 10, vector.get( 1000));
+		vector.set( 0, null);
+		assertNull( vector.get( 0));
+		
+		final BitSet rows = new BitSet();
+		rows.set( 0, 1001);
+		assertEquals( 2, vector.countNotNull( rows ));
+		assertEquals( 7L, vector.sumLong( rows ));
+		assertEquals( 7.0, vector.sumDouble( rows ), 0.0);
+		assertEquals( -3, vector.extremum( rows, false));
+		assertEquals( 10, vector.extremum( rows, true));
+		rows.clear( 1000);
+		assertEquals( -3, vector.extremum( rows, true));
+		rows.clear( 2);
+		assertNull( vector.extremum( rows, true));
+	}
+	
+	@Test
+	public void testDoubleVector()
+	{
+		final ColumnVector.NumericVector vector = new ColumnVector.DoubleVector();
+		vector.set( 0, 1.5);
+		vector.set( 1, 2.5);
+		final BitSet rows = new BitSet();
+		rows.set( 0, 2);
+		//Sum uses the long-value of every single value
+		assertEquals( 3L, vector.sumLong( rows ));
+		assertEquals( 4.0, vector.sumDouble( rows ), 0.0);
+		assertEquals( 1.5, vector.extremum( rows, false));
+	}
+
+	@Test
+	public void testStringVector()
+	{
+		final ColumnVector.StringVector vector = new ColumnVector.StringVector();
+		vector.set( 0, "Adam");
+		vector.set( 1, "Adam");
+		vector.set( 2, "Eve");
+		vector.set( 200, "Steve");
+		assertEquals( "Adam", vector.get( 1));
+		assertNull( vector.get( 3));
+		assertNull( vector.get( 5000));
+		assertEquals( 3, vector.getDictionarySize());
+		
+		//unused strings are removed from the dictionary
+		vector.set( 2, "Adam");
+		vector.set( 200, null);
+		assertEquals( 1, vector.getDictionarySize());
+		vector.set( 3, "Eve");
+		assertEquals( "Eve", vector.get( 3));
+		assertEquals( "Adam", vector.get( 2));
+		assertEquals( 2, vector.getDictionarySize());
+		
+		final BitSet rows = new BitSet();
+		rows.set( 0, 300);
+		assertEquals( 4, vector.countNotNull( rows ));
+	}
+}
@@ -25,12 +25,29 @@
 package de.doe300.activerecord.store.impl.memory;
 
 import de.doe300.activerecord.AssertException;
+import de.doe300.activerecord.dsl.AggregateFunction;
 import de.doe300.activerecord.dsl.Conditions;
 import de.doe300.activerecord.dsl.Orders;
+import de.doe300.activerecord.dsl.functions.Average;
+import de.doe300.activerecord.dsl.functions.CountNotNull;
+import de.doe300.activerecord.dsl.functions.Maximum;
+import de.doe300.activerecord.dsl.functions.Minimum;
+import de.doe300.activerecord.dsl.functions.Sum;
+import de.doe300.activerecord.migration.constraints.Index;
+import de.doe300.activerecord.migration.constraints.IndexType;
+import de.doe300.activerecord.record.ActiveRecord;
 import de.doe300.activerecord.scope.Scope;
+import de.doe300.activerecord.store.NoSuchAttributeException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -45,6 +62,11 @@ public class MemoryTableTest extends Assert implements AssertException
 		new MemoryColumn("age", Integer.class)
 	});
 	
+	private static final MemoryTable indexedTable = new MemoryTable("id", new MemoryColumn[]{
+		new MemoryColumn("name", String.class),
+		new MemoryColumn("age", Integer.class)
+	}, IndexedTable.class.getAnnotationsByType( Index.class));
+	
 	public MemoryTableTest()
 	{
 	}
@@ -157,6 +179,24 @@ public class MemoryTableTest extends Assert implements AssertException
 		table.removeRow( row );
 	}
 
+	@Test(timeout = 10000)
+	public void testFindAllRows_ModifyWhileScanning()
+	{
+		final MemoryTable scanTable = new MemoryTable("id", new MemoryColumn[]{
+			new MemoryColumn("name", String.class),
+			new MemoryColumn("age", Integer.class)
+		});
+		for(int i = 0; i < 1000; i++)
+		{
+			scanTable.insertRow( Collections.singletonMap( "age", i));
+		}
+		//the rows are checked in chunks, but passed on without holding the lock, so the consumer can modify the table
+		final Scope scope = new Scope(Conditions.isSmaller( "age", 600), null, Scope.NO_LIMIT);
+		scanTable.findAllRows( scope ).forEach( (final Map.Entry<Integer, MemoryRow> e) -> scanTable.putValue( e.getKey(), "name", "Scanned"));
+		assertEquals( 600, scanTable.findAllRows( new Scope(Conditions.is( "name", "Scanned"), null, Scope.NO_LIMIT)).count());
+		assertEquals( 600, scanTable.findAllRows( scope ).parallel().count());
+	}
+
 	@Test
 	public void testGetColumnTypes()
 	{
@@ -174,4 +214,293 @@ public class MemoryTableTest extends Assert implements AssertException
 		table.removeRow( row );
 	}
 	
+	@Test
+	public void testIndexLookup()
+	{
+		final int row1 = indexedTable.insertRow();
+		final int row2 = indexedTable.insertRow();
+		final int row3 = indexedTable.insertRow();
+		indexedTable.putValue( row1, "age", 20);
+		indexedTable.putValue( row1, "name", "Adam");
+		final Map<String, Object> values = new HashMap<>(2);
+		values.put( "age", 30);
+		values.put( "name", "Eve");
+		indexedTable.putValues( row2, values);
+		indexedTable.putValue( row3, "age", 40);
+		indexedTable.putValue( row3, "name", "Adam");
+		
+		assertEquals( Arrays.asList( row1, row3), findKeys( new Scope(Conditions.is( "name", "Adam"), Orders.sortAscending( "id"), Scope.NO_LIMIT)));
+		//numbers of different types are equal
+		assertEquals( Collections.singletonList( row2), findKeys( new Scope(Conditions.is( "age", 30L), null, Scope.NO_LIMIT)));
+		assertEquals( Arrays.asList( row1, row2), findKeys( new Scope(Conditions.isIn( "age", Arrays.asList( 20, 30, 50)), Orders.sortAscending( "id"), Scope.NO_LIMIT)));
+		assertEquals( Arrays.asList( row2, row3), findKeys( new Scope(Conditions.isLarger( "age", 20), Orders.sortAscending( "id"), Scope.NO_LIMIT)));
+		assertEquals( Arrays.asList( row1, row2), findKeys( new Scope(Conditions.isSmallerEquals( "age", 30), Orders.sortAscending( "id"), Scope.NO_LIMIT)));
+		assertEquals( Collections.singletonList( row3), findKeys( new Scope(Conditions.and( Conditions.is( "name", "Adam"), 
+				Conditions.is( "age", 40)), null, Scope.NO_LIMIT)));
+		assertEquals( Collections.singletonList( "Adam"), indexedTable.getValues( "name", "age", 20).collect( Collectors.toList()));
+		
+		//ordered by index
+		assertEquals( Arrays.asList( row3, row2, row1), findKeys( new Scope(null, Orders.sortDescending( "age"), Scope.NO_LIMIT)));
+		assertEquals( row1, indexedTable.findFirstRow( new Scope(Conditions.isLarger( "id", -1), Orders.sortAscending( "age"), Scope.NO_LIMIT)).getKey().intValue());
+		
+		//index is updated on changes
+		indexedTable.putValue( row1, "age", 50);
+		assertTrue( findKeys( new Scope(Conditions.is( "age", 20), null, Scope.NO_LIMIT)).isEmpty());
+		assertEquals( Collections.singletonList( row1), findKeys( new Scope(Conditions.is( "age", 50), null, Scope.NO_LIMIT)));
+		indexedTable.removeRow( row1 );
+		assertTrue( findKeys( new Scope(Conditions.is( "age", 50), null, Scope.NO_LIMIT)).isEmpty());
+		indexedTable.removeRow( row2 );
+		indexedTable.removeRow( row3 );
+	}
+	
+	@Test
+	public void testIndexUnknownColumn()
+	{
+		assertThrows( IllegalArgumentException.class, () -> new MemoryTable("id", new MemoryColumn[]{
+			new MemoryColumn("name", String.class)
+		}, IndexedTable.class.getAnnotationsByType( Index.class)));
+	}
+	
+	@Test
+	public void testAggregate()
+	{
+		final MemoryTable aggregateTable = new MemoryTable("id", new MemoryColumn[]{
+			new MemoryColumn("id", Integer.class),
+			new MemoryColumn("name", String.class),
+			new MemoryColumn("age", Integer.class)
+		});
+		for(int i = 1; i <= 10; i++)
+		{
+			final int row = aggregateTable.insertRow();
+			aggregateTable.putValue( row, "age", i);
+			aggregateTable.putValue( row, "name", i % 2 == 0 ? "Adam" : "Eve");
+		}
+		aggregateTable.putValue( aggregateTable.insertRow(), "name", "Steve");
+		
+		final Sum<?, Integer> sum = new Sum<>("age", (ActiveRecord r) -> 0);
+		assertTrue( aggregateTable.supportsAggregate( sum));
+		assertEquals( 55L, aggregateTable.aggregate( sum, null));
+		assertEquals( 30L, aggregateTable.aggregate( sum, Conditions.is( "name", "Adam")));
+		assertEquals( 0L, aggregateTable.aggregate( sum, Conditions.is( "name", "Nobody")));
+		assertEquals( 5.5, (Double)aggregateTable.aggregate( new Average<>("age", (ActiveRecord r) -> 0), null), 0.0);
+		assertNull( aggregateTable.aggregate( new Average<>("age", (ActiveRecord r) -> 0), Conditions.is( "name", "Steve")));
+		assertEquals( 1, aggregateTable.aggregate( new Minimum<>("age", (ActiveRecord r) -> 0), null));
+		assertEquals( 10, aggregateTable.aggregate( new Maximum<>("age", (ActiveRecord r) -> 0), null));
+		assertEquals( 11L, aggregateTable.aggregate( new CountNotNull<>("name", (ActiveRecord r) -> ""), null));
+		
+		//non-numeric columns are aggregated on the row-maps
+		assertFalse( aggregateTable.supportsAggregate( new Minimum<>("name", (ActiveRecord r) -> "")));
+		assertThrows( IllegalArgumentException.class, () -> aggregateTable.aggregate( new Minimum<>("name", (ActiveRecord r) -> ""), null));
+	}
+	
+	@Test
+	public void testAggregateGrouped()
+	{
+		final MemoryTable aggregateTable = new MemoryTable("id", new MemoryColumn[]{
+			new MemoryColumn("id", Integer.class),
+			new MemoryColumn("name", String.class),
+			new MemoryColumn("age", Integer.class)
+		});
+		for(int i = 1; i <= 10; i++)
+		{
+			final int row = aggregateTable.insertRow();
+			aggregateTable.putValue( row, "age", i);
+			aggregateTable.putValue( row, "name", i % 2 == 0 ? "Adam" : "Eve");
+		}
+		aggregateTable.putValue( aggregateTable.insertRow(), "age", 100);
+		
+		final Map<List<Object>, Object[]> groups = aggregateTable.aggregateGrouped( new String[]{"name"}, new AggregateFunction<?, ?, ?, ?>[]{
+			new Sum<>("age", (ActiveRecord r) -> 0), new Minimum<>("name", (ActiveRecord r) -> "")
+		}, null);
+		assertEquals( 3, groups.size());
+		//groups are in the order of their first row
+		assertEquals( Arrays.asList( "Eve", "Adam", null), groups.keySet().stream().map( (List<Object> key) -> key.get( 0)).
+				collect( Collectors.toList()));
+		assertArrayEquals( new Object[]{30L, "Adam"}, groups.get( Collections.singletonList( "Adam")));
+		assertArrayEquals( new Object[]{25L, "Eve"}, groups.get( Collections.singletonList( "Eve")));
+		assertArrayEquals( new Object[]{100L, null}, groups.get( Collections.singletonList( null)));
+		
+		assertEquals( Collections.singleton( Collections.singletonList( "Adam")), aggregateTable.aggregateGrouped( new String[]{"name"}, 
+				new AggregateFunction<?, ?, ?, ?>[0], Conditions.is( "name", "Adam")).keySet());
+		assertThrows( NoSuchAttributeException.class, () -> aggregateTable.aggregateGrouped( new String[]{"no_such_column"}, 
+				new AggregateFunction<?, ?, ?, ?>[0], null));
+	}
+	
+	@Test
+	public void testSnapshot()
+	{
+		final MemoryTable snapshotTable = new MemoryTable("id", new MemoryColumn[]{
+			new MemoryColumn("name", String.class)
+		});
+		final int row1 = snapshotTable.insertRow( Collections.singletonMap( "name", "Adam"));
+		final int row2 = snapshotTable.insertRow( Collections.singletonMap( "name", "Eve"));
+		
+		final Iterator<Map.Entry<Integer, MemoryRow>> rows = snapshotTable.findAllRows( new Scope(null, null, Scope.NO_LIMIT)).iterator();
+		assertEquals( row1, rows.next().getKey().intValue());
+		//rows removed after the start of the scan are still visible, inserted ones are not
+		snapshotTable.removeRow( row2 );
+		snapshotTable.insertRow( Collections.singletonMap( "name", "Steve"));
+		final Map.Entry<Integer, MemoryRow> second = rows.next();
+		assertEquals( row2, second.getKey().intValue());
+		assertEquals( "Eve", second.getValue().getRowValue( "name"));
+		assertFalse( rows.hasNext());
+		
+		//new scans see the changes
+		assertEquals( 2, snapshotTable.findAllRows( new Scope(null, null, Scope.NO_LIMIT)).count());
+		assertNull( snapshotTable.getValue( row2, "name"));
+	}
+	
+	@Test
+	public void testConcurrentAccess() throws InterruptedException
+	{
+		final MemoryTable concurrentTable = new MemoryTable("id", new MemoryColumn[]{
+			new MemoryColumn("age", Integer.class)
+		}, new Index[]{IndexedTable.class.getAnnotationsByType( Index.class)[0]});
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++)
+		{
+			final boolean writer = t % 2 == 0;
+			threads[t] = new Thread(() -> 
+			{
+				try
+				{
+					for(int i = 0; i < 500; i++)
+					{
+						if(writer)
+						{
+							final int row = concurrentTable.insertRow( Collections.singletonMap( "age", i));
+							concurrentTable.putValue( row, "age", i + 1);
+							if(i % 3 == 0)
+							{
+								concurrentTable.removeRow( row );
+							}
+						}
+						else
+						{
+							concurrentTable.findAllRows( new Scope(Conditions.isLarger( "age", 10), Orders.sortAscending( "age"), Scope.NO_LIMIT)).count();
+						}
+					}
+				}
+				catch(final Throwable e)
+				{
+					error.set( e );
+				}
+			});
+			threads[t].start();
+		}
+		for(final Thread thread : threads)
+		{
+			thread.join();
+		}
+		assertNull( error.get());
+		assertEquals( 2 * 333, concurrentTable.findAllRows( new Scope(null, null, Scope.NO_LIMIT)).count());
+	}
+	
+	@Test
+	public void testParallelScan()
+	{
+		final MemoryTable parallelTable = new MemoryTable("id", new MemoryColumn[]{
+			new MemoryColumn("age", Integer.class)
+		});
+		long expectedSum = 0;
+		for(int i = 0; i < 2000; i++)
+		{
+			parallelTable.insertRow( Collections.singletonMap( "age", i));
+			expectedSum += i;
+		}
+		final Spliterator<Map.Entry<Integer, MemoryRow>> spliterator = parallelTable.findAllRows( new Scope(null, null, Scope.NO_LIMIT)).spliterator();
+		assertTrue( spliterator.hasCharacteristics( Spliterator.SIZED));
+		assertEquals( 2000, spliterator.getExactSizeIfKnown());
+		final Spliterator<Map.Entry<Integer, MemoryRow>> prefix = spliterator.trySplit();
+		assertNotNull( prefix );
+		assertEquals( 2000, prefix.estimateSize() + spliterator.estimateSize());
+		//without removed rows, the sizes of the parts are exact
+		assertTrue( spliterator.hasCharacteristics( Spliterator.SUBSIZED));
+		assertFalse( spliterator.hasCharacteristics( Spliterator.IMMUTABLE));
+		assertEquals( 1000, prefix.getExactSizeIfKnown());
+		assertEquals( 1000, spliterator.getExactSizeIfKnown());
+		//with removed rows, only the size of the whole snapshot is known
+		parallelTable.removeRow( 0 );
+		final Spliterator<Map.Entry<Integer, MemoryRow>> sparse = parallelTable.findAllRows( new Scope(null, null, Scope.NO_LIMIT)).spliterator();
+		assertFalse( sparse.hasCharacteristics( Spliterator.SUBSIZED));
+		assertEquals( 1999, sparse.getExactSizeIfKnown());
+		assertNotNull( sparse.trySplit());
+		assertEquals( -1, sparse.getExactSizeIfKnown());
+		
+		assertEquals( 1999, parallelTable.findAllRows( new Scope(null, null, Scope.NO_LIMIT)).parallel().count());
+		assertEquals( expectedSum, parallelTable.findAllRows( new Scope(null, null, Scope.NO_LIMIT)).parallel().
+				mapToLong( (final Map.Entry<Integer, MemoryRow> e) -> ((Integer)e.getValue().getRowValue( "age")).longValue()).sum());
+		assertEquals( 1000, parallelTable.findAllRows( new Scope(Conditions.isLargerEquals( "age", 1000), null, Scope.NO_LIMIT)).
+				parallel().count());
+	}
+	
+	@Test
+	public void testKeysetLookup()
+	{
+		final MemoryTable keysetTable = new MemoryTable("id", new MemoryColumn[]{
+			new MemoryColumn("age", Integer.class)
+		}, new Index[]{IndexedTable.class.getAnnotationsByType( Index.class)[0]});
+		for(int i = 0; i < 100; i++)
+		{
+			keysetTable.insertRow( Collections.singletonMap( "age", i % 10));
+		}
+		//range of the sorted index, in order
+		assertEquals( Arrays.asList( 8, 8, 8), keysetTable.findAllRows( new Scope(Conditions.isLarger( "age", 7), 
+				Orders.sortAscending( "age"), 3)).map( (final Map.Entry<Integer, MemoryRow> e) -> e.getValue().getRowValue( "age")).
+				collect( Collectors.toList()));
+		assertEquals( Arrays.asList( 2, 1), keysetTable.findAllRows( new Scope(Conditions.isSmaller( "age", 3), 
+				Orders.sortDescending( "age"), 11)).map( (final Map.Entry<Integer, MemoryRow> e) -> e.getValue().getRowValue( "age")).
+				distinct().collect( Collectors.toList()));
+		//lower bound of the primary key
+		assertEquals( Arrays.asList( 96, 97, 98, 99), keysetTable.findAllRows( new Scope(Conditions.isLarger( "id", 95), null, 
+				Scope.NO_LIMIT)).map( Map.Entry::getKey).collect( Collectors.toList()));
+		//keyset-condition over multiple columns
+		final Map<String, Object> lastRow = new HashMap<>(2);
+		lastRow.put( "age", 9);
+		lastRow.put( "id", 89);
+		final Scope next = new Scope(null, Orders.sortAscending( "age").thenComparing( Orders.sortAscending( "id")), 5).after( lastRow, MemoryDBDriver.INSTANCE );
+		assertEquals( Arrays.asList( 99), keysetTable.findAllRows( next ).map( Map.Entry::getKey).collect( Collectors.toList()));
+	}
+	
+	@Test
+	public void testIndexedOrder()
+	{
+		final MemoryTable orderedTable = new MemoryTable("id", new MemoryColumn[]{
+			new MemoryColumn("age", Integer.class)
+		}, new Index[]{IndexedTable.class.getAnnotationsByType( Index.class)[0]});
+		final MemoryTable unindexedTable = new MemoryTable("id", new MemoryColumn[]{
+			new MemoryColumn("age", Integer.class)
+		});
+		final Integer[] ages = {2, null, 1, 2, null, 1, 2};
+		final int[] keys = new int[ages.length];
+		for(int i = 0; i < ages.length; i++)
+		{
+			keys[i] = orderedTable.insertRow( Collections.singletonMap( "age", ages[i]));
+			unindexedTable.insertRow( Collections.singletonMap( "age", ages[i]));
+		}
+		//null is sorted low, rows with the same value are ordered by their primary key
+		final Scope ascending = new Scope(null, Orders.sortAscending( "age"), Scope.NO_LIMIT);
+		assertEquals( Arrays.asList( keys[1], keys[4], keys[2], keys[5], keys[0], keys[3], keys[6]), 
+				orderedTable.findAllRows( ascending ).map( Map.Entry::getKey).collect( Collectors.toList()));
+		final Scope descending = new Scope(null, Orders.sortDescending( "age"), Scope.NO_LIMIT);
+		assertEquals( Arrays.asList( keys[0], keys[3], keys[6], keys[2], keys[5], keys[1], keys[4]), 
+				orderedTable.findAllRows( descending ).map( Map.Entry::getKey).collect( Collectors.toList()));
+		//same order as without the index
+		assertEquals( unindexedTable.findAllRows( ascending ).map( Map.Entry::getKey).collect( Collectors.toList()), 
+				orderedTable.findAllRows( ascending ).map( Map.Entry::getKey).collect( Collectors.toList()));
+		assertEquals( unindexedTable.findAllRows( descending ).map( Map.Entry::getKey).collect( Collectors.toList()), 
+				orderedTable.findAllRows( descending ).map( Map.Entry::getKey).collect( Collectors.toList()));
+	}
+	
+	private static List<Integer> findKeys(final Scope scope)
+	{
+		return indexedTable.findAllRows( scope ).map( Map.Entry::getKey).collect( Collectors.toList());
+	}
+	
+	@Index(name = "age_index", columns = {"AGE"}, type = IndexType.DEFAULT)
+	@Index(name = "name_age_index", columns = {"name", "age"}, type = IndexType.UNIQUE)
+	private static interface IndexedTable
+	{
+	}
 }
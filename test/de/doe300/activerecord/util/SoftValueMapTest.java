@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 doe300.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package de.doe300.activerecord.util;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author doe300
+ * @since 0.9
+ */
+public class SoftValueMapTest extends Assert
+{
+	public SoftValueMapTest()
+	{
+	}
+
+	@Test
+	public void testPutGet()
+	{
+		final SoftValueMap<Integer, String> map = new SoftValueMap<>();
+		assertNull( map.get( 1));
+		assertNull( map.put( 1, "One"));
+		assertEquals( "One", map.get( 1));
+		assertEquals( "One", map.put( 1, "Eins"));
+		assertEquals( "Eins", map.get( 1));
+		assertEquals( 1, map.size());
+	}
+
+	@Test
+	public void testRemove()
+	{
+		final SoftValueMap<Integer, String> map = new SoftValueMap<>();
+		map.put( 1, "One");
+		assertEquals( "One", map.remove( 1));
+		assertNull( map.get( 1));
+		assertNull( map.remove( 1));
+	}
+
+	@Test
+	public void testValues()
+	{
+		final SoftValueMap<Integer, String> map = new SoftValueMap<>();
+		map.put( 1, "One");
+		map.put( 2, "Two");
+		final List<String> values = map.values();
+		assertEquals( 2, values.size());
+		assertTrue( values.containsAll( Arrays.asList( "One", "Two")));
+		map.clear();
+		assertTrue( map.values().isEmpty());
+		assertEquals( 0, map.size());
+	}
+}